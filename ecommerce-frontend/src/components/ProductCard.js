@@ -9,6 +9,8 @@ const ProductCard = ({ product, onAddToCart, currentUser }) => {
     onAddToCart(product);
   };
 
+  const outOfStock = product.stock === 0;
+
   const formatPrice = (price) => {
     return new Intl.NumberFormat('pt-BR', {
       style: 'currency',
@@ -29,6 +31,9 @@ const ProductCard = ({ product, onAddToCart, currentUser }) => {
           <p className="card-text text-muted small flex-grow-1">
             {product.description}
           </p>
+          {outOfStock && (
+            <span className="badge bg-secondary mb-2 align-self-start">Esgotado</span>
+          )}
           <div className="mt-auto">
             <div className="d-flex justify-content-between align-items-center">
               <span className="h5 text-primary mb-0">
@@ -37,7 +42,7 @@ const ProductCard = ({ product, onAddToCart, currentUser }) => {
               <button 
                 className="btn btn-primary btn-sm"
                 onClick={handleAddToCart}
-                disabled={!currentUser}
+                disabled={!currentUser || outOfStock}
               >
                 <i className="fas fa-cart-plus me-1"></i>
                 Adicionar
@@ -1,4 +1,4 @@
-import React, { useState, useEffect } from 'react';
+import React, { useState, useEffect, useRef } from 'react';
 import { cartService, orderService } from '../services/api';
 
 const CartPage = ({ currentUser, onCartUpdate }) => {
@@ -6,6 +6,8 @@ const CartPage = ({ currentUser, onCartUpdate }) => {
   const [loading, setLoading] = useState(true);
   const [total, setTotal] = useState(0);
   const [checkingOut, setCheckingOut] = useState(false);
+  // Chave do checkout atual: reaproveitada se a tentativa cair sem resposta do servidor
+  const checkoutKey = useRef(null);
 
   useEffect(() => {
     if (currentUser) {
@@ -82,8 +84,12 @@ const CartPage = ({ currentUser, onCartUpdate }) => {
     }
 
     setCheckingOut(true);
+    if (!checkoutKey.current) {
+      checkoutKey.current = crypto.randomUUID();
+    }
     try {
-      const response = await cartService.checkout(currentUser.id);
+      const response = await cartService.checkout(currentUser.id, checkoutKey.current);
+      checkoutKey.current = null;
       if (response.data.success) {
         alert(`${response.data.message}\nPedido #${response.data.orderId}\nTotal: ${formatPrice(response.data.total)}`);
         loadCartItems();
@@ -93,7 +99,14 @@ const CartPage = ({ currentUser, onCartUpdate }) => {
       }
     } catch (error) {
       console.error('Erro ao finalizar pedido:', error);
-      alert('Erro ao finalizar pedido');
+      if (error.response) {
+        checkoutKey.current = null;
+      }
+      if (error.response?.status === 429) {
+        alert('Muitas tentativas seguidas; aguarde alguns segundos e tente de novo');
+      } else {
+        alert('Erro ao finalizar pedido');
+      }
     } finally {
       setCheckingOut(false);
     }
@@ -15,9 +15,32 @@ const OrdersPage = ({ currentUser }) => {
     }
   }, [currentUser]);
 
-  const loadOrders = async () => {
+  // Atualizações chegam pelo stream de eventos, sem recarregar a lista periodicamente
+  useEffect(() => {
+    if (!currentUser) {
+      return undefined;
+    }
+
+    const source = orderService.stream(currentUser.id);
+    source.addEventListener('order', (message) => {
+      const event = JSON.parse(message.data);
+      if (event.type === 'STATUS_CHANGED') {
+        setOrders(current => current.map(order =>
+          order.id === event.orderId ? { ...order, status: event.status } : order));
+      } else if (event.type === 'DELETED') {
+        setOrders(current => current.filter(order => order.id !== event.orderId));
+      } else {
+        loadOrders(false);
+      }
+    });
+    // Eventos perdidos (conexão lenta ou reconexão): recarrega a lista inteira
+    source.addEventListener('resync', () => loadOrders(false));
+    return () => source.close();
+  }, [currentUser]);
+
+  const loadOrders = async (showSpinner = true) => {
     try {
-      setLoading(true);
+      setLoading(showSpinner);
       const response = await orderService.getByUser(currentUser.id);
       setOrders(response.data);
     } catch (error) {
@@ -30,9 +53,9 @@ const OrdersPage = ({ currentUser }) => {
 
   const updateOrderStatus = async (orderId, newStatus) => {
     try {
-      await orderService.updateStatus(orderId, newStatus);
+      const response = await orderService.updateStatus(orderId, newStatus);
+      setOrders(current => current.map(order => order.id === orderId ? response.data : order));
       alert('Status atualizado com sucesso!');
-      loadOrders();
     } catch (error) {
       console.error('Erro ao atualizar status:', error);
       alert('Erro ao atualizar status');
@@ -16,7 +16,7 @@ export const productService = {
   create: (product) => api.post('/products', product),
   update: (id, product) => api.put(`/products/${id}`, product),
   delete: (id) => api.delete(`/products/${id}`),
-  search: (name) => api.get(`/products/search?name=${name}`),
+  search: (query) => api.get('/products/search', { params: { q: query } }),
   getByPriceRange: (minPrice, maxPrice) => 
     api.get(`/products/price-range?minPrice=${minPrice}&maxPrice=${maxPrice}`)
 };
@@ -39,7 +39,11 @@ export const cartService = {
   removeItem: (itemId) => api.delete(`/cart/${itemId}`),
   clearCart: (userId) => api.delete(`/cart/user/${userId}`),
   getTotal: (userId) => api.get(`/cart/user/${userId}/total`),
-  checkout: (userId) => api.post(`/cart/user/${userId}/checkout`)
+  // A mesma idempotencyKey em um retry devolve o pedido já criado, sem duplicar
+  checkout: (userId, idempotencyKey) =>
+    api.post(`/cart/user/${userId}/checkout`, null, {
+      headers: idempotencyKey ? { 'Idempotency-Key': idempotencyKey } : {}
+    })
 };
 
 // Pedidos
@@ -50,7 +54,9 @@ export const orderService = {
   createFromCart: (userId) => api.post(`/orders/create-from-cart/${userId}`),
   updateStatus: (orderId, status) => 
     api.put(`/orders/${orderId}/status`, { status }),
-  delete: (id) => api.delete(`/orders/${id}`)
+  delete: (id) => api.delete(`/orders/${id}`),
+  // Eventos de pedido do usuário (Server-Sent Events)
+  stream: (userId) => new EventSource(`${API_BASE_URL}/orders/stream?userId=${userId}`)
 };
 
 export default api;
\ No newline at end of file
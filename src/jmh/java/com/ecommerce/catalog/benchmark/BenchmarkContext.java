@@ -0,0 +1,94 @@
+package com.ecommerce.catalog.benchmark;
+
+import com.ecommerce.catalog.EcommerceApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Sobe a aplicação sem servidor web, sobre um H2 em memória exclusivo do benchmark,
+// e popula as tabelas direto por JDBC em lotes
+final class BenchmarkContext {
+
+    private static final int SEED_BATCH_SIZE = 10_000;
+
+    // Estoque folgado o bastante para os checkouts repetidos do benchmark não esgotarem
+    private static final int SEED_STOCK = 1_000_000_000;
+
+    private BenchmarkContext() {}
+
+    static ConfigurableApplicationContext start(String name, String... extraProperties) {
+        return start(WebApplicationType.NONE, name, extraProperties);
+    }
+
+    // Com Tomcat em porta aleatória, para benchmarks que passam pela camada HTTP
+    static ConfigurableApplicationContext startServer(String name, String... extraProperties) {
+        List<String> properties = new ArrayList<>(List.of(extraProperties));
+        properties.add("server.port=0");
+        properties.add("server.address=127.0.0.1");
+        return start(WebApplicationType.SERVLET, name, properties.toArray(new String[0]));
+    }
+
+    static int port(ConfigurableApplicationContext context) {
+        return Integer.parseInt(context.getEnvironment().getRequiredProperty("local.server.port"));
+    }
+
+    private static ConfigurableApplicationContext start(WebApplicationType type, String name, String... extraProperties) {
+        System.setProperty("spring.devtools.restart.enabled", "false");
+
+        List<String> properties = new ArrayList<>(List.of(
+            "spring.datasource.url=jdbc:h2:mem:bench-" + name + ";DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+            "spring.jpa.show-sql=false",
+            "spring.main.banner-mode=off",
+            "logging.level.root=WARN",
+            "logging.level.org.hibernate.SQL=WARN",
+            "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+            "logging.level.org.springframework.web=WARN"
+        ));
+        properties.addAll(List.of(extraProperties));
+
+        // Como argumentos de linha de comando, para prevalecer sobre o application.properties
+        return new SpringApplicationBuilder(EcommerceApplication.class)
+                .web(type)
+                .run(properties.stream().map(property -> "--" + property).toArray(String[]::new));
+    }
+
+    static void seedProducts(JdbcTemplate jdbc, int rows) {
+        Random random = new Random(42);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> batch = new ArrayList<>(SEED_BATCH_SIZE);
+        for (int i = 0; i < rows; i++) {
+            BigDecimal price = BigDecimal.valueOf(100 + random.nextInt(500_000), 2);
+            batch.add(new Object[] { "Produto " + i, price, "Descrição do produto " + i, SEED_STOCK, now, now });
+            if (batch.size() == SEED_BATCH_SIZE || i == rows - 1) {
+                jdbc.batchUpdate("INSERT INTO products (name, price, description, stock, created_at, updated_at) " +
+                        "VALUES (?, ?, ?, ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+    }
+
+    static long createUser(JdbcTemplate jdbc, String email) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbc.update("INSERT INTO users (name, email, created_at, updated_at) VALUES (?, ?, ?, ?)",
+                "Cliente Benchmark", email, now, now);
+        return jdbc.queryForObject("SELECT id FROM users WHERE email = ?", Long.class, email);
+    }
+
+    // Carrinho com os produtos de id 1..lines (sempre existentes após seedProducts)
+    static void fillCart(JdbcTemplate jdbc, long userId, int lines) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> batch = new ArrayList<>(lines);
+        for (long productId = 1; productId <= lines; productId++) {
+            batch.add(new Object[] { userId, productId, 2, now });
+        }
+        jdbc.batchUpdate("INSERT INTO cart_items (user_id, product_id, quantity, added_at) VALUES (?, ?, ?, ?)", batch);
+    }
+}
@@ -0,0 +1,47 @@
+package com.ecommerce.catalog.benchmark;
+
+import com.ecommerce.catalog.service.CartService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CartServiceBenchmark {
+
+    private static final int CART_LINES = 20;
+
+    @Param({"10000", "100000", "1000000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private CartService cartService;
+    private long userId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("cart-" + rows);
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        BenchmarkContext.seedProducts(jdbc, rows);
+        userId = BenchmarkContext.createUser(jdbc, "carrinho@benchmark.com");
+        BenchmarkContext.fillCart(jdbc, userId, CART_LINES);
+        cartService = context.getBean(CartService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public BigDecimal getCartTotal() {
+        return cartService.getCartTotal(userId);
+    }
+}
@@ -0,0 +1,55 @@
+package com.ecommerce.catalog.benchmark;
+
+import com.ecommerce.catalog.dto.OrderDTO;
+import com.ecommerce.catalog.service.OrderService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+// Cada invocação precisa de um carrinho cheio: o preenchimento fica no setup por
+// invocação (fora da medição), o que só é aceitável porque o checkout leva milissegundos
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CheckoutBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    private int rows;
+
+    @Param({"1", "20", "200"})
+    private int cartLines;
+
+    private ConfigurableApplicationContext context;
+    private JdbcTemplate jdbc;
+    private OrderService orderService;
+    private long userId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("checkout-" + rows + "-" + cartLines);
+        jdbc = context.getBean(JdbcTemplate.class);
+        BenchmarkContext.seedProducts(jdbc, rows);
+        userId = BenchmarkContext.createUser(jdbc, "checkout@benchmark.com");
+        orderService = context.getBean(OrderService.class);
+    }
+
+    @Setup(Level.Invocation)
+    public void fillCart() {
+        BenchmarkContext.fillCart(jdbc, userId, cartLines);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public OrderDTO createOrderFromCart() {
+        return orderService.createOrderFromCart(userId);
+    }
+}
@@ -0,0 +1,70 @@
+package com.ecommerce.catalog.benchmark;
+
+import com.ecommerce.catalog.money.Money;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Total de um carrinho (preço x quantidade de cada linha, somados), como no checkout e
+// no total do carrinho:
+//   bigDecimal     -> multiply + add, como era antes do Money
+//   money          -> Money a partir do preço da entidade (já em centavos)
+//   moneyFromPrice -> Money a partir do BigDecimal do ProductDTO em cache
+// Rodar com -prof gc: gc.alloc.rate.norm é o número de bytes alocados por total.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MoneyBenchmark {
+
+    @Param({"20"})
+    private int lines;
+
+    private BigDecimal[] prices;
+    private Money[] moneyPrices;
+    private int[] quantities;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        prices = new BigDecimal[lines];
+        moneyPrices = new Money[lines];
+        quantities = new int[lines];
+        for (int i = 0; i < lines; i++) {
+            prices[i] = BigDecimal.valueOf(100 + random.nextInt(500_000), 2);
+            moneyPrices[i] = Money.of(prices[i]);
+            quantities[i] = 1 + random.nextInt(5);
+        }
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimal() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < lines; i++) {
+            total = total.add(prices[i].multiply(BigDecimal.valueOf(quantities[i])));
+        }
+        return total;
+    }
+
+    @Benchmark
+    public Money money() {
+        Money total = Money.ZERO;
+        for (int i = 0; i < lines; i++) {
+            total = total.plus(moneyPrices[i].times(quantities[i]));
+        }
+        return total;
+    }
+
+    @Benchmark
+    public Money moneyFromPrice() {
+        Money total = Money.ZERO;
+        for (int i = 0; i < lines; i++) {
+            total = total.plus(Money.of(prices[i]).times(quantities[i]));
+        }
+        return total;
+    }
+}
@@ -0,0 +1,173 @@
+package com.ecommerce.catalog.benchmark;
+
+import com.ecommerce.catalog.collection.LongLongHashMap;
+import com.ecommerce.catalog.collection.LongObjectHashMap;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Mapas por id do pacote collection x HashMap / ConcurrentHashMap, com 1 milhão de ids
+// sequenciais (como os do banco):
+//   get / put  -> leituras e sobrescritas de ids em ordem aleatória (ops/s)
+//   fill       -> montar o mapa do zero (ms); retainedBytes é o heap retido pelo mapa pronto
+// Nos mapas long -> objeto o valor é um único objeto compartilhado, então retainedBytes é só
+// o custo do mapa; no HashMap<Long, Long> entram também os Long dos valores.
+// O JMH soma retainedBytes das iterações de medição: o valor por mapa é o total / 5.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class PrimitiveMapBenchmark {
+
+    private static final int BATCH = 1024;
+    private static final Object VALUE = new Object();
+
+    @Param({"1000000"})
+    private int size;
+
+    @Param({"LongObjectHashMap", "HashMap", "ConcurrentHashMap", "LongLongHashMap", "HashMapLongLong"})
+    private String map;
+
+    private IdMap ids;
+    private long[] order;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ids = fill(newMap(map), size);
+
+        // Permutação dos ids, percorrida em blocos de BATCH
+        Random random = new Random(42);
+        order = new long[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i + 1;
+        }
+        for (int i = size - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            long swap = order[i];
+            order[i] = order[j];
+            order[j] = swap;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public long get() {
+        long found = 0;
+        int start = nextBatch();
+        for (int i = start; i < start + BATCH; i++) {
+            found += ids.get(order[i]);
+        }
+        return found;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void put() {
+        int start = nextBatch();
+        for (int i = start; i < start + BATCH; i++) {
+            ids.put(order[i], i);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public void fill(Footprint footprint) {
+        footprint.filled = fill(newMap(map), size);
+    }
+
+    // Heap retido pelo mapa montado em fill: heap usado após GC, antes e depois. As coletas
+    // ficam fora do tempo medido.
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+
+        public long retainedBytes;
+
+        private IdMap filled;
+        private long before;
+
+        @Setup(Level.Invocation)
+        public void measureBefore() {
+            before = usedHeap();
+        }
+
+        @TearDown(Level.Invocation)
+        public void measureAfter() {
+            retainedBytes = usedHeap() - before;
+            filled = null;
+        }
+    }
+
+    private int nextBatch() {
+        int start = cursor;
+        cursor = start + BATCH >= size - BATCH ? 0 : start + BATCH;
+        return start;
+    }
+
+    private static IdMap fill(IdMap target, int size) {
+        for (long id = 1; id <= size; id++) {
+            target.put(id, id);
+        }
+        return target;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static IdMap newMap(String type) {
+        return switch (type) {
+            case "LongObjectHashMap" -> {
+                LongObjectHashMap<Object> target = new LongObjectHashMap<>();
+                yield new IdMap() {
+                    public long get(long key) { return target.get(key) != null ? 1 : 0; }
+                    public void put(long key, long value) { target.put(key, VALUE); }
+                };
+            }
+            case "HashMap" -> objectMap(new HashMap<>());
+            case "ConcurrentHashMap" -> objectMap(new ConcurrentHashMap<>());
+            case "LongLongHashMap" -> {
+                LongLongHashMap target = new LongLongHashMap();
+                yield new IdMap() {
+                    public long get(long key) { return target.get(key, 0); }
+                    public void put(long key, long value) { target.put(key, value); }
+                };
+            }
+            case "HashMapLongLong" -> {
+                Map<Long, Long> target = new HashMap<>();
+                yield new IdMap() {
+                    public long get(long key) { return target.get(key); }
+                    public void put(long key, long value) { target.put(key, value); }
+                };
+            }
+            default -> throw new IllegalArgumentException(type);
+        };
+    }
+
+    private static IdMap objectMap(Map<Long, Object> target) {
+        return new IdMap() {
+            public long get(long key) { return target.get(key) != null ? 1 : 0; }
+            public void put(long key, long value) { target.put(key, VALUE); }
+        };
+    }
+
+    public interface IdMap {
+        long get(long key);
+
+        void put(long key, long value);
+    }
+}
@@ -0,0 +1,74 @@
+package com.ecommerce.catalog.benchmark;
+
+import com.ecommerce.catalog.config.CacheConfig;
+import com.ecommerce.catalog.dto.CursorPage;
+import com.ecommerce.catalog.dto.ProductDTO;
+import com.ecommerce.catalog.service.ProductService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductServiceBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private ProductService productService;
+    private CacheManager cacheManager;
+
+    // Posição de cada percurso paginado; null: primeira página
+    private String idCursor;
+    private String priceCursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("products-" + rows);
+        BenchmarkContext.seedProducts(context.getBean(JdbcTemplate.class), rows);
+        productService = context.getBean(ProductService.class);
+        cacheManager = context.getBean(CacheManager.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    // A lista legada lê no máximo CursorPage.LEGACY_LIMIT linhas, seja qual for rows
+    @Benchmark
+    public List<ProductDTO> getAllProductsCached() {
+        return productService.getAllProducts();
+    }
+
+    @Benchmark
+    public List<ProductDTO> getAllProductsUncached() {
+        cacheManager.getCache(CacheConfig.PRODUCT_LIST).clear();
+        return productService.getAllProducts();
+    }
+
+    // Percorre o catálogo inteiro como um cliente seguindo nextCursor, voltando ao início no
+    // fim: cada chamada é uma página de qualquer ponto da tabela, e o custo do seek aparece com rows
+    @Benchmark
+    public CursorPage<ProductDTO> walkPagesById() {
+        CursorPage<ProductDTO> page = productService.getProductsPage(idCursor, CursorPage.MAX_LIMIT, "id");
+        idCursor = page.getNextCursor();
+        return page;
+    }
+
+    @Benchmark
+    public CursorPage<ProductDTO> walkPagesByPrice() {
+        CursorPage<ProductDTO> page = productService.getProductsPage(priceCursor, CursorPage.MAX_LIMIT, "price");
+        priceCursor = page.getNextCursor();
+        return page;
+    }
+}
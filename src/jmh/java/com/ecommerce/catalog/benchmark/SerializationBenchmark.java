@@ -0,0 +1,70 @@
+package com.ecommerce.catalog.benchmark;
+
+import com.ecommerce.catalog.dto.OrderDTO;
+import com.ecommerce.catalog.dto.OrderItemDTO;
+import com.ecommerce.catalog.dto.ProductDTO;
+import com.ecommerce.catalog.entity.Order;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Serialização das listas devolvidas por GET /api/products e GET /api/orders
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    private static final int ITEMS_PER_ORDER = 5;
+
+    @Param({"100", "1000", "10000"})
+    private int size;
+
+    // Mesmos módulos que o Spring Boot registra (JavaTimeModule etc.)
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+
+    private List<ProductDTO> products;
+    private List<OrderDTO> orders;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        products = new ArrayList<>(size);
+        orders = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            ProductDTO product = new ProductDTO("Produto " + i, BigDecimal.valueOf(1000 + i, 2), "Descrição do produto " + i);
+            product.setId((long) i);
+            products.add(product);
+
+            OrderDTO order = new OrderDTO((long) i);
+            order.setId((long) i);
+            order.setUserName("Cliente " + i);
+            order.setStatus(Order.OrderStatus.PENDING);
+            order.setCreatedAt(LocalDateTime.now());
+            List<OrderItemDTO> items = new ArrayList<>(ITEMS_PER_ORDER);
+            for (int j = 0; j < ITEMS_PER_ORDER; j++) {
+                items.add(new OrderItemDTO((long) j, "Produto " + j, 2, new BigDecimal("10.00"), new BigDecimal("20.00")));
+            }
+            order.setItems(items);
+            order.setTotalAmount(new BigDecimal("100.00"));
+            orders.add(order);
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeProducts() throws Exception {
+        return objectMapper.writeValueAsBytes(products);
+    }
+
+    @Benchmark
+    public byte[] serializeOrders() throws Exception {
+        return objectMapper.writeValueAsBytes(orders);
+    }
+}
@@ -0,0 +1,150 @@
+package com.ecommerce.catalog.benchmark;
+
+import com.ecommerce.catalog.service.OrderService;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+// Teste de carga (não é JMH): sobe a aplicação com threads de plataforma e depois com
+// threads virtuais e dispara N clientes simultâneos contra /api/cart e /api/orders.
+// Cada cliente faz suas requisições em sequência, então há sempre N requisições em voo.
+//
+//   mvn -Pbenchmark test-compile exec:exec@load
+//   mvn -Pbenchmark test-compile exec:exec@load -Dload.clients=1000 -Dload.requests=20
+//
+// O modo virtual só é executado em Java 21+.
+public final class ThreadModelLoadBenchmark {
+
+    private static final int CLIENTS = Integer.getInteger("load.clients", 5000);
+    private static final int REQUESTS_PER_CLIENT = Integer.getInteger("load.requests", 10);
+    private static final int USERS = 1000;
+    private static final int PRODUCTS = 10_000;
+    private static final int CART_LINES = 5;
+
+    private ThreadModelLoadBenchmark() {}
+
+    public static void main(String[] args) {
+        List<String> report = new ArrayList<>();
+        report.add(String.format("%-9s %-24s %10s %9s %9s %9s %8s",
+                "threads", "endpoint", "req/s", "p50 ms", "p95 ms", "p99 ms", "erros"));
+
+        run(false, report);
+        if (Runtime.version().feature() >= 21) {
+            run(true, report);
+        } else {
+            report.add("virtual   (ignorado: requer Java 21, executando em " + Runtime.version() + ")");
+        }
+
+        System.out.println();
+        System.out.println(CLIENTS + " clientes x " + REQUESTS_PER_CLIENT + " requisições por endpoint");
+        report.forEach(System.out::println);
+    }
+
+    private static void run(boolean virtual, List<String> report) {
+        String mode = virtual ? "virtual" : "platform";
+        ConfigurableApplicationContext context = BenchmarkContext.startServer("load-" + mode,
+                "spring.threads.virtual.enabled=" + virtual);
+        try {
+            long[] userIds = seed(context);
+            String base = "http://127.0.0.1:" + BenchmarkContext.port(context);
+
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(30))
+                    .build();
+
+            // Aquecimento curto para o JIT e o pool de conexões, fora da medição
+            load(client, i -> base + "/api/cart/user/" + userIds[i % userIds.length], 200, 20);
+
+            report.add(format(mode, "GET /api/cart/user/{id}",
+                    load(client, i -> base + "/api/cart/user/" + userIds[i % userIds.length], CLIENTS, REQUESTS_PER_CLIENT)));
+            report.add(format(mode, "GET /api/orders/user/{id}",
+                    load(client, i -> base + "/api/orders/user/" + userIds[i % userIds.length], CLIENTS, REQUESTS_PER_CLIENT)));
+        } finally {
+            context.close();
+        }
+    }
+
+    // Cada usuário fica com um pedido já fechado e um carrinho aberto
+    private static long[] seed(ConfigurableApplicationContext context) {
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        OrderService orderService = context.getBean(OrderService.class);
+        BenchmarkContext.seedProducts(jdbc, PRODUCTS);
+
+        long[] userIds = new long[USERS];
+        for (int i = 0; i < USERS; i++) {
+            userIds[i] = BenchmarkContext.createUser(jdbc, "carga" + i + "@benchmark.com");
+            BenchmarkContext.fillCart(jdbc, userIds[i], CART_LINES);
+            orderService.createOrderFromCart(userIds[i]);
+            BenchmarkContext.fillCart(jdbc, userIds[i], CART_LINES);
+        }
+        return userIds;
+    }
+
+    private static Result load(HttpClient client, IntFunction<String> urlOf, int clients, int requestsPerClient) {
+        long[] latencies = new long[clients * requestsPerClient];
+        AtomicInteger recorded = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+
+        long start = System.nanoTime();
+        CompletableFuture<?>[] running = new CompletableFuture<?>[clients];
+        for (int c = 0; c < clients; c++) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(urlOf.apply(c)))
+                    .timeout(Duration.ofSeconds(60))
+                    .GET()
+                    .build();
+            running[c] = next(client, request, requestsPerClient, latencies, recorded, errors);
+        }
+        CompletableFuture.allOf(running).join();
+        long elapsed = System.nanoTime() - start;
+
+        long[] sorted = Arrays.copyOf(latencies, recorded.get());
+        Arrays.sort(sorted);
+        return new Result(sorted.length * 1e9 / elapsed,
+                percentile(sorted, 0.50), percentile(sorted, 0.95), percentile(sorted, 0.99), errors.get());
+    }
+
+    private static CompletableFuture<Void> next(HttpClient client, HttpRequest request, int remaining,
+                                                long[] latencies, AtomicInteger recorded, AtomicInteger errors) {
+        if (remaining == 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        long sent = System.nanoTime();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .handle((response, failure) -> {
+                    latencies[recorded.getAndIncrement()] = System.nanoTime() - sent;
+                    if (failure != null || response.statusCode() != 200) {
+                        errors.incrementAndGet();
+                    }
+                    return null;
+                })
+                .thenCompose(ignored -> next(client, request, remaining - 1, latencies, recorded, errors));
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(index, 0)] / 1e6;
+    }
+
+    private static String format(String mode, String endpoint, Result result) {
+        return String.format("%-9s %-24s %10.0f %9.1f %9.1f %9.1f %8d",
+                mode, endpoint, result.throughput(), result.p50(), result.p95(), result.p99(), result.errors());
+    }
+
+    private record Result(double throughput, double p50, double p95, double p99, int errors) {}
+}
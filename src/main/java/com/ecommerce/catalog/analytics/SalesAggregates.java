@@ -0,0 +1,145 @@
+package com.ecommerce.catalog.analytics;
+
+import com.ecommerce.catalog.collection.LongLongHashMap;
+import com.ecommerce.catalog.collection.LongObjectHashMap;
+import com.ecommerce.catalog.entity.Order;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+// Agregados de vendas atualizados incrementalmente, pedido a pedido: totais gerais, por dia,
+// por status e por produto, mais os candidatos a mais vendidos (Space-Saving). Valores em
+// centavos. Não é thread-safe: SalesAnalytics protege com o próprio lock.
+class SalesAggregates {
+
+    private long orders;
+    private long revenueCents;
+
+    private final long[] statusOrders = new long[Order.OrderStatus.values().length];
+    private final long[] statusRevenue = new long[Order.OrderStatus.values().length];
+
+    // epochDay -> {pedidos, centavos}
+    private final LongObjectHashMap<long[]> days = new LongObjectHashMap<>();
+
+    private final LongLongHashMap productUnits = new LongLongHashMap();
+    private final LongLongHashMap productRevenue = new LongLongHashMap();
+
+    private final SpaceSaving topRevenue;
+    private final SpaceSaving topUnits;
+
+    SalesAggregates(int topCapacity) {
+        this(new SpaceSaving(topCapacity), new SpaceSaving(topCapacity));
+    }
+
+    private SalesAggregates(SpaceSaving topRevenue, SpaceSaving topUnits) {
+        this.topRevenue = topRevenue;
+        this.topUnits = topUnits;
+    }
+
+    // Uma linha de pedido: {productId, unidades, centavos}
+    void addOrder(long epochDay, Order.OrderStatus status, long cents, long[][] lines, int sign) {
+        orders += sign;
+        revenueCents += sign * cents;
+        statusOrders[status.ordinal()] += sign;
+        statusRevenue[status.ordinal()] += sign * cents;
+
+        long[] day = days.computeIfAbsent(epochDay, d -> new long[2]);
+        day[0] += sign;
+        day[1] += sign * cents;
+
+        for (long[] line : lines) {
+            productUnits.addTo(line[0], sign * line[1]);
+            productRevenue.addTo(line[0], sign * line[2]);
+            if (sign > 0) {
+                topUnits.offer(line[0], line[1]);
+                topRevenue.offer(line[0], line[2]);
+            } else {
+                topUnits.decrement(line[0], line[1]);
+                topRevenue.decrement(line[0], line[2]);
+            }
+        }
+    }
+
+    void changeStatus(Order.OrderStatus from, Order.OrderStatus to, long cents) {
+        statusOrders[from.ordinal()]--;
+        statusRevenue[from.ordinal()] -= cents;
+        statusOrders[to.ordinal()]++;
+        statusRevenue[to.ordinal()] += cents;
+    }
+
+    long orders() {
+        return orders;
+    }
+
+    long revenueCents() {
+        return revenueCents;
+    }
+
+    long statusOrders(Order.OrderStatus status) {
+        return statusOrders[status.ordinal()];
+    }
+
+    long statusRevenue(Order.OrderStatus status) {
+        return statusRevenue[status.ordinal()];
+    }
+
+    // {pedidos, centavos} do dia, ou null
+    long[] day(long epochDay) {
+        return days.get(epochDay);
+    }
+
+    long productUnits(long productId) {
+        return productUnits.get(productId, 0);
+    }
+
+    long productRevenue(long productId) {
+        return productRevenue.get(productId, 0);
+    }
+
+    // Candidatos a mais vendidos, do maior para o menor, pela receita ou pelas unidades
+    long[][] top(boolean byUnits, int limit) {
+        return (byUnits ? topUnits : topRevenue).top(limit);
+    }
+
+    int topCapacity() {
+        return topRevenue.capacity();
+    }
+
+    SalesSnapshot toSnapshot() {
+        Map<Order.OrderStatus, long[]> statuses = new EnumMap<>(Order.OrderStatus.class);
+        for (Order.OrderStatus status : Order.OrderStatus.values()) {
+            statuses.put(status, new long[] { statusOrders(status), statusRevenue(status) });
+        }
+
+        List<long[]> dayRows = new ArrayList<>(days.size());
+        days.forEach((day, totals) -> dayRows.add(new long[] { day, totals[0], totals[1] }));
+
+        List<long[]> productRows = new ArrayList<>(productUnits.size());
+        productUnits.forEach((productId, units) ->
+                productRows.add(new long[] { productId, units, productRevenue.get(productId, 0) }));
+
+        return new SalesSnapshot(orders, revenueCents, statuses, dayRows.toArray(long[][]::new),
+                productRows.toArray(long[][]::new), topRevenue.entries(), topUnits.entries());
+    }
+
+    static SalesAggregates fromSnapshot(SalesSnapshot snapshot, int topCapacity) {
+        SalesAggregates aggregates = new SalesAggregates(SpaceSaving.of(topCapacity, snapshot.topRevenue()),
+                SpaceSaving.of(topCapacity, snapshot.topUnits()));
+        aggregates.orders = snapshot.orders();
+        aggregates.revenueCents = snapshot.revenueCents();
+        snapshot.statuses().forEach((status, totals) -> {
+            aggregates.statusOrders[status.ordinal()] = totals[0];
+            aggregates.statusRevenue[status.ordinal()] = totals[1];
+        });
+        for (long[] day : snapshot.days()) {
+            aggregates.days.put(day[0], new long[] { day[1], day[2] });
+        }
+        for (long[] product : snapshot.products()) {
+            aggregates.productUnits.put(product[0], product[1]);
+            aggregates.productRevenue.put(product[0], product[2]);
+        }
+        return aggregates;
+    }
+}
@@ -0,0 +1,505 @@
+package com.ecommerce.catalog.analytics;
+
+import com.ecommerce.catalog.archive.OrderArchive;
+import com.ecommerce.catalog.dto.OrderItemDTO;
+import com.ecommerce.catalog.entity.AnalyticsSnapshot;
+import com.ecommerce.catalog.entity.Order;
+import com.ecommerce.catalog.entity.OrderItem;
+import com.ecommerce.catalog.entity.OrderView;
+import com.ecommerce.catalog.event.OrderEvent;
+import com.ecommerce.catalog.money.Money;
+import com.ecommerce.catalog.repository.AnalyticsSnapshotRepository;
+import com.ecommerce.catalog.repository.OrderRepository;
+import com.ecommerce.catalog.repository.OrderViewRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Análise de vendas sem consultas ad hoc sobre orders/order_items: os agregados ficam em
+// memória (SalesAggregates) e são atualizados a cada escrita de pedido, depois do commit.
+// As consultas custam O(1) (totais, produto, status) ou O(k) (mais vendidos, dias do período).
+//
+// Os agregados são gravados periodicamente em analytics_snapshots. Na subida, a cópia mais
+// recente é conferida contra orders (contagem e updated_at) e completada com os pedidos novos;
+// se algo mudou desde a cópia, tudo é recalculado a partir da order_view. Os pedidos movidos
+// para o arquivo (OrderArchive) continuam contando: entram na conferência e no recálculo.
+//
+// Durante o recálculo (ou a restauração) as escritas seguem atualizando os agregados atuais e
+// também entram numa fila (CatchUp); na troca, as que a leitura da order_view não viu são
+// reaplicadas aos agregados novos.
+@Component
+public class SalesAnalytics {
+
+    private static final Logger log = LoggerFactory.getLogger(SalesAnalytics.class);
+
+    static final int MAX_DAYS = 366;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderViewRepository orderViewRepository;
+
+    @Autowired
+    private AnalyticsSnapshotRepository snapshotRepository;
+
+    @Autowired
+    private OrderArchive archive;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${analytics.top-capacity:100}")
+    private int topCapacity;
+
+    @Value("${analytics.rebuild-batch-size:1000}")
+    private int batchSize;
+
+    @Value("${analytics.snapshot.keep:48}")
+    private int snapshotsToKeep;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Protegidos pelo lock
+    private SalesAggregates aggregates;
+    private long lastOrderId;
+
+    // Alterações já registradas em transações ainda não concluídas
+    private final Set<Change> inFlight = ConcurrentHashMap.newKeySet();
+
+    // Recálculo ou restauração em andamento (no máximo um: os dois são synchronized)
+    private volatile CatchUp catchUp;
+
+    public record Summary(long orders, BigDecimal revenue, BigDecimal averageOrderValue) {}
+
+    public record DailySales(LocalDate date, long orders, BigDecimal revenue) {}
+
+    public record StatusSales(Order.OrderStatus status, long orders, BigDecimal revenue) {}
+
+    public record ProductSales(Long productId, long units, BigDecimal revenue) {}
+
+    public record RebuildResult(long orders, Long snapshotId) {}
+
+    // Uma alteração de pedido: sign +1 (criado), -1 (excluído) ou 0 (mudança de status)
+    private record Change(long orderId, int sign, long epochDay, Order.OrderStatus status,
+                          Order.OrderStatus previousStatus, long cents, long[][] lines,
+                          LocalDateTime registeredAt) {}
+
+    @PostConstruct
+    void init() {
+        aggregates = new SalesAggregates(topCapacity);
+    }
+
+    // Captura as linhas do pedido dentro da transação (o pedido está no contexto de
+    // persistência) e aplica só depois do commit
+    @EventListener
+    public void on(OrderEvent event) {
+        Change change = switch (event.type()) {
+            case CREATED, DELETED -> orderRepository.findById(event.orderId())
+                    .map(order -> change(order, event.type() == OrderEvent.Type.CREATED ? 1 : -1))
+                    .orElse(null);
+            case STATUS_CHANGED -> new Change(event.orderId(), 0, 0, event.status(), event.previousStatus(),
+                    Money.of(event.totalAmount()).cents(), new long[0][], LocalDateTime.now());
+        };
+        if (change == null) {
+            return;
+        }
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            register(change);
+            apply(change);
+            return;
+        }
+        inFlight.add(change);
+        register(change);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                try {
+                    if (status == STATUS_COMMITTED) {
+                        apply(change);
+                    }
+                } finally {
+                    inFlight.remove(change);
+                }
+            }
+        });
+    }
+
+    public Summary summary() {
+        lock.readLock().lock();
+        try {
+            long orders = aggregates.orders();
+            long revenue = aggregates.revenueCents();
+            long average = orders > 0
+                    ? BigDecimal.valueOf(revenue).divide(BigDecimal.valueOf(orders), 0, RoundingMode.HALF_UP).longValueExact()
+                    : 0;
+            return new Summary(orders, money(revenue), money(average));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Um item por dia do período, inclusive os dias sem vendas
+    public List<DailySales> daily(LocalDate from, LocalDate to) {
+        long days = ChronoUnit.DAYS.between(from, to) + 1;
+        if (days < 1 || days > MAX_DAYS) {
+            throw new RuntimeException("Período inválido: de 1 a " + MAX_DAYS + " dias");
+        }
+        List<DailySales> result = new ArrayList<>((int) days);
+        lock.readLock().lock();
+        try {
+            for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+                long[] totals = aggregates.day(date.toEpochDay());
+                result.add(totals != null
+                        ? new DailySales(date, totals[0], money(totals[1]))
+                        : new DailySales(date, 0, money(0)));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    public List<StatusSales> byStatus() {
+        List<StatusSales> result = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (Order.OrderStatus status : Order.OrderStatus.values()) {
+                result.add(new StatusSales(status, aggregates.statusOrders(status), money(aggregates.statusRevenue(status))));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    public ProductSales product(long productId) {
+        lock.readLock().lock();
+        try {
+            return productSales(productId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Mais vendidos por receita ("revenue") ou unidades ("units"). A lista vem dos candidatos
+    // do Space-Saving, mas os valores exibidos são os totais exatos de cada produto.
+    public List<ProductSales> topProducts(String by, int limit) {
+        boolean byUnits = switch (by) {
+            case "revenue" -> false;
+            case "units" -> true;
+            default -> throw new RuntimeException("Critério inválido: " + by);
+        };
+        lock.readLock().lock();
+        try {
+            if (limit < 1 || limit > aggregates.topCapacity()) {
+                throw new RuntimeException("limit deve estar entre 1 e " + aggregates.topCapacity());
+            }
+            List<ProductSales> result = new ArrayList<>(limit);
+            for (long[] entry : aggregates.top(byUnits, limit)) {
+                result.add(productSales(entry[0]));
+            }
+            result.sort((a, b) -> byUnits
+                    ? Long.compare(b.units(), a.units())
+                    : b.revenue().compareTo(a.revenue()));
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Recalcula tudo a partir do arquivo e da order_view (backfill ou correção) e grava uma cópia nova
+    public synchronized RebuildResult rebuild() {
+        CatchUp started = startCatchUp(0);
+        SalesAggregates rebuilt = new SalesAggregates(topCapacity);
+        try {
+            addArchived(rebuilt, 0);
+            swap(started, rebuilt, addViews(rebuilt, 0, started));
+        } finally {
+            endCatchUp(started);
+        }
+        log.info("Agregados de vendas recalculados: {} pedidos", rebuilt.orders());
+        return new RebuildResult(rebuilt.orders(), snapshot());
+    }
+
+    // Depois da order_view estar em dia (OrderArchiver, OrderProjection) e antes da fila de checkout reprocessar o diário
+    @EventListener(ApplicationReadyEvent.class)
+    @org.springframework.core.annotation.Order(Ordered.HIGHEST_PRECEDENCE + 2)
+    public synchronized void restore() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        AnalyticsSnapshot latest = transaction.execute(status ->
+                snapshotRepository.findFirstByOrderByIdDesc().orElse(null));
+        if (latest == null) {
+            rebuild();
+            return;
+        }
+
+        // Acompanhado desde antes da conferência: o que a cópia já cobre conta como lido
+        CatchUp started = startCatchUp(latest.getLastOrderId());
+        SalesAggregates restored;
+        try {
+            if (!transaction.execute(status -> isCurrent(latest))) {
+                endCatchUp(started);
+                rebuild();
+                return;
+            }
+            restored = SalesAggregates.fromSnapshot(latest.getPayload(), topCapacity);
+            // Pedidos novos desde a cópia: os arquivados depois dela e os que estão na order_view
+            addArchived(restored, latest.getLastOrderId());
+            swap(started, restored, addViews(restored, latest.getLastOrderId(), started));
+        } finally {
+            endCatchUp(started);
+        }
+        log.info("Agregados de vendas restaurados da cópia de {} ({} pedidos)", latest.getTakenAt(), restored.orders());
+    }
+
+    // Grava os agregados atuais; devolve o id da cópia
+    @Scheduled(fixedDelayString = "${analytics.snapshot-interval-ms:300000}",
+               initialDelayString = "${analytics.snapshot-interval-ms:300000}")
+    public Long snapshot() {
+        AnalyticsSnapshot snapshot;
+        lock.readLock().lock();
+        try {
+            // As alterações em andamento ainda não entraram: a cópia só vale até a mais antiga delas
+            LocalDateTime takenAt = inFlight.stream()
+                    .map(Change::registeredAt)
+                    .min(LocalDateTime::compareTo)
+                    .orElseGet(LocalDateTime::now);
+            snapshot = new AnalyticsSnapshot(takenAt, lastOrderId, aggregates.toSnapshot());
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        Long id = new TransactionTemplate(transactionManager).execute(status -> {
+            Long saved = snapshotRepository.save(snapshot).getId();
+            snapshotRepository.deleteAllButLatest(snapshotsToKeep);
+            return saved;
+        });
+        log.debug("Cópia dos agregados de vendas gravada: {}", id);
+        return id;
+    }
+
+    // A cópia vale se nenhum pedido até o último incluído foi criado, excluído ou alterado depois
+    // dela. Arquivar não muda a contagem: o pedido sai de orders e entra no arquivo
+    private boolean isCurrent(AnalyticsSnapshot snapshot) {
+        long orders = orderRepository.countByIdLessThanEqual(snapshot.getLastOrderId())
+                + archive.countUpTo(snapshot.getLastOrderId());
+        return orders == snapshot.getOrderCount()
+                && !orderRepository.existsByIdLessThanEqualAndUpdatedAtAfter(snapshot.getLastOrderId(), snapshot.getTakenAt());
+    }
+
+    private void apply(Change change) {
+        lock.writeLock().lock();
+        try {
+            applyTo(aggregates, change);
+            if (catchUp != null) {
+                catchUp.pending.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Chamado com o write lock
+    private void applyTo(SalesAggregates target, Change change) {
+        if (change.sign() == 0) {
+            target.changeStatus(change.previousStatus(), change.status(), change.cents());
+        } else {
+            target.addOrder(change.epochDay(), change.status(), change.cents(), change.lines(), change.sign());
+            if (change.sign() > 0) {
+                lastOrderId = Math.max(lastOrderId, change.orderId());
+            }
+        }
+    }
+
+    private void register(Change change) {
+        CatchUp current = catchUp;
+        if (current != null) {
+            current.register(change);
+        }
+    }
+
+    // As alterações em transações já abertas também são acompanhadas: podem concluir durante a leitura
+    private CatchUp startCatchUp(long readUpTo) {
+        CatchUp started = new CatchUp(readUpTo);
+        lock.writeLock().lock();
+        try {
+            catchUp = started;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        inFlight.forEach(started::register);
+        return started;
+    }
+
+    private void endCatchUp(CatchUp started) {
+        lock.writeLock().lock();
+        try {
+            if (catchUp == started) {
+                catchUp = null;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Lê a order_view depois de afterId, em páginas; devolve o maior id lido
+    private long addViews(SalesAggregates target, long afterId, CatchUp started) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        long last = afterId;
+        while (true) {
+            long after = last;
+            List<OrderView> rows = transaction.execute(status ->
+                    orderViewRepository.findPageOrderById(after, PageRequest.of(0, batchSize)));
+            started.read(after, rows);
+            if (rows.isEmpty()) {
+                return last;
+            }
+            for (OrderView row : rows) {
+                addView(target, row);
+            }
+            last = rows.get(rows.size() - 1).getId();
+        }
+    }
+
+    // Troca os agregados, reaplicando antes as alterações da fila que a leitura não viu
+    private void swap(CatchUp started, SalesAggregates target, long last) {
+        lock.writeLock().lock();
+        try {
+            for (Change change : started.pending) {
+                if (!started.wasRead(change)) {
+                    applyTo(target, change);
+                }
+            }
+            aggregates = target;
+            lastOrderId = Math.max(last, archive.maxOrderId());
+            catchUp = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static Change change(Order order, int sign) {
+        List<OrderItem> items = order.getItems();
+        long[][] lines = new long[items.size()][];
+        for (int i = 0; i < lines.length; i++) {
+            OrderItem item = items.get(i);
+            lines[i] = new long[] { item.getProduct().getId(), item.getQuantity(), item.totalPrice().cents() };
+        }
+        return new Change(order.getId(), sign, order.getCreatedAt().toLocalDate().toEpochDay(), order.getStatus(),
+                null, order.totalAmount().cents(), lines, LocalDateTime.now());
+    }
+
+    private void addArchived(SalesAggregates target, long afterId) {
+        archive.forEachOrder(afterId, (orderId, createdAt, status, cents, lines) ->
+                target.addOrder(createdAt.toLocalDate().toEpochDay(), status, cents, lines, 1));
+    }
+
+    private static void addView(SalesAggregates target, OrderView row) {
+        List<OrderItemDTO> items = row.getItems();
+        long[][] lines = new long[items.size()][];
+        for (int i = 0; i < lines.length; i++) {
+            OrderItemDTO item = items.get(i);
+            lines[i] = new long[] { item.getProductId(), item.getQuantity(), Money.of(item.getTotalPrice()).cents() };
+        }
+        target.addOrder(row.getCreatedAt().toLocalDate().toEpochDay(), row.getStatus(), row.totalAmount().cents(), lines, 1);
+    }
+
+    private ProductSales productSales(long productId) {
+        return new ProductSales(productId, aggregates.productUnits(productId), money(aggregates.productRevenue(productId)));
+    }
+
+    private static BigDecimal money(long cents) {
+        return Money.ofCents(cents).toBigDecimal();
+    }
+
+    // Alterações registradas durante uma leitura completa da order_view, em ordem de id. Uma
+    // alteração registrada depois da leitura do pedido não foi vista por ela; as registradas antes
+    // são conferidas contra a linha lida (presente ou não, e com qual status).
+    private static final class CatchUp {
+
+        // Maior id já lido (ou coberto pela cópia)
+        private long readUpTo;
+
+        // Alterações aplicadas durante a leitura, em ordem; protegidas pelo write lock
+        private final List<Change> pending = new ArrayList<>();
+
+        private final Set<Change> missed = new HashSet<>();
+        private final Set<Change> watched = new HashSet<>();
+
+        // Status do pedido na linha lida; null: sem linha
+        private final Map<Change, Order.OrderStatus> read = new HashMap<>();
+
+        CatchUp(long readUpTo) {
+            this.readUpTo = readUpTo;
+        }
+
+        synchronized void register(Change change) {
+            if (change.orderId() <= readUpTo) {
+                missed.add(change);
+            } else {
+                watched.add(change);
+            }
+        }
+
+        // Página lida com ids em (after, último da página]; página vazia: fim da leitura
+        synchronized void read(long after, List<OrderView> rows) {
+            long to = rows.isEmpty() ? Long.MAX_VALUE : rows.get(rows.size() - 1).getId();
+            Map<Long, Order.OrderStatus> statuses = null;
+            for (Iterator<Change> it = watched.iterator(); it.hasNext(); ) {
+                Change change = it.next();
+                if (change.orderId() > after && change.orderId() <= to) {
+                    if (statuses == null) {
+                        statuses = new HashMap<>();
+                        for (OrderView row : rows) {
+                            statuses.put(row.getId(), row.getStatus());
+                        }
+                    }
+                    read.put(change, statuses.get(change.orderId()));
+                    it.remove();
+                }
+            }
+            readUpTo = to;
+        }
+
+        synchronized boolean wasRead(Change change) {
+            if (!read.containsKey(change)) {
+                return false;
+            }
+            Order.OrderStatus status = read.get(change);
+            return switch (change.sign()) {
+                case 1 -> status != null;
+                case -1 -> status == null;
+                default -> status == change.status();
+            };
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.ecommerce.catalog.analytics;
+
+import com.ecommerce.catalog.entity.Order;
+
+import java.util.Map;
+
+// Estado completo dos agregados, gravado periodicamente (coluna JSON de AnalyticsSnapshot).
+// days: {epochDay, pedidos, centavos}; products: {productId, unidades, centavos};
+// topRevenue / topUnits: {productId, contagem, erro} do Space-Saving; statuses: {pedidos, centavos}
+public record SalesSnapshot(long orders, long revenueCents, Map<Order.OrderStatus, long[]> statuses,
+                            long[][] days, long[][] products, long[][] topRevenue, long[][] topUnits) {}
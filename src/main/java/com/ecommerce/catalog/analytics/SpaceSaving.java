@@ -0,0 +1,138 @@
+package com.ecommerce.catalog.analytics;
+
+import com.ecommerce.catalog.collection.LongLongHashMap;
+
+import java.util.Arrays;
+
+// Top-K aproximado em memória fixa (algoritmo Space-Saving, com pesos): acompanha no máximo
+// capacity chaves. Uma chave nova, com tudo ocupado, toma o lugar da de menor contagem e herda
+// essa contagem como erro máximo. Qualquer chave cujo total real passe de total / capacity
+// está garantidamente entre as acompanhadas. As contagens ficam num heap de mínimo: cada
+// atualização custa O(log k). Não é thread-safe: quem usa protege com o próprio lock.
+class SpaceSaving {
+
+    private final long[] keys;
+    private final long[] counts;
+    private final long[] errors;
+    private int size;
+
+    // chave -> posição no heap
+    private final LongLongHashMap positions;
+
+    SpaceSaving(int capacity) {
+        keys = new long[capacity];
+        counts = new long[capacity];
+        errors = new long[capacity];
+        positions = new LongLongHashMap(capacity);
+    }
+
+    void offer(long key, long weight) {
+        int i = (int) positions.get(key, -1);
+        if (i >= 0) {
+            counts[i] += weight;
+            siftDown(i);
+        } else if (size < keys.length) {
+            place(size, key, weight, 0);
+            siftUp(size++);
+        } else {
+            // Substitui a menor contagem (a raiz do heap)
+            positions.remove(keys[0], -1);
+            place(0, key, counts[0] + weight, counts[0]);
+            siftDown(0);
+        }
+    }
+
+    // Estorno (pedido excluído): só as chaves acompanhadas são ajustadas
+    void decrement(long key, long weight) {
+        int i = (int) positions.get(key, -1);
+        if (i >= 0) {
+            counts[i] = Math.max(0, counts[i] - weight);
+            siftUp(i);
+        }
+    }
+
+    // Até limit entradas {chave, contagem, erro}, da maior contagem para a menor
+    long[][] top(int limit) {
+        long[][] entries = entries();
+        Arrays.sort(entries, (a, b) -> Long.compare(b[1], a[1]));
+        return Arrays.copyOf(entries, Math.min(limit, entries.length));
+    }
+
+    long[][] entries() {
+        long[][] entries = new long[size][];
+        for (int i = 0; i < size; i++) {
+            entries[i] = new long[] { keys[i], counts[i], errors[i] };
+        }
+        return entries;
+    }
+
+    // Restaura a partir de entries(); com capacidade menor, ficam as maiores contagens
+    static SpaceSaving of(int capacity, long[][] entries) {
+        SpaceSaving summary = new SpaceSaving(capacity);
+        long[][] sorted = entries.clone();
+        Arrays.sort(sorted, (a, b) -> Long.compare(b[1], a[1]));
+        for (long[] entry : sorted) {
+            if (summary.size == capacity) {
+                break;
+            }
+            summary.place(summary.size, entry[0], entry[1], entry[2]);
+            summary.siftUp(summary.size++);
+        }
+        return summary;
+    }
+
+    int capacity() {
+        return keys.length;
+    }
+
+    private void place(int i, long key, long count, long error) {
+        keys[i] = key;
+        counts[i] = count;
+        errors[i] = error;
+        positions.put(key, i);
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (counts[parent] <= counts[i]) {
+                return;
+            }
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int smallest = i;
+            int left = 2 * i + 1;
+            int right = left + 1;
+            if (left < size && counts[left] < counts[smallest]) {
+                smallest = left;
+            }
+            if (right < size && counts[right] < counts[smallest]) {
+                smallest = right;
+            }
+            if (smallest == i) {
+                return;
+            }
+            swap(i, smallest);
+            i = smallest;
+        }
+    }
+
+    private void swap(int a, int b) {
+        long key = keys[a];
+        long count = counts[a];
+        long error = errors[a];
+        keys[a] = keys[b];
+        counts[a] = counts[b];
+        errors[a] = errors[b];
+        keys[b] = key;
+        counts[b] = count;
+        errors[b] = error;
+        positions.put(keys[a], a);
+        positions.put(keys[b], b);
+    }
+}
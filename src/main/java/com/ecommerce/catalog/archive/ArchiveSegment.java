@@ -0,0 +1,372 @@
+package com.ecommerce.catalog.archive;
+
+import com.ecommerce.catalog.dto.OrderDTO;
+import com.ecommerce.catalog.dto.OrderItemDTO;
+import com.ecommerce.catalog.entity.Order;
+import com.ecommerce.catalog.money.Money;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// Um segmento do arquivo de pedidos: arquivo imutável, em colunas, lido por mmap.
+//
+// Cabeçalho (little-endian): magic, versão, pedidos, itens, usuários, produtos distintos,
+// bytes de nomes, menor e maior id de pedido e epoch do banco de origem (ver ArchiveEpoch).
+// Depois, cada coluna em sequência (alinhada a 8 bytes):
+//   usuários  userId long[u], userStart int[u+1]          índice por usuário (ids em ordem)
+//   pedidos   orderId, createdAt, total long[n], itemStart int[n+1], status byte[n]
+//   itens     productId, unitPrice, totalPrice long[m], quantity int[m], name int[m]
+//   nomes     nameStart int[d+1], bytes UTF-8              dicionário de nomes de produto
+// Os pedidos ficam ordenados por (userId, orderId): os de um usuário são uma faixa contínua,
+// achada por busca binária em userId. Datas em microssegundos desde a época (UTC, sem fuso);
+// valores em centavos; status pelo ordinal do enum (status novos só no fim do enum).
+final class ArchiveSegment {
+
+    static final int MAGIC = 0x4F524441; // "ORDA"
+    static final int VERSION = 2;
+    private static final int HEADER_BYTES = 64;
+
+    private static final Order.OrderStatus[] STATUSES = Order.OrderStatus.values();
+
+    private final Path path;
+    private final MappedByteBuffer buffer;
+
+    private final int orders;
+    private final int items;
+    private final int users;
+    private final long minOrderId;
+    private final long maxOrderId;
+    private final UUID epoch;
+    private final Layout layout;
+
+    // O dicionário é pequeno (um nome por produto distinto): fica decodificado em memória
+    private final String[] names;
+
+    private ArchiveSegment(Path path, MappedByteBuffer buffer) {
+        this.path = path;
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IllegalStateException("Segmento de arquivo inválido: " + path);
+        }
+        this.orders = buffer.getInt(8);
+        this.items = buffer.getInt(12);
+        this.users = buffer.getInt(16);
+        int products = buffer.getInt(20);
+        int nameBytes = buffer.getInt(24);
+        this.minOrderId = buffer.getLong(32);
+        this.maxOrderId = buffer.getLong(40);
+        this.epoch = new UUID(buffer.getLong(48), buffer.getLong(56));
+        this.layout = new Layout(orders, items, users, products, nameBytes);
+        if (buffer.capacity() != layout.size) {
+            throw new IllegalStateException("Segmento de arquivo incompleto: " + path);
+        }
+
+        this.names = new String[products];
+        for (int i = 0; i < products; i++) {
+            int start = intAt(layout.nameStart, i);
+            byte[] bytes = new byte[intAt(layout.nameStart, i + 1) - start];
+            buffer.get(layout.nameBytes + start, bytes);
+            names[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+
+    static ArchiveSegment open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // O mapeamento continua válido depois de fechar o canal
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            return new ArchiveSegment(path, buffer);
+        }
+    }
+
+    // Grava os pedidos (com itens) em um arquivo novo, já com fsync
+    static void write(Path path, UUID epoch, List<OrderDTO> source) throws IOException {
+        List<OrderDTO> sorted = new ArrayList<>(source);
+        sorted.sort(Comparator.comparing(OrderDTO::getUserId).thenComparing(OrderDTO::getId));
+
+        // Dicionário de nomes e contagens
+        Map<String, Integer> dictionary = new HashMap<>();
+        List<byte[]> encodedNames = new ArrayList<>();
+        int itemCount = 0;
+        int userCount = 0;
+        int nameBytes = 0;
+        for (int i = 0; i < sorted.size(); i++) {
+            OrderDTO order = sorted.get(i);
+            if (i == 0 || !order.getUserId().equals(sorted.get(i - 1).getUserId())) {
+                userCount++;
+            }
+            for (OrderItemDTO item : order.getItems()) {
+                itemCount++;
+                String name = item.getProductName() != null ? item.getProductName() : "";
+                if (!dictionary.containsKey(name)) {
+                    dictionary.put(name, encodedNames.size());
+                    byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+                    encodedNames.add(bytes);
+                    nameBytes += bytes.length;
+                }
+            }
+        }
+
+        Layout layout = new Layout(sorted.size(), itemCount, userCount, encodedNames.size(), nameBytes);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer out = channel.map(FileChannel.MapMode.READ_WRITE, 0, layout.size);
+            out.order(ByteOrder.LITTLE_ENDIAN);
+
+            long minId = sorted.stream().mapToLong(OrderDTO::getId).min().orElse(0);
+            long maxId = sorted.stream().mapToLong(OrderDTO::getId).max().orElse(0);
+            out.putInt(0, MAGIC).putInt(4, VERSION).putInt(8, sorted.size()).putInt(12, itemCount)
+                    .putInt(16, userCount).putInt(20, encodedNames.size()).putInt(24, nameBytes)
+                    .putLong(32, minId).putLong(40, maxId)
+                    .putLong(48, epoch.getMostSignificantBits()).putLong(56, epoch.getLeastSignificantBits());
+
+            int user = -1;
+            int item = 0;
+            for (int row = 0; row < sorted.size(); row++) {
+                OrderDTO order = sorted.get(row);
+                if (row == 0 || !order.getUserId().equals(sorted.get(row - 1).getUserId())) {
+                    user++;
+                    out.putLong(layout.userId + 8 * user, order.getUserId());
+                    out.putInt(layout.userStart + 4 * user, row);
+                }
+                out.putLong(layout.orderId + 8 * row, order.getId());
+                out.putLong(layout.createdAt + 8 * row, micros(order.getCreatedAt()));
+                out.putLong(layout.total + 8 * row, Money.of(order.getTotalAmount()).cents());
+                out.putInt(layout.itemStart + 4 * row, item);
+                out.put(layout.status + row, (byte) order.getStatus().ordinal());
+                for (OrderItemDTO line : order.getItems()) {
+                    String name = line.getProductName() != null ? line.getProductName() : "";
+                    out.putLong(layout.productId + 8 * item, line.getProductId());
+                    out.putLong(layout.unitPrice + 8 * item, Money.of(line.getUnitPrice()).cents());
+                    out.putLong(layout.itemTotal + 8 * item, Money.of(line.getTotalPrice()).cents());
+                    out.putInt(layout.quantity + 4 * item, line.getQuantity());
+                    out.putInt(layout.name + 4 * item, dictionary.get(name));
+                    item++;
+                }
+            }
+            out.putInt(layout.userStart + 4 * userCount, sorted.size());
+            out.putInt(layout.itemStart + 4 * sorted.size(), itemCount);
+
+            int offset = 0;
+            for (int i = 0; i < encodedNames.size(); i++) {
+                out.putInt(layout.nameStart + 4 * i, offset);
+                out.put(layout.nameBytes + offset, encodedNames.get(i));
+                offset += encodedNames.get(i).length;
+            }
+            out.putInt(layout.nameStart + 4 * encodedNames.size(), offset);
+
+            out.force();
+        }
+    }
+
+    int orders() {
+        return orders;
+    }
+
+    long maxOrderId() {
+        return maxOrderId;
+    }
+
+    UUID epoch() {
+        return epoch;
+    }
+
+    // Todos os pedidos, sem os itens (conferência do arquivamento interrompido)
+    List<OrderDTO> headers() {
+        List<OrderDTO> result = new ArrayList<>(orders);
+        for (int user = 0; user < users; user++) {
+            long userId = longAt(layout.userId, user);
+            for (int row = intAt(layout.userStart, user); row < intAt(layout.userStart, user + 1); row++) {
+                OrderDTO dto = new OrderDTO(userId);
+                dto.setId(longAt(layout.orderId, row));
+                dto.setCreatedAt(dateTime(longAt(layout.createdAt, row)));
+                dto.setStatus(STATUSES[buffer.get(layout.status + row)]);
+                result.add(dto);
+            }
+        }
+        return result;
+    }
+
+    // Busca binária no índice por usuário: os pedidos dele, em ordem de id
+    List<OrderDTO> findByUser(long userId) {
+        int low = 0;
+        int high = users - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long current = longAt(layout.userId, mid);
+            if (current < userId) {
+                low = mid + 1;
+            } else if (current > userId) {
+                high = mid - 1;
+            } else {
+                int end = intAt(layout.userStart, mid + 1);
+                List<OrderDTO> result = new ArrayList<>(end - intAt(layout.userStart, mid));
+                for (int row = intAt(layout.userStart, mid); row < end; row++) {
+                    result.add(order(row, userId));
+                }
+                return result;
+            }
+        }
+        return List.of();
+    }
+
+    // Varredura da coluna de ids (só quando o id está na faixa do segmento)
+    OrderDTO findById(long orderId) {
+        if (orders == 0 || orderId < minOrderId || orderId > maxOrderId) {
+            return null;
+        }
+        for (int row = 0; row < orders; row++) {
+            if (longAt(layout.orderId, row) == orderId) {
+                return order(row, userOf(row));
+            }
+        }
+        return null;
+    }
+
+    long[] userIds() {
+        long[] ids = new long[users];
+        for (int i = 0; i < users; i++) {
+            ids[i] = longAt(layout.userId, i);
+        }
+        return ids;
+    }
+
+    int countUpTo(long orderId) {
+        if (orderId >= maxOrderId) {
+            return orders;
+        }
+        int count = 0;
+        for (int row = 0; row < orders; row++) {
+            if (longAt(layout.orderId, row) <= orderId) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // Percorre os pedidos com id > afterId lendo só as colunas numéricas (sem nomes)
+    void forEachOrder(long afterId, OrderArchive.OrderVisitor visitor) {
+        if (afterId >= maxOrderId) {
+            return;
+        }
+        for (int row = 0; row < orders; row++) {
+            long id = longAt(layout.orderId, row);
+            if (id <= afterId) {
+                continue;
+            }
+            int from = intAt(layout.itemStart, row);
+            long[][] lines = new long[intAt(layout.itemStart, row + 1) - from][];
+            for (int i = 0; i < lines.length; i++) {
+                int item = from + i;
+                lines[i] = new long[] { longAt(layout.productId, item), intAt(layout.quantity, item),
+                        longAt(layout.itemTotal, item) };
+            }
+            visitor.visit(id, dateTime(longAt(layout.createdAt, row)), STATUSES[buffer.get(layout.status + row)],
+                    longAt(layout.total, row), lines);
+        }
+    }
+
+    private OrderDTO order(int row, long userId) {
+        OrderDTO dto = new OrderDTO(userId);
+        dto.setId(longAt(layout.orderId, row));
+        dto.setCreatedAt(dateTime(longAt(layout.createdAt, row)));
+        dto.setTotalAmount(Money.ofCents(longAt(layout.total, row)).toBigDecimal());
+        dto.setStatus(STATUSES[buffer.get(layout.status + row)]);
+
+        int end = intAt(layout.itemStart, row + 1);
+        List<OrderItemDTO> lines = new ArrayList<>();
+        for (int item = intAt(layout.itemStart, row); item < end; item++) {
+            lines.add(new OrderItemDTO(
+                longAt(layout.productId, item),
+                names[intAt(layout.name, item)],
+                intAt(layout.quantity, item),
+                Money.ofCents(longAt(layout.unitPrice, item)).toBigDecimal(),
+                Money.ofCents(longAt(layout.itemTotal, item)).toBigDecimal()
+            ));
+        }
+        dto.setItems(lines);
+        return dto;
+    }
+
+    // Usuário dono da linha: última faixa do índice que começa antes dela
+    private long userOf(int row) {
+        int low = 0;
+        int high = users - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (intAt(layout.userStart, mid) <= row) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return longAt(layout.userId, low);
+    }
+
+    private long longAt(int column, int index) {
+        return buffer.getLong(column + 8 * index);
+    }
+
+    private int intAt(int column, int index) {
+        return buffer.getInt(column + 4 * index);
+    }
+
+    private static long micros(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + dateTime.getNano() / 1_000;
+    }
+
+    private static LocalDateTime dateTime(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000),
+                Math.floorMod(micros, 1_000_000) * 1_000, ZoneOffset.UTC);
+    }
+
+    // Posição de cada coluna, derivada só das contagens do cabeçalho
+    private static final class Layout {
+
+        final int userId, userStart;
+        final int orderId, createdAt, total, itemStart, status;
+        final int productId, unitPrice, itemTotal, quantity, name;
+        final int nameStart, nameBytes;
+        final int size;
+
+        Layout(int orders, int items, int users, int products, int names) {
+            long offset = HEADER_BYTES;
+            userId = (int) (offset = align(offset));
+            userStart = (int) (offset = align(offset + 8L * users));
+            orderId = (int) (offset = align(offset + 4L * (users + 1)));
+            createdAt = (int) (offset = offset + 8L * orders);
+            total = (int) (offset = offset + 8L * orders);
+            itemStart = (int) (offset = offset + 8L * orders);
+            status = (int) (offset = offset + 4L * (orders + 1));
+            productId = (int) (offset = align(offset + orders));
+            unitPrice = (int) (offset = offset + 8L * items);
+            itemTotal = (int) (offset = offset + 8L * items);
+            quantity = (int) (offset = offset + 8L * items);
+            name = (int) (offset = offset + 4L * items);
+            nameStart = (int) (offset = offset + 4L * items);
+            nameBytes = (int) (offset = offset + 4L * (products + 1));
+            offset += names;
+            if (offset > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Segmento de arquivo acima de 2 GB: reduza archive.batch-size");
+            }
+            size = (int) offset;
+        }
+
+        private static long align(long offset) {
+            return (offset + 7) & ~7L;
+        }
+    }
+}
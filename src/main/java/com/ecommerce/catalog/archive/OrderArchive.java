@@ -0,0 +1,300 @@
+package com.ecommerce.catalog.archive;
+
+import com.ecommerce.catalog.collection.LongObjectHashMap;
+import com.ecommerce.catalog.dto.OrderDTO;
+import com.ecommerce.catalog.entity.ArchiveEpoch;
+import com.ecommerce.catalog.entity.Order;
+import com.ecommerce.catalog.repository.ArchiveEpochRepository;
+import com.ecommerce.catalog.repository.OrderRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+// Arquivo de pedidos antigos (ver OrderArchiver): um diretório de segmentos imutáveis
+// (ArchiveSegment), só acrescentados, nunca reescritos. Cada arquivamento grava um segmento
+// novo (.tmp com fsync + troca atômica + fsync do diretório) e só então ele passa a ser lido.
+//
+// As leituras não tocam o banco: o índice em memória diz em quais segmentos cada usuário
+// tem pedidos, e o índice do próprio segmento dá a faixa de linhas dele.
+//
+// Os ids só valem no banco de onde os pedidos saíram: cada segmento leva o epoch desse banco
+// (ArchiveEpoch) e segmentos de outro epoch (banco recriado) são ignorados. Sem archive.path
+// configurado o arquivo fica desligado.
+@Component
+public class OrderArchive {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderArchive.class);
+
+    static final String PREFIX = "orders-";
+    static final String SUFFIX = ".seg";
+
+    // Limite de ids por cláusula IN
+    private static final int CHUNK = 1000;
+
+    @Value("${archive.path:}")
+    private String path;
+
+    @Autowired
+    private ArchiveEpochRepository epochRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Nulo com o arquivo desligado
+    private Path directory;
+    private UUID epoch;
+
+    // Maior sequência no diretório, inclusive de segmentos ignorados (o nome não se repete)
+    private long lastSequence;
+
+    private final Object writeLock = new Object();
+
+    // Trocado por inteiro a cada segmento novo; os leitores nunca veem um estado parcial
+    private volatile State state = new State(List.of(), new LongObjectHashMap<>());
+
+    // Segmentos e, por usuário, os índices (na lista) dos segmentos com pedidos dele
+    private record State(List<ArchiveSegment> segments, LongObjectHashMap<int[]> segmentsByUser) {}
+
+    // Um pedido arquivado, só com as colunas numéricas; lines: {productId, quantidade, total em centavos}
+    @FunctionalInterface
+    public interface OrderVisitor {
+        void visit(long orderId, LocalDateTime createdAt, Order.OrderStatus status, long totalCents, long[][] lines);
+    }
+
+    public OrderArchive(MeterRegistry meterRegistry) {
+        Gauge.builder("catalog.archive.orders", this, OrderArchive::size)
+                .description("Pedidos no arquivo de pedidos antigos")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void open() throws IOException {
+        synchronized (writeLock) {
+            if (path.isBlank()) {
+                return;
+            }
+            directory = Path.of(path);
+            epoch = UUID.fromString(new TransactionTemplate(transactionManager).execute(status -> currentEpoch()));
+
+            State opened = new State(List.of(), new LongObjectHashMap<>());
+            int ignored = 0;
+            lastSequence = 0;
+            if (Files.isDirectory(directory)) {
+                for (Path file : list(directory)) {
+                    String name = file.getFileName().toString();
+                    if (name.endsWith(".tmp")) {
+                        file = recoverTemporary(file);
+                        if (file == null) {
+                            continue;
+                        }
+                        name = file.getFileName().toString();
+                    }
+                    lastSequence = Math.max(lastSequence, sequence(name));
+                    ArchiveSegment segment = ArchiveSegment.open(file);
+                    if (segment.epoch().equals(epoch)) {
+                        opened = with(opened, segment);
+                    } else {
+                        ignored++;
+                    }
+                }
+            }
+            state = opened;
+            if (ignored > 0) {
+                log.warn("Arquivo de pedidos: {} segmentos de outro banco (epoch diferente) ignorados em {}", ignored, directory);
+            }
+            if (!opened.segments().isEmpty()) {
+                log.info("Arquivo de pedidos aberto: {} segmentos, {} pedidos", opened.segments().size(), size());
+            }
+        }
+    }
+
+    public boolean isEnabled() {
+        return directory != null;
+    }
+
+    // Grava os pedidos em um segmento novo; devolve o nome do arquivo
+    public String append(List<OrderDTO> orders) {
+        synchronized (writeLock) {
+            if (!isEnabled()) {
+                throw new RuntimeException("Arquivo de pedidos desligado: configure archive.path");
+            }
+            try {
+                Files.createDirectories(directory);
+                Path target = directory.resolve(String.format("%s%08d%s", PREFIX, ++lastSequence, SUFFIX));
+                Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+                ArchiveSegment.write(temporary, epoch, orders);
+                Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE);
+                // A troca de nome só é durável com o fsync do diretório; depois disso os
+                // pedidos podem sair do banco
+                forceDirectory(directory);
+                state = with(state, ArchiveSegment.open(target));
+                return target.getFileName().toString();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    // Pedidos arquivados do usuário, em ordem de id (userName não é preenchido)
+    public List<OrderDTO> findByUserId(long userId) {
+        State current = state;
+        int[] indexes = current.segmentsByUser().get(userId);
+        if (indexes == null) {
+            return List.of();
+        }
+        List<OrderDTO> result = new ArrayList<>();
+        for (int index : indexes) {
+            result.addAll(current.segments().get(index).findByUser(userId));
+        }
+        return result;
+    }
+
+    // Sem índice por id: varre a coluna de ids dos segmentos cuja faixa contém o pedido
+    public Optional<OrderDTO> findById(long orderId) {
+        for (ArchiveSegment segment : state.segments()) {
+            OrderDTO order = segment.findById(orderId);
+            if (order != null) {
+                return Optional.of(order);
+            }
+        }
+        return Optional.empty();
+    }
+
+    public void forEachOrder(long afterId, OrderVisitor visitor) {
+        for (ArchiveSegment segment : state.segments()) {
+            segment.forEachOrder(afterId, visitor);
+        }
+    }
+
+    public long countUpTo(long orderId) {
+        long count = 0;
+        for (ArchiveSegment segment : state.segments()) {
+            count += segment.countUpTo(orderId);
+        }
+        return count;
+    }
+
+    public long maxOrderId() {
+        return state.segments().stream().mapToLong(ArchiveSegment::maxOrderId).max().orElse(0);
+    }
+
+    // Pedidos do segmento mais recente, sem os itens (conferidos na subida por OrderArchiver.recover)
+    public List<OrderDTO> lastSegmentOrders() {
+        List<ArchiveSegment> segments = state.segments();
+        return segments.isEmpty() ? List.of() : segments.get(segments.size() - 1).headers();
+    }
+
+    public long size() {
+        return state.segments().stream().mapToLong(ArchiveSegment::orders).sum();
+    }
+
+    // Segmento .tmp deixado por uma queda. Se algum pedido dele já saiu do banco, a troca de
+    // nome foi perdida depois da exclusão: o segmento passa a valer. Senão (gravação
+    // incompleta, outro epoch ou pedidos todos ainda no banco) é descartado.
+    private Path recoverTemporary(Path temporary) throws IOException {
+        String name = temporary.getFileName().toString();
+        Path target = temporary.resolveSibling(name.substring(0, name.length() - ".tmp".length()));
+        List<Long> ids;
+        try {
+            ArchiveSegment segment = ArchiveSegment.open(temporary);
+            ids = segment.epoch().equals(epoch)
+                    ? segment.headers().stream().map(OrderDTO::getId).toList()
+                    : List.of();
+        } catch (IllegalStateException e) {
+            ids = List.of();
+        }
+        if (ids.isEmpty() || countInDatabase(ids) == ids.size()) {
+            Files.delete(temporary);
+            return null;
+        }
+        log.warn("Arquivo de pedidos: segmento {} com pedidos já fora do banco, recuperado", target.getFileName());
+        Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE);
+        forceDirectory(directory);
+        return target;
+    }
+
+    private long countInDatabase(List<Long> ids) {
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            long count = 0;
+            for (int from = 0; from < ids.size(); from += CHUNK) {
+                count += orderRepository.countByIdIn(ids.subList(from, Math.min(from + CHUNK, ids.size())));
+            }
+            return count;
+        });
+    }
+
+    private static void forceDirectory(Path directory) throws IOException {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        }
+    }
+
+    // Epoch do banco; criado na primeira subida (outra instância pode criar ao mesmo tempo)
+    private String currentEpoch() {
+        return epochRepository.findById(ArchiveEpoch.ID)
+                .orElseGet(() -> {
+                    try {
+                        return epochRepository.saveAndFlush(new ArchiveEpoch(UUID.randomUUID().toString()));
+                    } catch (DataIntegrityViolationException e) {
+                        return epochRepository.findById(ArchiveEpoch.ID).orElseThrow(() -> e);
+                    }
+                })
+                .getEpoch();
+    }
+
+    private static long sequence(String name) {
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    // Cópia do estado com mais um segmento
+    private static State with(State current, ArchiveSegment segment) {
+        List<ArchiveSegment> segments = new ArrayList<>(current.segments());
+        segments.add(segment);
+        int index = segments.size() - 1;
+
+        LongObjectHashMap<int[]> byUser = new LongObjectHashMap<>(current.segmentsByUser().size());
+        current.segmentsByUser().forEach(byUser::put);
+        for (long userId : segment.userIds()) {
+            int[] previous = byUser.get(userId);
+            int[] indexes = previous == null ? new int[1] : Arrays.copyOf(previous, previous.length + 1);
+            indexes[indexes.length - 1] = index;
+            byUser.put(userId, indexes);
+        }
+        return new State(List.copyOf(segments), byUser);
+    }
+
+    // Segmentos em ordem de gravação (o nome leva a sequência com zeros à esquerda)
+    private static List<Path> list(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().startsWith(PREFIX))
+                    .sorted()
+                    .toList();
+        }
+    }
+}
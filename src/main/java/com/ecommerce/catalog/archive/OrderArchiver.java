@@ -0,0 +1,194 @@
+package com.ecommerce.catalog.archive;
+
+import com.ecommerce.catalog.cache.VersionStamps;
+import com.ecommerce.catalog.dto.OrderDTO;
+import com.ecommerce.catalog.dto.OrderItemDTO;
+import com.ecommerce.catalog.entity.Order;
+import com.ecommerce.catalog.entity.OrderItem;
+import com.ecommerce.catalog.repository.OrderItemRepository;
+import com.ecommerce.catalog.repository.OrderRepository;
+import com.ecommerce.catalog.repository.OrderViewRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Move pedidos finalizados (DELIVERED/CANCELLED) sem alteração há archive.min-age das
+// tabelas orders, order_items e order_view para o arquivo (OrderArchive), em lotes de
+// archive.batch-size pedidos, um segmento por lote. O segmento é gravado com fsync antes
+// da exclusão no banco; se a aplicação cair no meio, recover() conclui a exclusão na subida.
+//
+// A exclusão não publica OrderEvent: o pedido arquivado continua fazendo parte do histórico
+// (SalesAnalytics segue contando com ele) e continua aparecendo nos pedidos do usuário.
+@Component
+public class OrderArchiver {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderArchiver.class);
+
+    static final Set<Order.OrderStatus> FINAL_STATUSES = EnumSet.of(Order.OrderStatus.DELIVERED, Order.OrderStatus.CANCELLED);
+
+    // Limite de ids por cláusula IN
+    private static final int CHUNK = 1000;
+
+    @Autowired
+    private OrderArchive archive;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private OrderViewRepository orderViewRepository;
+
+    @Autowired
+    private VersionStamps versionStamps;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${archive.min-age:365d}")
+    private Duration minAge;
+
+    @Value("${archive.batch-size:5000}")
+    private int batchSize;
+
+    public record ArchiveResult(int orders, List<String> segments) {}
+
+    @Scheduled(cron = "${archive.cron:0 30 3 * * *}")
+    public void scheduledArchive() {
+        if (!archive.isEnabled()) {
+            return;
+        }
+        ArchiveResult result = archiveOldOrders();
+        if (result.orders() > 0) {
+            log.info("Pedidos arquivados: {} em {}", result.orders(), result.segments());
+        }
+    }
+
+    // Um arquivamento por vez (agendado ou por POST /api/orders/archive)
+    public synchronized ArchiveResult archiveOldOrders() {
+        if (!archive.isEnabled()) {
+            throw new RuntimeException("Arquivo de pedidos desligado: configure archive.path");
+        }
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        LocalDateTime before = LocalDateTime.now().minus(minAge);
+        int orders = 0;
+        List<String> segments = new ArrayList<>();
+        while (true) {
+            List<Long> ids = transaction.execute(status ->
+                    orderRepository.findIdsToArchive(FINAL_STATUSES, before, PageRequest.of(0, batchSize)));
+            if (ids.isEmpty()) {
+                break;
+            }
+            segments.add(archiveBatch(ids));
+            orders += ids.size();
+        }
+        return new ArchiveResult(orders, segments);
+    }
+
+    String archiveBatch(List<Long> ids) {
+        String segment = writeSegment(ids);
+        removeFromDatabase(ids);
+        return segment;
+    }
+
+    String writeSegment(List<Long> ids) {
+        List<OrderDTO> orders = new TransactionTemplate(transactionManager).execute(status -> {
+            List<OrderDTO> loaded = new ArrayList<>(ids.size());
+            for (List<Long> chunk : chunks(ids)) {
+                for (Order order : orderRepository.findWithItemsByIdIn(chunk)) {
+                    loaded.add(toDTO(order));
+                }
+            }
+            return loaded;
+        });
+        return archive.append(orders);
+    }
+
+    // Pedidos do último segmento que ainda estão no banco: a exclusão não chegou a ser feita.
+    // Só sai a linha que é o mesmo pedido (id, usuário e data de criação iguais aos do segmento)
+    @EventListener(ApplicationReadyEvent.class)
+    @org.springframework.core.annotation.Order(Ordered.HIGHEST_PRECEDENCE)
+    public void recover() {
+        Map<Long, OrderDTO> archived = archive.lastSegmentOrders().stream()
+                .collect(Collectors.toMap(OrderDTO::getId, Function.identity()));
+        if (archived.isEmpty()) {
+            return;
+        }
+        List<Long> remaining = new TransactionTemplate(transactionManager).execute(status ->
+                chunks(new ArrayList<>(archived.keySet())).stream()
+                        .flatMap(chunk -> orderRepository.findAllById(chunk).stream())
+                        .filter(order -> isSameOrder(order, archived.get(order.getId())))
+                        .map(Order::getId)
+                        .collect(Collectors.toList()));
+        if (!remaining.isEmpty()) {
+            log.warn("Arquivamento interrompido: removendo do banco {} pedidos já arquivados", remaining.size());
+            removeFromDatabase(remaining);
+        }
+    }
+
+    private void removeFromDatabase(List<Long> ids) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            for (List<Long> chunk : chunks(ids)) {
+                orderItemRepository.deleteByOrderIdIn(chunk);
+                orderRepository.deleteByIdIn(chunk);
+                orderViewRepository.deleteByIdIn(chunk);
+            }
+        });
+        versionStamps.touchAll(VersionStamps.Kind.ORDER);
+    }
+
+    private static boolean isSameOrder(Order order, OrderDTO archived) {
+        return order.getUser().getId().equals(archived.getUserId())
+                && order.getCreatedAt().truncatedTo(ChronoUnit.MICROS).equals(archived.getCreatedAt());
+    }
+
+    private static OrderDTO toDTO(Order order) {
+        OrderDTO dto = new OrderDTO(order.getUser().getId());
+        dto.setId(order.getId());
+        dto.setTotalAmount(order.getTotalAmount());
+        dto.setStatus(order.getStatus());
+        dto.setCreatedAt(order.getCreatedAt());
+        List<OrderItemDTO> items = new ArrayList<>(order.getItems().size());
+        for (OrderItem item : order.getItems()) {
+            items.add(new OrderItemDTO(
+                item.getProduct().getId(),
+                item.getProductName(),
+                item.getQuantity(),
+                item.getUnitPrice(),
+                item.getTotalPrice()
+            ));
+        }
+        dto.setItems(items);
+        return dto;
+    }
+
+    private static List<List<Long>> chunks(List<Long> ids) {
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += CHUNK) {
+            chunks.add(ids.subList(from, Math.min(from + CHUNK, ids.size())));
+        }
+        return chunks;
+    }
+}
@@ -0,0 +1,96 @@
+package com.ecommerce.catalog.cache;
+
+import com.ecommerce.catalog.datasource.ReplicaFreshness;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Versões em memória de produtos e pedidos, para GET condicional (ETag / Last-Modified).
+// Toda alteração recebe um número novo de um contador único, então a validação de um
+// If-None-Match é só uma leitura de mapa, sem consulta ao banco. A versão não sai do
+// updatedAt da entidade porque o estoque (gravado pelo StockLedger) e os nomes de produto
+// e usuário exibidos nos pedidos mudam o corpo da resposta sem tocar nesse campo.
+@Component
+public class VersionStamps {
+
+    public enum Kind { PRODUCT, ORDER }
+
+    // Instante da subida: entra na ETag para que versões de outra execução nunca coincidam
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    private final AtomicLong counter = new AtomicLong();
+
+    private final Map<Kind, Map<Long, Stamp>> stamps = new EnumMap<>(Kind.class);
+
+    // Versão da coleção inteira: muda a cada alteração de qualquer item
+    private final Map<Kind, Stamp> catalogs = new ConcurrentHashMap<>();
+
+    public VersionStamps() {
+        for (Kind kind : Kind.values()) {
+            stamps.put(kind, new ConcurrentHashMap<>());
+            catalogs.put(kind, next());
+        }
+    }
+
+    // Item nunca alterado desde a subida recebe versão na primeira leitura. Quem pede a
+    // versão vai devolver o corpo com ela: a leitura não pode vir de réplica mais antiga.
+    public Stamp of(Kind kind, Long id) {
+        return required(stamps.get(kind).computeIfAbsent(id, key -> next()));
+    }
+
+    public Stamp catalog(Kind kind) {
+        return required(catalogs.get(kind));
+    }
+
+    // Descarta a versão de um item que não existe, para ids inválidos não ocuparem o mapa
+    public void forget(Kind kind, Long id, Stamp stamp) {
+        stamps.get(kind).remove(id, stamp);
+    }
+
+    // Nova versão para o item e para a coleção. Dentro de transação vale só depois do
+    // commit: antes disso uma leitura ainda pode trazer o estado antigo do banco.
+    public void touch(Kind kind, Long id) {
+        afterCommit(() -> {
+            stamps.get(kind).put(id, next());
+            catalogs.put(kind, next());
+        });
+    }
+
+    // Nova versão para todos os itens (ex.: nome de produto ou usuário exibido nos pedidos)
+    public void touchAll(Kind kind) {
+        afterCommit(() -> {
+            stamps.get(kind).clear();
+            catalogs.put(kind, next());
+        });
+    }
+
+    private static Stamp required(Stamp stamp) {
+        ReplicaFreshness.require(stamp.lastModified());
+        return stamp;
+    }
+
+    private Stamp next() {
+        return new Stamp("W/\"" + epoch + "-" + counter.incrementAndGet() + "\"", System.currentTimeMillis());
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    // ETag fraca (a versão é semântica, não dos bytes) e o instante em que a versão foi criada
+    public record Stamp(String etag, long lastModified) {}
+}
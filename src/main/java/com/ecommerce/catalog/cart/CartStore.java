@@ -0,0 +1,255 @@
+package com.ecommerce.catalog.cart;
+
+import com.ecommerce.catalog.collection.LongLongHashMap;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.UnaryOperator;
+
+// Carrinhos em memória com gravação posterior (write-behind). Cada alteração é só uma
+// atualização no mapa do usuário; a tabela cart_items é regravada em lote, por usuário
+// alterado, a cada cart.write-behind.flush-interval-ms. Opcional: só é usado com
+// cart.write-behind.enabled=true.
+//
+// Os ids dos itens são só da memória: a gravação não os leva (cart_items.id é IDENTITY e
+// fica com o banco), e na subida os itens passam a usar os ids gravados.
+@Component
+public class CartStore {
+
+    // Valor de ownerByItem para itens que não estão em nenhum carrinho
+    private static final long NO_OWNER = -1;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${cart.write-behind.enabled:false}")
+    private boolean enabled;
+
+    // usuário -> (produto -> linha), em ordem de inclusão. O mapa interno só é acessado
+    // dentro de compute() do externo, que serializa as operações por usuário
+    private final Map<Long, Map<Long, Line>> carts = new ConcurrentHashMap<>();
+
+    // id do item -> usuário, para as rotas que recebem só o id do item. Mapa primitivo
+    // (sem um Long por chave e por valor), protegido pelo próprio lock
+    private final LongLongHashMap ownerByItem = new LongLongHashMap();
+    private final ReentrantReadWriteLock ownerLock = new ReentrantReadWriteLock();
+
+    // Usuários com carrinho alterado desde a última gravação
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+
+    // Ids gerados aqui, sem ida ao banco, continuando do maior id lido na subida
+    private final AtomicLong nextItemId = new AtomicLong(1);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rehydrate() {
+        if (!enabled) {
+            return;
+        }
+        jdbcTemplate.query("SELECT id, user_id, product_id, quantity, added_at FROM cart_items ORDER BY id", row -> {
+            Timestamp addedAt = row.getTimestamp("added_at");
+            Line line = new Line(row.getLong("id"), row.getLong("user_id"), row.getLong("product_id"),
+                    row.getInt("quantity"), addedAt != null ? addedAt.toLocalDateTime() : LocalDateTime.now());
+            carts.computeIfAbsent(line.userId(), id -> new LinkedHashMap<>()).put(line.productId(), line);
+            setOwner(line.itemId(), line.userId());
+            nextItemId.accumulateAndGet(line.itemId() + 1, Math::max);
+        });
+    }
+
+    public boolean hasCart(Long userId) {
+        return carts.containsKey(userId);
+    }
+
+    public List<Line> lines(Long userId) {
+        List<Line> lines = new ArrayList<>();
+        carts.computeIfPresent(userId, (id, cart) -> {
+            lines.addAll(cart.values());
+            return cart;
+        });
+        return lines;
+    }
+
+    // Soma a quantidade à linha do produto, criando a linha se preciso
+    public Line add(Long userId, Long productId, int quantity) {
+        Line[] result = new Line[1];
+        carts.compute(userId, (id, cart) -> {
+            Map<Long, Line> lines = cart != null ? cart : new LinkedHashMap<>();
+            Line current = lines.get(productId);
+            Line line = current != null
+                    ? current.withQuantity(current.quantity() + quantity)
+                    : new Line(nextItemId.getAndIncrement(), userId, productId, quantity, LocalDateTime.now());
+            lines.put(productId, line);
+            setOwner(line.itemId(), userId);
+            result[0] = line;
+            return lines;
+        });
+        dirty.add(userId);
+        return result[0];
+    }
+
+    public Optional<Line> find(Long itemId) {
+        long userId = ownerOf(itemId);
+        if (userId == NO_OWNER) {
+            return Optional.empty();
+        }
+        return lines(userId).stream().filter(line -> line.itemId() == itemId).findFirst();
+    }
+
+    // setQuantity e remove devolvem a linha anterior à alteração
+    public Optional<Line> setQuantity(Long itemId, int quantity) {
+        return update(itemId, line -> line.withQuantity(quantity));
+    }
+
+    public Optional<Line> remove(Long itemId) {
+        Optional<Line> removed = update(itemId, line -> null);
+        removed.ifPresent(line -> forgetOwners(List.of(line)));
+        return removed;
+    }
+
+    // Esvazia o carrinho só se a transação atual confirmar (ex.: pedido gravado)
+    public void clear(Long userId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            clearNow(userId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                clearNow(userId);
+            }
+        });
+    }
+
+    // Regrava no banco o carrinho de cada usuário alterado: DELETE + INSERT em lote,
+    // na mesma transação. Linhas de produto já excluído ficam de fora (o SELECT não as acha)
+    @Scheduled(fixedDelayString = "${cart.write-behind.flush-interval-ms:2000}")
+    @PreDestroy
+    public void flush() {
+        if (!enabled || dirty.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> users = new ArrayList<>();
+        List<Object[]> rows = new ArrayList<>();
+        for (Long userId : List.copyOf(dirty)) {
+            // Sai da fila antes da leitura: uma alteração concorrente volta a marcá-lo
+            dirty.remove(userId);
+            users.add(new Object[] { userId });
+            for (Line line : lines(userId)) {
+                rows.add(new Object[] { line.userId(), line.quantity(), Timestamp.valueOf(line.addedAt()),
+                        line.productId() });
+            }
+        }
+
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate("DELETE FROM cart_items WHERE user_id = ?", users);
+                jdbcTemplate.batchUpdate("INSERT INTO cart_items (user_id, product_id, quantity, added_at) " +
+                        "SELECT ?, id, ?, ? FROM products WHERE id = ?", rows);
+            });
+        } catch (RuntimeException e) {
+            users.forEach(user -> dirty.add((Long) user[0]));
+            throw e;
+        }
+    }
+
+    // Aplica a alteração à linha do item e devolve a linha como estava antes dela
+    private Optional<Line> update(Long itemId, UnaryOperator<Line> change) {
+        long userId = ownerOf(itemId);
+        if (userId == NO_OWNER) {
+            return Optional.empty();
+        }
+
+        Line[] result = new Line[1];
+        carts.computeIfPresent(userId, (id, cart) -> {
+            for (Line line : cart.values()) {
+                if (line.itemId() == itemId) {
+                    Line changed = change.apply(line);
+                    if (changed != null) {
+                        cart.put(line.productId(), changed);
+                    } else {
+                        cart.remove(line.productId());
+                    }
+                    result[0] = line;
+                    break;
+                }
+            }
+            return cart.isEmpty() ? null : cart;
+        });
+        if (result[0] != null) {
+            dirty.add(userId);
+        }
+        return Optional.ofNullable(result[0]);
+    }
+
+    private void clearNow(Long userId) {
+        Map<Long, Line> cart = carts.remove(userId);
+        if (cart != null) {
+            forgetOwners(cart.values());
+            dirty.add(userId);
+        }
+    }
+
+    private long ownerOf(long itemId) {
+        ownerLock.readLock().lock();
+        try {
+            return ownerByItem.get(itemId, NO_OWNER);
+        } finally {
+            ownerLock.readLock().unlock();
+        }
+    }
+
+    private void setOwner(long itemId, long userId) {
+        ownerLock.writeLock().lock();
+        try {
+            ownerByItem.put(itemId, userId);
+        } finally {
+            ownerLock.writeLock().unlock();
+        }
+    }
+
+    private void forgetOwners(Collection<Line> lines) {
+        ownerLock.writeLock().lock();
+        try {
+            lines.forEach(line -> ownerByItem.remove(line.itemId(), NO_OWNER));
+        } finally {
+            ownerLock.writeLock().unlock();
+        }
+    }
+
+    // Linha do carrinho: só ids e quantidade; nome e preço vêm do catálogo (em cache)
+    public record Line(long itemId, long userId, long productId, int quantity, LocalDateTime addedAt) {
+
+        Line withQuantity(int newQuantity) {
+            return new Line(itemId, userId, productId, newQuantity, addedAt);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.ecommerce.catalog.cart;
+
+import com.ecommerce.catalog.money.Money;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+// Total corrente do carrinho de cada usuário. Carregado uma vez pela consulta agregada
+// e depois mantido com as variações de cada alteração no carrinho, para que a leitura
+// do total não precise ir ao banco. Só os carrinhos usados recentemente ficam em memória
+// (cart.totals.max-users, cart.totals.idle-timeout); o total que sai é recarregado na próxima leitura.
+@Component
+public class CartTotals {
+
+    @Value("${cart.totals.max-users:100000}")
+    private long maxUsers = 100_000;
+
+    @Value("${cart.totals.idle-timeout:30m}")
+    private Duration idleTimeout = Duration.ofMinutes(30);
+
+    // Cada alteração cria uma nova instância; a identidade indica se a entrada foi
+    // substituída por outra alteração, recarga ou remoção no meio da transação
+    private ConcurrentMap<Long, Total> totals;
+
+    @PostConstruct
+    void init() {
+        Cache<Long, Total> cache = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterAccess(idleTimeout)
+                .build();
+        totals = cache.asMap();
+    }
+
+    public Money get(Long userId, Function<Long, Money> loader) {
+        return totals.computeIfAbsent(userId, id -> new Total(loader.apply(id))).amount();
+    }
+
+    // Soma a variação ao total mantido. Usuários sem total carregado são ignorados:
+    // a próxima leitura carrega do banco já com a alteração.
+    public void add(Long userId, Money delta) {
+        if (delta.signum() == 0) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            totals.computeIfPresent(userId, (id, total) -> total.plus(delta));
+            return;
+        }
+
+        // Aplicada antes do commit, para que ninguém recarregue do banco o estado antigo
+        // depois de a alteração já estar visível; desfeita se a transação falhar
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private Total applied;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                applied = totals.computeIfPresent(userId, (id, total) -> total.plus(delta));
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (applied == null) {
+                    // Não havia total mantido: um carregado durante a transação pode estar desatualizado
+                    totals.remove(userId);
+                } else if (status == STATUS_COMMITTED) {
+                    totals.computeIfPresent(userId, (id, total) -> total == applied ? total : null);
+                } else {
+                    totals.computeIfPresent(userId, (id, total) -> total == applied ? total.minus(delta) : null);
+                }
+            }
+        });
+    }
+
+    // Descarta o total do usuário depois do commit (ex.: carrinho esvaziado)
+    public void invalidate(Long userId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            totals.remove(userId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                totals.remove(userId);
+            }
+        });
+    }
+
+    // Mudança de preço: afeta todo carrinho com o produto, então recarrega todos. Dentro de
+    // transação o descarte é no fim dela: um total recarregado antes do commit traria o preço antigo
+    public void invalidateAll() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            totals.clear();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                totals.clear();
+            }
+        });
+    }
+
+    private record Total(Money amount) {
+        Total plus(Money delta) {
+            return new Total(amount.plus(delta));
+        }
+        
+        Total minus(Money delta) {
+            return new Total(amount.minus(delta));
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.ecommerce.catalog.checkout;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+// Diário (append-only) dos checkouts assíncronos, uma linha por evento:
+//   A|checkoutId|userId|epochMillis   intenção aceita
+//   D|checkoutId|orderId              pedido criado
+//   F|checkoutId|mensagem             checkout recusado
+// Uma intenção só é confirmada ao cliente depois do fsync. O fsync é compartilhado
+// (group commit): quem chega enquanto outro força o disco espera e aproveita o mesmo.
+public class CheckoutJournal {
+
+    private final Path path;
+    private final boolean fsync;
+    private final Object appendLock = new Object();
+    private final Object syncLock = new Object();
+
+    private FileChannel channel;
+
+    // Número de escritas feitas e já garantidas em disco
+    private long written;
+    private volatile long synced;
+
+    public CheckoutJournal(Path path, boolean fsync) {
+        this.path = path;
+        this.fsync = fsync;
+    }
+
+    public void accepted(String checkoutId, Long userId, long acceptedAt) {
+        sync(append("A|" + checkoutId + "|" + userId + "|" + acceptedAt + "\n"));
+    }
+
+    // Resultados de um lote: uma escrita e um fsync para o lote inteiro
+    public void completed(List<CheckoutStatus> results) {
+        StringBuilder lines = new StringBuilder();
+        for (CheckoutStatus result : results) {
+            if (result.state() == CheckoutStatus.State.COMPLETED) {
+                lines.append("D|").append(result.checkoutId()).append('|').append(result.orderId()).append('\n');
+            } else {
+                lines.append("F|").append(result.checkoutId()).append('|')
+                        .append(result.message().replace('\n', ' ').replace('\r', ' ')).append('\n');
+            }
+        }
+        sync(append(lines.toString()));
+    }
+
+    // Relê o diário: intenções ainda sem resultado (na ordem de chegada) e resultados já gravados
+    public Replay replay() throws IOException {
+        Map<String, CheckoutStatus> pending = new LinkedHashMap<>();
+        List<CheckoutStatus> finished = new ArrayList<>();
+        if (!Files.exists(path)) {
+            return new Replay(new ArrayList<>(), finished);
+        }
+
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split("\\|", 3);
+                if (fields.length < 3) {
+                    continue; // última linha incompleta (queda durante a escrita)
+                }
+                String checkoutId = fields[1];
+                switch (fields[0]) {
+                    case "A" -> {
+                        String[] intent = fields[2].split("\\|");
+                        pending.put(checkoutId, CheckoutStatus.pending(checkoutId, Long.valueOf(intent[0]),
+                                Long.parseLong(intent[1])));
+                    }
+                    case "D" -> {
+                        CheckoutStatus intent = pending.remove(checkoutId);
+                        if (intent != null) {
+                            finished.add(intent.completed(Long.valueOf(fields[2])));
+                        }
+                    }
+                    case "F" -> {
+                        CheckoutStatus intent = pending.remove(checkoutId);
+                        if (intent != null) {
+                            finished.add(intent.failed(fields[2]));
+                        }
+                    }
+                    default -> { }
+                }
+            }
+        }
+        return new Replay(new ArrayList<>(pending.values()), finished);
+    }
+
+    // Reescreve o diário só com as intenções pendentes (arquivo novo + troca atômica)
+    public void compact(List<CheckoutStatus> pending) throws IOException {
+        synchronized (appendLock) {
+            close();
+            Files.createDirectories(path.toAbsolutePath().getParent());
+            Path compacted = path.resolveSibling(path.getFileName() + ".tmp");
+            StringBuilder lines = new StringBuilder();
+            for (CheckoutStatus intent : pending) {
+                lines.append("A|").append(intent.checkoutId()).append('|').append(intent.userId())
+                        .append('|').append(intent.acceptedAt()).append('\n');
+            }
+            Files.writeString(compacted, lines, StandardCharsets.UTF_8);
+            Files.move(compacted, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+
+    // Sem intenções pendentes o histórico não serve para nada: o arquivo volta a zero. A
+    // condição é avaliada sob o lock de escrita, para nenhuma intenção nova se perder.
+    public void truncateIfIdle(long bytes, BooleanSupplier idle) {
+        synchronized (appendLock) {
+            try {
+                if (channel != null && channel.size() > bytes && idle.getAsBoolean()) {
+                    channel.truncate(0);
+                    channel.force(true);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    public void close() throws IOException {
+        synchronized (appendLock) {
+            if (channel != null) {
+                channel.close();
+                channel = null;
+            }
+        }
+    }
+
+    private long append(String lines) {
+        ByteBuffer buffer = ByteBuffer.wrap(lines.getBytes(StandardCharsets.UTF_8));
+        synchronized (appendLock) {
+            try {
+                if (channel == null) {
+                    Files.createDirectories(path.toAbsolutePath().getParent());
+                    channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                            StandardOpenOption.APPEND);
+                }
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                return ++written;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private void sync(long sequence) {
+        if (!fsync) {
+            return;
+        }
+        synchronized (syncLock) {
+            if (synced >= sequence) {
+                return; // outro fsync já cobriu esta escrita
+            }
+            long upTo;
+            FileChannel current;
+            synchronized (appendLock) {
+                upTo = written;
+                current = channel;
+            }
+            try {
+                current.force(false);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            synced = upTo;
+        }
+    }
+
+    public record Replay(List<CheckoutStatus> pending, List<CheckoutStatus> finished) {}
+}
@@ -0,0 +1,230 @@
+package com.ecommerce.catalog.checkout;
+
+import com.ecommerce.catalog.repository.OrderRepository;
+import com.ecommerce.catalog.service.OrderService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// Checkout assíncrono: a requisição só grava a intenção no diário (com fsync) e volta
+// com 202; os workers criam os pedidos em lotes, gravando o resultado do lote inteiro
+// com um único fsync. Intenções sem resultado no diário são refeitas na subida.
+@Service
+public class CheckoutQueue {
+
+    private static final Logger log = LoggerFactory.getLogger(CheckoutQueue.class);
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Value("${checkout.journal.path:data/checkout.journal}")
+    private Path journalPath;
+
+    @Value("${checkout.journal.fsync:true}")
+    private boolean fsync;
+
+    // Com a fila vazia, o diário é zerado quando passa deste tamanho
+    @Value("${checkout.journal.truncate-after-bytes:1048576}")
+    private long truncateAfterBytes;
+
+    @Value("${checkout.async.workers:2}")
+    private int workers;
+
+    @Value("${checkout.async.batch-size:50}")
+    private int batchSize;
+
+    @Value("${checkout.async.queue-capacity:10000}")
+    private int queueCapacity;
+
+    private CheckoutJournal journal;
+
+    private final BlockingQueue<Intent> queue = new LinkedBlockingQueue<>();
+
+    // Intenções aceitas e ainda sem resultado; a capacidade da fila é medida aqui
+    private final Map<String, Intent> pending = new ConcurrentHashMap<>();
+
+    // Resultados ficam disponíveis para consulta por um tempo limitado
+    private final Cache<String, CheckoutStatus> finished = Caffeine.newBuilder()
+            .maximumSize(100_000)
+            .expireAfterWrite(Duration.ofHours(1))
+            .build();
+
+    private final List<Thread> threads = new ArrayList<>();
+    private volatile boolean running;
+
+    public CheckoutQueue(MeterRegistry meterRegistry) {
+        Gauge.builder("catalog.checkout.queue", pending, Map::size)
+                .description("Checkouts assíncronos aceitos e ainda não processados")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() throws IOException {
+        journal = new CheckoutJournal(journalPath, fsync);
+        CheckoutJournal.Replay replay = journal.replay();
+        replay.finished().forEach(status -> finished.put(status.checkoutId(), status));
+        if (!replay.pending().isEmpty() || !replay.finished().isEmpty()) {
+            journal.compact(replay.pending());
+            log.info("Diário de checkout relido: {} pendentes, {} concluídos",
+                    replay.pending().size(), replay.finished().size());
+        }
+        for (CheckoutStatus status : replay.pending()) {
+            Intent intent = new Intent(status, true, new CompletableFuture<>());
+            pending.put(status.checkoutId(), intent);
+            queue.add(intent);
+        }
+
+        running = true;
+        for (int i = 1; i <= workers; i++) {
+            Thread thread = new Thread(this::work, "checkout-worker-" + i);
+            thread.setDaemon(true);
+            thread.start();
+            threads.add(thread);
+        }
+    }
+
+    // Aceita o checkout e devolve o status PENDING; o pedido é criado depois, por um worker
+    public CheckoutStatus submit(Long userId) {
+        if (journal == null) {
+            throw new RuntimeException("Fila de checkout ainda não iniciada");
+        }
+        if (pending.size() >= queueCapacity) {
+            throw new RuntimeException("Fila de checkout cheia");
+        }
+
+        CheckoutStatus status = CheckoutStatus.pending(UUID.randomUUID().toString(), userId,
+                System.currentTimeMillis());
+        Intent intent = new Intent(status, false, new CompletableFuture<>());
+        // Registrada antes da escrita, para o diário não ser zerado com ela a caminho
+        pending.put(status.checkoutId(), intent);
+        try {
+            journal.accepted(status.checkoutId(), userId, status.acceptedAt());
+        } catch (RuntimeException e) {
+            pending.remove(status.checkoutId());
+            throw e;
+        }
+        queue.add(intent);
+        return status;
+    }
+
+    public Optional<CheckoutStatus> status(String checkoutId) {
+        Intent intent = pending.get(checkoutId);
+        if (intent != null) {
+            return Optional.of(intent.status());
+        }
+        return Optional.ofNullable(finished.getIfPresent(checkoutId));
+    }
+
+    // Completa com o resultado do checkout, ou com o status atual se ele não sair em waitMs
+    public Optional<CompletableFuture<CheckoutStatus>> await(String checkoutId, long waitMs) {
+        Intent intent = pending.get(checkoutId);
+        if (intent == null) {
+            return status(checkoutId).map(CompletableFuture::completedFuture);
+        }
+        return Optional.of(intent.result().copy().completeOnTimeout(intent.status(), waitMs, TimeUnit.MILLISECONDS));
+    }
+
+    @PreDestroy
+    public void stop() throws IOException, InterruptedException {
+        running = false;
+        for (Thread thread : threads) {
+            thread.interrupt();
+        }
+        for (Thread thread : threads) {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        }
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    private void work() {
+        List<Intent> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                Intent first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    journal.truncateIfIdle(truncateAfterBytes, pending::isEmpty);
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                process(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Falha no worker de checkout", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    // Cada pedido tem a própria transação (uma falha não derruba o lote); o diário
+    // recebe os resultados do lote de uma vez
+    private void process(List<Intent> batch) {
+        List<CheckoutStatus> results = new ArrayList<>(batch.size());
+        for (Intent intent : batch) {
+            results.add(execute(intent));
+        }
+
+        try {
+            journal.completed(results);
+        } catch (RuntimeException e) {
+            // Os pedidos já existem: na releitura eles são achados pelo checkoutId
+            log.error("Falha ao gravar o resultado de {} checkouts no diário", results.size(), e);
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            CheckoutStatus result = results.get(i);
+            finished.put(result.checkoutId(), result);
+            pending.remove(result.checkoutId());
+            batch.get(i).result().complete(result);
+        }
+    }
+
+    private CheckoutStatus execute(Intent intent) {
+        CheckoutStatus status = intent.status();
+        try {
+            // Relida do diário: o pedido pode ter sido gravado antes da queda
+            if (intent.replayed()) {
+                Optional<Long> orderId = orderRepository.findIdByCheckoutId(status.checkoutId());
+                if (orderId.isPresent()) {
+                    return status.completed(orderId.get());
+                }
+            }
+            return status.completed(orderService.createOrderFromCart(status.userId(), status.checkoutId()).getId());
+        } catch (RuntimeException e) {
+            return status.failed(e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+        }
+    }
+
+    private record Intent(CheckoutStatus status, boolean replayed, CompletableFuture<CheckoutStatus> result) {}
+}
@@ -0,0 +1,20 @@
+package com.ecommerce.catalog.checkout;
+
+// Situação de um checkout assíncrono; orderId só existe depois de o pedido ser criado
+public record CheckoutStatus(String checkoutId, Long userId, long acceptedAt, State state,
+                             Long orderId, String message) {
+
+    public enum State { PENDING, COMPLETED, FAILED }
+
+    public static CheckoutStatus pending(String checkoutId, Long userId, long acceptedAt) {
+        return new CheckoutStatus(checkoutId, userId, acceptedAt, State.PENDING, null, null);
+    }
+
+    public CheckoutStatus completed(Long orderId) {
+        return new CheckoutStatus(checkoutId, userId, acceptedAt, State.COMPLETED, orderId, null);
+    }
+
+    public CheckoutStatus failed(String message) {
+        return new CheckoutStatus(checkoutId, userId, acceptedAt, State.FAILED, null, message);
+    }
+}
@@ -0,0 +1,176 @@
+package com.ecommerce.catalog.checkout;
+
+import com.ecommerce.catalog.dto.OrderDTO;
+import com.ecommerce.catalog.entity.IdempotencyKey;
+import com.ecommerce.catalog.repository.IdempotencyKeyRepository;
+import com.ecommerce.catalog.service.OrderService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// Checkout com Idempotency-Key: a repetição de uma chave (retry depois de um timeout)
+// devolve o pedido original, em vez de criar outro ou falhar com "Carrinho está vazio".
+// Repetições simultâneas esperam a primeira, então só uma executa o checkout.
+//
+// As chaves ficam num cache limitado em memória e na tabela idempotency_keys, gravada na
+// transação do pedido; a tabela cobre restarts e outras instâncias. As duas expiram após
+// idempotency.ttl. Um checkout que falha não fica registrado: a repetição tenta de novo.
+@Service
+public class IdempotentCheckout {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    static final int MAX_KEY_LENGTH = 255;
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotentCheckout.class);
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private IdempotencyKeyRepository keyRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${idempotency.ttl:24h}")
+    private Duration ttl;
+
+    @Value("${idempotency.max-keys:100000}")
+    private long maxKeys;
+
+    @Value("${idempotency.wait-timeout:30s}")
+    private Duration waitTimeout;
+
+    // Chave -> checkout em andamento ou concluído nesta instância
+    private Cache<String, Attempt> attempts;
+
+    private final Counter replays;
+
+    public IdempotentCheckout(MeterRegistry meterRegistry) {
+        this.replays = Counter.builder("catalog.checkout.idempotent.replays")
+                .description("Checkouts repetidos respondidos com o pedido original")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void init() {
+        attempts = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    // Sem chave, é o checkout comum
+    public Result checkout(Long userId, String key) {
+        if (key == null) {
+            return new Result(orderService.createOrderFromCart(userId), false);
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new RuntimeException("Idempotency-Key inválida");
+        }
+
+        Attempt attempt = new Attempt(userId, new CompletableFuture<>());
+        Attempt existing = attempts.asMap().putIfAbsent(key, attempt);
+        if (existing != null) {
+            return awaitOriginal(existing, userId);
+        }
+
+        try {
+            Result result = execute(userId, key);
+            attempt.order().complete(result.order());
+            return result;
+        } catch (RuntimeException e) {
+            attempts.asMap().remove(key, attempt);
+            attempt.order().completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        int removed = keyRepository.deleteCreatedBefore(LocalDateTime.now().minus(ttl));
+        if (removed > 0) {
+            log.info("{} chaves de idempotência vencidas removidas", removed);
+        }
+    }
+
+    // A chave vai para o banco antes do pedido: uma repetição em outra instância fica
+    // presa no INSERT até esta transação terminar, e então falha com chave duplicada
+    private Result execute(Long userId, String key) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        try {
+            return transaction.execute(status -> {
+                IdempotencyKey stored = keyRepository.findById(key).orElse(null);
+                if (stored != null) {
+                    return storedResult(stored, userId);
+                }
+                IdempotencyKey claim = keyRepository.saveAndFlush(new IdempotencyKey(key, userId));
+                OrderDTO order = orderService.createOrderFromCart(userId);
+                claim.setOrderId(order.getId());
+                return new Result(order, false);
+            });
+        } catch (DataIntegrityViolationException e) {
+            IdempotencyKey stored = transaction.execute(status -> keyRepository.findById(key).orElse(null));
+            if (stored == null) {
+                throw e;
+            }
+            return transaction.execute(status -> storedResult(stored, userId));
+        }
+    }
+
+    private Result storedResult(IdempotencyKey stored, Long userId) {
+        checkOwner(stored.getUserId(), userId);
+        OrderDTO order = orderService.getOrderById(stored.getOrderId())
+                .orElseThrow(() -> new RuntimeException("Pedido da Idempotency-Key não existe mais"));
+        replays.increment();
+        return new Result(order, true);
+    }
+
+    private Result awaitOriginal(Attempt attempt, Long userId) {
+        checkOwner(attempt.userId(), userId);
+        try {
+            OrderDTO order = attempt.order().get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            replays.increment();
+            return new Result(order, true);
+        } catch (TimeoutException e) {
+            throw new RuntimeException("Checkout com esta Idempotency-Key ainda em andamento");
+        } catch (ExecutionException e) {
+            // A primeira tentativa falhou: a repetição recebe o mesmo erro
+            throw new RuntimeException(e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Checkout interrompido");
+        }
+    }
+
+    private static void checkOwner(Long owner, Long userId) {
+        if (!owner.equals(userId)) {
+            throw new RuntimeException("Idempotency-Key já usada por outro usuário");
+        }
+    }
+
+    // replayed: resposta de uma repetição (o pedido já existia)
+    public record Result(OrderDTO order, boolean replayed) {}
+
+    private record Attempt(Long userId, CompletableFuture<OrderDTO> order) {}
+}
@@ -0,0 +1,41 @@
+package com.ecommerce.catalog.collection;
+
+// Funções comuns das tabelas com endereçamento aberto deste pacote. As tabelas têm
+// tamanho potência de 2 e usam sondagem linear; a chave 0 marca posição vazia e, quando
+// usada de verdade, fica guardada fora da tabela.
+final class Hashing {
+
+    // Ocupação máxima antes de dobrar a tabela
+    static final float LOAD_FACTOR = 0.75f;
+
+    static final int MIN_CAPACITY = 8;
+    static final int MAX_CAPACITY = 1 << 30;
+
+    private Hashing() {}
+
+    // Espalha os bits da chave (ids sequenciais cairiam em posições vizinhas)
+    static int slot(long key, int mask) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        h ^= h >>> 32;
+        return (int) (h ^ (h >>> 16)) & mask;
+    }
+
+    // Menor potência de 2 que comporta expectedSize entradas sem passar da ocupação máxima
+    static int capacityFor(int expectedSize) {
+        long needed = (long) Math.ceil(Math.max(expectedSize, 1) / (double) LOAD_FACTOR);
+        if (needed > MAX_CAPACITY) {
+            throw new IllegalArgumentException("Capacidade máxima excedida: " + expectedSize);
+        }
+        return Math.max(MIN_CAPACITY, Integer.highestOneBit((int) Math.max(needed - 1, 1)) << 1);
+    }
+
+    static int resizeThreshold(int capacity) {
+        return (int) (capacity * LOAD_FACTOR);
+    }
+
+    // Na remoção, uma entrada em `current` pode ocupar a posição livre `free` se a posição
+    // ideal dela não estiver no trecho circular (free, current]
+    static boolean canShift(int free, int ideal, int current) {
+        return free <= current ? ideal <= free || ideal > current : ideal <= free && ideal > current;
+    }
+}
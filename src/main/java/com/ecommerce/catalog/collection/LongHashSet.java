@@ -0,0 +1,157 @@
+package com.ecommerce.catalog.collection;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+// Conjunto de long com endereçamento aberto: um único array, nenhum objeto por elemento.
+// Não é thread-safe: quem usa protege com o próprio lock.
+public class LongHashSet {
+
+    private long[] keys;
+    private int mask;
+    private int size;
+    private int resizeAt;
+
+    // O 0 marca posição vazia; se fizer parte do conjunto, fica marcado aqui
+    private boolean hasZero;
+
+    public LongHashSet() {
+        this(Hashing.MIN_CAPACITY);
+    }
+
+    public LongHashSet(int expectedSize) {
+        allocate(Hashing.capacityFor(expectedSize));
+    }
+
+    public boolean contains(long key) {
+        if (key == 0) {
+            return hasZero;
+        }
+        for (int i = Hashing.slot(key, mask); ; i = (i + 1) & mask) {
+            long current = keys[i];
+            if (current == key) {
+                return true;
+            }
+            if (current == 0) {
+                return false;
+            }
+        }
+    }
+
+    // Devolve false se o elemento já existia
+    public boolean add(long key) {
+        if (key == 0) {
+            if (hasZero) {
+                return false;
+            }
+            hasZero = true;
+            size++;
+            return true;
+        }
+        for (int i = Hashing.slot(key, mask); ; i = (i + 1) & mask) {
+            long current = keys[i];
+            if (current == key) {
+                return false;
+            }
+            if (current == 0) {
+                keys[i] = key;
+                if (++size > resizeAt) {
+                    rehash(keys.length << 1);
+                }
+                return true;
+            }
+        }
+    }
+
+    public boolean remove(long key) {
+        if (key == 0) {
+            if (!hasZero) {
+                return false;
+            }
+            hasZero = false;
+            size--;
+            return true;
+        }
+        for (int i = Hashing.slot(key, mask); ; i = (i + 1) & mask) {
+            long current = keys[i];
+            if (current == key) {
+                size--;
+                shiftBack(i);
+                return true;
+            }
+            if (current == 0) {
+                return false;
+            }
+        }
+    }
+
+    public void forEach(LongConsumer action) {
+        if (hasZero) {
+            action.accept(0);
+        }
+        for (long key : keys) {
+            if (key != 0) {
+                action.accept(key);
+            }
+        }
+    }
+
+    public long[] toArray() {
+        long[] result = new long[size];
+        int count = 0;
+        if (hasZero) {
+            result[count++] = 0;
+        }
+        for (long key : keys) {
+            if (key != 0) {
+                result[count++] = key;
+            }
+        }
+        return result;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0);
+        hasZero = false;
+        size = 0;
+    }
+
+    // Remoção sem marcadores: os elementos seguintes do mesmo grupo voltam uma posição
+    private void shiftBack(int free) {
+        for (int i = (free + 1) & mask; keys[i] != 0; i = (i + 1) & mask) {
+            if (Hashing.canShift(free, Hashing.slot(keys[i], mask), i)) {
+                keys[free] = keys[i];
+                free = i;
+            }
+        }
+        keys[free] = 0;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        allocate(capacity);
+        for (long key : oldKeys) {
+            if (key != 0) {
+                int slot = Hashing.slot(key, mask);
+                while (keys[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        mask = capacity - 1;
+        resizeAt = Hashing.resizeThreshold(capacity);
+    }
+}
@@ -0,0 +1,185 @@
+package com.ecommerce.catalog.collection;
+
+import java.util.Arrays;
+
+// Mapa long -> long com endereçamento aberto: dois arrays de long, nenhum objeto por
+// entrada. Consultas recebem o valor a devolver quando a chave não existe. Não é
+// thread-safe: quem usa protege com o próprio lock.
+public class LongLongHashMap {
+
+    private long[] keys;
+    private long[] values;
+    private int mask;
+    private int size;
+    private int resizeAt;
+
+    // A chave 0 marca posição vazia; se for usada, fica aqui
+    private boolean hasZeroKey;
+    private long zeroValue;
+
+    public LongLongHashMap() {
+        this(Hashing.MIN_CAPACITY);
+    }
+
+    public LongLongHashMap(int expectedSize) {
+        allocate(Hashing.capacityFor(expectedSize));
+    }
+
+    public long get(long key, long defaultValue) {
+        if (key == 0) {
+            return hasZeroKey ? zeroValue : defaultValue;
+        }
+        int i = find(key);
+        return i >= 0 ? values[i] : defaultValue;
+    }
+
+    public boolean containsKey(long key) {
+        return key == 0 ? hasZeroKey : find(key) >= 0;
+    }
+
+    public void put(long key, long value) {
+        if (key == 0) {
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                size++;
+            }
+            zeroValue = value;
+            return;
+        }
+        for (int i = Hashing.slot(key, mask); ; i = (i + 1) & mask) {
+            long current = keys[i];
+            if (current == key) {
+                values[i] = value;
+                return;
+            }
+            if (current == 0) {
+                insertAt(i, key, value);
+                return;
+            }
+        }
+    }
+
+    // Soma delta ao valor da chave (ausente conta como 0) e devolve o resultado
+    public long addTo(long key, long delta) {
+        if (key == 0) {
+            put(0, (hasZeroKey ? zeroValue : 0) + delta);
+            return zeroValue;
+        }
+        for (int i = Hashing.slot(key, mask); ; i = (i + 1) & mask) {
+            long current = keys[i];
+            if (current == key) {
+                return values[i] += delta;
+            }
+            if (current == 0) {
+                insertAt(i, key, delta);
+                return delta;
+            }
+        }
+    }
+
+    // Devolve o valor removido, ou defaultValue se a chave não existia
+    public long remove(long key, long defaultValue) {
+        if (key == 0) {
+            if (!hasZeroKey) {
+                return defaultValue;
+            }
+            hasZeroKey = false;
+            size--;
+            return zeroValue;
+        }
+        int i = find(key);
+        if (i < 0) {
+            return defaultValue;
+        }
+        long previous = values[i];
+        size--;
+        shiftBack(i);
+        return previous;
+    }
+
+    public void forEach(EntryConsumer action) {
+        if (hasZeroKey) {
+            action.accept(0, zeroValue);
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) {
+                action.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0);
+        hasZeroKey = false;
+        size = 0;
+    }
+
+    private int find(long key) {
+        for (int i = Hashing.slot(key, mask); ; i = (i + 1) & mask) {
+            long current = keys[i];
+            if (current == key) {
+                return i;
+            }
+            if (current == 0) {
+                return -1;
+            }
+        }
+    }
+
+    private void insertAt(int i, long key, long value) {
+        keys[i] = key;
+        values[i] = value;
+        if (++size > resizeAt) {
+            rehash(keys.length << 1);
+        }
+    }
+
+    // Remoção sem marcadores: as entradas seguintes do mesmo grupo voltam uma posição
+    private void shiftBack(int free) {
+        for (int i = (free + 1) & mask; keys[i] != 0; i = (i + 1) & mask) {
+            if (Hashing.canShift(free, Hashing.slot(keys[i], mask), i)) {
+                keys[free] = keys[i];
+                values[free] = values[i];
+                free = i;
+            }
+        }
+        keys[free] = 0;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            long key = oldKeys[i];
+            if (key != 0) {
+                int slot = Hashing.slot(key, mask);
+                while (keys[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new long[capacity];
+        mask = capacity - 1;
+        resizeAt = Hashing.resizeThreshold(capacity);
+    }
+
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(long key, long value);
+    }
+}
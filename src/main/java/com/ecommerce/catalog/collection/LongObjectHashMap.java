@@ -0,0 +1,219 @@
+package com.ecommerce.catalog.collection;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.LongFunction;
+
+// Mapa long -> objeto com endereçamento aberto: chaves e valores em dois arrays, sem um
+// objeto Long e um nó por entrada como no HashMap. Valores nulos não são aceitos (null
+// significa "ausente"). Não é thread-safe: quem usa protege com o próprio lock.
+public class LongObjectHashMap<V> {
+
+    private long[] keys;
+    private Object[] values;
+    private int mask;
+    private int size;
+    private int resizeAt;
+
+    // A chave 0 marca posição vazia; o valor dela, se existir, fica aqui
+    private V zeroValue;
+
+    public LongObjectHashMap() {
+        this(Hashing.MIN_CAPACITY);
+    }
+
+    public LongObjectHashMap(int expectedSize) {
+        allocate(Hashing.capacityFor(expectedSize));
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        if (key == 0) {
+            return zeroValue;
+        }
+        for (int i = Hashing.slot(key, mask); ; i = (i + 1) & mask) {
+            long current = keys[i];
+            if (current == key) {
+                return (V) values[i];
+            }
+            if (current == 0) {
+                return null;
+            }
+        }
+    }
+
+    public boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    // Devolve o valor anterior, ou null
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        Objects.requireNonNull(value);
+        if (key == 0) {
+            V previous = zeroValue;
+            zeroValue = value;
+            if (previous == null) {
+                size++;
+            }
+            return previous;
+        }
+        for (int i = Hashing.slot(key, mask); ; i = (i + 1) & mask) {
+            long current = keys[i];
+            if (current == key) {
+                V previous = (V) values[i];
+                values[i] = value;
+                return previous;
+            }
+            if (current == 0) {
+                keys[i] = key;
+                values[i] = value;
+                if (++size > resizeAt) {
+                    rehash(keys.length << 1);
+                }
+                return null;
+            }
+        }
+    }
+
+    public V computeIfAbsent(long key, LongFunction<? extends V> factory) {
+        V value = get(key);
+        if (value == null) {
+            value = factory.apply(key);
+            put(key, value);
+        }
+        return value;
+    }
+
+    // Devolve o valor removido, ou null
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        if (key == 0) {
+            V previous = zeroValue;
+            if (previous != null) {
+                zeroValue = null;
+                size--;
+            }
+            return previous;
+        }
+        for (int i = Hashing.slot(key, mask); ; i = (i + 1) & mask) {
+            long current = keys[i];
+            if (current == key) {
+                V previous = (V) values[i];
+                size--;
+                shiftBack(i);
+                return previous;
+            }
+            if (current == 0) {
+                return null;
+            }
+        }
+    }
+
+    // Remove as entradas aceitas pelo filtro; devolve quantas saíram
+    @SuppressWarnings("unchecked")
+    public int removeIf(EntryPredicate<? super V> filter) {
+        long[] matched = new long[size];
+        int count = 0;
+        if (zeroValue != null && filter.test(0, zeroValue)) {
+            matched[count++] = 0;
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0 && filter.test(keys[i], (V) values[i])) {
+                matched[count++] = keys[i];
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            remove(matched[i]);
+        }
+        return count;
+    }
+
+    @SuppressWarnings("unchecked")
+    public void forEach(EntryConsumer<? super V> action) {
+        if (zeroValue != null) {
+            action.accept(0, zeroValue);
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) {
+                action.accept(keys[i], (V) values[i]);
+            }
+        }
+    }
+
+    public long[] keys() {
+        long[] result = new long[size];
+        int count = 0;
+        if (zeroValue != null) {
+            result[count++] = 0;
+        }
+        for (long key : keys) {
+            if (key != 0) {
+                result[count++] = key;
+            }
+        }
+        return result;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0);
+        Arrays.fill(values, null);
+        zeroValue = null;
+        size = 0;
+    }
+
+    // Remoção sem marcadores: as entradas seguintes do mesmo grupo voltam uma posição
+    private void shiftBack(int free) {
+        for (int i = (free + 1) & mask; keys[i] != 0; i = (i + 1) & mask) {
+            if (Hashing.canShift(free, Hashing.slot(keys[i], mask), i)) {
+                keys[free] = keys[i];
+                values[free] = values[i];
+                free = i;
+            }
+        }
+        keys[free] = 0;
+        values[free] = null;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            long key = oldKeys[i];
+            if (key != 0) {
+                int slot = Hashing.slot(key, mask);
+                while (keys[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        resizeAt = Hashing.resizeThreshold(capacity);
+    }
+
+    @FunctionalInterface
+    public interface EntryConsumer<V> {
+        void accept(long key, V value);
+    }
+
+    @FunctionalInterface
+    public interface EntryPredicate<V> {
+        boolean test(long key, V value);
+    }
+}
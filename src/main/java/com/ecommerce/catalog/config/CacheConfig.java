@@ -0,0 +1,15 @@
+package com.ecommerce.catalog.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    // Produto individual, indexado pelo id
+    public static final String PRODUCTS = "products";
+
+    // Listagem completa do catálogo (entrada única)
+    public static final String PRODUCT_LIST = "productList";
+}
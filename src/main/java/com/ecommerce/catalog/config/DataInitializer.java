@@ -9,6 +9,7 @@ import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 @Component
 public class DataInitializer implements CommandLineRunner {
@@ -21,22 +22,20 @@ public class DataInitializer implements CommandLineRunner {
 
     @Override
     public void run(String... args) throws Exception {
-        // Criar produtos iniciais
+        // Criar produtos iniciais (cargas grandes usam POST /api/products/import)
         if (productRepository.count() == 0) {
-            productRepository.save(new Product("Notebook Dell Inspiron", new BigDecimal("2500.00"), 
-                "Notebook Dell Inspiron 15 com Intel Core i5, 8GB RAM, SSD 256GB"));
-            
-            productRepository.save(new Product("Mouse Logitech MX Master", new BigDecimal("350.00"), 
-                "Mouse sem fio Logitech MX Master 3 com sensor de alta precisão"));
-            
-            productRepository.save(new Product("Teclado Mecânico", new BigDecimal("450.00"), 
-                "Teclado mecânico RGB com switches Cherry MX Blue"));
-            
-            productRepository.save(new Product("Monitor LG 24\"", new BigDecimal("800.00"), 
-                "Monitor LG 24 polegadas Full HD IPS"));
-            
-            productRepository.save(new Product("Smartphone Samsung Galaxy", new BigDecimal("1200.00"), 
-                "Samsung Galaxy A54 128GB com câmera tripla"));
+            productRepository.saveAll(List.of(
+                product("NB-DELL-INSP15", "Notebook Dell Inspiron", "2500.00",
+                    "Notebook Dell Inspiron 15 com Intel Core i5, 8GB RAM, SSD 256GB", 15),
+                product("MS-LOGI-MXM3", "Mouse Logitech MX Master", "350.00",
+                    "Mouse sem fio Logitech MX Master 3 com sensor de alta precisão", 60),
+                product("KB-MEC-RGB", "Teclado Mecânico", "450.00",
+                    "Teclado mecânico RGB com switches Cherry MX Blue", 40),
+                product("MN-LG-24FHD", "Monitor LG 24\"", "800.00",
+                    "Monitor LG 24 polegadas Full HD IPS", 25),
+                product("SP-SAMS-A54", "Smartphone Samsung Galaxy", "1200.00",
+                    "Samsung Galaxy A54 128GB com câmera tripla", 30)
+            ));
             
             System.out.println("Produtos iniciais criados!");
         }
@@ -50,4 +49,10 @@ public class DataInitializer implements CommandLineRunner {
             System.out.println("Usuários iniciais criados!");
         }
     }
-}
\ No newline at end of file
+
+    private static Product product(String sku, String name, String price, String description, int stock) {
+        Product product = new Product(name, new BigDecimal(price), description, stock);
+        product.setSku(sku);
+        return product;
+    }
+}
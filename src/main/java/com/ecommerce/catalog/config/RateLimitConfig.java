@@ -0,0 +1,68 @@
+package com.ecommerce.catalog.config;
+
+import com.ecommerce.catalog.ratelimit.AdaptiveConcurrencyLimit;
+import com.ecommerce.catalog.ratelimit.RateLimitInterceptor;
+import com.ecommerce.catalog.ratelimit.TokenBuckets;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+
+// Limites das rotas de escrita (ver RateLimitInterceptor). Como em WebMetricsConfig, sem
+// MeterRegistry (testes @WebMvcTest) o interceptor não é registrado.
+@Configuration
+@ConditionalOnProperty(name = "rate-limit.enabled", havingValue = "true", matchIfMissing = true)
+public class RateLimitConfig implements WebMvcConfigurer {
+
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    @Value("${rate-limit.paths:/api/cart/**,/api/orders/**}")
+    private String[] paths;
+
+    // Rotas administrativas em lote: sempre acima do limiar de latência, reduziriam o limite global
+    @Value("${rate-limit.exclude-paths:/api/orders/archive,/api/orders/view/rebuild}")
+    private String[] excludePaths;
+
+    @Value("${rate-limit.client.permits-per-second:5}")
+    private double permitsPerSecond;
+
+    @Value("${rate-limit.client.burst:20}")
+    private int burst;
+
+    @Value("${rate-limit.client.max-clients:100000}")
+    private long maxClients;
+
+    @Value("${rate-limit.concurrency.initial:20}")
+    private int initialLimit;
+
+    @Value("${rate-limit.concurrency.min:4}")
+    private int minLimit;
+
+    @Value("${rate-limit.concurrency.max:200}")
+    private int maxLimit;
+
+    @Value("${rate-limit.concurrency.backoff:0.9}")
+    private double backoff;
+
+    @Value("${rate-limit.concurrency.latency-threshold:500ms}")
+    private Duration latencyThreshold;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        meterRegistry.ifAvailable(meters -> {
+            TokenBuckets buckets = new TokenBuckets(permitsPerSecond, burst, maxClients);
+            AdaptiveConcurrencyLimit concurrency =
+                    new AdaptiveConcurrencyLimit(initialLimit, minLimit, maxLimit, backoff, latencyThreshold);
+            registry.addInterceptor(new RateLimitInterceptor(buckets, concurrency, meters))
+                    .addPathPatterns(paths)
+                    .excludePathPatterns(excludePaths);
+        });
+    }
+}
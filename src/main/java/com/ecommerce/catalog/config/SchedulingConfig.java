@@ -0,0 +1,12 @@
+package com.ecommerce.catalog.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Tarefas periódicas em segundo plano (gravação do estoque, expiração de reservas). O pool
+// tem spring.task.scheduling.pool.size threads, para uma tarefa longa (arquivamento, cópia
+// da análise de vendas) não atrasar as outras
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
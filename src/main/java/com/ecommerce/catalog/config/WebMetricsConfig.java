@@ -0,0 +1,24 @@
+package com.ecommerce.catalog.config;
+
+import com.ecommerce.catalog.metrics.QueryCountInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+// Separado de MetricsConfig porque os testes @WebMvcTest carregam os WebMvcConfigurer
+// sem o MeterRegistry; nesse caso o interceptor simplesmente não é registrado
+@Configuration
+public class WebMetricsConfig implements WebMvcConfigurer {
+
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        meterRegistry.ifAvailable(meters ->
+                registry.addInterceptor(new QueryCountInterceptor(meters)).addPathPatterns("/api/**"));
+    }
+}
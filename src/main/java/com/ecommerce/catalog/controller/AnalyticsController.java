@@ -0,0 +1,73 @@
+package com.ecommerce.catalog.controller;
+
+import com.ecommerce.catalog.analytics.SalesAnalytics;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Consultas de vendas servidas dos agregados em memória (ver SalesAnalytics), sem tocar no banco
+@RestController
+@RequestMapping("/api/analytics")
+@CrossOrigin(origins = "*")
+@Timed(value = "catalog.controller", percentiles = {0.5, 0.95, 0.99})
+public class AnalyticsController {
+    
+    @Autowired
+    private SalesAnalytics salesAnalytics;
+    
+    // Pedidos, receita e ticket médio
+    @GetMapping("/summary")
+    public ResponseEntity<SalesAnalytics.Summary> getSummary() {
+        return ResponseEntity.ok(salesAnalytics.summary());
+    }
+    
+    // Vendas por dia; sem parâmetros, os últimos 30 dias
+    @GetMapping("/daily")
+    public ResponseEntity<?> getDailySales(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                           @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(29);
+        try {
+            return ResponseEntity.ok(salesAnalytics.daily(start, end));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+    
+    @GetMapping("/status")
+    public ResponseEntity<List<SalesAnalytics.StatusSales>> getSalesByStatus() {
+        return ResponseEntity.ok(salesAnalytics.byStatus());
+    }
+    
+    @GetMapping("/products/{productId}")
+    public ResponseEntity<SalesAnalytics.ProductSales> getProductSales(@PathVariable Long productId) {
+        return ResponseEntity.ok(salesAnalytics.product(productId));
+    }
+    
+    // Mais vendidos por receita (by=revenue) ou por unidades (by=units)
+    @GetMapping("/top-products")
+    public ResponseEntity<?> getTopProducts(@RequestParam(defaultValue = "revenue") String by,
+                                            @RequestParam(defaultValue = "10") int limit) {
+        try {
+            return ResponseEntity.ok(salesAnalytics.topProducts(by, limit));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+    
+    // Recalcula os agregados a partir dos pedidos (backfill)
+    @PostMapping("/rebuild")
+    public ResponseEntity<SalesAnalytics.RebuildResult> rebuild() {
+        return ResponseEntity.ok(salesAnalytics.rebuild());
+    }
+    
+    @PostMapping("/snapshot")
+    public ResponseEntity<Long> snapshot() {
+        return ResponseEntity.ok(salesAnalytics.snapshot());
+    }
+}
@@ -1,8 +1,9 @@
 package com.ecommerce.catalog.controller;
 
+import com.ecommerce.catalog.checkout.IdempotentCheckout;
 import com.ecommerce.catalog.dto.CartItemDTO;
 import com.ecommerce.catalog.service.CartService;
-import com.ecommerce.catalog.service.OrderService;
+import io.micrometer.core.annotation.Timed;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -17,13 +18,14 @@ import java.util.Map;
 @RestController
 @RequestMapping("/api/cart")
 @CrossOrigin(origins = "*")
+@Timed(value = "catalog.controller", percentiles = {0.5, 0.95, 0.99})
 public class CartController {
     
     @Autowired
     private CartService cartService;
     
     @Autowired
-    private OrderService orderService;
+    private IdempotentCheckout idempotentCheckout;
     
     @GetMapping("/user/{userId}")
     public ResponseEntity<List<CartItemDTO>> getCartItems(@PathVariable Long userId) {
@@ -42,16 +44,20 @@ public class CartController {
     }
     
     @PutMapping("/{itemId}")
-    public ResponseEntity<CartItemDTO> updateCartItem(@PathVariable Long itemId, 
-                                                     @RequestBody Map<String, Integer> request) {
+    public ResponseEntity<?> updateCartItem(@PathVariable Long itemId, 
+                                            @RequestBody Map<String, Integer> request) {
         Integer quantity = request.get("quantity");
         if (quantity == null || quantity < 1) {
             return ResponseEntity.badRequest().build();
         }
         
-        return cartService.updateCartItem(itemId, quantity)
-                .map(item -> ResponseEntity.ok(item))
-                .orElse(ResponseEntity.notFound().build());
+        try {
+            return cartService.updateCartItem(itemId, quantity)
+                    .map(item -> ResponseEntity.ok(item))
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
     
     @DeleteMapping("/{itemId}")
@@ -75,10 +81,12 @@ public class CartController {
     }
     
     @PostMapping("/user/{userId}/checkout")
-    public ResponseEntity<Map<String, Object>> checkout(@PathVariable Long userId) {
+    public ResponseEntity<Map<String, Object>> checkout(@PathVariable Long userId,
+                                                        @RequestHeader(value = IdempotentCheckout.HEADER, required = false) String idempotencyKey) {
         try {
-            // Criar pedido a partir do carrinho
-            var orderDTO = orderService.createOrderFromCart(userId);
+            // Criar pedido a partir do carrinho (repetição da mesma chave devolve o pedido original)
+            IdempotentCheckout.Result result = idempotentCheckout.checkout(userId, idempotencyKey);
+            var orderDTO = result.order();
             
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -86,7 +94,13 @@ public class CartController {
             response.put("orderId", orderDTO.getId());
             response.put("total", orderDTO.getTotalAmount());
             
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok()
+                    .headers(headers -> {
+                        if (result.replayed()) {
+                            headers.set(IdempotentCheckout.REPLAYED_HEADER, "true");
+                        }
+                    })
+                    .body(response);
             
         } catch (RuntimeException e) {
             Map<String, Object> response = new HashMap<>();
@@ -1,53 +1,188 @@
 package com.ecommerce.catalog.controller;
 
+import com.ecommerce.catalog.archive.OrderArchiver;
+import com.ecommerce.catalog.cache.VersionStamps;
+import com.ecommerce.catalog.checkout.CheckoutQueue;
+import com.ecommerce.catalog.checkout.CheckoutStatus;
+import com.ecommerce.catalog.checkout.IdempotentCheckout;
 import com.ecommerce.catalog.dto.OrderDTO;
 import com.ecommerce.catalog.entity.Order;
+import com.ecommerce.catalog.event.OrderEventStream;
+import com.ecommerce.catalog.export.ExportFormat;
+import com.ecommerce.catalog.export.ExportResponse;
+import com.ecommerce.catalog.export.ExportService;
+import com.ecommerce.catalog.projection.OrderProjection;
 import com.ecommerce.catalog.service.OrderService;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.net.URI;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/orders")
 @CrossOrigin(origins = "*")
+@Timed(value = "catalog.controller", percentiles = {0.5, 0.95, 0.99})
 public class OrderController {
     
+    private static final long MAX_CHECKOUT_WAIT_MS = 30_000;
+    
     @Autowired
     private OrderService orderService;
     
+    @Autowired
+    private ExportService exportService;
+    
+    @Autowired
+    private VersionStamps versionStamps;
+    
+    @Autowired
+    private CheckoutQueue checkoutQueue;
+
+    @Autowired
+    private IdempotentCheckout idempotentCheckout;
+    
+    @Autowired
+    private OrderProjection orderProjection;
+    
+    @Autowired
+    private OrderEventStream orderEventStream;
+    
+    @Autowired
+    private OrderArchiver orderArchiver;
+    
     @GetMapping
-    public ResponseEntity<List<OrderDTO>> getAllOrders() {
-        List<OrderDTO> orders = orderService.getAllOrders();
-        return ResponseEntity.ok(orders);
+    public ResponseEntity<?> getAllOrders(@RequestParam(required = false) String after,
+                                          @RequestParam(required = false) Integer limit,
+                                          @RequestParam(required = false) String sort,
+                                          WebRequest request) {
+        VersionStamps.Stamp stamp = versionStamps.catalog(VersionStamps.Kind.ORDER);
+        if (request.checkNotModified(stamp.etag(), stamp.lastModified())) {
+            return null;
+        }
+        
+        if (after == null && limit == null && sort == null) {
+            // Modo legado: lista simples, limitada a CursorPage.LEGACY_LIMIT itens
+            List<OrderDTO> orders = orderService.getAllOrders();
+            return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(orders);
+        }
+        
+        try {
+            return ResponseEntity.ok().cacheControl(CacheControl.noCache())
+                    .body(orderService.getOrdersPage(after, limit, sort));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+    
+    // Histórico de pedidos em NDJSON (um pedido por linha) ou CSV (uma linha por item)
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportOrders(@RequestParam(defaultValue = "ndjson") String format,
+                                                              @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        try {
+            ExportFormat exportFormat = ExportFormat.parse(format);
+            StreamingResponseBody body = out -> exportService.exportOrders(exportFormat, out);
+            return ExportResponse.of("orders", exportFormat, acceptEncoding, body);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    // Eventos de pedido (criado, status alterado, excluído) via Server-Sent Events, de um
+    // usuário ou de todos. Evento "resync": eventos foram perdidos, recarregue a lista.
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamOrders(@RequestParam(required = false) Long userId,
+                                                   @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        try {
+            return ResponseEntity.ok().cacheControl(CacheControl.noStore())
+                    .body(orderEventStream.subscribe(userId, lastEventId));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "5")
+                    .build();
+        }
     }
     
     @GetMapping("/{id}")
-    public ResponseEntity<OrderDTO> getOrderById(@PathVariable Long id) {
+    public ResponseEntity<OrderDTO> getOrderById(@PathVariable Long id, WebRequest request) {
+        VersionStamps.Stamp stamp = versionStamps.of(VersionStamps.Kind.ORDER, id);
+        if (request.checkNotModified(stamp.etag(), stamp.lastModified())) {
+            return null;
+        }
+        
         return orderService.getOrderById(id)
-                .map(order -> ResponseEntity.ok(order))
-                .orElse(ResponseEntity.notFound().build());
+                .map(order -> ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(order))
+                .orElseGet(() -> {
+                    versionStamps.forget(VersionStamps.Kind.ORDER, id, stamp);
+                    return ResponseEntity.notFound().build();
+                });
     }
     
+    // Sem versão por usuário: usa a versão de todos os pedidos
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<OrderDTO>> getOrdersByUserId(@PathVariable Long userId) {
+    public ResponseEntity<List<OrderDTO>> getOrdersByUserId(@PathVariable Long userId, WebRequest request) {
+        VersionStamps.Stamp stamp = versionStamps.catalog(VersionStamps.Kind.ORDER);
+        if (request.checkNotModified(stamp.etag(), stamp.lastModified())) {
+            return null;
+        }
+        
         List<OrderDTO> orders = orderService.getOrdersByUserId(userId);
-        return ResponseEntity.ok(orders);
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(orders);
     }
     
     @PostMapping("/create-from-cart/{userId}")
-    public ResponseEntity<?> createOrderFromCart(@PathVariable Long userId) {
+    public ResponseEntity<?> createOrderFromCart(@PathVariable Long userId,
+                                                 @RequestHeader(value = IdempotentCheckout.HEADER, required = false) String idempotencyKey) {
         try {
-            OrderDTO createdOrder = orderService.createOrderFromCart(userId);
-            return ResponseEntity.status(HttpStatus.CREATED).body(createdOrder);
+            IdempotentCheckout.Result result = idempotentCheckout.checkout(userId, idempotencyKey);
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .headers(headers -> {
+                        if (result.replayed()) {
+                            headers.set(IdempotentCheckout.REPLAYED_HEADER, "true");
+                        }
+                    })
+                    .body(result.order());
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
     
+    // Checkout assíncrono: 202 com o id do checkout; o pedido sai depois, na fila
+    @PostMapping("/checkout/{userId}")
+    public ResponseEntity<?> checkout(@PathVariable Long userId) {
+        try {
+            CheckoutStatus status = checkoutQueue.submit(userId);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/orders/checkout/" + status.checkoutId()))
+                    .body(status);
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(e.getMessage());
+        }
+    }
+    
+    // Situação do checkout; com waitMs a resposta espera o resultado por até esse tempo (long polling)
+    @GetMapping("/checkout/{checkoutId}")
+    public CompletableFuture<ResponseEntity<CheckoutStatus>> getCheckoutStatus(@PathVariable String checkoutId,
+                                                                               @RequestParam(defaultValue = "0") long waitMs) {
+        long wait = Math.max(0, Math.min(waitMs, MAX_CHECKOUT_WAIT_MS));
+        return checkoutQueue.await(checkoutId, wait)
+                .map(result -> result.thenApply(ResponseEntity::ok))
+                .orElseGet(() -> CompletableFuture.completedFuture(ResponseEntity.notFound().build()));
+    }
+    
     @PutMapping("/{orderId}/status")
     public ResponseEntity<OrderDTO> updateOrderStatus(@PathVariable Long orderId,
                                                      @RequestBody Map<String, String> request) {
@@ -63,6 +198,22 @@ public class OrderController {
         }
     }
     
+    // Reconstrói o modelo de leitura order_view a partir das tabelas de pedidos (backfill)
+    @PostMapping("/view/rebuild")
+    public ResponseEntity<OrderProjection.RebuildResult> rebuildOrderView() {
+        return ResponseEntity.ok(orderProjection.rebuild());
+    }
+    
+    // Move os pedidos finalizados antigos para o arquivo (o mesmo que o job agendado faz)
+    @PostMapping("/archive")
+    public ResponseEntity<?> archiveOrders() {
+        try {
+            return ResponseEntity.ok(orderArchiver.archiveOldOrders());
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+    
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteOrder(@PathVariable Long id) {
         if (orderService.deleteOrder(id)) {
@@ -1,35 +1,112 @@
 package com.ecommerce.catalog.controller;
 
+import com.ecommerce.catalog.cache.VersionStamps;
+import com.ecommerce.catalog.dto.CursorPage;
+import com.ecommerce.catalog.dto.PriceBucketDTO;
 import com.ecommerce.catalog.dto.ProductDTO;
+import com.ecommerce.catalog.export.ExportFormat;
+import com.ecommerce.catalog.export.ExportResponse;
+import com.ecommerce.catalog.export.ExportService;
+import com.ecommerce.catalog.importer.ProductImportService;
+import com.ecommerce.catalog.inventory.StockLevel;
 import com.ecommerce.catalog.service.ProductService;
+import io.micrometer.core.annotation.Timed;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.util.List;
 
 @RestController
 @RequestMapping("/api/products")
 @CrossOrigin(origins = "*")
+@Timed(value = "catalog.controller", percentiles = {0.5, 0.95, 0.99})
 public class ProductController {
     
     @Autowired
     private ProductService productService;
     
+    @Autowired
+    private ExportService exportService;
+    
+    @Autowired
+    private ProductImportService productImportService;
+    
+    @Autowired
+    private VersionStamps versionStamps;
+    
     @GetMapping
-    public ResponseEntity<List<ProductDTO>> getAllProducts() {
-        List<ProductDTO> products = productService.getAllProducts();
-        return ResponseEntity.ok(products);
+    public ResponseEntity<?> getAllProducts(@RequestParam(required = false) String after,
+                                            @RequestParam(required = false) Integer limit,
+                                            @RequestParam(required = false) String sort,
+                                            WebRequest request) {
+        // Listagens validadas pela versão do catálogo inteiro, antes de qualquer consulta
+        VersionStamps.Stamp stamp = versionStamps.catalog(VersionStamps.Kind.PRODUCT);
+        if (request.checkNotModified(stamp.etag(), stamp.lastModified())) {
+            return null;
+        }
+        
+        if (after == null && limit == null && sort == null) {
+            // Modo legado: lista simples, limitada a CursorPage.LEGACY_LIMIT itens
+            List<ProductDTO> products = productService.getAllProducts();
+            return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(products);
+        }
+        
+        try {
+            return ResponseEntity.ok().cacheControl(CacheControl.noCache())
+                    .body(productService.getProductsPage(after, limit, sort));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+    
+    // Catálogo inteiro em NDJSON (padrão) ou CSV, escrito à medida que é lido do banco
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportProducts(@RequestParam(defaultValue = "ndjson") String format,
+                                                                @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        try {
+            ExportFormat exportFormat = ExportFormat.parse(format);
+            StreamingResponseBody body = out -> exportService.exportProducts(exportFormat, out);
+            return ExportResponse.of("products", exportFormat, acceptEncoding, body);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    // Carga em lote: o corpo é o arquivo CSV (com cabeçalho) ou NDJSON, upsert pelo SKU
+    @PostMapping("/import")
+    public ResponseEntity<?> importProducts(@RequestParam(defaultValue = "ndjson") String format,
+                                            InputStream body) throws IOException {
+        try {
+            return ResponseEntity.ok(productImportService.importProducts(body, ExportFormat.parse(format)));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
     
     @GetMapping("/{id}")
-    public ResponseEntity<ProductDTO> getProductById(@PathVariable Long id) {
+    public ResponseEntity<ProductDTO> getProductById(@PathVariable Long id, WebRequest request) {
+        // 304 direto pela versão em memória, sem ir ao cache nem ao banco
+        VersionStamps.Stamp stamp = versionStamps.of(VersionStamps.Kind.PRODUCT, id);
+        if (request.checkNotModified(stamp.etag(), stamp.lastModified())) {
+            return null;
+        }
+        
         return productService.getProductById(id)
-                .map(product -> ResponseEntity.ok(product))
-                .orElse(ResponseEntity.notFound().build());
+                .map(product -> ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(product))
+                .orElseGet(() -> {
+                    versionStamps.forget(VersionStamps.Kind.PRODUCT, id, stamp);
+                    return ResponseEntity.notFound().build();
+                });
     }
     
     @PostMapping
@@ -39,11 +116,24 @@ public class ProductController {
     }
     
     @PutMapping("/{id}")
-    public ResponseEntity<ProductDTO> updateProduct(@PathVariable Long id, 
-                                                   @Valid @RequestBody ProductDTO productDTO) {
-        return productService.updateProduct(id, productDTO)
-                .map(product -> ResponseEntity.ok(product))
-                .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<?> updateProduct(@PathVariable Long id, 
+                                           @Valid @RequestBody ProductDTO productDTO) {
+        try {
+            return productService.updateProduct(id, productDTO)
+                    .map(product -> ResponseEntity.ok(product))
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+    
+    @GetMapping("/{id}/stock")
+    public ResponseEntity<StockLevel> getStockLevel(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(productService.getStockLevel(id));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
     }
     
     @DeleteMapping("/{id}")
@@ -55,16 +145,61 @@ public class ProductController {
     }
     
     @GetMapping("/search")
-    public ResponseEntity<List<ProductDTO>> searchProducts(@RequestParam String name) {
+    public ResponseEntity<List<ProductDTO>> searchProducts(@RequestParam(required = false) String name,
+                                                           @RequestParam(required = false) String q,
+                                                           @RequestParam(required = false) BigDecimal minPrice,
+                                                           @RequestParam(required = false) BigDecimal maxPrice,
+                                                           @RequestParam(defaultValue = "20") int limit) {
+        if (q != null) {
+            // Busca ranqueada por nome e descrição (acentos ignorados, termos casam por prefixo)
+            int size = Math.max(1, Math.min(limit, CursorPage.MAX_LIMIT));
+            if (minPrice != null || maxPrice != null) {
+                return ResponseEntity.ok(productService.searchProducts(q, size, minPrice, maxPrice));
+            }
+            return ResponseEntity.ok(productService.searchProducts(q, size));
+        }
+        if (name == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        
         List<ProductDTO> products = productService.searchProductsByName(name);
         return ResponseEntity.ok(products);
     }
     
     @GetMapping("/price-range")
-    public ResponseEntity<List<ProductDTO>> getProductsByPriceRange(
+    public ResponseEntity<?> getProductsByPriceRange(
             @RequestParam BigDecimal minPrice,
-            @RequestParam BigDecimal maxPrice) {
-        List<ProductDTO> products = productService.getProductsByPriceRange(minPrice, maxPrice);
-        return ResponseEntity.ok(products);
+            @RequestParam BigDecimal maxPrice,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit) {
+        if (after == null && limit == null) {
+            // Modo legado: lista simples, limitada a CursorPage.LEGACY_LIMIT itens
+            return ResponseEntity.ok(productService.getProductsByPriceRange(minPrice, maxPrice));
+        }
+        
+        try {
+            return ResponseEntity.ok(productService.getProductsByPriceRangePage(minPrice, maxPrice, after, limit));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+    
+    @GetMapping("/cheapest")
+    public ResponseEntity<List<ProductDTO>> getCheapestProducts(@RequestParam(defaultValue = "10") int limit) {
+        int size = Math.max(1, Math.min(limit, CursorPage.MAX_LIMIT));
+        return ResponseEntity.ok(productService.getCheapestProducts(size));
+    }
+    
+    @GetMapping("/price-histogram")
+    public ResponseEntity<?> getPriceHistogram(@RequestParam(required = false) BigDecimal minPrice,
+                                               @RequestParam(required = false) BigDecimal maxPrice,
+                                               @RequestParam(defaultValue = "10") int buckets) {
+        try {
+            List<PriceBucketDTO> histogram = productService.getPriceHistogram(minPrice, maxPrice,
+                    Math.min(buckets, CursorPage.MAX_LIMIT));
+            return ResponseEntity.ok(histogram);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
-}
\ No newline at end of file
+}
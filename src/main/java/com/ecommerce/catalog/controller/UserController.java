@@ -2,6 +2,7 @@ package com.ecommerce.catalog.controller;
 
 import com.ecommerce.catalog.dto.UserDTO;
 import com.ecommerce.catalog.service.UserService;
+import io.micrometer.core.annotation.Timed;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -13,15 +14,27 @@ import java.util.List;
 @RestController
 @RequestMapping("/api/users")
 @CrossOrigin(origins = "*")
+@Timed(value = "catalog.controller", percentiles = {0.5, 0.95, 0.99})
 public class UserController {
     
     @Autowired
     private UserService userService;
     
     @GetMapping
-    public ResponseEntity<List<UserDTO>> getAllUsers() {
-        List<UserDTO> users = userService.getAllUsers();
-        return ResponseEntity.ok(users);
+    public ResponseEntity<?> getAllUsers(@RequestParam(required = false) String after,
+                                         @RequestParam(required = false) Integer limit,
+                                         @RequestParam(required = false) String sort) {
+        if (after == null && limit == null && sort == null) {
+            // Modo legado: lista simples, limitada a CursorPage.LEGACY_LIMIT itens
+            List<UserDTO> users = userService.getAllUsers();
+            return ResponseEntity.ok(users);
+        }
+        
+        try {
+            return ResponseEntity.ok(userService.getUsersPage(after, limit, sort));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
     
     @GetMapping("/{id}")
@@ -0,0 +1,73 @@
+package com.ecommerce.catalog.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+// Réplicas de leitura (datasource.replicas.enabled=true). O primário continua configurado
+// por spring.datasource.*; as réplicas usam as mesmas credenciais, salvo se informadas.
+@Configuration
+@ConditionalOnProperty(name = "datasource.replicas.enabled", havingValue = "true")
+public class ReadReplicaConfig {
+
+    @Value("${datasource.replicas.urls}")
+    private String[] urls;
+
+    @Value("${datasource.replicas.username:${spring.datasource.username:}}")
+    private String username;
+
+    @Value("${datasource.replicas.password:${spring.datasource.password:}}")
+    private String password;
+
+    @Value("${datasource.replicas.maximum-pool-size:20}")
+    private int maximumPoolSize;
+
+    @Value("${datasource.replicas.max-lag:5s}")
+    private Duration maxLag;
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean(destroyMethod = "close")
+    public ReplicaLagMonitor replicaLagMonitor(HikariDataSource primaryDataSource, DataSourceProperties properties,
+                                               MeterRegistry meterRegistry) {
+        List<ReplicaLagMonitor.Replica> replicas = new ArrayList<>();
+        for (int i = 0; i < urls.length; i++) {
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("replica-" + (i + 1));
+            replica.setJdbcUrl(urls[i].trim());
+            replica.setDriverClassName(properties.determineDriverClassName());
+            replica.setUsername(username);
+            replica.setPassword(password);
+            replica.setMaximumPoolSize(maximumPoolSize);
+            // Réplica fora do ar não pode segurar a verificação nem a leitura por muito tempo
+            replica.setConnectionTimeout(2000);
+            replica.setInitializationFailTimeout(-1);
+            replicas.add(new ReplicaLagMonitor.Replica(replica.getPoolName(), replica));
+        }
+        return new ReplicaLagMonitor(primaryDataSource, replicas, maxLag, meterRegistry);
+    }
+
+    // O DataSource da aplicação (JPA, JdbcTemplate). A conexão real só é obtida no primeiro
+    // comando, quando o Spring já sabe se a transação é somente leitura.
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaLagMonitor replicaLagMonitor) {
+        return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primaryDataSource, replicaLagMonitor));
+    }
+}
@@ -0,0 +1,37 @@
+package com.ecommerce.catalog.datasource;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+// Estado mínimo que as leituras da requisição atual precisam enxergar. Quem devolve uma
+// versão ao cliente (ETag) registra aqui o instante em que ela foi criada: uma réplica só
+// atende a requisição se já aplicou um heartbeat gravado depois desse instante, senão o
+// cliente guardaria o corpo antigo com a ETag nova.
+public final class ReplicaFreshness {
+
+    private static final String ATTRIBUTE = ReplicaFreshness.class.getName();
+
+    private ReplicaFreshness() {}
+
+    // Fora de uma requisição não há o que exigir
+    public static void require(long changedAt) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return;
+        }
+        Object current = attributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (current == null || (Long) current < changedAt) {
+            attributes.setAttribute(ATTRIBUTE, changedAt, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    // 0 quando nada foi exigido
+    static long required() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return 0;
+        }
+        Object current = attributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        return current != null ? (Long) current : 0;
+    }
+}
@@ -0,0 +1,160 @@
+package com.ecommerce.catalog.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Atraso das réplicas de leitura. A cada intervalo grava no primário o instante atual
+// (tabela replica_heartbeat) e lê em cada réplica o último valor que a replicação já
+// aplicou: a diferença é o atraso. Réplica atrasada além de max-lag, ou que não responde,
+// sai da rotação até a próxima verificação boa.
+public class ReplicaLagMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private final JdbcTemplate primary;
+    private final List<Replica> replicas;
+    private final long maxLagMillis;
+    private final AtomicInteger next = new AtomicInteger();
+
+    private final Counter replicaReads;
+    private final Counter primaryReads;
+
+    // Só a tarefa agendada (check é synchronized) acessa
+    private boolean heartbeatTableReady;
+
+    public ReplicaLagMonitor(DataSource primary, List<Replica> replicas, Duration maxLag, MeterRegistry meterRegistry) {
+        this.primary = new JdbcTemplate(primary);
+        this.replicas = List.copyOf(replicas);
+        this.maxLagMillis = maxLag.toMillis();
+
+        for (Replica replica : this.replicas) {
+            Gauge.builder("catalog.datasource.replica.lag", replica, r -> r.available ? r.lagMillis / 1000.0 : Double.NaN)
+                    .description("Atraso da réplica de leitura (NaN: fora da rotação)")
+                    .baseUnit("seconds")
+                    .tag("replica", replica.name)
+                    .register(meterRegistry);
+        }
+        this.replicaReads = Counter.builder("catalog.datasource.reads")
+                .description("Transações somente leitura por destino")
+                .tag("target", "replica")
+                .register(meterRegistry);
+        this.primaryReads = Counter.builder("catalog.datasource.reads")
+                .description("Transações somente leitura por destino")
+                .tag("target", "primary")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${datasource.replicas.heartbeat-interval-ms:500}")
+    public synchronized void check() {
+        long now = System.currentTimeMillis();
+        beat(now);
+        for (Replica replica : replicas) {
+            try {
+                Long applied = replica.jdbc.queryForObject("SELECT beat_at FROM replica_heartbeat WHERE id = 1", Long.class);
+                long lag = Math.max(0, now - applied);
+                replica.appliedBeat = applied;
+                replica.lagMillis = lag;
+                if (lag <= maxLagMillis) {
+                    markUp(replica);
+                } else {
+                    markDown(replica, "atraso de " + lag + " ms");
+                }
+            } catch (DataAccessException e) {
+                markDown(replica, e.getMessage());
+            }
+            replica.checked = true;
+        }
+    }
+
+    // Réplica para uma leitura que precisa enxergar tudo o que foi gravado até freshAfter
+    // (0: qualquer réplica disponível), em rodízio. null: a leitura vai para o primário.
+    Replica route(long freshAfter) {
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.available && replica.appliedBeat > freshAfter) {
+                replicaReads.increment();
+                return replica;
+            }
+        }
+        primaryReads.increment();
+        return null;
+    }
+
+    List<Replica> replicas() {
+        return replicas;
+    }
+
+    void markDown(Replica replica, String reason) {
+        if (replica.available || !replica.checked) {
+            replica.available = false;
+            log.warn("Réplica {} fora da rotação: {}", replica.name, reason);
+        }
+    }
+
+    private void markUp(Replica replica) {
+        if (!replica.available) {
+            replica.available = true;
+            log.info("Réplica {} de volta à rotação (atraso de {} ms)", replica.name, replica.lagMillis);
+        }
+    }
+
+    private void beat(long now) {
+        try {
+            if (!heartbeatTableReady) {
+                primary.execute("CREATE TABLE IF NOT EXISTS replica_heartbeat (id INT PRIMARY KEY, beat_at BIGINT NOT NULL)");
+                heartbeatTableReady = true;
+            }
+            if (primary.update("UPDATE replica_heartbeat SET beat_at = ? WHERE id = 1", now) == 0) {
+                primary.update("INSERT INTO replica_heartbeat (id, beat_at) VALUES (1, ?)", now);
+            }
+        } catch (DataAccessException e) {
+            // As réplicas param de avançar e saem da rotação sozinhas
+            log.warn("Falha ao gravar o heartbeat das réplicas: {}", e.getMessage());
+        }
+    }
+
+    public void close() {
+        replicas.forEach(replica -> replica.dataSource.close());
+    }
+
+    // Estado escrito pela verificação e lido a cada roteamento, sem lock
+    public static final class Replica {
+
+        private final String name;
+        private final HikariDataSource dataSource;
+        private final JdbcTemplate jdbc;
+
+        private volatile boolean available;
+        private volatile boolean checked;
+        private volatile long appliedBeat;
+        private volatile long lagMillis;
+
+        public Replica(String name, HikariDataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+            this.jdbc = new JdbcTemplate(dataSource);
+        }
+
+        String name() {
+            return name;
+        }
+
+        DataSource dataSource() {
+            return dataSource;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.ecommerce.catalog.datasource;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+
+// Transações somente leitura (@Transactional(readOnly = true), e os métodos de consulta
+// dos repositórios) vão para uma réplica; escritas e código fora de transação, para o
+// primário. Precisa ficar atrás de um LazyConnectionDataSourceProxy: o Spring só marca a
+// transação como somente leitura depois de pedir a conexão.
+public class ReplicaRoutingDataSource extends AbstractDataSource {
+
+    private final DataSource primary;
+    private final ReplicaLagMonitor monitor;
+
+    public ReplicaRoutingDataSource(DataSource primary, ReplicaLagMonitor monitor) {
+        this.primary = primary;
+        this.monitor = monitor;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return primary.getConnection();
+        }
+        ReplicaLagMonitor.Replica replica = monitor.route(ReplicaFreshness.required());
+        if (replica == null) {
+            return primary.getConnection();
+        }
+        try {
+            return replica.dataSource().getConnection();
+        } catch (SQLException e) {
+            // Réplica caiu entre duas verificações: a leitura segue no primário
+            monitor.markDown(replica, e.getMessage());
+            return primary.getConnection();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Credenciais vêm da configuração de cada pool");
+    }
+}
@@ -0,0 +1,131 @@
+package com.ecommerce.catalog.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+public class CursorPage<T> {
+
+    public static final int DEFAULT_LIMIT = 20;
+    public static final int MAX_LIMIT = 100;
+
+    // Teto aplicado às listagens sem paginação (modo legado)
+    public static final int LEGACY_LIMIT = 1000;
+
+    private List<T> items;
+    private String nextCursor;
+    private boolean hasMore;
+    private int limit;
+    private String sort;
+
+    public CursorPage() {}
+
+    public CursorPage(List<T> items, String nextCursor, int limit, String sort) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.hasMore = nextCursor != null;
+        this.limit = limit;
+        this.sort = sort;
+    }
+
+    // Monta a página a partir de uma consulta que buscou limit + 1 linhas:
+    // a linha extra só indica que existe próxima página e é descartada
+    public static <T> CursorPage<T> of(List<T> rows, int limit, String sort, Function<T, Cursor> cursorOf) {
+        if (rows.size() > limit) {
+            List<T> items = rows.subList(0, limit);
+            return new CursorPage<>(items, cursorOf.apply(items.get(limit - 1)).encode(), limit, sort);
+        }
+        return new CursorPage<>(rows, null, limit, sort);
+    }
+
+    public static int normalizeLimit(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_LIMIT;
+        }
+        if (limit < 1) {
+            throw new RuntimeException("Limite deve ser pelo menos 1");
+        }
+        return Math.min(limit, MAX_LIMIT);
+    }
+
+    // Getters and Setters
+    public List<T> getItems() {
+        return items;
+    }
+
+    public void setItems(List<T> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public void setLimit(int limit) {
+        this.limit = limit;
+    }
+
+    public String getSort() {
+        return sort;
+    }
+
+    public void setSort(String sort) {
+        this.sort = sort;
+    }
+
+    // Cursor opaco da última linha da página: o id e, fora da ordenação por id, o valor da
+    // coluna de ordenação. A próxima página continua direto dele, sem reler a linha (que pode
+    // nem existir mais)
+    public record Cursor(long id, String key) {
+
+        public static Cursor of(long id) {
+            return new Cursor(id, null);
+        }
+
+        public static Cursor decode(String cursor) {
+            try {
+                String text = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = text.indexOf(':');
+                return separator < 0
+                        ? new Cursor(Long.parseLong(text), null)
+                        : new Cursor(Long.parseLong(text.substring(0, separator)), text.substring(separator + 1));
+            } catch (IllegalArgumentException e) {
+                throw new RuntimeException("Cursor inválido");
+            }
+        }
+
+        public String encode() {
+            String text = key == null ? Long.toString(id) : id + ":" + key;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(text.getBytes(StandardCharsets.UTF_8));
+        }
+
+        // Valor da coluna de ordenação; cursor de outra ordenação é inválido
+        public <K> K key(Function<String, K> parser) {
+            if (key == null) {
+                throw new RuntimeException("Cursor inválido");
+            }
+            try {
+                return parser.apply(key);
+            } catch (RuntimeException e) {
+                throw new RuntimeException("Cursor inválido");
+            }
+        }
+    }
+}
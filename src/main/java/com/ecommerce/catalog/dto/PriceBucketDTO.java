@@ -0,0 +1,43 @@
+package com.ecommerce.catalog.dto;
+
+import java.math.BigDecimal;
+
+public class PriceBucketDTO {
+    
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+    private long count;
+    
+    public PriceBucketDTO() {}
+    
+    public PriceBucketDTO(BigDecimal minPrice, BigDecimal maxPrice, long count) {
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+        this.count = count;
+    }
+    
+    // Getters and Setters
+    public BigDecimal getMinPrice() {
+        return minPrice;
+    }
+    
+    public void setMinPrice(BigDecimal minPrice) {
+        this.minPrice = minPrice;
+    }
+    
+    public BigDecimal getMaxPrice() {
+        return maxPrice;
+    }
+    
+    public void setMaxPrice(BigDecimal maxPrice) {
+        this.maxPrice = maxPrice;
+    }
+    
+    public long getCount() {
+        return count;
+    }
+    
+    public void setCount(long count) {
+        this.count = count;
+    }
+}
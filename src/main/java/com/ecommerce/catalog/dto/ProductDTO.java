@@ -1,14 +1,19 @@
 package com.ecommerce.catalog.dto;
 
 import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import java.math.BigDecimal;
 
 public class ProductDTO {
     
     private Long id;
     
+    @Size(max = 64, message = "SKU deve ter no máximo 64 caracteres")
+    private String sku;
+    
     @NotBlank(message = "Nome do produto é obrigatório")
     private String name;
     
@@ -18,6 +23,9 @@ public class ProductDTO {
     
     private String description;
     
+    @Min(value = 0, message = "Estoque não pode ser negativo")
+    private Integer stock;
+    
     public ProductDTO() {}
     
     public ProductDTO(String name, BigDecimal price, String description) {
@@ -35,6 +43,14 @@ public class ProductDTO {
         this.id = id;
     }
     
+    public String getSku() {
+        return sku;
+    }
+    
+    public void setSku(String sku) {
+        this.sku = sku;
+    }
+    
     public String getName() {
         return name;
     }
@@ -58,4 +74,12 @@ public class ProductDTO {
     public void setDescription(String description) {
         this.description = description;
     }
+    
+    public Integer getStock() {
+        return stock;
+    }
+    
+    public void setStock(Integer stock) {
+        this.stock = stock;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,63 @@
+package com.ecommerce.catalog.entity;
+
+import com.ecommerce.catalog.analytics.SalesSnapshot;
+import jakarta.persistence.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+
+// Cópia periódica dos agregados de vendas (ver SalesAnalytics). Na subida, a mais recente é
+// carregada e completada com os pedidos posteriores, sem reprocessar todo o histórico.
+@Entity
+@Table(name = "analytics_snapshots")
+public class AnalyticsSnapshot {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    // Toda alteração de pedido anterior a este instante está incluída
+    @Column(name = "taken_at", nullable = false)
+    private LocalDateTime takenAt;
+    
+    // Maior id de pedido incluído e quantos pedidos até ele
+    @Column(name = "last_order_id", nullable = false)
+    private Long lastOrderId;
+    
+    @Column(name = "order_count", nullable = false)
+    private Long orderCount;
+    
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(nullable = false)
+    private SalesSnapshot payload;
+    
+    public AnalyticsSnapshot() {}
+    
+    public AnalyticsSnapshot(LocalDateTime takenAt, Long lastOrderId, SalesSnapshot payload) {
+        this.takenAt = takenAt;
+        this.lastOrderId = lastOrderId;
+        this.orderCount = payload.orders();
+        this.payload = payload;
+    }
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public LocalDateTime getTakenAt() {
+        return takenAt;
+    }
+    
+    public Long getLastOrderId() {
+        return lastOrderId;
+    }
+    
+    public Long getOrderCount() {
+        return orderCount;
+    }
+    
+    public SalesSnapshot getPayload() {
+        return payload;
+    }
+}
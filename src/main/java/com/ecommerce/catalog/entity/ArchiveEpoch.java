@@ -0,0 +1,44 @@
+package com.ecommerce.catalog.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+// Identidade do banco para o arquivo de pedidos (ver OrderArchive): uma única linha, criada
+// na primeira subida. Cada segmento guarda o epoch do banco de onde os pedidos saíram; um
+// banco recriado (H2 em memória, ids recomeçando em 1) tem epoch novo e ignora os segmentos antigos.
+@Entity
+@Table(name = "archive_epoch")
+public class ArchiveEpoch {
+    
+    public static final long ID = 1L;
+    
+    @Id
+    private Long id;
+    
+    @Column(nullable = false, length = 36)
+    private String epoch;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    public ArchiveEpoch() {}
+    
+    public ArchiveEpoch(String epoch) {
+        this.id = ID;
+        this.epoch = epoch;
+        this.createdAt = LocalDateTime.now();
+    }
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public String getEpoch() {
+        return epoch;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
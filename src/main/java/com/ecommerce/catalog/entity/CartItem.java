@@ -1,5 +1,6 @@
 package com.ecommerce.catalog.entity;
 
+import com.ecommerce.catalog.money.Money;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
@@ -46,10 +47,14 @@ public class CartItem {
     }
     
     public BigDecimal getTotalPrice() {
-        if (product != null && product.getPrice() != null && quantity != null) {
-            return product.getPrice().multiply(BigDecimal.valueOf(quantity));
+        return totalPrice().toBigDecimal();
+    }
+    
+    public Money totalPrice() {
+        if (product != null && product.price() != null && quantity != null) {
+            return product.price().times(quantity);
         }
-        return BigDecimal.ZERO;
+        return Money.ZERO;
     }
     
     // Getters and Setters
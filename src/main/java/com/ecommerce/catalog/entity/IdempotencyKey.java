@@ -0,0 +1,77 @@
+package com.ecommerce.catalog.entity;
+
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+// Chave Idempotency-Key de um checkout já feito, gravada na mesma transação do pedido.
+// A chave primária é a própria chave: o INSERT é a reserva, e uma repetição concorrente
+// (em outra instância) esbarra nele.
+@Entity
+@Table(name = "idempotency_keys", indexes = {
+    @Index(name = "idx_idempotency_keys_created_at", columnList = "created_at")
+})
+public class IdempotencyKey implements Persistable<String> {
+    
+    @Id
+    @Column(name = "idempotency_key", length = 255)
+    private String key;
+    
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+    
+    @Column(name = "order_id")
+    private Long orderId;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    // Chave atribuída pela aplicação: sem isso o save() faria SELECT + merge em vez de INSERT
+    @Transient
+    private boolean isNew = true;
+    
+    public IdempotencyKey() {}
+    
+    public IdempotencyKey(String key, Long userId) {
+        this.key = key;
+        this.userId = userId;
+    }
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+    
+    @PostPersist
+    @PostLoad
+    protected void markNotNew() {
+        isNew = false;
+    }
+    
+    @Override
+    public String getId() {
+        return key;
+    }
+    
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+    
+    public Long getUserId() {
+        return userId;
+    }
+    
+    public Long getOrderId() {
+        return orderId;
+    }
+    
+    public void setOrderId(Long orderId) {
+        this.orderId = orderId;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -1,17 +1,25 @@
 package com.ecommerce.catalog.entity;
 
+import com.ecommerce.catalog.money.Money;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+    @Index(name = "idx_orders_created_at", columnList = "created_at, id"),
+    @Index(name = "idx_orders_status_updated_at", columnList = "status, updated_at")
+})
 public class Order {
     
+    // Sequência com alocação em bloco: os ids são conhecidos antes do INSERT,
+    // o que permite ao Hibernate agrupar os inserts em lotes JDBC
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", allocationSize = 50)
     private Long id;
     
     @NotNull(message = "Usuário é obrigatório")
@@ -20,7 +28,7 @@ public class Order {
     private User user;
     
     @Column(name = "total_amount", nullable = false, precision = 10, scale = 2)
-    private BigDecimal totalAmount;
+    private Money totalAmount;
     
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
@@ -33,11 +41,15 @@ public class Order {
     private LocalDateTime updatedAt;
     
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
-    private List<OrderItem> items;
+    private List<OrderItem> items = new ArrayList<>();
+    
+    // Checkout assíncrono que gerou o pedido; evita pedido duplicado ao reprocessar a fila
+    @Column(name = "checkout_id", unique = true, length = 36)
+    private String checkoutId;
     
     public Order() {
         this.status = OrderStatus.PENDING;
-        this.totalAmount = BigDecimal.ZERO;
+        this.totalAmount = Money.ZERO;
     }
     
     public Order(User user) {
@@ -56,6 +68,11 @@ public class Order {
         updatedAt = LocalDateTime.now();
     }
     
+    public void addItem(OrderItem item) {
+        item.setOrder(this);
+        items.add(item);
+    }
+    
     public enum OrderStatus {
         PENDING, CONFIRMED, SHIPPED, DELIVERED, CANCELLED
     }
@@ -78,10 +95,18 @@ public class Order {
     }
     
     public BigDecimal getTotalAmount() {
-        return totalAmount;
+        return totalAmount != null ? totalAmount.toBigDecimal() : null;
     }
     
     public void setTotalAmount(BigDecimal totalAmount) {
+        this.totalAmount = totalAmount != null ? Money.of(totalAmount) : null;
+    }
+    
+    public Money totalAmount() {
+        return totalAmount;
+    }
+    
+    public void setTotalAmount(Money totalAmount) {
         this.totalAmount = totalAmount;
     }
     
@@ -116,4 +141,12 @@ public class Order {
     public void setItems(List<OrderItem> items) {
         this.items = items;
     }
+    
+    public String getCheckoutId() {
+        return checkoutId;
+    }
+    
+    public void setCheckoutId(String checkoutId) {
+        this.checkoutId = checkoutId;
+    }
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.ecommerce.catalog.entity;
 
+import com.ecommerce.catalog.money.Money;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
@@ -10,7 +11,8 @@ import java.math.BigDecimal;
 public class OrderItem {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_items_seq")
+    @SequenceGenerator(name = "order_items_seq", sequenceName = "order_items_seq", allocationSize = 50)
     private Long id;
     
     @NotNull(message = "Pedido é obrigatório")
@@ -23,6 +25,10 @@ public class OrderItem {
     @JoinColumn(name = "product_id", nullable = false)
     private Product product;
     
+    // Nome do produto no momento da compra: o pedido não muda se o produto for renomeado
+    @Column(name = "product_name", nullable = false)
+    private String productName;
+    
     @NotNull(message = "Quantidade é obrigatória")
     @Min(value = 1, message = "Quantidade deve ser pelo menos 1")
     @Column(nullable = false)
@@ -30,26 +36,31 @@ public class OrderItem {
     
     @NotNull(message = "Preço unitário é obrigatório")
     @Column(name = "unit_price", nullable = false, precision = 10, scale = 2)
-    private BigDecimal unitPrice;
+    private Money unitPrice;
     
     @Column(name = "total_price", nullable = false, precision = 10, scale = 2)
-    private BigDecimal totalPrice;
+    private Money totalPrice;
     
     public OrderItem() {}
     
     public OrderItem(Order order, Product product, Integer quantity, BigDecimal unitPrice) {
+        this(order, product, quantity, Money.of(unitPrice));
+    }
+    
+    public OrderItem(Order order, Product product, Integer quantity, Money unitPrice) {
         this.order = order;
         this.product = product;
+        this.productName = product.getName();
         this.quantity = quantity;
         this.unitPrice = unitPrice;
-        this.totalPrice = unitPrice.multiply(BigDecimal.valueOf(quantity));
+        this.totalPrice = unitPrice.times(quantity);
     }
     
     @PrePersist
     @PreUpdate
     protected void calculateTotalPrice() {
         if (unitPrice != null && quantity != null) {
-            this.totalPrice = unitPrice.multiply(BigDecimal.valueOf(quantity));
+            this.totalPrice = unitPrice.times(quantity);
         }
     }
     
@@ -78,6 +89,14 @@ public class OrderItem {
         this.product = product;
     }
     
+    public String getProductName() {
+        return productName;
+    }
+    
+    public void setProductName(String productName) {
+        this.productName = productName;
+    }
+    
     public Integer getQuantity() {
         return quantity;
     }
@@ -88,19 +107,27 @@ public class OrderItem {
     }
     
     public BigDecimal getUnitPrice() {
-        return unitPrice;
+        return unitPrice != null ? unitPrice.toBigDecimal() : null;
     }
     
     public void setUnitPrice(BigDecimal unitPrice) {
-        this.unitPrice = unitPrice;
+        this.unitPrice = unitPrice != null ? Money.of(unitPrice) : null;
         calculateTotalPrice();
     }
     
     public BigDecimal getTotalPrice() {
-        return totalPrice;
+        return totalPrice != null ? totalPrice.toBigDecimal() : null;
     }
     
     public void setTotalPrice(BigDecimal totalPrice) {
-        this.totalPrice = totalPrice;
+        this.totalPrice = totalPrice != null ? Money.of(totalPrice) : null;
+    }
+    
+    public Money unitPrice() {
+        return unitPrice;
+    }
+    
+    public Money totalPrice() {
+        return totalPrice;
     }
 }
\ No newline at end of file
@@ -0,0 +1,110 @@
+package com.ecommerce.catalog.entity;
+
+import com.ecommerce.catalog.dto.OrderItemDTO;
+import com.ecommerce.catalog.money.Money;
+import jakarta.persistence.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Modelo de leitura dos pedidos (CQRS): uma linha por pedido, já com o nome do usuário e os
+// itens em uma coluna JSON. As consultas de pedidos leem só esta tabela, sem juntar orders,
+// users, order_items e products. Mantida pelo OrderProjection a partir dos eventos de pedido.
+@Entity
+@Table(name = "order_view", indexes = {
+    @Index(name = "idx_order_view_user", columnList = "user_id, order_id"),
+    @Index(name = "idx_order_view_created_at", columnList = "created_at, order_id")
+})
+public class OrderView implements Persistable<Long> {
+    
+    // O mesmo id do pedido
+    @Id
+    @Column(name = "order_id")
+    private Long id;
+    
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+    
+    @Column(name = "user_name", nullable = false, length = 100)
+    private String userName;
+    
+    @Column(name = "total_amount", nullable = false, precision = 10, scale = 2)
+    private Money totalAmount;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Order.OrderStatus status;
+    
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+    
+    // Itens como estavam no momento da compra (nome e preço do produto)
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(nullable = false)
+    private List<OrderItemDTO> items = new ArrayList<>();
+    
+    // Id atribuído pela aplicação: sem isso o save() faria SELECT + merge em vez de INSERT
+    @Transient
+    private boolean isNew = true;
+    
+    public OrderView() {}
+    
+    public OrderView(Order order, List<OrderItemDTO> items) {
+        this.id = order.getId();
+        refresh(order, items);
+    }
+    
+    // Copia o estado atual do pedido
+    public void refresh(Order order, List<OrderItemDTO> items) {
+        this.userId = order.getUser().getId();
+        this.userName = order.getUser().getName();
+        this.totalAmount = order.totalAmount();
+        this.status = order.getStatus();
+        this.createdAt = order.getCreatedAt();
+        this.items = items;
+    }
+    
+    @PostPersist
+    @PostLoad
+    protected void markNotNew() {
+        isNew = false;
+    }
+    
+    @Override
+    public Long getId() {
+        return id;
+    }
+    
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+    
+    public Long getUserId() {
+        return userId;
+    }
+    
+    public String getUserName() {
+        return userName;
+    }
+    
+    public Money totalAmount() {
+        return totalAmount;
+    }
+    
+    public Order.OrderStatus getStatus() {
+        return status;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public List<OrderItemDTO> getItems() {
+        return items;
+    }
+}
@@ -1,5 +1,6 @@
 package com.ecommerce.catalog.entity;
 
+import com.ecommerce.catalog.money.Money;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
@@ -8,25 +9,35 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+    @Index(name = "idx_products_price", columnList = "price, id"),
+    @Index(name = "idx_products_name", columnList = "name, id")
+})
 public class Product {
     
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     
+    // Código do fornecedor: chave natural usada na importação em lote
+    @Column(unique = true, length = 64)
+    private String sku;
+    
     @NotBlank(message = "Nome do produto é obrigatório")
     @Column(nullable = false)
     private String name;
     
-    @NotNull(message = "Preço é obrigatório")
-    @DecimalMin(value = "0.0", inclusive = false, message = "Preço deve ser maior que zero")
+    // Em centavos (MoneyConverter); a validação fica no getter, que expõe o BigDecimal
     @Column(nullable = false, precision = 10, scale = 2)
-    private BigDecimal price;
+    private Money price;
     
     @Column(length = 1000)
     private String description;
     
+    // Depois do insert, só o StockLedger altera o estoque (UPDATE incremental em lote)
+    @Column(nullable = false, updatable = false)
+    private Integer stock = 0;
+    
     @Column(name = "created_at")
     private LocalDateTime createdAt;
     
@@ -37,10 +48,15 @@ public class Product {
     
     public Product(String name, BigDecimal price, String description) {
         this.name = name;
-        this.price = price;
+        setPrice(price);
         this.description = description;
     }
     
+    public Product(String name, BigDecimal price, String description, Integer stock) {
+        this(name, price, description);
+        this.stock = stock;
+    }
+    
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -61,6 +77,14 @@ public class Product {
         this.id = id;
     }
     
+    public String getSku() {
+        return sku;
+    }
+    
+    public void setSku(String sku) {
+        this.sku = sku;
+    }
+    
     public String getName() {
         return name;
     }
@@ -69,12 +93,19 @@ public class Product {
         this.name = name;
     }
     
+    @NotNull(message = "Preço é obrigatório")
+    @DecimalMin(value = "0.0", inclusive = false, message = "Preço deve ser maior que zero")
     public BigDecimal getPrice() {
-        return price;
+        return price != null ? price.toBigDecimal() : null;
     }
     
     public void setPrice(BigDecimal price) {
-        this.price = price;
+        this.price = price != null ? Money.of(price) : null;
+    }
+    
+    // Preço para as contas de total, sem conversão
+    public Money price() {
+        return price;
     }
     
     public String getDescription() {
@@ -85,6 +116,14 @@ public class Product {
         this.description = description;
     }
     
+    public Integer getStock() {
+        return stock;
+    }
+    
+    public void setStock(Integer stock) {
+        this.stock = stock;
+    }
+    
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
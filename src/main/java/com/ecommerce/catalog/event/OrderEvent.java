@@ -0,0 +1,31 @@
+package com.ecommerce.catalog.event;
+
+import com.ecommerce.catalog.entity.Order;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Evento do ciclo de vida de um pedido, publicado pelo OrderService e entregue após o commit.
+// previousStatus só é preenchido em STATUS_CHANGED.
+public record OrderEvent(Type type, Long orderId, Long userId, Order.OrderStatus status,
+                         Order.OrderStatus previousStatus, BigDecimal totalAmount, LocalDateTime occurredAt) {
+
+    public enum Type { CREATED, STATUS_CHANGED, DELETED }
+
+    public static OrderEvent created(Order order) {
+        return of(Type.CREATED, order, null);
+    }
+
+    public static OrderEvent statusChanged(Order order, Order.OrderStatus previousStatus) {
+        return of(Type.STATUS_CHANGED, order, previousStatus);
+    }
+
+    public static OrderEvent deleted(Order order) {
+        return of(Type.DELETED, order, null);
+    }
+
+    private static OrderEvent of(Type type, Order order, Order.OrderStatus previousStatus) {
+        return new OrderEvent(type, order.getId(), order.getUser().getId(), order.getStatus(), previousStatus,
+                order.getTotalAmount(), LocalDateTime.now());
+    }
+}
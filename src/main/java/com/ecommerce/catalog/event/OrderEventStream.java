@@ -0,0 +1,250 @@
+package com.ecommerce.catalog.event;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Distribui os eventos de pedido para as conexões SSE abertas (/api/orders/stream).
+// Quem publica nunca espera por um cliente: cada assinante tem um buffer limitado, esvaziado
+// por um pool pequeno de threads de envio. Se o cliente não acompanha e o buffer enche, os
+// eventos pendentes são descartados e o cliente recebe um "resync" para recarregar os pedidos.
+//
+// Todo evento recebe um id (campo id do SSE), haja ou não alguém conectado. Na reconexão, o
+// Last-Event-ID é comparado com o último evento do escopo assinado (o usuário, ou todos): se
+// houve eventos desse escopo depois dele, o cliente recebe "resync".
+@Component
+public class OrderEventStream {
+
+    static final String RESYNC = "resync";
+
+    @Value("${orders.stream.buffer-size:256}")
+    private int bufferSize;
+
+    @Value("${orders.stream.max-subscribers:5000}")
+    private int maxSubscribers;
+
+    @Value("${orders.stream.timeout:30m}")
+    private Duration timeout;
+
+    @Value("${orders.stream.sender-threads:4}")
+    private int senderThreads;
+
+    @Value("${orders.stream.tracked-users:100000}")
+    private int trackedUsers = 100_000;
+
+    // Ids dos eventos: "<subida>-<sequência>", para um id de antes de um restart nunca coincidir
+    private final String bootId = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong sequence = new AtomicLong();
+
+    // Sequência do último evento de cada usuário. Usuário fora do cache (nenhum evento desde a
+    // subida, ou descartado por tamanho): a reconexão dele recebe "resync"
+    private Cache<Long, Long> lastByUser;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    private final Counter dropped;
+
+    private ExecutorService senders;
+
+    public OrderEventStream(MeterRegistry meterRegistry) {
+        Gauge.builder("catalog.orders.stream.subscribers", subscribers, Set::size)
+                .description("Conexões SSE abertas em /api/orders/stream")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("catalog.orders.stream.dropped")
+                .description("Eventos descartados por assinantes lentos")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void init() {
+        lastByUser = Caffeine.newBuilder().maximumSize(trackedUsers).build();
+        AtomicInteger count = new AtomicInteger();
+        senders = Executors.newFixedThreadPool(senderThreads, task -> {
+            Thread thread = new Thread(task, "order-stream-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // userId nulo assina os pedidos de todos os usuários
+    public SseEmitter subscribe(Long userId, String lastEventId) {
+        return register(userId, lastEventId, new SseEmitter(timeout.toMillis()));
+    }
+
+    SseEmitter register(Long userId, String lastEventId, SseEmitter emitter) {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new RuntimeException("Limite de conexões do stream de pedidos atingido");
+        }
+
+        Subscriber subscriber = new Subscriber(userId, emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(error -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+
+        // Reconexão com eventos perdidos (ou de antes de um restart): o cliente precisa recarregar.
+        // Feita depois de incluir o assinante: um evento publicado entre as duas etapas chega
+        // a ele ou aparece aqui
+        if (lastEventId != null && !lastEventId.equals(lastEventId(userId))) {
+            subscriber.offer(OrderEventStream::resync);
+        } else {
+            // Abre a resposta imediatamente (o cabeçalho só sai no primeiro envio)
+            subscriber.offer(() -> SseEmitter.event().reconnectTime(3000).comment("conectado"));
+        }
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void publish(OrderEvent event) {
+        long number = sequence.incrementAndGet();
+        if (event.userId() != null) {
+            lastByUser.asMap().merge(event.userId(), number, Math::max);
+        }
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        String id = id(number);
+        // O builder do Spring guarda estado ao ser enviado: cada assinante monta o seu
+        Supplier<SseEmitter.SseEventBuilder> message = () -> SseEmitter.event().id(id).name("order").data(event);
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.userId == null || subscriber.userId.equals(event.userId())) {
+                subscriber.offer(message);
+            }
+        }
+    }
+
+    // Mantém as conexões vivas atrás de proxies e detecta clientes que já foram embora
+    @Scheduled(fixedDelayString = "${orders.stream.heartbeat-ms:15000}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offerIfIdle(() -> SseEmitter.event().comment("ping"));
+        }
+    }
+
+    // Id do último evento do escopo; null se não houve nenhum (ou não se sabe)
+    private String lastEventId(Long userId) {
+        if (userId == null) {
+            return id(sequence.get());
+        }
+        Long last = lastByUser.getIfPresent(userId);
+        return last != null ? id(last) : null;
+    }
+
+    private String id(long number) {
+        return bootId + "-" + number;
+    }
+
+    private static SseEmitter.SseEventBuilder resync() {
+        return SseEmitter.event().name(RESYNC).data("");
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        senders.shutdownNow();
+    }
+
+    private final class Subscriber {
+
+        private final Long userId;
+        private final SseEmitter emitter;
+
+        // Protegidos pelo monitor do assinante
+        private final ArrayDeque<Supplier<SseEmitter.SseEventBuilder>> buffer = new ArrayDeque<>();
+        private boolean overflowed;
+        private boolean draining;
+        private boolean closed;
+
+        Subscriber(Long userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        void offer(Supplier<SseEmitter.SseEventBuilder> message) {
+            boolean schedule;
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                if (buffer.size() >= bufferSize) {
+                    dropped.increment(buffer.size());
+                    buffer.clear();
+                    overflowed = true;
+                }
+                buffer.add(message);
+                schedule = !draining;
+                draining = true;
+            }
+            if (schedule) {
+                senders.execute(this::drain);
+            }
+        }
+
+        void offerIfIdle(Supplier<SseEmitter.SseEventBuilder> message) {
+            synchronized (this) {
+                if (draining || closed) {
+                    return;
+                }
+            }
+            offer(message);
+        }
+
+        // Envia o que estiver no buffer; só um envio por assinante fica em andamento
+        private void drain() {
+            while (true) {
+                Supplier<SseEmitter.SseEventBuilder> next;
+                synchronized (this) {
+                    if (overflowed) {
+                        overflowed = false;
+                        next = OrderEventStream::resync;
+                    } else {
+                        next = buffer.poll();
+                    }
+                    if (next == null) {
+                        draining = false;
+                        return;
+                    }
+                }
+                try {
+                    emitter.send(next.get());
+                } catch (IOException | IllegalStateException e) {
+                    // Conexão perdida: o próprio Spring encerra a requisição assíncrona
+                    close();
+                    return;
+                }
+            }
+        }
+
+        private void close() {
+            synchronized (this) {
+                closed = true;
+                buffer.clear();
+            }
+            subscribers.remove(this);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.ecommerce.catalog.export;
+
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.zip.GZIPOutputStream;
+
+// Resposta de exportação: o corpo é escrito direto na saída, fora da thread da requisição,
+// comprimido com gzip quando o cliente aceita
+public final class ExportResponse {
+
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
+    private ExportResponse() {}
+
+    public static ResponseEntity<StreamingResponseBody> of(String name, ExportFormat format, String acceptEncoding,
+                                                           StreamingResponseBody body) {
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType(format.getContentType()));
+        headers.setContentDisposition(ContentDisposition.attachment()
+                .filename(name + "." + format.getExtension())
+                .build());
+        headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            headers.add(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+
+        return ResponseEntity.ok()
+                .headers(headers)
+                .body(out -> {
+                    if (!gzip) {
+                        body.writeTo(out);
+                        return;
+                    }
+                    GZIPOutputStream compressed = new GZIPOutputStream(out, GZIP_BUFFER_SIZE);
+                    body.writeTo(compressed);
+                    compressed.finish();
+                });
+    }
+}
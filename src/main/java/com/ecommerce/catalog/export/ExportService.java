@@ -0,0 +1,213 @@
+package com.ecommerce.catalog.export;
+
+import com.ecommerce.catalog.dto.OrderDTO;
+import com.ecommerce.catalog.dto.OrderItemDTO;
+import com.ecommerce.catalog.dto.ProductDTO;
+import com.ecommerce.catalog.entity.Order;
+import com.ecommerce.catalog.entity.OrderItem;
+import com.ecommerce.catalog.entity.Product;
+import com.ecommerce.catalog.repository.OrderItemRepository;
+import com.ecommerce.catalog.repository.ProductRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+// Exportação do catálogo e dos pedidos em NDJSON ou CSV. As linhas vêm de um cursor do
+// banco e são escritas uma a uma, então a memória usada não depende do tamanho da tabela.
+@Service
+public class ExportService {
+
+    // A cada N linhas o contexto de persistência é esvaziado, para as entidades já
+    // escritas não se acumularem na sessão
+    static final int CLEAR_INTERVAL = 500;
+
+    private static final String PRODUCT_HEADER = "id,sku,name,price,description,stock";
+    private static final String ORDER_HEADER = "order_id,user_id,user_name,status,created_at,total_amount," +
+            "product_id,product_name,quantity,unit_price,total_price";
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Transactional(readOnly = true)
+    public void exportProducts(ExportFormat format, OutputStream out) throws IOException {
+        try (Stream<Product> rows = productRepository.streamAllOrderById()) {
+            Iterator<Product> iterator = rows.iterator();
+            if (format == ExportFormat.CSV) {
+                Writer writer = csvWriter(out, PRODUCT_HEADER);
+                for (int count = 1; iterator.hasNext(); count++) {
+                    Product product = iterator.next();
+                    writeCsv(writer, product.getId(), product.getSku(), product.getName(), product.getPrice(),
+                            product.getDescription(), product.getStock());
+                    clearEvery(count);
+                }
+                writer.flush();
+            } else {
+                ObjectWriter ndjson = ndjsonWriter();
+                JsonGenerator generator = ndjson.createGenerator(out).disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                int count = 0;
+                while (iterator.hasNext()) {
+                    ndjson.writeValue(generator, convertToDTO(iterator.next()));
+                    clearEvery(++count);
+                }
+                endNdjson(generator, count > 0);
+            }
+        }
+    }
+
+    // Em CSV sai uma linha por item (um pedido sem itens sai numa linha com as colunas do item
+    // vazias); em NDJSON, um pedido por linha, montado enquanto os itens dele são lidos
+    @Transactional(readOnly = true)
+    public void exportOrders(ExportFormat format, OutputStream out) throws IOException {
+        try (Stream<Object[]> rows = orderItemRepository.streamAllOrderByOrderId()) {
+            Iterator<Object[]> iterator = rows.iterator();
+            if (format == ExportFormat.CSV) {
+                Writer writer = csvWriter(out, ORDER_HEADER);
+                for (int count = 1; iterator.hasNext(); count++) {
+                    Object[] row = iterator.next();
+                    Order order = (Order) row[0];
+                    OrderItem item = (OrderItem) row[1];
+                    writeCsv(writer, order.getId(), order.getUser().getId(), order.getUser().getName(),
+                            order.getStatus(), order.getCreatedAt(), order.getTotalAmount(),
+                            item == null ? null : item.getProduct().getId(),
+                            item == null ? null : item.getProductName(),
+                            item == null ? null : item.getQuantity(),
+                            item == null ? null : item.getUnitPrice(),
+                            item == null ? null : item.getTotalPrice());
+                    clearEvery(count);
+                }
+                writer.flush();
+            } else {
+                ObjectWriter ndjson = ndjsonWriter();
+                JsonGenerator generator = ndjson.createGenerator(out).disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                OrderDTO current = null;
+                for (int count = 1; iterator.hasNext(); count++) {
+                    Object[] row = iterator.next();
+                    Order order = (Order) row[0];
+                    if (current == null || !current.getId().equals(order.getId())) {
+                        if (current != null) {
+                            ndjson.writeValue(generator, current);
+                        }
+                        current = convertToDTO(order);
+                    }
+                    if (row[1] != null) {
+                        current.getItems().add(convertOrderItemToDTO((OrderItem) row[1]));
+                    }
+                    clearEvery(count);
+                }
+                if (current != null) {
+                    ndjson.writeValue(generator, current);
+                }
+                endNdjson(generator, current != null);
+            }
+        }
+    }
+
+    private void clearEvery(int count) {
+        if (count % CLEAR_INTERVAL == 0) {
+            entityManager.clear();
+        }
+    }
+
+    // Um objeto JSON por linha; o flush fica a cargo do buffer da saída, não de cada objeto
+    private ObjectWriter ndjsonWriter() {
+        return objectMapper.writer()
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .withRootValueSeparator("\n");
+    }
+
+    // O separador só vai entre objetos: a quebra da última linha é escrita aqui, e uma
+    // tabela vazia resulta num corpo vazio
+    private void endNdjson(JsonGenerator generator, boolean wroteAny) throws IOException {
+        if (wroteAny) {
+            generator.writeRaw('\n');
+        }
+        generator.flush();
+    }
+
+    private Writer csvWriter(OutputStream out, String header) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(header);
+        writer.write('\n');
+        return writer;
+    }
+
+    private void writeCsv(Writer writer, Object... values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(csvField(values[i]));
+        }
+        writer.write('\n');
+    }
+
+    // RFC 4180: campos com vírgula, aspas ou quebra de linha vão entre aspas, com as aspas dobradas
+    static String csvField(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+
+    private ProductDTO convertToDTO(Product product) {
+        ProductDTO dto = new ProductDTO();
+        dto.setId(product.getId());
+        dto.setSku(product.getSku());
+        dto.setName(product.getName());
+        dto.setPrice(product.getPrice());
+        dto.setDescription(product.getDescription());
+        dto.setStock(product.getStock());
+        return dto;
+    }
+
+    private OrderDTO convertToDTO(Order order) {
+        OrderDTO dto = new OrderDTO();
+        dto.setId(order.getId());
+        dto.setUserId(order.getUser().getId());
+        dto.setUserName(order.getUser().getName());
+        dto.setTotalAmount(order.getTotalAmount());
+        dto.setStatus(order.getStatus());
+        dto.setCreatedAt(order.getCreatedAt());
+        dto.setItems(new ArrayList<>());
+        return dto;
+    }
+
+    private OrderItemDTO convertOrderItemToDTO(OrderItem orderItem) {
+        return new OrderItemDTO(
+            orderItem.getProduct().getId(),
+            orderItem.getProductName(),
+            orderItem.getQuantity(),
+            orderItem.getUnitPrice(),
+            orderItem.getTotalPrice()
+        );
+    }
+}
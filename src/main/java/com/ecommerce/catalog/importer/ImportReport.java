@@ -0,0 +1,10 @@
+package com.ecommerce.catalog.importer;
+
+import java.util.List;
+
+// Resultado de uma importação: contagens, erros por linha (limitados) e vazão em linhas/s
+public record ImportReport(long rows, long inserted, long updated, long failed,
+                           List<RowError> errors, long elapsedMillis, double rowsPerSecond) {
+
+    public record RowError(long line, String message) {}
+}
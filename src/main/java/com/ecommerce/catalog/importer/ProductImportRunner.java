@@ -0,0 +1,63 @@
+package com.ecommerce.catalog.importer;
+
+import com.ecommerce.catalog.export.ExportFormat;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Importação pela linha de comando, sem passar pela API:
+//   java -jar product-catalog.jar --import.file=produtos.csv --spring.main.web-application-type=none
+// Ao terminar encerra a aplicação (código 1 se alguma linha falhou), a menos que import.exit=false.
+@Component
+@ConditionalOnProperty(name = "import.file")
+public class ProductImportRunner implements ApplicationRunner {
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private ConfigurableApplicationContext context;
+
+    @Value("${import.file}")
+    private String file;
+
+    @Value("${import.format:}")
+    private String format;
+
+    @Value("${import.exit:true}")
+    private boolean exit;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        Path path = Path.of(file);
+        ExportFormat importFormat = ExportFormat.parse(format.isBlank() ? extension(path) : format);
+
+        ImportReport report;
+        try (InputStream in = Files.newInputStream(path)) {
+            report = productImportService.importProducts(in, importFormat);
+        }
+
+        System.out.printf("Importação de %s: %d linhas, %d novas, %d atualizadas, %d com erro, %.0f linhas/s%n",
+                path, report.rows(), report.inserted(), report.updated(), report.failed(), report.rowsPerSecond());
+        report.errors().forEach(error -> System.out.println("  linha " + error.line() + ": " + error.message()));
+
+        if (exit) {
+            System.exit(SpringApplication.exit(context, () -> report.failed() == 0 ? 0 : 1));
+        }
+    }
+
+    private static String extension(Path path) {
+        String name = path.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return dot >= 0 ? name.substring(dot + 1) : "";
+    }
+}
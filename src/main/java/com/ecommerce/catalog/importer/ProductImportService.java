@@ -0,0 +1,450 @@
+package com.ecommerce.catalog.importer;
+
+import com.ecommerce.catalog.cache.VersionStamps;
+import com.ecommerce.catalog.cart.CartTotals;
+import com.ecommerce.catalog.config.CacheConfig;
+import com.ecommerce.catalog.dto.ProductDTO;
+import com.ecommerce.catalog.export.ExportFormat;
+import com.ecommerce.catalog.inventory.StockLedger;
+import com.ecommerce.catalog.search.PriceIndex;
+import com.ecommerce.catalog.search.ProductSearchIndex;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Importação em lote do catálogo (CSV ou NDJSON), em três estágios:
+//   1. leitura sequencial do arquivo, em blocos de import.batch-size registros;
+//   2. conversão e validação dos blocos em paralelo;
+//   3. gravação de cada bloco, na ordem do arquivo, com INSERT/UPDATE em lote por SKU.
+// Só alguns blocos ficam em memória por vez, então o tamanho do arquivo não importa.
+@Service
+public class ProductImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductImportService.class);
+
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    private static final int PROGRESS_INTERVAL = 50_000;
+
+    private static final List<String> REQUIRED_COLUMNS = List.of("sku", "name", "price");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private StockLedger stockLedger;
+
+    @Autowired
+    private ProductSearchIndex searchIndex;
+
+    @Autowired
+    private PriceIndex priceIndex;
+
+    @Autowired
+    private CartTotals cartTotals;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private VersionStamps versionStamps;
+
+    @Value("${import.batch-size:1000}")
+    private int batchSize = 1000;
+
+    // 0 = um por processador
+    @Value("${import.validation-threads:0}")
+    private int validationThreads;
+
+    public ImportReport importProducts(InputStream in, ExportFormat format) throws IOException {
+        long start = System.nanoTime();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        RecordSource source = format == ExportFormat.CSV ? csvSource(reader) : ndjsonSource(reader);
+
+        int threads = validationThreads > 0 ? validationThreads : Runtime.getRuntime().availableProcessors();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, new ValidationThreadFactory());
+        Progress progress = new Progress();
+        try {
+            // Blocos em validação: no máximo dois por thread à frente da gravação
+            Queue<Future<List<ImportRow>>> pending = new ArrayDeque<>();
+            List<RawRecord> chunk = new ArrayList<>(batchSize);
+            RawRecord record;
+            while ((record = source.next()) != null) {
+                chunk.add(record);
+                if (chunk.size() == batchSize) {
+                    pending.add(executor.submit(validateTask(chunk)));
+                    chunk = new ArrayList<>(batchSize);
+                    if (pending.size() >= threads * 2) {
+                        write(await(pending.poll()), progress);
+                    }
+                }
+            }
+            if (!chunk.isEmpty()) {
+                pending.add(executor.submit(validateTask(chunk)));
+            }
+            while (!pending.isEmpty()) {
+                write(await(pending.poll()), progress);
+            }
+        } finally {
+            executor.shutdownNow();
+            refreshCatalog(progress);
+        }
+
+        long elapsed = System.nanoTime() - start;
+        ImportReport report = progress.report(elapsed);
+        log.info("Importação concluída: {} linhas ({} novas, {} atualizadas, {} com erro) em {} ms, {} linhas/s",
+                report.rows(), report.inserted(), report.updated(), report.failed(),
+                report.elapsedMillis(), Math.round(report.rowsPerSecond()));
+        return report;
+    }
+
+    // Estágio 2: converte e valida um bloco (executa nas threads de validação)
+    private Callable<List<ImportRow>> validateTask(List<RawRecord> chunk) {
+        return () -> {
+            List<ImportRow> rows = new ArrayList<>(chunk.size());
+            for (RawRecord record : chunk) {
+                rows.add(validate(record));
+            }
+            return rows;
+        };
+    }
+
+    private ImportRow validate(RawRecord record) {
+        ProductDTO product;
+        try {
+            product = record.parse();
+        } catch (Exception e) {
+            return ImportRow.failed(record.line(), "Registro inválido: " + e.getMessage());
+        }
+
+        if (product.getSku() == null || product.getSku().isBlank()) {
+            return ImportRow.failed(record.line(), "SKU é obrigatório");
+        }
+        for (ConstraintViolation<ProductDTO> violation : validator.validate(product)) {
+            return ImportRow.failed(record.line(), violation.getMessage());
+        }
+        product.setSku(product.getSku().trim());
+        return new ImportRow(record.line(), product, null);
+    }
+
+    // Estágio 3: grava um bloco já validado. Dentro do bloco, a última linha de cada SKU vence.
+    private void write(List<ImportRow> rows, Progress progress) {
+        Map<String, ImportRow> bySku = new LinkedHashMap<>();
+        int valid = 0;
+        for (ImportRow row : rows) {
+            if (row.error() != null) {
+                progress.fail(row.line(), row.error());
+            } else {
+                bySku.put(row.product().getSku(), row);
+                valid++;
+            }
+        }
+        // SKU repetido no bloco conta como atualização da linha anterior
+        progress.updated += valid - bySku.size();
+
+        if (!bySku.isEmpty()) {
+            Map<String, Long> ids = new TransactionTemplate(transactionManager).execute(status -> upsert(bySku));
+
+            // Estoque fora do SQL: produto novo entra no ledger com o estoque gravado; no
+            // existente o ledger aplica a diferença (e recusa ficar abaixo do reservado)
+            for (ImportRow row : bySku.values()) {
+                ProductDTO product = row.product();
+                Long id = ids.get(product.getSku());
+                if (row.inserted()) {
+                    stockLedger.register(id, stockOf(product));
+                    progress.inserted++;
+                } else {
+                    progress.updated++;
+                    if (product.getStock() != null) {
+                        try {
+                            stockLedger.adjust(id, product.getStock());
+                        } catch (RuntimeException e) {
+                            progress.error(row.line(), "Produto atualizado, mas o estoque não: " + e.getMessage());
+                        }
+                    }
+                }
+            }
+        }
+
+        progress.rows += rows.size();
+        if (progress.rows / PROGRESS_INTERVAL != (progress.rows - rows.size()) / PROGRESS_INTERVAL) {
+            log.info("Importação: {} linhas processadas", progress.rows);
+        }
+    }
+
+    private Map<String, Long> upsert(Map<String, ImportRow> bySku) {
+        Map<String, Long> ids = findIds(bySku.keySet());
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        List<Object[]> inserts = new ArrayList<>();
+        List<Object[]> updates = new ArrayList<>();
+        for (ImportRow row : bySku.values()) {
+            ProductDTO product = row.product();
+            Long id = ids.get(product.getSku());
+            if (id == null) {
+                row.markInserted();
+                inserts.add(new Object[] { product.getSku(), product.getName(), product.getPrice(),
+                        product.getDescription(), stockOf(product), now, now });
+            } else {
+                updates.add(new Object[] { product.getName(), product.getPrice(), product.getDescription(), now, id });
+            }
+        }
+
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate("UPDATE products SET name = ?, price = ?, description = ?, updated_at = ? " +
+                    "WHERE id = ?", updates);
+        }
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO products (sku, name, price, description, stock, created_at, updated_at) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?)", inserts);
+            ids.putAll(findIds(inserts.stream().map(insert -> (String) insert[0]).toList()));
+        }
+        return ids;
+    }
+
+    private Map<String, Long> findIds(Collection<String> skus) {
+        Map<String, Long> ids = new HashMap<>();
+        String placeholders = String.join(", ", Collections.nCopies(skus.size(), "?"));
+        jdbcTemplate.query("SELECT id, sku FROM products WHERE sku IN (" + placeholders + ")",
+                row -> {
+                    ids.put(row.getString("sku"), row.getLong("id"));
+                }, skus.toArray());
+        return ids;
+    }
+
+    // Os índices em memória são reconstruídos uma vez no fim: inserir um a um em um índice
+    // ordenado custaria O(n) por produto
+    private void refreshCatalog(Progress progress) {
+        if (progress.inserted == 0 && progress.updated == 0) {
+            return;
+        }
+        searchIndex.rebuild();
+        priceIndex.rebuild();
+        clearCache(CacheConfig.PRODUCTS);
+        clearCache(CacheConfig.PRODUCT_LIST);
+        versionStamps.touchAll(VersionStamps.Kind.PRODUCT);
+        // Atualizações podem ter mudado preços dos carrinhos
+        if (progress.updated > 0) {
+            cartTotals.invalidateAll();
+        }
+    }
+
+    private void clearCache(String name) {
+        Cache cache = cacheManager.getCache(name);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+
+    private RecordSource csvSource(BufferedReader reader) throws IOException {
+        CsvReader csv = new CsvReader(reader);
+        List<String> header = csv.next();
+        if (header == null) {
+            return () -> null;
+        }
+
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(), i);
+        }
+        List<String> missing = REQUIRED_COLUMNS.stream().filter(column -> !columns.containsKey(column)).toList();
+        if (!missing.isEmpty()) {
+            throw new RuntimeException("Cabeçalho CSV sem as colunas obrigatórias: " + String.join(", ", missing));
+        }
+
+        return () -> {
+            List<String> fields = csv.next();
+            if (fields == null) {
+                return null;
+            }
+            return new RawRecord(csv.getRecordLine(), () -> {
+                ProductDTO product = new ProductDTO();
+                product.setSku(field(fields, columns, "sku"));
+                product.setName(field(fields, columns, "name"));
+                String price = field(fields, columns, "price");
+                product.setPrice(price != null ? new BigDecimal(price) : null);
+                product.setDescription(field(fields, columns, "description"));
+                String stock = field(fields, columns, "stock");
+                product.setStock(stock != null ? Integer.valueOf(stock) : null);
+                return product;
+            });
+        };
+    }
+
+    private RecordSource ndjsonSource(BufferedReader reader) {
+        long[] line = { 0 };
+        return () -> {
+            String json;
+            do {
+                json = reader.readLine();
+                line[0]++;
+            } while (json != null && json.isBlank());
+            if (json == null) {
+                return null;
+            }
+            String record = json;
+            return new RawRecord(line[0], () -> objectMapper.readValue(record, ProductDTO.class));
+        };
+    }
+
+    // Campo vazio ou coluna ausente viram null
+    private static String field(List<String> fields, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static int stockOf(ProductDTO product) {
+        return product.getStock() != null ? product.getStock() : 0;
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Importação interrompida");
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Falha na validação da importação", e.getCause());
+        }
+    }
+
+    private interface RecordSource {
+        RawRecord next() throws IOException;
+    }
+
+    // Registro lido do arquivo; a conversão para DTO fica para o estágio paralelo
+    private record RawRecord(long line, Parser parser) {
+
+        ProductDTO parse() throws Exception {
+            return parser.parse();
+        }
+    }
+
+    private interface Parser {
+        ProductDTO parse() throws Exception;
+    }
+
+    private static final class ImportRow {
+
+        private final long line;
+        private final ProductDTO product;
+        private final String error;
+        private boolean inserted;
+
+        ImportRow(long line, ProductDTO product, String error) {
+            this.line = line;
+            this.product = product;
+            this.error = error;
+        }
+
+        static ImportRow failed(long line, String error) {
+            return new ImportRow(line, null, error);
+        }
+
+        long line() {
+            return line;
+        }
+
+        ProductDTO product() {
+            return product;
+        }
+
+        String error() {
+            return error;
+        }
+
+        boolean inserted() {
+            return inserted;
+        }
+
+        void markInserted() {
+            inserted = true;
+        }
+    }
+
+    // Contadores da importação; só a thread de gravação os altera
+    private static final class Progress {
+
+        long rows;
+        long inserted;
+        long updated;
+        long failed;
+        final List<ImportReport.RowError> errors = new ArrayList<>();
+
+        void fail(long line, String message) {
+            failed++;
+            error(line, message);
+        }
+
+        void error(long line, String message) {
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new ImportReport.RowError(line, message));
+            }
+        }
+
+        ImportReport report(long elapsedNanos) {
+            double seconds = elapsedNanos / 1e9;
+            return new ImportReport(rows, inserted, updated, failed, List.copyOf(errors),
+                    elapsedNanos / 1_000_000, seconds > 0 ? rows / seconds : rows);
+        }
+    }
+
+    private static final class ValidationThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "product-import-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
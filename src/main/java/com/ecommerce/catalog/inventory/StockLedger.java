@@ -0,0 +1,383 @@
+package com.ecommerce.catalog.inventory;
+
+import com.ecommerce.catalog.cache.VersionStamps;
+import com.ecommerce.catalog.collection.LongIntHashMap;
+import com.ecommerce.catalog.collection.LongObjectHashMap;
+import com.ecommerce.catalog.config.CacheConfig;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+// Estoque em memória, sem locks globais. Cada produto tem um contador atômico com as
+// unidades disponíveis e reservadas; reservar é um CAS nesse contador, então checkouts
+// concorrentes do mesmo produto nunca vendem mais do que existe.
+//
+// O banco (products.stock) recebe as variações de forma assíncrona, em lotes
+// de UPDATE incrementais. Reservas vivem só em memória e expiram sozinhas.
+@Component
+public class StockLedger {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private VersionStamps versionStamps;
+
+    @Value("${inventory.reservation-ttl:PT15M}")
+    private Duration reservationTtl = Duration.ofMinutes(15);
+
+    private final Map<Long, Slot> slots = new ConcurrentHashMap<>();
+
+    // usuário -> (produto -> reserva). O mapa interno só é acessado dentro de
+    // compute() do externo, que serializa as operações por usuário
+    private final Map<Long, LongObjectHashMap<Reservation>> reservations = new ConcurrentHashMap<>();
+
+    // Produtos com variação de estoque ainda não gravada no banco
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reload() {
+        jdbcTemplate.query("SELECT id, stock FROM products", row -> {
+            slots.putIfAbsent(row.getLong("id"), new Slot(row.getInt("stock")));
+        });
+    }
+
+    // Produto novo, já gravado com o estoque inicial
+    public void register(Long productId, int stock) {
+        slots.put(productId, new Slot(stock));
+    }
+
+    public void remove(Long productId) {
+        slots.remove(productId);
+        dirty.remove(productId);
+    }
+
+    public StockLevel level(Long productId) {
+        long units = slot(productId).units.get();
+        return new StockLevel(productId, available(units) + reserved(units), reserved(units), available(units));
+    }
+
+    // Define o estoque físico (disponível + reservado). Não pode ficar abaixo das
+    // unidades já reservadas em carrinhos.
+    public void adjust(Long productId, int onHand) {
+        Slot slot = slot(productId);
+        int delta;
+        while (true) {
+            long units = slot.units.get();
+            int reserved = reserved(units);
+            if (onHand < reserved) {
+                throw new RuntimeException("Estoque não pode ficar abaixo das " + reserved + " unidades reservadas");
+            }
+            int available = onHand - reserved;
+            if (slot.units.compareAndSet(units, pack(reserved, available))) {
+                delta = available - available(units);
+                break;
+            }
+        }
+        slot.pendingDelta.addAndGet(delta);
+        dirty.add(productId);
+
+        int applied = delta;
+        onRollback(() -> {
+            slot.add(0, -applied);
+            slot.pendingDelta.addAndGet(-applied);
+        });
+    }
+
+    public void reserve(Long userId, Long productId, int quantity) {
+        if (quantity <= 0) {
+            return;
+        }
+
+        Slot slot = slot(productId);
+        if (!slot.tryReserve(quantity)) {
+            throw new RuntimeException("Estoque insuficiente para o produto " + productId);
+        }
+
+        hold(userId, productId, quantity);
+        onRollback(() -> release(userId, productId, quantity));
+    }
+
+    public void release(Long userId, Long productId, int quantity) {
+        reservations.computeIfPresent(userId, (id, held) -> {
+            Reservation current = held.get(productId);
+            if (current != null) {
+                int released = Math.min(quantity, current.quantity());
+                if (released == current.quantity()) {
+                    held.remove(productId);
+                } else {
+                    held.put(productId, new Reservation(current.quantity() - released, current.expiresAt()));
+                }
+                releaseUnits(productId, released);
+            }
+            return held.isEmpty() ? null : held;
+        });
+    }
+
+    public void releaseAll(Long userId, Long productId) {
+        release(userId, productId, Integer.MAX_VALUE);
+    }
+
+    public void releaseAll(Long userId) {
+        LongObjectHashMap<Reservation> held = reservations.remove(userId);
+        if (held != null) {
+            held.forEach((productId, reservation) -> releaseUnits(productId, reservation.quantity()));
+        }
+    }
+
+    // Checkout: assume as reservas do usuário para estes produtos, completando por CAS o
+    // que faltar (reserva expirada ou inexistente). Tudo ou nada. A baixa definitiva só
+    // acontece depois do commit; se a transação falhar, as reservas voltam ao carrinho.
+    public void checkout(Long userId, Map<Long, Integer> quantities) {
+        loadMissing(quantities.keySet());
+
+        reservations.compute(userId, (id, held) -> {
+            LongObjectHashMap<Reservation> map = held != null ? held : new LongObjectHashMap<>();
+
+            // Primeiro garante todas as linhas; se alguma faltar, desfaz as complementações
+            // e o mapa de reservas fica intacto
+            LongIntHashMap toppedUp = new LongIntHashMap(quantities.size());
+            for (Map.Entry<Long, Integer> line : quantities.entrySet()) {
+                Reservation reservation = map.get(line.getKey());
+                int missing = line.getValue() - (reservation != null ? reservation.quantity() : 0);
+                if (missing > 0) {
+                    if (!slot(line.getKey()).tryReserve(missing)) {
+                        toppedUp.forEach(this::releaseUnits);
+                        throw new RuntimeException("Estoque insuficiente para o produto " + line.getKey());
+                    }
+                    toppedUp.put(line.getKey(), missing);
+                }
+            }
+
+            // Depois assume as reservas, devolvendo o que estava reservado a mais
+            for (Map.Entry<Long, Integer> line : quantities.entrySet()) {
+                Reservation reservation = map.remove(line.getKey());
+                if (reservation != null && reservation.quantity() > line.getValue()) {
+                    releaseUnits(line.getKey(), reservation.quantity() - line.getValue());
+                }
+            }
+            return map.isEmpty() ? null : map;
+        });
+
+        afterTransaction(
+            () -> quantities.forEach(this::sell),
+            () -> quantities.forEach((productId, quantity) -> hold(userId, productId, quantity))
+        );
+    }
+
+    // Devolve ao estoque as reservas vencidas
+    @Scheduled(fixedDelayString = "${inventory.expiry-interval-ms:30000}")
+    public void expireReservations() {
+        long now = System.currentTimeMillis();
+        for (Long userId : reservations.keySet()) {
+            reservations.computeIfPresent(userId, (id, held) -> {
+                held.removeIf((productId, reservation) -> {
+                    if (reservation.expiresAt() > now) {
+                        return false;
+                    }
+                    releaseUnits(productId, reservation.quantity());
+                    return true;
+                });
+                return held.isEmpty() ? null : held;
+            });
+        }
+    }
+
+    // Grava as variações pendentes com UPDATE incremental (stock = stock + ?), que não
+    // conflita com outras escritas na linha do produto
+    @Scheduled(fixedDelayString = "${inventory.flush-interval-ms:1000}")
+    @PreDestroy
+    public void flush() {
+        List<Object[]> batch = new ArrayList<>();
+        for (Long productId : List.copyOf(dirty)) {
+            dirty.remove(productId);
+            Slot slot = slots.get(productId);
+            int delta = slot != null ? slot.pendingDelta.getAndSet(0) : 0;
+            if (delta != 0) {
+                batch.add(new Object[] { delta, productId });
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            jdbcTemplate.batchUpdate("UPDATE products SET stock = stock + ? WHERE id = ?", batch);
+        } catch (RuntimeException e) {
+            // Volta para a fila; a próxima execução tenta de novo
+            for (Object[] entry : batch) {
+                Long productId = (Long) entry[1];
+                Slot slot = slots.get(productId);
+                if (slot != null) {
+                    slot.pendingDelta.addAndGet((Integer) entry[0]);
+                    dirty.add(productId);
+                }
+            }
+            throw e;
+        }
+        List<Long> flushed = batch.stream().map(entry -> (Long) entry[1]).collect(Collectors.toList());
+        evictProducts(flushed);
+        // O estoque faz parte do corpo do produto: nova ETag, depois de o cache ser limpo
+        flushed.forEach(productId -> versionStamps.touch(VersionStamps.Kind.PRODUCT, productId));
+    }
+
+    private void sell(Long productId, int quantity) {
+        Slot slot = slots.get(productId);
+        if (slot != null) {
+            slot.add(-quantity, 0);
+            slot.pendingDelta.addAndGet(-quantity);
+            dirty.add(productId);
+        }
+    }
+
+    // Soma a quantidade à reserva do usuário, renovando o prazo
+    private void hold(Long userId, Long productId, int quantity) {
+        long expiresAt = System.currentTimeMillis() + reservationTtl.toMillis();
+        reservations.compute(userId, (id, held) -> {
+            LongObjectHashMap<Reservation> map = held != null ? held : new LongObjectHashMap<>();
+            Reservation current = map.get(productId);
+            map.put(productId, new Reservation(quantity + (current != null ? current.quantity() : 0), expiresAt));
+            return map;
+        });
+    }
+
+    private void releaseUnits(Long productId, int quantity) {
+        Slot slot = slots.get(productId);
+        if (slot != null) {
+            slot.add(-quantity, quantity);
+        }
+    }
+
+    private Slot slot(Long productId) {
+        Slot slot = slots.get(productId);
+        if (slot == null) {
+            loadMissing(List.of(productId));
+            slot = slots.get(productId);
+            if (slot == null) {
+                throw new RuntimeException("Produto não encontrado");
+            }
+        }
+        return slot;
+    }
+
+    // Produtos gravados por fora do serviço (importação, testes) entram no ledger na
+    // primeira vez em que são usados, todos com uma única consulta
+    private void loadMissing(Collection<Long> productIds) {
+        List<Long> missing = productIds.stream()
+                .filter(id -> !slots.containsKey(id))
+                .collect(Collectors.toList());
+        if (missing.isEmpty()) {
+            return;
+        }
+
+        String placeholders = missing.stream().map(id -> "?").collect(Collectors.joining(","));
+        jdbcTemplate.query("SELECT id, stock FROM products WHERE id IN (" + placeholders + ")", row -> {
+            slots.putIfAbsent(row.getLong("id"), new Slot(row.getInt("stock")));
+        }, missing.toArray());
+    }
+
+    private void evictProducts(List<Long> productIds) {
+        Cache products = cacheManager.getCache(CacheConfig.PRODUCTS);
+        if (products != null) {
+            productIds.forEach(products::evict);
+        }
+        Cache productList = cacheManager.getCache(CacheConfig.PRODUCT_LIST);
+        if (productList != null) {
+            productList.clear();
+        }
+    }
+
+    private static void onRollback(Runnable compensation) {
+        afterTransaction(() -> {}, compensation);
+    }
+
+    // Sem transação ativa, o efeito é imediato
+    private static void afterTransaction(Runnable onCommit, Runnable onRollback) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            onCommit.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    onCommit.run();
+                } else {
+                    onRollback.run();
+                }
+            }
+        });
+    }
+
+    private static long pack(int reserved, int available) {
+        return ((long) reserved << 32) | (available & 0xFFFFFFFFL);
+    }
+
+    private static int reserved(long units) {
+        return (int) (units >>> 32);
+    }
+
+    private static int available(long units) {
+        return (int) units;
+    }
+
+    // Disponível e reservado no mesmo long, para que reservar (mover unidades de um
+    // para o outro) seja um único CAS
+    private static final class Slot {
+
+        final AtomicLong units;
+        final AtomicInteger pendingDelta = new AtomicInteger();
+
+        Slot(int stock) {
+            this.units = new AtomicLong(pack(0, stock));
+        }
+
+        boolean tryReserve(int quantity) {
+            while (true) {
+                long current = units.get();
+                int available = available(current);
+                if (available < quantity) {
+                    return false;
+                }
+                if (units.compareAndSet(current, pack(reserved(current) + quantity, available - quantity))) {
+                    return true;
+                }
+            }
+        }
+
+        void add(int reservedDelta, int availableDelta) {
+            while (true) {
+                long current = units.get();
+                long next = pack(reserved(current) + reservedDelta, available(current) + availableDelta);
+                if (units.compareAndSet(current, next)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private record Reservation(int quantity, long expiresAt) {}
+}
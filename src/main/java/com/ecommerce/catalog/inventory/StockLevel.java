@@ -0,0 +1,4 @@
+package com.ecommerce.catalog.inventory;
+
+// Retrato do estoque de um produto: físico = disponível + reservado em carrinhos
+public record StockLevel(Long productId, int onHand, int reserved, int available) {}
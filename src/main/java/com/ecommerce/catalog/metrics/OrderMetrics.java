@@ -0,0 +1,41 @@
+package com.ecommerce.catalog.metrics;
+
+import com.ecommerce.catalog.money.Money;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+// Métricas de negócio do checkout. A taxa de checkouts por segundo sai do contador
+// no Prometheus: rate(catalog_checkouts_total[1m])
+@Component
+public class OrderMetrics {
+
+    private final Counter checkouts;
+    private final DistributionSummary cartSize;
+    private final DistributionSummary orderValue;
+
+    public OrderMetrics(MeterRegistry meterRegistry) {
+        this.checkouts = Counter.builder("catalog.checkouts")
+                .description("Pedidos criados a partir do carrinho")
+                .register(meterRegistry);
+        this.cartSize = DistributionSummary.builder("catalog.cart.size")
+                .description("Itens no carrinho no momento do checkout")
+                .baseUnit("items")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.orderValue = DistributionSummary.builder("catalog.order.value")
+                .description("Valor total dos pedidos")
+                .baseUnit("BRL")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    public void recordCheckout(int items, Money totalAmount) {
+        checkouts.increment();
+        cartSize.record(items);
+        orderValue.record(totalAmount.doubleValue());
+    }
+}
@@ -0,0 +1,32 @@
+package com.ecommerce.catalog.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+// Conta os comandos SQL preparados pelo Hibernate na thread atual. A contagem só
+// acontece entre start() e stop(), ou seja, durante uma requisição HTTP.
+public class QueryCounter implements StatementInspector {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final ThreadLocal<long[]> COUNT = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        long[] count = COUNT.get();
+        if (count != null) {
+            count[0]++;
+        }
+        return sql;
+    }
+
+    public static void start() {
+        COUNT.set(new long[1]);
+    }
+
+    // Devolve a contagem acumulada e encerra a medição da thread
+    public static long stop() {
+        long[] count = COUNT.get();
+        COUNT.remove();
+        return count == null ? 0 : count[0];
+    }
+}
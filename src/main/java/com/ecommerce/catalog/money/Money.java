@@ -0,0 +1,106 @@
+package com.ecommerce.catalog.money;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+// Valor em reais guardado como centavos num long. As contas de total (soma e preço x
+// quantidade) são aritmética inteira, sem os objetos intermediários do BigDecimal.
+// Estouro de long é erro, nunca volta ao valor negativo em silêncio.
+public final class Money implements Comparable<Money> {
+
+    public static final Money ZERO = new Money(0);
+
+    private static final int SCALE = 2;
+
+    private final long cents;
+
+    private Money(long cents) {
+        this.cents = cents;
+    }
+
+    public static Money ofCents(long cents) {
+        return cents == 0 ? ZERO : new Money(cents);
+    }
+
+    // Arredondamento comercial para centavos (meio centavo sobe), como nas colunas scale = 2
+    public static Money of(BigDecimal amount) {
+        try {
+            return ofCents(amount.setScale(SCALE, RoundingMode.HALF_UP).movePointRight(SCALE).longValueExact());
+        } catch (ArithmeticException e) {
+            throw overflow();
+        }
+    }
+
+    public long cents() {
+        return cents;
+    }
+
+    public Money plus(Money other) {
+        try {
+            return ofCents(Math.addExact(cents, other.cents));
+        } catch (ArithmeticException e) {
+            throw overflow();
+        }
+    }
+
+    public Money minus(Money other) {
+        try {
+            return ofCents(Math.subtractExact(cents, other.cents));
+        } catch (ArithmeticException e) {
+            throw overflow();
+        }
+    }
+
+    public Money times(int quantity) {
+        try {
+            return ofCents(Math.multiplyExact(cents, (long) quantity));
+        } catch (ArithmeticException e) {
+            throw overflow();
+        }
+    }
+
+    public Money negate() {
+        try {
+            return ofCents(Math.negateExact(cents));
+        } catch (ArithmeticException e) {
+            throw overflow();
+        }
+    }
+
+    public int signum() {
+        return Long.signum(cents);
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(cents, SCALE);
+    }
+
+    // Só para métricas e exibição aproximada; contas continuam em centavos
+    public double doubleValue() {
+        return cents / 100.0;
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(cents, other.cents);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Money other && cents == other.cents;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(cents);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+
+    private static ArithmeticException overflow() {
+        return new ArithmeticException("Valor monetário fora do limite suportado");
+    }
+}
@@ -0,0 +1,24 @@
+package com.ecommerce.catalog.money;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+
+// Grava Money nas colunas DECIMAL(10, 2) já existentes; o esquema não muda.
+// Imutável: o Hibernate guarda o próprio objeto como snapshot, sem copiar pelo conversor.
+@Converter(autoApply = true)
+@Immutable
+public class MoneyConverter implements AttributeConverter<Money, BigDecimal> {
+
+    @Override
+    public BigDecimal convertToDatabaseColumn(Money money) {
+        return money != null ? money.toBigDecimal() : null;
+    }
+
+    @Override
+    public Money convertToEntityAttribute(BigDecimal value) {
+        return value != null ? Money.of(value) : null;
+    }
+}
@@ -0,0 +1,137 @@
+package com.ecommerce.catalog.projection;
+
+import com.ecommerce.catalog.cache.VersionStamps;
+import com.ecommerce.catalog.dto.OrderItemDTO;
+import com.ecommerce.catalog.entity.Order;
+import com.ecommerce.catalog.entity.OrderItem;
+import com.ecommerce.catalog.entity.OrderView;
+import com.ecommerce.catalog.event.OrderEvent;
+import com.ecommerce.catalog.repository.OrderRepository;
+import com.ecommerce.catalog.repository.OrderViewRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Mantém a tabela order_view (ver OrderView). Os eventos de pedido são tratados na mesma
+// transação que altera o pedido, então a leitura logo depois de uma escrita já vê a mudança.
+// rebuild() reconstrói a tabela inteira a partir de orders, para backfill ou correção.
+@Component
+public class OrderProjection {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderProjection.class);
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderViewRepository orderViewRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private VersionStamps versionStamps;
+
+    @Value("${orders.view.rebuild-batch-size:500}")
+    private int batchSize;
+
+    public record RebuildResult(int orders, int removed) {}
+
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void on(OrderEvent event) {
+        switch (event.type()) {
+            // O pedido recém-criado ainda está no contexto de persistência, com os itens
+            case CREATED -> orderRepository.findById(event.orderId())
+                    .ifPresent(order -> orderViewRepository.save(new OrderView(order, items(order))));
+            case STATUS_CHANGED -> orderViewRepository.updateStatus(event.orderId(), event.status());
+            case DELETED -> orderViewRepository.deleteView(event.orderId());
+        }
+    }
+
+    // Percorre os pedidos em lotes por id, cada lote na sua transação; depois remove as
+    // linhas de pedidos que não existem mais. A tabela continua servindo durante a
+    // reconstrução, mas uma alteração no mesmo pedido e no mesmo instante pode ser
+    // sobrescrita pela cópia do lote: rode em horário de pouco movimento.
+    public RebuildResult rebuild() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        long after = 0;
+        int orders = 0;
+        while (true) {
+            long from = after;
+            List<Long> ids = transaction.execute(status -> copyBatch(from));
+            if (ids.isEmpty()) {
+                break;
+            }
+            orders += ids.size();
+            after = ids.get(ids.size() - 1);
+        }
+        int removed = transaction.execute(status -> orderViewRepository.deleteOrphans());
+        versionStamps.touchAll(VersionStamps.Kind.ORDER);
+        log.info("order_view reconstruída: {} pedidos, {} linhas removidas", orders, removed);
+        return new RebuildResult(orders, removed);
+    }
+
+    // Backfill de bancos que já tinham pedidos antes da tabela existir. Roda depois de
+    // OrderArchiver.recover e antes dos outros ouvintes da subida, que leem a order_view
+    // (SalesAnalytics)
+    @EventListener(ApplicationReadyEvent.class)
+    @org.springframework.core.annotation.Order(Ordered.HIGHEST_PRECEDENCE + 1)
+    public void rebuildIfOutOfSync() {
+        boolean inSync = new TransactionTemplate(transactionManager).execute(status ->
+                orderViewRepository.count() == orderRepository.count());
+        if (!inSync) {
+            rebuild();
+        }
+    }
+
+    private List<Long> copyBatch(long after) {
+        List<Long> ids = orderRepository.findIdsAfter(after, PageRequest.of(0, batchSize));
+        if (ids.isEmpty()) {
+            return ids;
+        }
+
+        Map<Long, OrderView> existing = orderViewRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(OrderView::getId, Function.identity()));
+        for (Order order : orderRepository.findWithItemsByIdIn(ids)) {
+            OrderView view = existing.get(order.getId());
+            if (view != null) {
+                view.refresh(order, items(order));
+            } else {
+                orderViewRepository.save(new OrderView(order, items(order)));
+            }
+        }
+        return ids;
+    }
+
+    private static List<OrderItemDTO> items(Order order) {
+        return order.getItems().stream()
+                .map(OrderProjection::toItemDTO)
+                .collect(Collectors.toList());
+    }
+
+    private static OrderItemDTO toItemDTO(OrderItem item) {
+        return new OrderItemDTO(
+            item.getProduct().getId(),
+            item.getProductName(),
+            item.getQuantity(),
+            item.getUnitPrice(),
+            item.getTotalPrice()
+        );
+    }
+}
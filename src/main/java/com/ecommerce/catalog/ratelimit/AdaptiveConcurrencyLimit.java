@@ -0,0 +1,62 @@
+package com.ecommerce.catalog.ratelimit;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Limite de requisições simultâneas que se ajusta à latência (AIMD, como o AIMDLimit do
+// concurrency-limits da Netflix): cada resposta rápida com o limite em uso soma 1 ao limite;
+// uma resposta lenta ou com erro o multiplica por backoff. Assim o limite acompanha o que o
+// banco aguenta, e o excesso é recusado antes de ocupar uma conexão. Sem lock: dois atômicos.
+public class AdaptiveConcurrencyLimit {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoff;
+    private final long latencyThreshold;
+
+    private final AtomicInteger limit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit,
+                                    double backoff, Duration latencyThreshold) {
+        if (minLimit < 1 || maxLimit < minLimit || backoff <= 0 || backoff >= 1) {
+            throw new IllegalArgumentException("Configuração inválida do limite de concorrência");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoff = backoff;
+        this.latencyThreshold = latencyThreshold.toNanos();
+        this.limit = new AtomicInteger(Math.max(minLimit, Math.min(maxLimit, initialLimit)));
+    }
+
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit.get()) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    // Chamado ao fim de toda requisição admitida
+    public void release(long latencyNanos, boolean failed) {
+        int wasInFlight = inFlight.getAndDecrement();
+        if (failed || latencyNanos > latencyThreshold) {
+            limit.updateAndGet(current -> Math.max(minLimit, (int) (current * backoff)));
+        } else if (wasInFlight * 2 >= limit.get()) {
+            // Só cresce quando o limite está sendo usado, senão subiria sem medir nada
+            limit.updateAndGet(current -> Math.min(maxLimit, current + 1));
+        }
+    }
+
+    public int limit() {
+        return limit.get();
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,78 @@
+package com.ecommerce.catalog.ratelimit;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.annotation.RequestBodyAdviceAdapter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+// Rotas de escrita sem {userId} mas com userId no corpo (ex.: POST /api/cart): o token bucket
+// é o do usuário, não o do endereço de origem, que atrás de um proxy ou NAT é o mesmo para
+// todos. A admissão adiada por RateLimitInterceptor acontece aqui, com o corpo já lido e
+// antes do método do controller.
+@ControllerAdvice
+public class RateLimitBodyAdvice extends RequestBodyAdviceAdapter {
+
+    static boolean hasUserIdBody(Object handler) {
+        if (!(handler instanceof HandlerMethod method)) {
+            return false;
+        }
+        for (MethodParameter parameter : method.getMethodParameters()) {
+            if (parameter.hasParameterAnnotation(RequestBody.class) && hasUserId(parameter.getParameterType())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean supports(MethodParameter parameter, Type targetType,
+                            Class<? extends HttpMessageConverter<?>> converterType) {
+        return hasUserId(parameter.getParameterType());
+    }
+
+    @Override
+    public Object afterBodyRead(Object body, HttpInputMessage inputMessage, MethodParameter parameter,
+                                Type targetType, Class<? extends HttpMessageConverter<?>> converterType) {
+        admit(new BeanWrapperImpl(body).getPropertyValue("userId"));
+        return body;
+    }
+
+    @Override
+    public Object handleEmptyBody(Object body, HttpInputMessage inputMessage, MethodParameter parameter,
+                                  Type targetType, Class<? extends HttpMessageConverter<?>> converterType) {
+        admit(null);
+        return body;
+    }
+
+    @ExceptionHandler(RateLimitException.class)
+    public void rejected(RateLimitException e, HttpServletResponse response) throws IOException {
+        RateLimitInterceptor.reject(response, e.getRetryAfterSeconds(), e.getMessage());
+    }
+
+    private static void admit(Object userId) {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return;
+        }
+        HttpServletRequest request = attributes.getRequest();
+        if (request.getAttribute(RateLimitInterceptor.DEFERRED) instanceof RateLimitInterceptor interceptor) {
+            interceptor.admitDeferred(request, userId);
+        }
+    }
+
+    private static boolean hasUserId(Class<?> type) {
+        return BeanUtils.getPropertyDescriptor(type, "userId") != null;
+    }
+}
@@ -0,0 +1,16 @@
+package com.ecommerce.catalog.ratelimit;
+
+// Requisição recusada pelo controle de admissão depois da leitura do corpo (ver RateLimitBodyAdvice)
+public class RateLimitException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public RateLimitException(long retryAfterSeconds, String message) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,139 @@
+package com.ecommerce.catalog.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Controle de admissão das rotas de escrita: responde 429 antes de qualquer trabalho.
+// Primeiro o token bucket do cliente naquela rota; depois o limite global de concorrência.
+// O cliente é o {userId} da rota; sem ele, o userId do corpo (a admissão fica para depois
+// da leitura do corpo, em RateLimitBodyAdvice) e, por fim, o endereço de origem.
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    private static final String STARTED = RateLimitInterceptor.class.getName() + ".started";
+
+    // Requisição com a admissão adiada até a leitura do corpo
+    static final String DEFERRED = RateLimitInterceptor.class.getName() + ".deferred";
+
+    private final TokenBuckets buckets;
+    private final AdaptiveConcurrencyLimit concurrency;
+    private final Counter rejectedByClient;
+    private final Counter rejectedByConcurrency;
+
+    public RateLimitInterceptor(TokenBuckets buckets, AdaptiveConcurrencyLimit concurrency,
+                                MeterRegistry meterRegistry) {
+        this.buckets = buckets;
+        this.concurrency = concurrency;
+        this.rejectedByClient = rejected(meterRegistry, "client");
+        this.rejectedByConcurrency = rejected(meterRegistry, "concurrency");
+        Gauge.builder("catalog.ratelimit.concurrency.limit", concurrency, AdaptiveConcurrencyLimit::limit)
+                .description("Limite atual de requisições de escrita simultâneas")
+                .register(meterRegistry);
+        Gauge.builder("catalog.ratelimit.concurrency.in_flight", concurrency, AdaptiveConcurrencyLimit::inFlight)
+                .description("Requisições de escrita em andamento")
+                .register(meterRegistry);
+        Gauge.builder("catalog.ratelimit.buckets", buckets, TokenBuckets::size)
+                .description("Token buckets ativos (cliente + rota)")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws IOException {
+        if (isRead(request.getMethod())) {
+            return true;
+        }
+
+        String userId = pathUserId(request);
+        if (userId == null && RateLimitBodyAdvice.hasUserIdBody(handler)) {
+            request.setAttribute(DEFERRED, this);
+            return true;
+        }
+
+        RateLimitException rejection = admit(request, userId);
+        if (rejection != null) {
+            reject(response, rejection.getRetryAfterSeconds(), rejection.getMessage());
+            return false;
+        }
+        return true;
+    }
+
+    // Admissão adiada: chamada com o userId do corpo (nulo se ausente); lança RateLimitException
+    void admitDeferred(HttpServletRequest request, Object userId) {
+        request.removeAttribute(DEFERRED);
+        RateLimitException rejection = admit(request, userId != null ? userId.toString() : null);
+        if (rejection != null) {
+            throw rejection;
+        }
+    }
+
+    private RateLimitException admit(HttpServletRequest request, String userId) {
+        String client = userId != null ? "user:" + userId : "addr:" + request.getRemoteAddr();
+        long wait = buckets.tryAcquire(client + " " + request.getMethod() + " " + route(request));
+        if (wait > 0) {
+            rejectedByClient.increment();
+            return new RateLimitException(TimeUnit.NANOSECONDS.toSeconds(wait) + 1,
+                    "Muitas requisições deste cliente; tente novamente em instantes");
+        }
+        if (!concurrency.tryAcquire()) {
+            rejectedByConcurrency.increment();
+            return new RateLimitException(1, "Servidor sobrecarregado; tente novamente em instantes");
+        }
+        request.setAttribute(STARTED, System.nanoTime());
+        return null;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object started = request.getAttribute(STARTED);
+        if (started != null) {
+            request.removeAttribute(STARTED);
+            concurrency.release(System.nanoTime() - (Long) started, ex != null || response.getStatus() >= 500);
+        }
+    }
+
+    private static boolean isRead(String method) {
+        return "GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static String pathUserId(HttpServletRequest request) {
+        Map<String, String> variables =
+                (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        return variables != null ? variables.get("userId") : null;
+    }
+
+    // Rota no formato do mapeamento (/api/cart/user/{userId}/checkout): um balde por endpoint
+    private static String route(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : request.getRequestURI();
+    }
+
+    static void reject(HttpServletResponse response, long retryAfterSeconds, String message)
+            throws IOException {
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write(message);
+    }
+
+    private static Counter rejected(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("catalog.ratelimit.rejected")
+                .description("Requisições recusadas com 429")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,51 @@
+package com.ecommerce.catalog.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Token bucket por chave (cliente + rota), sem lock: cada balde é um único AtomicLong com o
+// instante em que ele volta a ficar cheio (algoritmo GCRA). Cada permissão empurra esse
+// instante em 1/taxa; se ele passar de "agora + rajada", a requisição é recusada.
+// Um balde parado por mais que a rajada já está cheio de novo, então sai do cache.
+public class TokenBuckets {
+
+    private final long interval;
+    private final long capacity;
+    private final Cache<String, AtomicLong> buckets;
+
+    public TokenBuckets(double permitsPerSecond, int burst, long maxKeys) {
+        if (permitsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Taxa e rajada devem ser positivas");
+        }
+        this.interval = (long) (1_000_000_000L / permitsPerSecond);
+        this.capacity = interval * burst;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(Duration.ofNanos(Math.max(capacity, 1_000_000_000L)))
+                .build();
+    }
+
+    // 0 se a requisição pode seguir; senão, quantos nanossegundos esperar pela próxima permissão
+    public long tryAcquire(String key) {
+        long now = System.nanoTime();
+        AtomicLong fullAt = buckets.get(key, k -> new AtomicLong(now));
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, now) + interval;
+            long excess = next - now - capacity;
+            if (excess > 0) {
+                return excess;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    public long size() {
+        return buckets.estimatedSize();
+    }
+}
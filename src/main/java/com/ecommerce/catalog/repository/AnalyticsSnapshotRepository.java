@@ -0,0 +1,25 @@
+package com.ecommerce.catalog.repository;
+
+import com.ecommerce.catalog.entity.AnalyticsSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+@Repository
+public interface AnalyticsSnapshotRepository extends JpaRepository<AnalyticsSnapshot, Long> {
+    
+    Optional<AnalyticsSnapshot> findFirstByOrderByIdDesc();
+    
+    // Mantém só as keep cópias mais recentes. A tabela derivada (t) é materializada antes da
+    // exclusão: o MySQL não aceita LIMIT em subconsulta IN nem ler a tabela que está excluindo
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM analytics_snapshots WHERE id < (SELECT MIN(id) FROM " +
+                   "(SELECT id FROM analytics_snapshots ORDER BY id DESC LIMIT :keep) t)", nativeQuery = true)
+    int deleteAllButLatest(@Param("keep") int keep);
+}
@@ -0,0 +1,9 @@
+package com.ecommerce.catalog.repository;
+
+import com.ecommerce.catalog.entity.ArchiveEpoch;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ArchiveEpochRepository extends JpaRepository<ArchiveEpoch, Long> {
+}
@@ -4,8 +4,12 @@ import com.ecommerce.catalog.entity.CartItem;
 import com.ecommerce.catalog.entity.Product;
 import com.ecommerce.catalog.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,9 +20,22 @@ public interface CartItemRepository extends JpaRepository<CartItem, Long> {
     
     List<CartItem> findByUserId(Long userId);
     
+    // Itens do carrinho já com o produto carregado (preço), em uma única consulta
+    @Query("SELECT ci FROM CartItem ci JOIN FETCH ci.product WHERE ci.user.id = :userId")
+    List<CartItem> findByUserIdWithProduct(@Param("userId") Long userId);
+    
+    // Total do carrinho calculado no banco, sem materializar itens nem produtos.
+    // SQL nativo: no JPQL o preço é Money (MoneyConverter) e não entra em conta aritmética.
+    @Query(value = "SELECT COALESCE(SUM(p.price * ci.quantity), 0) FROM cart_items ci " +
+                   "JOIN products p ON p.id = ci.product_id WHERE ci.user_id = :userId", nativeQuery = true)
+    BigDecimal sumTotalByUserId(@Param("userId") Long userId);
+    
     Optional<CartItem> findByUserAndProduct(User user, Product product);
     
     void deleteByUser(User user);
     
-    void deleteByUserId(Long userId);
+    // DELETE em massa: um único comando, sem carregar os itens antes
+    @Modifying
+    @Query("DELETE FROM CartItem ci WHERE ci.user.id = :userId")
+    void deleteByUserId(@Param("userId") Long userId);
 }
\ No newline at end of file
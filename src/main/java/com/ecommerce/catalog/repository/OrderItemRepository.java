@@ -2,10 +2,20 @@ package com.ecommerce.catalog.repository;
 
 import com.ecommerce.catalog.entity.Order;
 import com.ecommerce.catalog.entity.OrderItem;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
@@ -13,4 +23,19 @@ public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
     List<OrderItem> findByOrder(Order order);
     
     List<OrderItem> findByOrderId(Long orderId);
-}
\ No newline at end of file
+    
+    // Exportação: uma linha por item, com pedido, usuário e produto (só associações *-to-one,
+    // seguras para cursor), em ordem de pedido para agrupar os itens sem guardar estado. O
+    // LEFT JOIN parte do pedido, então um pedido sem itens vem numa linha só, com item nulo
+    @QueryHints({
+        @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT o, i FROM Order o JOIN FETCH o.user LEFT JOIN o.items i LEFT JOIN FETCH i.product " +
+           "ORDER BY o.id, i.id")
+    Stream<Object[]> streamAllOrderByOrderId();
+    
+    @Modifying
+    @Query("DELETE FROM OrderItem i WHERE i.order.id IN :orderIds")
+    int deleteByOrderIdIn(@Param("orderIds") Collection<Long> orderIds);
+}
@@ -2,10 +2,18 @@ package com.ecommerce.catalog.repository;
 
 import com.ecommerce.catalog.entity.Order;
 import com.ecommerce.catalog.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
@@ -15,4 +23,43 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     List<Order> findByUserId(Long userId);
     
     List<Order> findByStatus(Order.OrderStatus status);
-}
\ No newline at end of file
+    
+    // Carregam o pedido com usuário, itens e produtos em uma única consulta (sem N+1)
+    @Query("SELECT o FROM Order o JOIN FETCH o.user LEFT JOIN FETCH o.items i LEFT JOIN FETCH i.product " +
+           "WHERE o.id = :id ORDER BY i.id")
+    Optional<Order> findWithItemsById(@Param("id") Long id);
+    
+    @Query("SELECT o FROM Order o JOIN FETCH o.user LEFT JOIN FETCH o.items i LEFT JOIN FETCH i.product " +
+           "WHERE o.id IN :ids ORDER BY o.id, i.id")
+    List<Order> findWithItemsByIdIn(@Param("ids") Collection<Long> ids);
+    
+    // Transação de escrita, para ler sempre o primário: uma réplica atrasada faria o
+    // checkout relido do diário gerar o pedido de novo
+    @Transactional
+    @Query("SELECT o.id FROM Order o WHERE o.checkoutId = :checkoutId")
+    Optional<Long> findIdByCheckoutId(@Param("checkoutId") String checkoutId);
+    
+    // Conferência de uma cópia dos agregados de vendas (ver SalesAnalytics): quantos pedidos
+    // existem até o último incluído e se algum deles mudou depois da cópia
+    @Transactional
+    long countByIdLessThanEqual(Long id);
+    
+    @Transactional
+    boolean existsByIdLessThanEqualAndUpdatedAtAfter(Long id, LocalDateTime since);
+    
+    // Quantos dos pedidos de um segmento .tmp do arquivo ainda estão no banco (ver OrderArchive)
+    long countByIdIn(Collection<Long> ids);
+    
+    // Paginação por keyset (usada para reconstruir a order_view em lotes)
+    @Query("SELECT o.id FROM Order o WHERE o.id > :afterId ORDER BY o.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
+    
+    // Arquivamento (ver OrderArchiver): pedidos finalizados sem alteração desde before
+    @Query("SELECT o.id FROM Order o WHERE o.status IN :statuses AND o.updatedAt < :before ORDER BY o.id")
+    List<Long> findIdsToArchive(@Param("statuses") Collection<Order.OrderStatus> statuses,
+                                @Param("before") LocalDateTime before, Pageable pageable);
+    
+    @Modifying
+    @Query("DELETE FROM Order o WHERE o.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,66 @@
+package com.ecommerce.catalog.repository;
+
+import com.ecommerce.catalog.entity.Order;
+import com.ecommerce.catalog.entity.OrderView;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OrderViewRepository extends JpaRepository<OrderView, Long> {
+    
+    // Usa o índice (user_id, order_id): já sai na ordem dos pedidos
+    List<OrderView> findByUserIdOrderById(Long userId);
+    
+    // Primeira página de qualquer ordenação (a ordenação vem no Pageable, sem count)
+    List<OrderView> findAllBy(Pageable pageable);
+    
+    // Paginação por keyset, como em OrderRepository
+    @Query("SELECT v FROM OrderView v WHERE v.id > :afterId ORDER BY v.id")
+    List<OrderView> findPageOrderById(@Param("afterId") Long afterId, Pageable pageable);
+    
+    @Query("SELECT v FROM OrderView v WHERE v.createdAt > :createdAt OR (v.createdAt = :createdAt AND v.id > :afterId) " +
+           "ORDER BY v.createdAt, v.id")
+    List<OrderView> findPageOrderByCreatedAt(@Param("createdAt") LocalDateTime createdAt,
+                                             @Param("afterId") Long afterId,
+                                             Pageable pageable);
+    
+    @Modifying
+    @Transactional
+    @Query("UPDATE OrderView v SET v.status = :status WHERE v.id = :id")
+    int updateStatus(@Param("id") Long id, @Param("status") Order.OrderStatus status);
+    
+    @Modifying
+    @Transactional
+    @Query("UPDATE OrderView v SET v.userName = :userName WHERE v.userId = :userId")
+    int updateUserName(@Param("userId") Long userId, @Param("userName") String userName);
+    
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM OrderView v WHERE v.id = :id")
+    int deleteView(@Param("id") Long id);
+    
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM OrderView v WHERE v.userId = :userId")
+    int deleteByUser(@Param("userId") Long userId);
+    
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM OrderView v WHERE v.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+    
+    // Linhas de pedidos que não existem mais (usado ao reconstruir)
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM OrderView v WHERE NOT EXISTS (SELECT o.id FROM Order o WHERE o.id = v.id)")
+    int deleteOrphans();
+}
@@ -1,23 +1,57 @@
 package com.ecommerce.catalog.repository;
 
 import com.ecommerce.catalog.entity.Product;
+import com.ecommerce.catalog.money.Money;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.math.BigDecimal;
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
     
     List<Product> findByNameContainingIgnoreCase(String name);
     
-    List<Product> findByPriceBetween(BigDecimal minPrice, BigDecimal maxPrice);
+    List<Product> findByPriceBetween(Money minPrice, Money maxPrice);
     
     @Query("SELECT p FROM Product p WHERE p.name LIKE %:name% AND p.price BETWEEN :minPrice AND :maxPrice")
     List<Product> findByNameAndPriceRange(@Param("name") String name, 
-                                         @Param("minPrice") BigDecimal minPrice, 
-                                         @Param("maxPrice") BigDecimal maxPrice);
+                                         @Param("minPrice") Money minPrice, 
+                                         @Param("maxPrice") Money maxPrice);
+    
+    // Primeira página de qualquer ordenação (a ordenação vem no Pageable, sem count)
+    List<Product> findAllBy(Pageable pageable);
+    
+    // Paginação por keyset: continua a partir da última linha da página anterior
+    @Query("SELECT p FROM Product p WHERE p.id > :afterId ORDER BY p.id")
+    List<Product> findPageOrderById(@Param("afterId") Long afterId, Pageable pageable);
+    
+    @Query("SELECT p FROM Product p WHERE p.price > :price OR (p.price = :price AND p.id > :afterId) " +
+           "ORDER BY p.price, p.id")
+    List<Product> findPageOrderByPrice(@Param("price") Money price,
+                                       @Param("afterId") Long afterId,
+                                       Pageable pageable);
+    
+    @Query("SELECT p FROM Product p WHERE p.name > :name OR (p.name = :name AND p.id > :afterId) " +
+           "ORDER BY p.name, p.id")
+    List<Product> findPageOrderByName(@Param("name") String name,
+                                      @Param("afterId") Long afterId,
+                                      Pageable pageable);
+    
+    // Exportação: percorre a tabela por cursor, sem montar a lista inteira em memória
+    @QueryHints({
+        @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM Product p ORDER BY p.id")
+    Stream<Product> streamAllOrderById();
 }
\ No newline at end of file
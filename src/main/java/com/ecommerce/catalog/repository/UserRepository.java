@@ -1,9 +1,13 @@
 package com.ecommerce.catalog.repository;
 
 import com.ecommerce.catalog.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -12,4 +16,17 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     
     boolean existsByEmail(String email);
+    
+    // Primeira página de qualquer ordenação (a ordenação vem no Pageable, sem count)
+    List<User> findAllBy(Pageable pageable);
+    
+    // Paginação por keyset: continua a partir da última linha da página anterior
+    @Query("SELECT u FROM User u WHERE u.id > :afterId ORDER BY u.id")
+    List<User> findPageOrderById(@Param("afterId") Long afterId, Pageable pageable);
+    
+    @Query("SELECT u FROM User u WHERE u.name > :name OR (u.name = :name AND u.id > :afterId) " +
+           "ORDER BY u.name, u.id")
+    List<User> findPageOrderByName(@Param("name") String name,
+                                   @Param("afterId") Long afterId,
+                                   Pageable pageable);
 }
\ No newline at end of file
@@ -0,0 +1,260 @@
+package com.ecommerce.catalog.search;
+
+import com.ecommerce.catalog.collection.LongLongHashMap;
+import com.ecommerce.catalog.entity.Product;
+import com.ecommerce.catalog.money.Money;
+import com.ecommerce.catalog.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Índice de preços em memória: pares (preço em centavos, id) ordenados em arrays
+// primitivos paralelos. Consultas por faixa usam busca binária, O(log n + k).
+@Component
+public class PriceIndex {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    // Valor devolvido por priceById para ids fora do índice (nenhum preço chega a ele)
+    private static final long NO_PRICE = Long.MIN_VALUE;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private long[] prices = new long[INITIAL_CAPACITY];
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private int size;
+
+    // id -> preço indexado, para localizar a entrada ao atualizar ou remover
+    private LongLongHashMap priceById = new LongLongHashMap(INITIAL_CAPACITY);
+
+    // Transação de escrita: o índice é montado a partir do primário, nunca de uma réplica
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void rebuild() {
+        List<Product> products = productRepository.findAll();
+
+        long[][] entries = new long[products.size()][];
+        for (int i = 0; i < entries.length; i++) {
+            Product product = products.get(i);
+            entries[i] = new long[] { product.price().cents(), product.getId() };
+        }
+        Arrays.sort(entries, (a, b) -> compare(a[0], a[1], b[0], b[1]));
+
+        lock.writeLock().lock();
+        try {
+            int capacity = Math.max(INITIAL_CAPACITY, entries.length);
+            prices = new long[capacity];
+            ids = new long[capacity];
+            size = entries.length;
+            priceById = new LongLongHashMap(entries.length);
+            for (int i = 0; i < entries.length; i++) {
+                prices[i] = entries[i][0];
+                ids[i] = entries[i][1];
+                priceById.put(ids[i], prices[i]);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void put(Long productId, BigDecimal price) {
+        long cents = toCents(price);
+
+        lock.writeLock().lock();
+        try {
+            long current = priceById.get(productId, NO_PRICE);
+            if (current != NO_PRICE) {
+                if (current == cents) {
+                    return;
+                }
+                removeAt(lowerBound(current, productId));
+            }
+            insertAt(lowerBound(cents, productId), cents, productId);
+            priceById.put(productId, cents);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            long current = priceById.remove(productId, NO_PRICE);
+            if (current != NO_PRICE) {
+                removeAt(lowerBound(current, productId));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Até limit ids com preço entre minCents e maxCents (inclusive), do mais barato ao mais caro
+    public List<Long> range(long minCents, long maxCents, int limit) {
+        return range(minCents, maxCents, Long.MIN_VALUE, Long.MIN_VALUE, limit);
+    }
+
+    // Continuação da faixa depois da entrada (afterCents, afterId), a última da página anterior;
+    // ela não precisa mais estar no índice
+    public List<Long> range(long minCents, long maxCents, long afterCents, long afterId, int limit) {
+        lock.readLock().lock();
+        try {
+            int from = Math.max(lowerBound(minCents, Long.MIN_VALUE), upperBound(afterCents, afterId));
+            int to = (int) Math.min(lowerBound(maxCents, Long.MAX_VALUE), (long) from + Math.max(limit, 0));
+            List<Long> result = new ArrayList<>(Math.max(to - from, 0));
+            for (int i = from; i < to; i++) {
+                result.add(ids[i]);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Long> cheapest(int limit) {
+        lock.readLock().lock();
+        try {
+            int count = Math.min(Math.max(limit, 0), size);
+            List<Long> result = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                result.add(ids[i]);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Quantidade de produtos por faixa de preço: cada balde custa duas buscas binárias.
+    // O último balde é fechado à direita para incluir maxCents.
+    public long[] histogram(long minCents, long maxCents, int buckets) {
+        long[] counts = new long[buckets];
+        long width = bucketWidth(minCents, maxCents, buckets);
+
+        lock.readLock().lock();
+        try {
+            for (int b = 0; b < buckets; b++) {
+                long lower = minCents + b * width;
+                long upper = b == buckets - 1 ? maxCents : Math.min(lower + width - 1, maxCents);
+                counts[b] = Math.max(0, lowerBound(upper, Long.MAX_VALUE) - lowerBound(lower, Long.MIN_VALUE));
+            }
+            return counts;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long bucketWidth(long minCents, long maxCents, int buckets) {
+        return Math.max(1, (maxCents - minCents + buckets) / buckets);
+    }
+
+    public boolean isInRange(Long productId, long minCents, long maxCents) {
+        lock.readLock().lock();
+        try {
+            long cents = priceById.get(productId, NO_PRICE);
+            return cents != NO_PRICE && cents >= minCents && cents <= maxCents;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long minPrice() {
+        lock.readLock().lock();
+        try {
+            return size == 0 ? 0 : prices[0];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long maxPrice() {
+        lock.readLock().lock();
+        try {
+            return size == 0 ? 0 : prices[size - 1];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public static long toCents(BigDecimal price) {
+        return Money.of(price).cents();
+    }
+
+    // Limites de consulta: o mínimo arredonda para cima e o máximo para baixo,
+    // para não incluir produtos fora da faixa pedida
+    public static long lowerBoundCents(BigDecimal price) {
+        return price.setScale(2, RoundingMode.CEILING).movePointRight(2).longValueExact();
+    }
+
+    public static long upperBoundCents(BigDecimal price) {
+        return price.setScale(2, RoundingMode.FLOOR).movePointRight(2).longValueExact();
+    }
+
+    public static BigDecimal fromCents(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    // Primeira posição cuja entrada é >= (price, id)
+    private int lowerBound(long price, long id) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compare(prices[mid], ids[mid], price, id) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Primeira posição cuja entrada é > (price, id)
+    private int upperBound(long price, long id) {
+        int position = lowerBound(price, id);
+        return position < size && prices[position] == price && ids[position] == id ? position + 1 : position;
+    }
+
+    private void insertAt(int position, long price, long id) {
+        if (size == prices.length) {
+            prices = Arrays.copyOf(prices, size * 2);
+            ids = Arrays.copyOf(ids, size * 2);
+        }
+        System.arraycopy(prices, position, prices, position + 1, size - position);
+        System.arraycopy(ids, position, ids, position + 1, size - position);
+        prices[position] = price;
+        ids[position] = id;
+        size++;
+    }
+
+    private void removeAt(int position) {
+        System.arraycopy(prices, position + 1, prices, position, size - position - 1);
+        System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+        size--;
+    }
+
+    private static int compare(long priceA, long idA, long priceB, long idB) {
+        int byPrice = Long.compare(priceA, priceB);
+        return byPrice != 0 ? byPrice : Long.compare(idA, idB);
+    }
+}
@@ -0,0 +1,223 @@
+package com.ecommerce.catalog.search;
+
+import com.ecommerce.catalog.collection.LongObjectHashMap;
+import com.ecommerce.catalog.entity.Product;
+import com.ecommerce.catalog.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongPredicate;
+
+// Índice invertido em memória sobre nome e descrição dos produtos.
+// Cada termo aponta para os produtos que o contêm e o peso do termo em cada um.
+@Component
+public class ProductSearchIndex {
+
+    private static final float NAME_WEIGHT = 3.0f;
+    private static final float DESCRIPTION_WEIGHT = 1.0f;
+
+    // Termos que só casam por prefixo valem menos que o termo exato
+    private static final float PREFIX_MATCH_FACTOR = 0.5f;
+
+    // Prefixos curtos demais expandiriam para boa parte do dicionário
+    private static final int MIN_PREFIX_LENGTH = 2;
+    private static final int MAX_PREFIX_EXPANSIONS = 256;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // termo -> (id do produto -> peso do termo no produto), ordenado para busca por prefixo
+    private final TreeMap<String, Map<Long, Float>> postings = new TreeMap<>();
+
+    // id do produto -> termos indexados, usado para remover o produto do índice
+    private final LongObjectHashMap<Set<String>> documentTerms = new LongObjectHashMap<>();
+
+    // Executa depois do DataInitializer, com o catálogo inicial já gravado. Transação de
+    // escrita: o índice é montado a partir do primário, nunca de uma réplica
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void rebuild() {
+        List<Product> products = productRepository.findAll();
+
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documentTerms.clear();
+            for (Product product : products) {
+                addDocument(product.getId(), product.getName(), product.getDescription());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void index(Product product) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(product.getId());
+            addDocument(product.getId(), product.getName(), product.getDescription());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documentTerms.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Retorna os ids dos produtos que contêm todos os termos da consulta, do mais
+    // relevante para o menos relevante. Termos incompletos casam por prefixo.
+    public List<Long> search(String query, int limit) {
+        return search(query, limit, id -> true);
+    }
+
+    // Mesma busca, descartando antes do ranqueamento os produtos recusados pelo filtro
+    public List<Long> search(String query, int limit, LongPredicate filter) {
+        List<String> tokens = TextNormalizer.tokenize(query);
+        if (tokens.isEmpty() || limit < 1) {
+            return new ArrayList<>();
+        }
+
+        lock.readLock().lock();
+        try {
+            Map<Long, Float> scores = null;
+            for (String token : tokens) {
+                Map<Long, Float> tokenScores = scoreToken(token);
+                scores = scores == null ? tokenScores : intersect(scores, tokenScores);
+                if (scores.isEmpty()) {
+                    return new ArrayList<>();
+                }
+            }
+            scores.keySet().removeIf(id -> !filter.test(id));
+            return topResults(scores, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Map<Long, Float> scoreToken(String token) {
+        Map<Long, Float> scores = new HashMap<>();
+        int totalDocuments = Math.max(documentTerms.size(), 1);
+
+        NavigableMap<String, Map<Long, Float>> matches = token.length() >= MIN_PREFIX_LENGTH
+                ? postings.subMap(token, true, token + Character.MAX_VALUE, false)
+                : postings.subMap(token, true, token, true);
+
+        int expansions = 0;
+        for (Map.Entry<String, Map<Long, Float>> entry : matches.entrySet()) {
+            if (expansions++ >= MAX_PREFIX_EXPANSIONS) {
+                break;
+            }
+
+            Map<Long, Float> documents = entry.getValue();
+            float idf = (float) Math.log(1.0 + (double) totalDocuments / documents.size());
+            float factor = entry.getKey().equals(token) ? 1.0f : PREFIX_MATCH_FACTOR;
+
+            // Um produto pode casar vários termos do mesmo prefixo; vale o melhor deles
+            for (Map.Entry<Long, Float> document : documents.entrySet()) {
+                scores.merge(document.getKey(), document.getValue() * idf * factor, Math::max);
+            }
+        }
+        return scores;
+    }
+
+    private Map<Long, Float> intersect(Map<Long, Float> left, Map<Long, Float> right) {
+        Map<Long, Float> smaller = left.size() <= right.size() ? left : right;
+        Map<Long, Float> larger = smaller == left ? right : left;
+
+        Map<Long, Float> result = new HashMap<>();
+        for (Map.Entry<Long, Float> entry : smaller.entrySet()) {
+            Float other = larger.get(entry.getKey());
+            if (other != null) {
+                result.put(entry.getKey(), entry.getValue() + other);
+            }
+        }
+        return result;
+    }
+
+    private List<Long> topResults(Map<Long, Float> scores, int limit) {
+        // Maior pontuação primeiro; empate decidido pelo id para manter a ordem estável
+        Comparator<Map.Entry<Long, Float>> ranking = Map.Entry.<Long, Float>comparingByValue()
+                .thenComparing(Map.Entry.<Long, Float>comparingByKey().reversed());
+
+        // Heap mínimo com os melhores resultados: O(n log k) em vez de ordenar tudo
+        PriorityQueue<Map.Entry<Long, Float>> best = new PriorityQueue<>(limit + 1, ranking);
+        for (Map.Entry<Long, Float> entry : scores.entrySet()) {
+            best.offer(entry);
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+
+        List<Long> ids = new ArrayList<>(best.size());
+        while (!best.isEmpty()) {
+            ids.add(best.poll().getKey());
+        }
+        Collections.reverse(ids);
+        return ids;
+    }
+
+    private void addDocument(Long productId, String name, String description) {
+        Map<String, Float> weights = new HashMap<>();
+        for (String term : TextNormalizer.tokenize(name)) {
+            weights.merge(term, NAME_WEIGHT, Float::sum);
+        }
+        for (String term : TextNormalizer.tokenize(description)) {
+            weights.merge(term, DESCRIPTION_WEIGHT, Float::sum);
+        }
+
+        for (Map.Entry<String, Float> entry : weights.entrySet()) {
+            postings.computeIfAbsent(entry.getKey(), term -> new HashMap<>())
+                    .put(productId, entry.getValue());
+        }
+        documentTerms.put(productId, new HashSet<>(weights.keySet()));
+    }
+
+    private void removeDocument(Long productId) {
+        Set<String> terms = documentTerms.remove(productId);
+        if (terms == null) {
+            return;
+        }
+
+        for (String term : terms) {
+            Map<Long, Float> documents = postings.get(term);
+            if (documents != null) {
+                documents.remove(productId);
+                if (documents.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.ecommerce.catalog.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+public final class TextNormalizer {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{Alnum}]+");
+
+    // Palavras muito frequentes em português que não ajudam a diferenciar produtos
+    private static final Set<String> STOP_WORDS = Set.of(
+        "a", "o", "as", "os", "de", "da", "do", "das", "dos", "e", "em", "no", "na",
+        "nos", "nas", "com", "sem", "para", "por", "um", "uma"
+    );
+
+    private TextNormalizer() {}
+
+    // "Teclado Mecânico" -> [teclado, mecanico]
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return tokens;
+        }
+
+        for (String token : SEPARATORS.split(fold(text))) {
+            if (!token.isEmpty() && !STOP_WORDS.contains(token)) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    // Remove acentos e padroniza a caixa: "Câmera" -> "camera"
+    public static String fold(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+}
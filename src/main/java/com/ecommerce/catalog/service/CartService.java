@@ -1,23 +1,33 @@
 package com.ecommerce.catalog.service;
 
+import com.ecommerce.catalog.cart.CartStore;
+import com.ecommerce.catalog.cart.CartTotals;
 import com.ecommerce.catalog.dto.CartItemDTO;
+import com.ecommerce.catalog.dto.ProductDTO;
 import com.ecommerce.catalog.entity.CartItem;
 import com.ecommerce.catalog.entity.Product;
 import com.ecommerce.catalog.entity.User;
+import com.ecommerce.catalog.inventory.StockLedger;
+import com.ecommerce.catalog.money.Money;
 import com.ecommerce.catalog.repository.CartItemRepository;
 import com.ecommerce.catalog.repository.ProductRepository;
 import com.ecommerce.catalog.repository.UserRepository;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @Transactional
+@Timed(value = "catalog.service", percentiles = {0.5, 0.95, 0.99})
 public class CartService {
     
     @Autowired
@@ -29,19 +39,48 @@ public class CartService {
     @Autowired
     private ProductRepository productRepository;
     
+    @Autowired
+    private StockLedger stockLedger;
+    
+    @Autowired
+    private CartTotals cartTotals;
+    
+    // Modo opcional: carrinhos em memória, gravados em lote (cart.write-behind.enabled)
+    @Autowired
+    private CartStore cartStore;
+    
+    @Autowired
+    private ProductService productService;
+    
     public List<CartItemDTO> getCartItems(Long userId) {
+        if (cartStore.isEnabled()) {
+            List<CartItemDTO> items = new ArrayList<>();
+            for (CartStore.Line line : cartStore.lines(userId)) {
+                catalogProduct(line.productId()).ifPresentOrElse(
+                        product -> items.add(convertToDTO(line, product)),
+                        () -> discard(line));
+            }
+            return items;
+        }
         return cartItemRepository.findByUserId(userId).stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
     }
     
     public CartItemDTO addToCart(CartItemDTO cartItemDTO) {
+        if (cartStore.isEnabled()) {
+            return addToStore(cartItemDTO);
+        }
+        
         User user = userRepository.findById(cartItemDTO.getUserId())
                 .orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
         
         Product product = productRepository.findById(cartItemDTO.getProductId())
                 .orElseThrow(() -> new RuntimeException("Produto não encontrado"));
         
+        // Reserva as unidades antes de gravar; se faltar estoque nada é alterado
+        stockLedger.reserve(user.getId(), product.getId(), cartItemDTO.getQuantity());
+        
         // Verifica se o item já existe no carrinho
         Optional<CartItem> existingItem = cartItemRepository.findByUserAndProduct(user, product);
         
@@ -56,35 +95,164 @@ public class CartService {
         }
         
         CartItem savedItem = cartItemRepository.save(cartItem);
+        cartTotals.add(user.getId(), lineTotal(product, cartItemDTO.getQuantity()));
         return convertToDTO(savedItem);
     }
     
     public Optional<CartItemDTO> updateCartItem(Long itemId, Integer quantity) {
+        if (cartStore.isEnabled()) {
+            return cartStore.find(itemId).flatMap(line -> {
+                Optional<ProductDTO> product = catalogProduct(line.productId());
+                if (product.isEmpty()) {
+                    discard(line);
+                    return Optional.empty();
+                }
+                int delta = quantity - line.quantity();
+                if (delta > 0) {
+                    stockLedger.reserve(line.userId(), line.productId(), delta);
+                } else if (delta < 0) {
+                    stockLedger.release(line.userId(), line.productId(), -delta);
+                }
+                cartStore.setQuantity(itemId, quantity);
+                cartTotals.add(line.userId(), lineTotal(product.get().getPrice(), delta));
+                return Optional.of(convertToDTO(cartStore.find(itemId).orElse(line), product.get()));
+            });
+        }
+        
         return cartItemRepository.findById(itemId)
                 .map(cartItem -> {
+                    int delta = quantity - cartItem.getQuantity();
+                    if (delta > 0) {
+                        stockLedger.reserve(cartItem.getUser().getId(), cartItem.getProduct().getId(), delta);
+                    } else if (delta < 0) {
+                        stockLedger.release(cartItem.getUser().getId(), cartItem.getProduct().getId(), -delta);
+                    }
                     cartItem.setQuantity(quantity);
                     CartItem updatedItem = cartItemRepository.save(cartItem);
+                    cartTotals.add(cartItem.getUser().getId(), lineTotal(cartItem.getProduct(), delta));
                     return convertToDTO(updatedItem);
                 });
     }
     
     public boolean removeFromCart(Long itemId) {
-        if (cartItemRepository.existsById(itemId)) {
-            cartItemRepository.deleteById(itemId);
-            return true;
+        if (cartStore.isEnabled()) {
+            return cartStore.remove(itemId)
+                    .map(line -> {
+                        stockLedger.releaseAll(line.userId(), line.productId());
+                        // Produto excluído já não entra no total
+                        catalogProduct(line.productId()).ifPresent(product ->
+                                cartTotals.add(line.userId(), lineTotal(product.getPrice(), -line.quantity())));
+                        return true;
+                    })
+                    .orElse(false);
         }
-        return false;
+        
+        return cartItemRepository.findById(itemId)
+                .map(cartItem -> {
+                    stockLedger.releaseAll(cartItem.getUser().getId(), cartItem.getProduct().getId());
+                    cartItemRepository.delete(cartItem);
+                    cartTotals.add(cartItem.getUser().getId(), cartItem.totalPrice().negate());
+                    return true;
+                })
+                .orElse(false);
     }
     
+    // No checkout as reservas já foram assumidas pelo pedido; aqui só sobra o que não foi comprado
     public void clearCart(Long userId) {
-        cartItemRepository.deleteByUserId(userId);
+        stockLedger.releaseAll(userId);
+        if (cartStore.isEnabled()) {
+            cartStore.clear(userId);
+        } else {
+            cartItemRepository.deleteByUserId(userId);
+        }
+        cartTotals.invalidate(userId);
     }
     
+    // Total mantido em memória; só a primeira leitura usa a consulta agregada. Não é
+    // readOnly: o total carregado é a base das variações seguintes e tem de vir do primário.
     public BigDecimal getCartTotal(Long userId) {
-        List<CartItem> cartItems = cartItemRepository.findByUserId(userId);
-        return cartItems.stream()
-                .map(CartItem::getTotalPrice)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        if (cartStore.isEnabled()) {
+            return cartTotals.get(userId, id -> {
+                Money total = Money.ZERO;
+                for (CartStore.Line line : cartStore.lines(id)) {
+                    Optional<ProductDTO> product = catalogProduct(line.productId());
+                    if (product.isPresent()) {
+                        total = total.plus(lineTotal(product.get().getPrice(), line.quantity()));
+                    }
+                }
+                return total;
+            }).toBigDecimal();
+        }
+        return cartTotals.get(userId, id -> Money.of(cartItemRepository.sumTotalByUserId(id))).toBigDecimal();
+    }
+    
+    // Linhas do carrinho com o produto já carregado, para o checkout
+    @Transactional(readOnly = true)
+    public List<CartItem> getCartLines(Long userId) {
+        if (!cartStore.isEnabled()) {
+            return cartItemRepository.findByUserIdWithProduct(userId);
+        }
+        
+        List<CartStore.Line> lines = cartStore.lines(userId);
+        Map<Long, Product> products = productRepository.findAllById(
+                lines.stream().map(CartStore.Line::productId).collect(Collectors.toList())).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        User user = userRepository.getReferenceById(userId);
+        return lines.stream()
+                .filter(line -> products.containsKey(line.productId()))
+                .map(line -> {
+                    CartItem cartItem = new CartItem(user, products.get(line.productId()), line.quantity());
+                    cartItem.setId(line.itemId());
+                    return cartItem;
+                })
+                .collect(Collectors.toList());
+    }
+    
+    // Sem consultas: o usuário só é verificado na criação do carrinho e o produto vem do cache
+    private CartItemDTO addToStore(CartItemDTO cartItemDTO) {
+        Long userId = cartItemDTO.getUserId();
+        if (!cartStore.hasCart(userId) && !userRepository.existsById(userId)) {
+            throw new RuntimeException("Usuário não encontrado");
+        }
+        ProductDTO product = catalogProduct(cartItemDTO.getProductId())
+                .orElseThrow(() -> new RuntimeException("Produto não encontrado"));
+        
+        stockLedger.reserve(userId, product.getId(), cartItemDTO.getQuantity());
+        CartStore.Line line = cartStore.add(userId, product.getId(), cartItemDTO.getQuantity());
+        cartTotals.add(userId, lineTotal(product.getPrice(), cartItemDTO.getQuantity()));
+        return convertToDTO(line, product);
+    }
+    
+    // Vazio para produto excluído depois de entrar no carrinho
+    private Optional<ProductDTO> catalogProduct(Long productId) {
+        return productService.getProductById(productId);
+    }
+    
+    // Linha de produto excluído: sai do carrinho (e da próxima gravação) e libera a reserva
+    private void discard(CartStore.Line line) {
+        cartStore.remove(line.itemId());
+        stockLedger.releaseAll(line.userId(), line.productId());
+    }
+    
+    private Money lineTotal(Product product, int quantity) {
+        return product.price().times(quantity);
+    }
+    
+    // O preço do produto em cache chega como BigDecimal (DTO da API)
+    private Money lineTotal(BigDecimal price, int quantity) {
+        return Money.of(price).times(quantity);
+    }
+    
+    private CartItemDTO convertToDTO(CartStore.Line line, ProductDTO product) {
+        CartItemDTO dto = new CartItemDTO();
+        dto.setId(line.itemId());
+        dto.setUserId(line.userId());
+        dto.setProductId(line.productId());
+        dto.setQuantity(line.quantity());
+        dto.setProductName(product.getName());
+        dto.setUnitPrice(product.getPrice());
+        dto.setTotalPrice(lineTotal(product.getPrice(), line.quantity()).toBigDecimal());
+        return dto;
     }
     
     private CartItemDTO convertToDTO(CartItem cartItem) {
@@ -1,105 +1,224 @@
 package com.ecommerce.catalog.service;
 
+import com.ecommerce.catalog.archive.OrderArchive;
+import com.ecommerce.catalog.cache.VersionStamps;
+import com.ecommerce.catalog.dto.CursorPage;
 import com.ecommerce.catalog.dto.OrderDTO;
 import com.ecommerce.catalog.dto.OrderItemDTO;
 import com.ecommerce.catalog.entity.*;
+import com.ecommerce.catalog.event.OrderEvent;
+import com.ecommerce.catalog.inventory.StockLedger;
+import com.ecommerce.catalog.metrics.OrderMetrics;
+import com.ecommerce.catalog.money.Money;
 import com.ecommerce.catalog.repository.*;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 @Transactional
+@Timed(value = "catalog.service", percentiles = {0.5, 0.95, 0.99})
 public class OrderService {
     
     @Autowired
     private OrderRepository orderRepository;
     
     @Autowired
-    private OrderItemRepository orderItemRepository;
+    private OrderViewRepository orderViewRepository;
     
     @Autowired
     private UserRepository userRepository;
     
     @Autowired
-    private CartItemRepository cartItemRepository;
+    private CartService cartService;
     
     @Autowired
-    private CartService cartService;
+    private OrderMetrics orderMetrics;
+    
+    @Autowired
+    private StockLedger stockLedger;
+    
+    @Autowired
+    private VersionStamps versionStamps;
     
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private OrderArchive orderArchive;
+    
+    // As leituras vêm do modelo de leitura order_view: uma consulta, sem junções
+    @Transactional(readOnly = true)
     public List<OrderDTO> getAllOrders() {
-        return orderRepository.findAll().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return toDTOs(orderViewRepository.findAllBy(PageRequest.of(0, CursorPage.LEGACY_LIMIT, Sort.by("id"))));
     }
     
+    @Transactional(readOnly = true)
+    public CursorPage<OrderDTO> getOrdersPage(String after, Integer limit, String sort) {
+        int pageSize = CursorPage.normalizeLimit(limit);
+        String sortBy = sort != null ? sort : "id";
+        // Busca uma linha a mais para saber se existe próxima página
+        PageRequest page = PageRequest.of(0, pageSize + 1);
+        
+        List<OrderView> rows;
+        if (after == null) {
+            rows = switch (sortBy) {
+                case "id", "createdAt" -> orderViewRepository.findAllBy(page.withSort(Sort.by(sortBy, "id")));
+                default -> throw new RuntimeException("Ordenação inválida: " + sortBy);
+            };
+        } else {
+            CursorPage.Cursor cursor = CursorPage.Cursor.decode(after);
+            rows = switch (sortBy) {
+                case "id" -> orderViewRepository.findPageOrderById(cursor.id(), page);
+                case "createdAt" -> orderViewRepository.findPageOrderByCreatedAt(
+                        cursor.key(LocalDateTime::parse), cursor.id(), page);
+                default -> throw new RuntimeException("Ordenação inválida: " + sortBy);
+            };
+        }
+        
+        return CursorPage.of(toDTOs(rows), pageSize, sortBy, order -> sortBy.equals("createdAt")
+                ? new CursorPage.Cursor(order.getId(), order.getCreatedAt().toString())
+                : CursorPage.Cursor.of(order.getId()));
+    }
+    
+    // Pedidos arquivados (ver OrderArchiver) também são encontrados, pelo arquivo
+    @Transactional(readOnly = true)
     public Optional<OrderDTO> getOrderById(Long id) {
-        return orderRepository.findById(id)
+        Optional<OrderDTO> order = orderViewRepository.findById(id)
                 .map(this::convertToDTO);
+        if (order.isPresent()) {
+            return order;
+        }
+        return orderArchive.findById(id)
+                .flatMap(archived -> userRepository.findById(archived.getUserId())
+                        .map(user -> withUserName(archived, user.getName())));
     }
     
+    // Histórico completo: pedidos arquivados (mais antigos) seguidos dos que estão no banco
+    @Transactional(readOnly = true)
     public List<OrderDTO> getOrdersByUserId(Long userId) {
-        return orderRepository.findByUserId(userId).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        List<OrderDTO> orders = toDTOs(orderViewRepository.findByUserIdOrderById(userId));
+        List<OrderDTO> archived = orderArchive.findByUserId(userId);
+        if (archived.isEmpty()) {
+            return orders;
+        }
+        
+        // O nome exibido é o atual; sem pedidos no banco, vem do usuário. Pedidos arquivados
+        // de usuários já excluídos não aparecem
+        String userName = !orders.isEmpty()
+                ? orders.get(0).getUserName()
+                : userRepository.findById(userId).map(User::getName).orElse(null);
+        if (userName == null) {
+            return orders;
+        }
+        
+        // Um pedido no banco e no arquivo (arquivamento interrompido) aparece uma vez
+        Set<Long> hot = orders.stream().map(OrderDTO::getId).collect(Collectors.toSet());
+        List<OrderDTO> merged = new ArrayList<>(archived.size() + orders.size());
+        for (OrderDTO order : archived) {
+            if (!hot.contains(order.getId())) {
+                merged.add(withUserName(order, userName));
+            }
+        }
+        merged.addAll(orders);
+        merged.sort(Comparator.comparing(OrderDTO::getId));
+        return merged;
     }
     
     public OrderDTO createOrderFromCart(Long userId) {
+        return createOrderFromCart(userId, null);
+    }
+    
+    // checkoutId identifica o pedido vindo da fila de checkout assíncrono
+    public OrderDTO createOrderFromCart(Long userId, String checkoutId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
         
-        List<CartItem> cartItems = cartItemRepository.findByUserId(userId);
+        List<CartItem> cartItems = cartService.getCartLines(userId);
         if (cartItems.isEmpty()) {
             throw new RuntimeException("Carrinho está vazio");
         }
         
-        // Criar o pedido
-        Order order = new Order(user);
-        Order savedOrder = orderRepository.save(order);
+        // Garante o estoque de todas as linhas (tudo ou nada); a baixa é feita após o commit
+        Map<Long, Integer> quantities = cartItems.stream()
+                .collect(Collectors.toMap(item -> item.getProduct().getId(), CartItem::getQuantity, Integer::sum));
+        stockLedger.checkout(userId, quantities);
         
-        // Criar os itens do pedido baseados no carrinho
-        BigDecimal totalAmount = BigDecimal.ZERO;
+        // Montar o pedido completo em memória, com os itens e o total
+        Order order = new Order(user);
+        Money totalAmount = Money.ZERO;
         for (CartItem cartItem : cartItems) {
             OrderItem orderItem = new OrderItem(
-                savedOrder,
+                order,
                 cartItem.getProduct(),
                 cartItem.getQuantity(),
-                cartItem.getProduct().getPrice()
+                cartItem.getProduct().price()
             );
-            orderItemRepository.save(orderItem);
-            totalAmount = totalAmount.add(orderItem.getTotalPrice());
+            order.addItem(orderItem);
+            totalAmount = totalAmount.plus(orderItem.totalPrice());
         }
+        order.setTotalAmount(totalAmount);
+        order.setCheckoutId(checkoutId);
         
-        // Atualizar o total do pedido
-        savedOrder.setTotalAmount(totalAmount);
-        savedOrder = orderRepository.save(savedOrder);
+        // Um único persist em cascata: pedido e itens saem em lotes JDBC no flush
+        Order savedOrder = orderRepository.save(order);
         
         // Limpar o carrinho
         cartService.clearCart(userId);
         
+        orderMetrics.recordCheckout(cartItems.size(), totalAmount);
+        versionStamps.touch(VersionStamps.Kind.ORDER, savedOrder.getId());
+        eventPublisher.publishEvent(OrderEvent.created(savedOrder));
+        
         return convertToDTO(savedOrder);
     }
     
     public Optional<OrderDTO> updateOrderStatus(Long orderId, Order.OrderStatus status) {
-        return orderRepository.findById(orderId)
+        return orderRepository.findWithItemsById(orderId)
                 .map(order -> {
+                    Order.OrderStatus previousStatus = order.getStatus();
                     order.setStatus(status);
                     Order updatedOrder = orderRepository.save(order);
+                    versionStamps.touch(VersionStamps.Kind.ORDER, orderId);
+                    eventPublisher.publishEvent(OrderEvent.statusChanged(updatedOrder, previousStatus));
                     return convertToDTO(updatedOrder);
                 });
     }
     
     public boolean deleteOrder(Long id) {
-        if (orderRepository.existsById(id)) {
-            orderRepository.deleteById(id);
-            return true;
-        }
-        return false;
+        return orderRepository.findById(id)
+                .map(order -> {
+                    // Publicado antes da exclusão: os ouvintes ainda leem o pedido e os itens
+                    eventPublisher.publishEvent(OrderEvent.deleted(order));
+                    orderRepository.delete(order);
+                    versionStamps.touch(VersionStamps.Kind.ORDER, id);
+                    return true;
+                })
+                .orElse(false);
+    }
+    
+    private List<OrderDTO> toDTOs(List<OrderView> rows) {
+        return rows.stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+    }
+    
+    private static OrderDTO withUserName(OrderDTO order, String userName) {
+        order.setUserName(userName);
+        return order;
     }
     
     private OrderDTO convertToDTO(Order order) {
@@ -111,9 +230,8 @@ public class OrderService {
         dto.setStatus(order.getStatus());
         dto.setCreatedAt(order.getCreatedAt());
         
-        // Carregar os itens do pedido
-        List<OrderItem> orderItems = orderItemRepository.findByOrderId(order.getId());
-        List<OrderItemDTO> itemDTOs = orderItems.stream()
+        // Os itens já vêm carregados junto com o pedido (fetch join)
+        List<OrderItemDTO> itemDTOs = order.getItems() == null ? new ArrayList<>() : order.getItems().stream()
                 .map(this::convertOrderItemToDTO)
                 .collect(Collectors.toList());
         dto.setItems(itemDTOs);
@@ -121,10 +239,22 @@ public class OrderService {
         return dto;
     }
     
+    private OrderDTO convertToDTO(OrderView view) {
+        OrderDTO dto = new OrderDTO();
+        dto.setId(view.getId());
+        dto.setUserId(view.getUserId());
+        dto.setUserName(view.getUserName());
+        dto.setTotalAmount(view.totalAmount().toBigDecimal());
+        dto.setStatus(view.getStatus());
+        dto.setCreatedAt(view.getCreatedAt());
+        dto.setItems(new ArrayList<>(view.getItems()));
+        return dto;
+    }
+    
     private OrderItemDTO convertOrderItemToDTO(OrderItem orderItem) {
         return new OrderItemDTO(
             orderItem.getProduct().getId(),
-            orderItem.getProduct().getName(),
+            orderItem.getProductName(),
             orderItem.getQuantity(),
             orderItem.getUnitPrice(),
             orderItem.getTotalPrice()
@@ -1,84 +1,329 @@
 package com.ecommerce.catalog.service;
 
+import com.ecommerce.catalog.cache.VersionStamps;
+import com.ecommerce.catalog.cart.CartTotals;
+import com.ecommerce.catalog.config.CacheConfig;
+import com.ecommerce.catalog.dto.CursorPage;
+import com.ecommerce.catalog.dto.PriceBucketDTO;
 import com.ecommerce.catalog.dto.ProductDTO;
 import com.ecommerce.catalog.entity.Product;
+import com.ecommerce.catalog.inventory.StockLedger;
+import com.ecommerce.catalog.inventory.StockLevel;
+import com.ecommerce.catalog.money.Money;
 import com.ecommerce.catalog.repository.ProductRepository;
+import com.ecommerce.catalog.search.PriceIndex;
+import com.ecommerce.catalog.search.ProductSearchIndex;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
+@Timed(value = "catalog.service", percentiles = {0.5, 0.95, 0.99})
 public class ProductService {
     
     @Autowired
     private ProductRepository productRepository;
     
+    @Autowired
+    private ProductSearchIndex searchIndex;
+    
+    @Autowired
+    private PriceIndex priceIndex;
+    
+    @Autowired
+    private StockLedger stockLedger;
+    
+    @Autowired
+    private CartTotals cartTotals;
+    
+    @Autowired
+    private VersionStamps versionStamps;
+    
+    @Autowired
+    private CacheManager cacheManager;
+    
+    // Leituras com cache ficam sem @Transactional: a consulta do repositório já roda numa
+    // transação somente leitura, e um acerto no cache não abre transação nenhuma
+    @Cacheable(value = CacheConfig.PRODUCT_LIST, key = "'all'")
     public List<ProductDTO> getAllProducts() {
-        return productRepository.findAll().stream()
+        return productRepository.findAllBy(PageRequest.of(0, CursorPage.LEGACY_LIMIT, Sort.by("id"))).stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
     }
     
+    @Transactional(readOnly = true)
+    public CursorPage<ProductDTO> getProductsPage(String after, Integer limit, String sort) {
+        int pageSize = CursorPage.normalizeLimit(limit);
+        String sortBy = sort != null ? sort : "id";
+        // Busca uma linha a mais para saber se existe próxima página
+        PageRequest page = PageRequest.of(0, pageSize + 1);
+        
+        List<Product> rows;
+        if (after == null) {
+            rows = switch (sortBy) {
+                case "id", "price", "name" -> productRepository.findAllBy(page.withSort(Sort.by(sortBy, "id")));
+                default -> throw new RuntimeException("Ordenação inválida: " + sortBy);
+            };
+        } else {
+            CursorPage.Cursor cursor = CursorPage.Cursor.decode(after);
+            rows = switch (sortBy) {
+                case "id" -> productRepository.findPageOrderById(cursor.id(), page);
+                case "price" -> productRepository.findPageOrderByPrice(
+                        cursor.key(key -> Money.ofCents(Long.parseLong(key))), cursor.id(), page);
+                case "name" -> productRepository.findPageOrderByName(cursor.key(key -> key), cursor.id(), page);
+                default -> throw new RuntimeException("Ordenação inválida: " + sortBy);
+            };
+        }
+        
+        return CursorPage.of(rows.stream().map(this::convertToDTO).collect(Collectors.toList()),
+                pageSize, sortBy, product -> switch (sortBy) {
+                    case "price" -> new CursorPage.Cursor(product.getId(), Long.toString(Money.of(product.getPrice()).cents()));
+                    case "name" -> new CursorPage.Cursor(product.getId(), product.getName());
+                    default -> CursorPage.Cursor.of(product.getId());
+                });
+    }
+    
+    @Cacheable(value = CacheConfig.PRODUCTS, key = "#id")
     public Optional<ProductDTO> getProductById(Long id) {
         return productRepository.findById(id)
                 .map(this::convertToDTO);
     }
     
+    // O put sobrescreve uma eventual entrada "não encontrado" já cacheada para o novo id
+    @Caching(put = @CachePut(value = CacheConfig.PRODUCTS, key = "#result.id"),
+             evict = @CacheEvict(value = CacheConfig.PRODUCT_LIST, allEntries = true))
     public ProductDTO createProduct(ProductDTO productDTO) {
         Product product = convertToEntity(productDTO);
         Product savedProduct = productRepository.save(product);
+        searchIndex.index(savedProduct);
+        priceIndex.put(savedProduct.getId(), savedProduct.getPrice());
+        stockLedger.register(savedProduct.getId(), savedProduct.getStock());
+        publishChange(savedProduct.getId());
         return convertToDTO(savedProduct);
     }
     
+    // Transação de escrita: a leitura do produto vem do primário, nunca de uma réplica atrasada
+    @Caching(put = @CachePut(value = CacheConfig.PRODUCTS, key = "#id"),
+             evict = @CacheEvict(value = CacheConfig.PRODUCT_LIST, allEntries = true))
+    @Transactional
     public Optional<ProductDTO> updateProduct(Long id, ProductDTO productDTO) {
         return productRepository.findById(id)
                 .map(existingProduct -> {
+                    // O estoque não é gravado pelo save: o ledger aplica a diferença
+                    if (productDTO.getStock() != null) {
+                        stockLedger.adjust(id, productDTO.getStock());
+                        existingProduct.setStock(productDTO.getStock());
+                    }
+                    boolean priceChanged = existingProduct.getPrice().compareTo(productDTO.getPrice()) != 0;
+                    if (productDTO.getSku() != null) {
+                        existingProduct.setSku(productDTO.getSku());
+                    }
                     existingProduct.setName(productDTO.getName());
                     existingProduct.setPrice(productDTO.getPrice());
                     existingProduct.setDescription(productDTO.getDescription());
                     Product updatedProduct = productRepository.save(existingProduct);
+                    // Flush já aqui: um SKU duplicado falha antes de qualquer efeito fora do banco
+                    productRepository.flush();
+                    // O total dos carrinhos usa o preço atual do produto
+                    if (priceChanged) {
+                        cartTotals.invalidateAll();
+                    }
+                    // Índices só mudam depois do commit: um commit que falhe não os deixa adiantados
+                    afterCommit(() -> {
+                        searchIndex.index(updatedProduct);
+                        priceIndex.put(updatedProduct.getId(), updatedProduct.getPrice());
+                    });
+                    publishChange(id);
                     return convertToDTO(updatedProduct);
                 });
     }
     
+    @Caching(evict = {
+            @CacheEvict(value = CacheConfig.PRODUCTS, key = "#id"),
+            @CacheEvict(value = CacheConfig.PRODUCT_LIST, allEntries = true)
+    })
+    @Transactional
     public boolean deleteProduct(Long id) {
         if (productRepository.existsById(id)) {
             productRepository.deleteById(id);
+            // Produto ainda em pedidos falha aqui; os índices e o ledger só mudam depois do commit
+            productRepository.flush();
+            afterCommit(() -> {
+                searchIndex.remove(id);
+                priceIndex.remove(id);
+                stockLedger.remove(id);
+            });
+            cartTotals.invalidateAll();
+            publishChange(id);
             return true;
         }
         return false;
     }
     
+    @Transactional(readOnly = true)
     public List<ProductDTO> searchProductsByName(String name) {
         return productRepository.findByNameContainingIgnoreCase(name).stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
     }
     
+    // Busca ranqueada pelo índice invertido; o banco só é consultado para
+    // carregar os produtos encontrados, pela chave primária
+    @Transactional(readOnly = true)
+    public List<ProductDTO> searchProducts(String query, int limit) {
+        return loadInOrder(searchIndex.search(query, limit));
+    }
+    
+    // Nome + faixa de preço: o índice de preços filtra os candidatos do índice
+    // invertido antes do ranqueamento, sem uma segunda consulta ao banco
+    @Transactional(readOnly = true)
+    public List<ProductDTO> searchProducts(String query, int limit, BigDecimal minPrice, BigDecimal maxPrice) {
+        long minCents = minPrice != null ? PriceIndex.lowerBoundCents(minPrice) : Long.MIN_VALUE;
+        long maxCents = maxPrice != null ? PriceIndex.upperBoundCents(maxPrice) : Long.MAX_VALUE;
+        return loadInOrder(searchIndex.search(query, limit,
+                id -> priceIndex.isInRange(id, minCents, maxCents)));
+    }
+    
+    // Modo legado: a faixa inteira do mais barato ao mais caro, limitada a CursorPage.LEGACY_LIMIT itens
+    @Transactional(readOnly = true)
     public List<ProductDTO> getProductsByPriceRange(BigDecimal minPrice, BigDecimal maxPrice) {
-        return productRepository.findByPriceBetween(minPrice, maxPrice).stream()
+        return loadInOrder(priceIndex.range(PriceIndex.lowerBoundCents(minPrice),
+                PriceIndex.upperBoundCents(maxPrice), CursorPage.LEGACY_LIMIT));
+    }
+    
+    // Página da faixa em ordem de (preço, id), continuada pelo índice de preços a partir do
+    // cursor: a consulta pelos ids tem no máximo limit + 1 itens no IN
+    @Transactional(readOnly = true)
+    public CursorPage<ProductDTO> getProductsByPriceRangePage(BigDecimal minPrice, BigDecimal maxPrice,
+                                                             String after, Integer limit) {
+        int pageSize = CursorPage.normalizeLimit(limit);
+        long minCents = PriceIndex.lowerBoundCents(minPrice);
+        long maxCents = PriceIndex.upperBoundCents(maxPrice);
+        List<Long> ids;
+        if (after == null) {
+            ids = priceIndex.range(minCents, maxCents, pageSize + 1);
+        } else {
+            CursorPage.Cursor cursor = CursorPage.Cursor.decode(after);
+            ids = priceIndex.range(minCents, maxCents, cursor.key(Long::parseLong), cursor.id(), pageSize + 1);
+        }
+        
+        return CursorPage.of(loadInOrder(ids), pageSize, "price",
+                product -> new CursorPage.Cursor(product.getId(), Long.toString(Money.of(product.getPrice()).cents())));
+    }
+    
+    @Transactional(readOnly = true)
+    public List<ProductDTO> getCheapestProducts(int limit) {
+        return loadInOrder(priceIndex.cheapest(limit));
+    }
+    
+    public List<PriceBucketDTO> getPriceHistogram(BigDecimal minPrice, BigDecimal maxPrice, int buckets) {
+        if (buckets < 1) {
+            throw new RuntimeException("Número de faixas deve ser pelo menos 1");
+        }
+        
+        long minCents = minPrice != null ? PriceIndex.lowerBoundCents(minPrice) : priceIndex.minPrice();
+        long maxCents = maxPrice != null ? PriceIndex.upperBoundCents(maxPrice) : priceIndex.maxPrice();
+        if (minCents > maxCents) {
+            throw new RuntimeException("Preço mínimo maior que o máximo");
+        }
+        
+        long[] counts = priceIndex.histogram(minCents, maxCents, buckets);
+        long width = priceIndex.bucketWidth(minCents, maxCents, buckets);
+        List<PriceBucketDTO> histogram = new ArrayList<>(buckets);
+        for (int b = 0; b < buckets; b++) {
+            long lower = Math.min(minCents + b * width, maxCents);
+            long upper = b == buckets - 1 ? maxCents : Math.min(lower + width - 1, maxCents);
+            histogram.add(new PriceBucketDTO(PriceIndex.fromCents(lower), PriceIndex.fromCents(upper), counts[b]));
+        }
+        return histogram;
+    }
+    
+    // Carrega pela chave primária os produtos apontados por um índice, mantendo a ordem dele
+    private List<ProductDTO> loadInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        
+        Map<Long, Product> products = productRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        return ids.stream()
+                .map(products::get)
+                .filter(Objects::nonNull)
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
     }
     
+    // Estoque em tempo real (o campo stock do produto é o valor gravado no banco)
+    public StockLevel getStockLevel(Long id) {
+        return stockLedger.level(id);
+    }
+    
+    // A nova versão (ETag) só é publicada com o cache já sem o estado antigo; senão um GET
+    // entre a troca de versão e o fim do método devolveria o corpo antigo com a ETag nova
+    private void publishChange(Long id) {
+        Cache products = cacheManager.getCache(CacheConfig.PRODUCTS);
+        if (products != null) {
+            products.evict(id);
+        }
+        Cache productList = cacheManager.getCache(CacheConfig.PRODUCT_LIST);
+        if (productList != null) {
+            productList.clear();
+        }
+        versionStamps.touch(VersionStamps.Kind.PRODUCT, id);
+    }
+    
+    // Sem transação ativa, o efeito é imediato
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+    
     private ProductDTO convertToDTO(Product product) {
         ProductDTO dto = new ProductDTO();
         dto.setId(product.getId());
+        dto.setSku(product.getSku());
         dto.setName(product.getName());
         dto.setPrice(product.getPrice());
         dto.setDescription(product.getDescription());
+        dto.setStock(product.getStock());
         return dto;
     }
     
     private Product convertToEntity(ProductDTO dto) {
         Product product = new Product();
+        product.setSku(dto.getSku());
         product.setName(dto.getName());
         product.setPrice(dto.getPrice());
         product.setDescription(dto.getDescription());
+        product.setStock(dto.getStock() != null ? dto.getStock() : 0);
         return product;
     }
 }
\ No newline at end of file
@@ -1,37 +1,84 @@
 package com.ecommerce.catalog.service;
 
+import com.ecommerce.catalog.cache.VersionStamps;
+import com.ecommerce.catalog.dto.CursorPage;
 import com.ecommerce.catalog.dto.UserDTO;
 import com.ecommerce.catalog.entity.User;
+import com.ecommerce.catalog.repository.OrderViewRepository;
 import com.ecommerce.catalog.repository.UserRepository;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
+@Timed(value = "catalog.service", percentiles = {0.5, 0.95, 0.99})
 public class UserService {
     
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private OrderViewRepository orderViewRepository;
+    
+    @Autowired
+    private VersionStamps versionStamps;
+    
+    @Transactional(readOnly = true)
     public List<UserDTO> getAllUsers() {
-        return userRepository.findAll().stream()
+        return userRepository.findAllBy(PageRequest.of(0, CursorPage.LEGACY_LIMIT, Sort.by("id"))).stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
     }
     
+    @Transactional(readOnly = true)
+    public CursorPage<UserDTO> getUsersPage(String after, Integer limit, String sort) {
+        int pageSize = CursorPage.normalizeLimit(limit);
+        String sortBy = sort != null ? sort : "id";
+        // Busca uma linha a mais para saber se existe próxima página
+        PageRequest page = PageRequest.of(0, pageSize + 1);
+        
+        List<User> rows;
+        if (after == null) {
+            rows = switch (sortBy) {
+                case "id", "name" -> userRepository.findAllBy(page.withSort(Sort.by(sortBy, "id")));
+                default -> throw new RuntimeException("Ordenação inválida: " + sortBy);
+            };
+        } else {
+            CursorPage.Cursor cursor = CursorPage.Cursor.decode(after);
+            rows = switch (sortBy) {
+                case "id" -> userRepository.findPageOrderById(cursor.id(), page);
+                case "name" -> userRepository.findPageOrderByName(cursor.key(key -> key), cursor.id(), page);
+                default -> throw new RuntimeException("Ordenação inválida: " + sortBy);
+            };
+        }
+        
+        return CursorPage.of(rows.stream().map(this::convertToDTO).collect(Collectors.toList()),
+                pageSize, sortBy, user -> sortBy.equals("name")
+                        ? new CursorPage.Cursor(user.getId(), user.getName())
+                        : CursorPage.Cursor.of(user.getId()));
+    }
+    
+    @Transactional(readOnly = true)
     public Optional<UserDTO> getUserById(Long id) {
         return userRepository.findById(id)
                 .map(this::convertToDTO);
     }
     
+    @Transactional(readOnly = true)
     public Optional<UserDTO> getUserByEmail(String email) {
         return userRepository.findByEmail(email)
                 .map(this::convertToDTO);
     }
     
+    // Transação de escrita: a checagem de email duplicado lê o primário
+    @Transactional
     public UserDTO createUser(UserDTO userDTO) {
         if (userRepository.existsByEmail(userDTO.getEmail())) {
             throw new RuntimeException("Email já está em uso");
@@ -42,6 +89,8 @@ public class UserService {
         return convertToDTO(savedUser);
     }
     
+    // Transação única: usuário e order_view mudam juntos
+    @Transactional
     public Optional<UserDTO> updateUser(Long id, UserDTO userDTO) {
         return userRepository.findById(id)
                 .map(existingUser -> {
@@ -51,15 +100,24 @@ public class UserService {
                         throw new RuntimeException("Email já está em uso");
                     }
                     
+                    boolean nameChanged = !existingUser.getName().equals(userDTO.getName());
                     existingUser.setName(userDTO.getName());
                     existingUser.setEmail(userDTO.getEmail());
                     User updatedUser = userRepository.save(existingUser);
+                    // Os pedidos exibem o nome atual do usuário
+                    if (nameChanged) {
+                        orderViewRepository.updateUserName(id, userDTO.getName());
+                        versionStamps.touchAll(VersionStamps.Kind.ORDER);
+                    }
                     return convertToDTO(updatedUser);
                 });
     }
     
+    @Transactional
     public boolean deleteUser(Long id) {
         if (userRepository.existsById(id)) {
+            // Os pedidos saem em cascata com o usuário, sem passar pelo OrderService
+            orderViewRepository.deleteByUser(id);
             userRepository.deleteById(id);
             return true;
         }
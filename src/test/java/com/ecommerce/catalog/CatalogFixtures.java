@@ -0,0 +1,51 @@
+package com.ecommerce.catalog;
+
+import com.ecommerce.catalog.dto.CartItemDTO;
+import com.ecommerce.catalog.dto.OrderDTO;
+import com.ecommerce.catalog.dto.ProductDTO;
+import com.ecommerce.catalog.entity.Order;
+import com.ecommerce.catalog.entity.User;
+import com.ecommerce.catalog.service.CartService;
+import com.ecommerce.catalog.service.OrderService;
+import com.ecommerce.catalog.service.ProductService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+
+// Produtos e pedidos criados pelos serviços, para os testes @SpringBootTest que precisam
+// de dados reais. Entra pelo component scan da aplicação: um @Import mudaria a chave do
+// contexto em cache, e dois contextos no mesmo H2 em memória gerariam ids repetidos
+@Component
+public class CatalogFixtures {
+
+    // Estoque de cada produto novo: sobra para os carrinhos de qualquer teste
+    private static final int STOCK = 50;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private OrderService orderService;
+
+    public ProductDTO newProduct(String name, String price) {
+        ProductDTO newProduct = new ProductDTO(name, new BigDecimal(price), null);
+        newProduct.setStock(STOCK);
+        return productService.createProduct(newProduct);
+    }
+
+    public OrderDTO checkout(User user, ProductDTO product, int quantity) {
+        cartService.addToCart(new CartItemDTO(user.getId(), product.getId(), quantity));
+        return orderService.createOrderFromCart(user.getId());
+    }
+
+    // Pedido já levado ao status (PENDING é o status de criação)
+    public OrderDTO checkout(User user, ProductDTO product, int quantity, Order.OrderStatus status) {
+        OrderDTO order = checkout(user, product, quantity);
+        return status == Order.OrderStatus.PENDING ? order
+                : orderService.updateOrderStatus(order.getId(), status).orElseThrow();
+    }
+}
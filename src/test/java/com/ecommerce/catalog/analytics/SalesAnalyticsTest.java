@@ -0,0 +1,181 @@
+package com.ecommerce.catalog.analytics;
+
+import com.ecommerce.catalog.CatalogFixtures;
+import com.ecommerce.catalog.dto.CartItemDTO;
+import com.ecommerce.catalog.dto.OrderDTO;
+import com.ecommerce.catalog.dto.ProductDTO;
+import com.ecommerce.catalog.entity.Order;
+import com.ecommerce.catalog.entity.User;
+import com.ecommerce.catalog.repository.AnalyticsSnapshotRepository;
+import com.ecommerce.catalog.repository.OrderViewRepository;
+import com.ecommerce.catalog.repository.UserRepository;
+import com.ecommerce.catalog.service.CartService;
+import com.ecommerce.catalog.service.OrderService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class SalesAnalyticsTest {
+
+    @Autowired
+    private SalesAnalytics salesAnalytics;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AnalyticsSnapshotRepository snapshotRepository;
+
+    @Autowired
+    private CatalogFixtures fixtures;
+
+    @Test
+    void orderWrites_ShouldUpdateTheAggregatesAfterCommit() {
+        // Given
+        User user = userRepository.save(new User("Cliente Análise", "analise@email.com"));
+        ProductDTO product = fixtures.newProduct("Cadeira Gamer", "1250.00");
+        cartService.addToCart(new CartItemDTO(user.getId(), product.getId(), 3));
+        SalesAnalytics.Summary before = salesAnalytics.summary();
+        long shippedBefore = status(Order.OrderStatus.SHIPPED).orders();
+
+        // When / Then: criação
+        OrderDTO order = orderService.createOrderFromCart(user.getId());
+        SalesAnalytics.Summary after = salesAnalytics.summary();
+        assertEquals(before.orders() + 1, after.orders());
+        assertEquals(before.revenue().add(new BigDecimal("3750.00")), after.revenue());
+        assertEquals(new SalesAnalytics.ProductSales(product.getId(), 3, new BigDecimal("3750.00")),
+                salesAnalytics.product(product.getId()));
+        assertTrue(salesAnalytics.topProducts("revenue", 10).contains(salesAnalytics.product(product.getId())));
+        SalesAnalytics.DailySales today = salesAnalytics.daily(LocalDate.now(), LocalDate.now()).get(0);
+        assertTrue(today.revenue().compareTo(new BigDecimal("3750.00")) >= 0);
+
+        // Mudança de status
+        orderService.updateOrderStatus(order.getId(), Order.OrderStatus.SHIPPED);
+        assertEquals(shippedBefore + 1, status(Order.OrderStatus.SHIPPED).orders());
+
+        // Exclusão estorna o pedido
+        orderService.deleteOrder(order.getId());
+        assertEquals(before.orders(), salesAnalytics.summary().orders());
+        assertEquals(before.revenue(), salesAnalytics.summary().revenue());
+        assertEquals(0, salesAnalytics.product(product.getId()).units());
+        assertEquals(shippedBefore, status(Order.OrderStatus.SHIPPED).orders());
+    }
+
+    @Test
+    void restore_ShouldMatchAFullRebuild() {
+        // Given: cópia gravada e pedidos depois dela, um novo e um alterado
+        salesAnalytics.rebuild();
+        User user = userRepository.save(new User("Cliente Cópia", "copia@email.com"));
+        Long changed = fixtures.checkout(user, fixtures.newProduct("Mousepad", "49.90"), 2).getId();
+        salesAnalytics.snapshot();
+        fixtures.checkout(user, fixtures.newProduct("Headset", "329.00"), 1);
+
+        // When: subida com a cópia ainda válida (só pedidos novos)
+        salesAnalytics.restore();
+        SalesAnalytics.Summary restored = salesAnalytics.summary();
+        List<SalesAnalytics.StatusSales> restoredStatus = salesAnalytics.byStatus();
+
+        // Then
+        salesAnalytics.rebuild();
+        assertEquals(salesAnalytics.summary(), restored);
+        assertEquals(salesAnalytics.byStatus(), restoredStatus);
+
+        // When: pedido da cópia alterado depois dela, a cópia é descartada
+        salesAnalytics.snapshot();
+        orderService.updateOrderStatus(changed, Order.OrderStatus.CANCELLED);
+        salesAnalytics.restore();
+        List<SalesAnalytics.StatusSales> afterChange = salesAnalytics.byStatus();
+
+        // Then
+        salesAnalytics.rebuild();
+        assertEquals(salesAnalytics.byStatus(), afterChange);
+    }
+
+    @Test
+    void rebuild_ShouldKeepOrdersCommittedWhileItRuns() throws Exception {
+        // Given: um pedido é concluído depois da última página lida da order_view, antes da troca
+        User user = userRepository.save(new User("Cliente Corrida", "corrida@email.com"));
+        ProductDTO product = fixtures.newProduct("Webcam Full HD", "199.90");
+        cartService.addToCart(new CartItemDTO(user.getId(), product.getId(), 2));
+        OrderViewRepository views = (OrderViewRepository) ReflectionTestUtils.getField(salesAnalytics, "orderViewRepository");
+        AtomicBoolean committed = new AtomicBoolean();
+        OrderViewRepository racing = (OrderViewRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] { OrderViewRepository.class }, (proxy, method, args) -> {
+                    Object result;
+                    try {
+                        result = method.invoke(views, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                    if (result instanceof List<?> rows && rows.isEmpty() && committed.compareAndSet(false, true)) {
+                        CompletableFuture.runAsync(() -> orderService.createOrderFromCart(user.getId())).get();
+                    }
+                    return result;
+                });
+        ReflectionTestUtils.setField(salesAnalytics, "orderViewRepository", racing);
+
+        // When
+        try {
+            salesAnalytics.rebuild();
+        } finally {
+            ReflectionTestUtils.setField(salesAnalytics, "orderViewRepository", views);
+        }
+
+        // Then: contado uma vez, como num recálculo feito depois
+        assertTrue(committed.get());
+        SalesAnalytics.ProductSales sales = salesAnalytics.product(product.getId());
+        assertEquals(new SalesAnalytics.ProductSales(product.getId(), 2, new BigDecimal("399.80")), sales);
+        SalesAnalytics.Summary summary = salesAnalytics.summary();
+        salesAnalytics.rebuild();
+        assertEquals(salesAnalytics.summary(), summary);
+        assertEquals(sales, salesAnalytics.product(product.getId()));
+    }
+
+    @Test
+    void snapshot_ShouldKeepOnlyTheLatestCopies() {
+        // Given
+        salesAnalytics.snapshot();
+        salesAnalytics.snapshot();
+        Long latest = salesAnalytics.snapshot();
+
+        // When
+        snapshotRepository.deleteAllButLatest(2);
+
+        // Then
+        assertEquals(2, snapshotRepository.count());
+        assertEquals(latest, snapshotRepository.findFirstByOrderByIdDesc().orElseThrow().getId());
+    }
+
+    @Test
+    void queries_ShouldRejectInvalidArguments() {
+        assertThrows(RuntimeException.class, () -> salesAnalytics.topProducts("margin", 10));
+        assertThrows(RuntimeException.class, () -> salesAnalytics.topProducts("units", 0));
+        assertThrows(RuntimeException.class,
+                () -> salesAnalytics.daily(LocalDate.now(), LocalDate.now().minusDays(1)));
+    }
+
+    private SalesAnalytics.StatusSales status(Order.OrderStatus status) {
+        return salesAnalytics.byStatus().stream()
+                .filter(sales -> sales.status() == status)
+                .findFirst()
+                .orElseThrow();
+    }
+}
@@ -0,0 +1,71 @@
+package com.ecommerce.catalog.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpaceSavingTest {
+
+    @Test
+    void offer_ShouldKeepTheHeavyHittersWithinCapacity() {
+        // Given: 3 produtos muito vendidos no meio de 10 mil vendas avulsas
+        SpaceSaving summary = new SpaceSaving(20);
+        Random random = new Random(7);
+
+        // When
+        for (int i = 0; i < 10_000; i++) {
+            summary.offer(1000 + random.nextInt(5000), 1);
+            if (i % 10 == 0) {
+                summary.offer(1, 3);
+                summary.offer(2, 2);
+                summary.offer(3, 1);
+            }
+        }
+        long[][] top = summary.top(3);
+
+        // Then: contagem estimada >= real e erro limitado
+        assertEquals(20, summary.entries().length);
+        assertArrayEquals(new long[] { 1, 2, 3 }, new long[] { top[0][0], top[1][0], top[2][0] });
+        assertTrue(top[0][1] >= 3000 && top[0][1] - top[0][2] <= 3000);
+    }
+
+    @Test
+    void decrement_ShouldReorderTheMonitoredKeys() {
+        // Given
+        SpaceSaving summary = new SpaceSaving(4);
+        summary.offer(10, 50);
+        summary.offer(20, 40);
+        summary.offer(30, 30);
+
+        // When
+        summary.decrement(10, 45);
+        summary.decrement(99, 10);
+
+        // Then
+        long[][] top = summary.top(3);
+        assertEquals(20, top[0][0]);
+        assertEquals(30, top[1][0]);
+        assertEquals(10, top[2][0]);
+        assertEquals(5, top[2][1]);
+    }
+
+    @Test
+    void of_ShouldRestoreTheLargestEntriesWhenCapacityShrinks() {
+        // Given
+        SpaceSaving summary = new SpaceSaving(5);
+        for (int key = 1; key <= 5; key++) {
+            summary.offer(key, key * 10L);
+        }
+
+        // When
+        SpaceSaving restored = SpaceSaving.of(2, summary.entries());
+
+        // Then
+        long[][] top = restored.top(5);
+        assertEquals(2, top.length);
+        assertEquals(5, top[0][0]);
+        assertEquals(4, top[1][0]);
+    }
+}
@@ -0,0 +1,110 @@
+package com.ecommerce.catalog.archive;
+
+import com.ecommerce.catalog.dto.OrderDTO;
+import com.ecommerce.catalog.dto.OrderItemDTO;
+import com.ecommerce.catalog.entity.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArchiveSegmentTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void findByUser_ShouldReadBackTheOrdersOfEachUser() throws Exception {
+        // Given: pedidos fora de ordem, nomes repetidos e com acentos
+        LocalDateTime createdAt = LocalDateTime.of(2024, 3, 15, 10, 30, 45, 123_456_000);
+        OrderDTO first = order(7, 30, createdAt, Order.OrderStatus.DELIVERED,
+                item(1, "Café Especial", 2, "39.90"), item(2, "Caneca", 1, "25.00"));
+        OrderDTO second = order(12, 10, createdAt.plusDays(1), Order.OrderStatus.CANCELLED,
+                item(1, "Café Especial", 1, "39.90"));
+        OrderDTO third = order(7, 20, createdAt.minusDays(400), Order.OrderStatus.DELIVERED);
+        Path path = dir.resolve("segment");
+        UUID epoch = UUID.randomUUID();
+        ArchiveSegment.write(path, epoch, List.of(first, second, third));
+
+        // When
+        ArchiveSegment segment = ArchiveSegment.open(path);
+
+        // Then
+        List<OrderDTO> user7 = segment.findByUser(7);
+        assertEquals(List.of(20L, 30L), user7.stream().map(OrderDTO::getId).toList());
+        OrderDTO read = user7.get(1);
+        assertEquals(createdAt, read.getCreatedAt());
+        assertEquals(Order.OrderStatus.DELIVERED, read.getStatus());
+        assertEquals(new BigDecimal("104.80"), read.getTotalAmount());
+        assertEquals(2, read.getItems().size());
+        assertEquals("Café Especial", read.getItems().get(0).getProductName());
+        assertEquals(2, read.getItems().get(0).getQuantity());
+        assertEquals(new BigDecimal("39.90"), read.getItems().get(0).getUnitPrice());
+        assertEquals(new BigDecimal("79.80"), read.getItems().get(0).getTotalPrice());
+        assertEquals("Caneca", read.getItems().get(1).getProductName());
+        assertTrue(user7.get(0).getItems().isEmpty());
+
+        assertEquals(1, segment.findByUser(12).size());
+        assertTrue(segment.findByUser(8).isEmpty());
+        assertEquals(12L, segment.findById(10).getUserId());
+        assertNull(segment.findById(25));
+        assertEquals(3, segment.orders());
+        assertEquals(30, segment.maxOrderId());
+        assertEquals(epoch, segment.epoch());
+    }
+
+    @Test
+    void forEachOrder_ShouldVisitOnlyOrdersAfterTheGivenId() throws Exception {
+        // Given
+        LocalDateTime createdAt = LocalDateTime.of(2024, 1, 1, 0, 0);
+        Path path = dir.resolve("segment");
+        ArchiveSegment.write(path, UUID.randomUUID(), List.of(
+                order(1, 5, createdAt, Order.OrderStatus.DELIVERED, item(9, "Livro", 3, "10.00")),
+                order(2, 6, createdAt, Order.OrderStatus.CANCELLED, item(9, "Livro", 1, "10.00")),
+                order(1, 8, createdAt, Order.OrderStatus.DELIVERED)));
+        ArchiveSegment segment = ArchiveSegment.open(path);
+
+        // When
+        List<Long> visited = new ArrayList<>();
+        List<long[]> lines = new ArrayList<>();
+        segment.forEachOrder(5, (orderId, date, status, cents, orderLines) -> {
+            visited.add(orderId);
+            lines.addAll(List.of(orderLines));
+        });
+
+        // Then
+        assertEquals(List.of(8L, 6L), visited); // ordem do segmento: por usuário
+        assertEquals(1, lines.size());
+        assertArrayEquals(new long[] { 9, 1, 1000 }, lines.get(0));
+        assertEquals(1, segment.countUpTo(5));
+        assertEquals(2, segment.countUpTo(7));
+        assertEquals(3, segment.countUpTo(100));
+        assertTrue(Files.size(path) > 0);
+    }
+
+    private static OrderDTO order(long userId, long orderId, LocalDateTime createdAt, Order.OrderStatus status,
+                                  OrderItemDTO... items) {
+        OrderDTO order = new OrderDTO(userId);
+        order.setId(orderId);
+        order.setCreatedAt(createdAt);
+        order.setStatus(status);
+        order.setItems(List.of(items));
+        order.setTotalAmount(List.of(items).stream()
+                .map(OrderItemDTO::getTotalPrice)
+                .reduce(BigDecimal.ZERO, BigDecimal::add));
+        return order;
+    }
+
+    private static OrderItemDTO item(long productId, String name, int quantity, String unitPrice) {
+        BigDecimal price = new BigDecimal(unitPrice);
+        return new OrderItemDTO(productId, name, quantity, price, price.multiply(BigDecimal.valueOf(quantity)));
+    }
+}
@@ -0,0 +1,209 @@
+package com.ecommerce.catalog.archive;
+
+import com.ecommerce.catalog.CatalogFixtures;
+import com.ecommerce.catalog.analytics.SalesAnalytics;
+import com.ecommerce.catalog.dto.OrderDTO;
+import com.ecommerce.catalog.dto.ProductDTO;
+import com.ecommerce.catalog.entity.ArchiveEpoch;
+import com.ecommerce.catalog.entity.Order;
+import com.ecommerce.catalog.entity.User;
+import com.ecommerce.catalog.repository.ArchiveEpochRepository;
+import com.ecommerce.catalog.repository.OrderRepository;
+import com.ecommerce.catalog.repository.OrderViewRepository;
+import com.ecommerce.catalog.repository.UserRepository;
+import com.ecommerce.catalog.service.OrderService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class OrderArchiverTest {
+
+    @TempDir
+    static Path dir;
+
+    @DynamicPropertySource
+    static void paths(DynamicPropertyRegistry registry) {
+        registry.add("archive.path", () -> dir.resolve("order-archive").toString());
+        registry.add("checkout.journal.path", () -> dir.resolve("checkout.journal").toString());
+    }
+
+    @Autowired
+    private OrderArchiver orderArchiver;
+
+    @Autowired
+    private OrderArchive orderArchive;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private SalesAnalytics salesAnalytics;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderViewRepository orderViewRepository;
+
+    @Autowired
+    private ArchiveEpochRepository epochRepository;
+
+    @Autowired
+    private ThreadPoolTaskScheduler taskScheduler;
+
+    @Autowired
+    private CatalogFixtures fixtures;
+
+    @Test
+    void archivedOrders_ShouldStillBePartOfTheUserHistory() throws Exception {
+        // Given: dois pedidos finalizados e um em andamento
+        User user = userRepository.save(new User("Cliente Arquivo", "arquivo@email.com"));
+        ProductDTO product = fixtures.newProduct("Teclado Mecânico", "459.90");
+        OrderDTO delivered = fixtures.checkout(user, product, 2, Order.OrderStatus.DELIVERED);
+        OrderDTO cancelled = fixtures.checkout(user, product, 1, Order.OrderStatus.CANCELLED);
+        OrderDTO pending = fixtures.checkout(user, product, 3, Order.OrderStatus.PENDING);
+        List<OrderDTO> before = orderService.getOrdersByUserId(user.getId());
+        SalesAnalytics.ProductSales sales = salesAnalytics.product(product.getId());
+
+        // When
+        orderArchiver.archiveBatch(List.of(delivered.getId(), cancelled.getId()));
+
+        // Then: saíram do banco, mas o histórico continua igual
+        assertTrue(orderRepository.findById(delivered.getId()).isEmpty());
+        assertTrue(orderViewRepository.findById(cancelled.getId()).isEmpty());
+        assertTrue(orderRepository.findById(pending.getId()).isPresent());
+        assertHistory(before, orderService.getOrdersByUserId(user.getId()));
+        assertEquals("Cliente Arquivo", orderService.getOrderById(delivered.getId()).orElseThrow().getUserName());
+
+        // A análise de vendas segue contando com eles, inclusive ao recalcular
+        assertEquals(sales, salesAnalytics.product(product.getId()));
+        salesAnalytics.rebuild();
+        assertEquals(sales, salesAnalytics.product(product.getId()));
+
+        // E o arquivo é relido igual após reabrir os segmentos (restart)
+        orderArchive.open();
+        assertHistory(before, orderService.getOrdersByUserId(user.getId()));
+    }
+
+    @Test
+    void recover_ShouldFinishAnInterruptedArchive() {
+        // Given: segmento gravado, mas a aplicação caiu antes da exclusão no banco
+        User user = userRepository.save(new User("Cliente Queda", "queda@email.com"));
+        OrderDTO delivered = fixtures.checkout(user, fixtures.newProduct("Mouse Sem Fio", "459.90"), 1, Order.OrderStatus.DELIVERED);
+        orderArchiver.writeSegment(List.of(delivered.getId()));
+        assertEquals(1, orderService.getOrdersByUserId(user.getId()).size());
+
+        // When
+        orderArchiver.recover();
+
+        // Then
+        assertTrue(orderRepository.findById(delivered.getId()).isEmpty());
+        assertTrue(orderViewRepository.findById(delivered.getId()).isEmpty());
+        List<OrderDTO> orders = orderService.getOrdersByUserId(user.getId());
+        assertEquals(1, orders.size());
+        assertEquals(delivered.getId(), orders.get(0).getId());
+    }
+
+    @Test
+    void segmentsFromAnotherDatabase_ShouldNotTouchLiveOrders() throws Exception {
+        // Given: pedido vivo com o mesmo id de pedidos em dois segmentos, um de outro banco
+        // (epoch diferente) e outro deste banco, mas com outra data de criação
+        User user = userRepository.save(new User("Cliente Epoch", "epoch@email.com"));
+        OrderDTO live = fixtures.checkout(user, fixtures.newProduct("Hub USB", "459.90"), 1, Order.OrderStatus.DELIVERED);
+        OrderDTO sameAsLive = orderService.getOrderById(live.getId()).orElseThrow();
+        OrderDTO olderOrder = orderService.getOrderById(live.getId()).orElseThrow();
+        olderOrder.setCreatedAt(olderOrder.getCreatedAt().minusDays(400));
+        Path archiveDir = Files.createDirectories(dir.resolve("order-archive"));
+        ArchiveSegment.write(archiveDir.resolve("orders-00000900.seg"), UUID.randomUUID(), List.of(sameAsLive));
+        UUID epoch = UUID.fromString(epochRepository.findById(ArchiveEpoch.ID).orElseThrow().getEpoch());
+        ArchiveSegment.write(archiveDir.resolve("orders-00000901.seg"), epoch, List.of(olderOrder));
+
+        // When: reabre os segmentos e confere o último na subida
+        orderArchive.open();
+        orderArchiver.recover();
+
+        // Then: o pedido vivo continua, e aparece uma vez só
+        assertTrue(orderRepository.findById(live.getId()).isPresent());
+        assertEquals(List.of(live.getId()), orderService.getOrdersByUserId(user.getId()).stream()
+                .map(OrderDTO::getId).toList());
+        assertEquals(1, orderArchive.findByUserId(user.getId()).size());
+    }
+
+    @Test
+    void open_ShouldKeepATemporarySegmentOnlyIfItsOrdersLeftTheDatabase() throws Exception {
+        // Given: dois .tmp deixados por uma queda; num, a troca de nome se perdeu depois da
+        // exclusão no banco; no outro, a exclusão nem começou
+        User user = userRepository.save(new User("Cliente Tmp", "tmp@email.com"));
+        ProductDTO product = fixtures.newProduct("Caixa de Som", "459.90");
+        OrderDTO removed = orderService.getOrderById(fixtures.checkout(user, product, 1, Order.OrderStatus.DELIVERED).getId()).orElseThrow();
+        OrderDTO kept = orderService.getOrderById(fixtures.checkout(user, product, 2, Order.OrderStatus.DELIVERED).getId()).orElseThrow();
+        UUID epoch = UUID.fromString(epochRepository.findById(ArchiveEpoch.ID).orElseThrow().getEpoch());
+        Path archiveDir = Files.createDirectories(dir.resolve("order-archive"));
+        ArchiveSegment.write(archiveDir.resolve("orders-00000800.seg.tmp"), epoch, List.of(removed));
+        ArchiveSegment.write(archiveDir.resolve("orders-00000801.seg.tmp"), epoch, List.of(kept));
+        orderService.deleteOrder(removed.getId());
+
+        // When
+        orderArchive.open();
+
+        // Then
+        assertTrue(Files.exists(archiveDir.resolve("orders-00000800.seg")));
+        assertFalse(Files.exists(archiveDir.resolve("orders-00000801.seg")));
+        assertFalse(Files.exists(archiveDir.resolve("orders-00000801.seg.tmp")));
+        assertEquals(List.of(removed.getId()), orderArchive.findByUserId(user.getId()).stream()
+                .map(OrderDTO::getId).toList());
+        assertTrue(orderRepository.findById(kept.getId()).isPresent());
+    }
+
+    @Test
+    void archiveOldOrders_ShouldKeepRecentOrders() {
+        // Given
+        User user = userRepository.save(new User("Cliente Recente", "recente@email.com"));
+        OrderDTO delivered = fixtures.checkout(user, fixtures.newProduct("Monitor Curvo", "459.90"), 1, Order.OrderStatus.DELIVERED);
+
+        // When: min-age padrão (365 dias)
+        OrderArchiver.ArchiveResult result = orderArchiver.archiveOldOrders();
+
+        // Then
+        assertEquals(0, result.orders());
+        assertTrue(orderRepository.findById(delivered.getId()).isPresent());
+    }
+
+    @Test
+    void scheduler_ShouldKeepThreadsForTheShortTasksWhileArchiving() {
+        // Arquivamento e cópia da análise de vendas ocupam no máximo duas threads
+        assertTrue(taskScheduler.getScheduledThreadPoolExecutor().getCorePoolSize() > 2);
+    }
+
+    private static void assertHistory(List<OrderDTO> expected, List<OrderDTO> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            OrderDTO want = expected.get(i);
+            OrderDTO got = actual.get(i);
+            assertEquals(want.getId(), got.getId());
+            assertEquals(want.getUserName(), got.getUserName());
+            assertEquals(want.getStatus(), got.getStatus());
+            assertEquals(want.getCreatedAt(), got.getCreatedAt());
+            assertEquals(want.getTotalAmount(), got.getTotalAmount());
+            assertEquals(want.getItems().size(), got.getItems().size());
+            assertEquals(want.getItems().get(0).getProductName(), got.getItems().get(0).getProductName());
+            assertEquals(want.getItems().get(0).getQuantity(), got.getItems().get(0).getQuantity());
+            assertEquals(want.getItems().get(0).getTotalPrice(), got.getItems().get(0).getTotalPrice());
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.ecommerce.catalog.cart;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+class CartStoreTest {
+
+    private CartStore cartStore;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+
+        cartStore = new CartStore();
+        ReflectionTestUtils.setField(cartStore, "enabled", true);
+        ReflectionTestUtils.setField(cartStore, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(cartStore, "transactionManager", transactionManager);
+    }
+
+    @Test
+    void add_SameProductTwice_ShouldMergeIntoOneLine() {
+        // When
+        CartStore.Line first = cartStore.add(1L, 10L, 2);
+        CartStore.Line second = cartStore.add(1L, 10L, 3);
+
+        // Then
+        assertEquals(first.itemId(), second.itemId());
+        assertEquals(5, second.quantity());
+        assertEquals(1, cartStore.lines(1L).size());
+    }
+
+    @Test
+    void setQuantityAndRemove_ShouldReturnPreviousLine() {
+        // Given
+        CartStore.Line line = cartStore.add(1L, 10L, 2);
+
+        // When
+        CartStore.Line beforeUpdate = cartStore.setQuantity(line.itemId(), 4).orElseThrow();
+        CartStore.Line beforeRemove = cartStore.remove(line.itemId()).orElseThrow();
+
+        // Then
+        assertEquals(2, beforeUpdate.quantity());
+        assertEquals(4, beforeRemove.quantity());
+        assertTrue(cartStore.find(line.itemId()).isEmpty());
+        assertFalse(cartStore.hasCart(1L));
+    }
+
+    @Test
+    void flush_ShouldRewriteOnlyDirtyCartsOnce() {
+        // Given
+        cartStore.add(1L, 10L, 2);
+        cartStore.add(1L, 11L, 1);
+        cartStore.add(2L, 10L, 1);
+
+        // When
+        cartStore.flush();
+        cartStore.flush();
+
+        // Then
+        verify(jdbcTemplate, times(1)).batchUpdate(eq("DELETE FROM cart_items WHERE user_id = ?"),
+                argThat((List<Object[]> batch) -> batch.size() == 2));
+        verify(jdbcTemplate, times(1)).batchUpdate(startsWith("INSERT INTO cart_items"),
+                argThat((List<Object[]> batch) -> batch.size() == 3));
+    }
+}
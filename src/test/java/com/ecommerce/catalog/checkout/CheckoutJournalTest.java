@@ -0,0 +1,77 @@
+package com.ecommerce.catalog.checkout;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CheckoutJournalTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void replay_ShouldSeparatePendingIntentsFromFinishedOnes() throws Exception {
+        // Given
+        Path path = dir.resolve("checkout.journal");
+        CheckoutJournal journal = new CheckoutJournal(path, true);
+        journal.accepted("c1", 1L, 1000L);
+        journal.accepted("c2", 2L, 2000L);
+        journal.accepted("c3", 3L, 3000L);
+        journal.completed(List.of(
+                CheckoutStatus.pending("c1", 1L, 1000L).completed(10L),
+                CheckoutStatus.pending("c3", 3L, 3000L).failed("Carrinho está vazio")));
+        journal.close();
+        // Última linha cortada por uma queda no meio da escrita
+        Files.writeString(path, "D|c2", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        // When
+        CheckoutJournal.Replay replay = new CheckoutJournal(path, true).replay();
+
+        // Then
+        assertEquals(List.of(CheckoutStatus.pending("c2", 2L, 2000L)), replay.pending());
+        assertEquals(List.of(
+                CheckoutStatus.pending("c1", 1L, 1000L).completed(10L),
+                CheckoutStatus.pending("c3", 3L, 3000L).failed("Carrinho está vazio")), replay.finished());
+    }
+
+    @Test
+    void compact_ShouldKeepOnlyPendingIntents() throws Exception {
+        // Given
+        Path path = dir.resolve("checkout.journal");
+        CheckoutJournal journal = new CheckoutJournal(path, false);
+        journal.accepted("c1", 1L, 1000L);
+        journal.accepted("c2", 2L, 2000L);
+        journal.completed(List.of(CheckoutStatus.pending("c1", 1L, 1000L).completed(10L)));
+
+        // When
+        journal.compact(journal.replay().pending());
+        journal.accepted("c3", 3L, 3000L);
+
+        // Then
+        assertEquals(List.of("A|c2|2|2000", "A|c3|3|3000"), Files.readAllLines(path));
+    }
+
+    @Test
+    void truncateIfIdle_ShouldOnlyTruncateWhenNothingIsPending() throws Exception {
+        // Given
+        Path path = dir.resolve("checkout.journal");
+        CheckoutJournal journal = new CheckoutJournal(path, false);
+        journal.accepted("c1", 1L, 1000L);
+
+        // When
+        journal.truncateIfIdle(0, () -> false);
+        long busySize = Files.size(path);
+        journal.truncateIfIdle(0, () -> true);
+
+        // Then
+        assertTrue(busySize > 0);
+        assertEquals(0, Files.size(path));
+    }
+}
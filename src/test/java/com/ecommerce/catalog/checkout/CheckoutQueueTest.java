@@ -0,0 +1,85 @@
+package com.ecommerce.catalog.checkout;
+
+import com.ecommerce.catalog.dto.CartItemDTO;
+import com.ecommerce.catalog.dto.ProductDTO;
+import com.ecommerce.catalog.entity.User;
+import com.ecommerce.catalog.repository.OrderRepository;
+import com.ecommerce.catalog.repository.UserRepository;
+import com.ecommerce.catalog.service.CartService;
+import com.ecommerce.catalog.service.ProductService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class CheckoutQueueTest {
+
+    @TempDir
+    static Path dir;
+
+    @DynamicPropertySource
+    static void journal(DynamicPropertyRegistry registry) {
+        registry.add("checkout.journal.path", () -> dir.resolve("checkout.journal").toString());
+    }
+
+    @Autowired
+    private CheckoutQueue checkoutQueue;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Test
+    void submit_ShouldCreateTheOrderInTheBackground() throws Exception {
+        // Given
+        User user = userRepository.save(new User("Cliente Fila", "fila@email.com"));
+        ProductDTO newProduct = new ProductDTO("Fone Bluetooth", new BigDecimal("199.90"), null);
+        newProduct.setStock(5);
+        ProductDTO product = productService.createProduct(newProduct);
+        cartService.addToCart(new CartItemDTO(user.getId(), product.getId(), 2));
+
+        // When
+        CheckoutStatus accepted = checkoutQueue.submit(user.getId());
+        CheckoutStatus result = checkoutQueue.await(accepted.checkoutId(), 10_000).orElseThrow()
+                .get(15, TimeUnit.SECONDS);
+
+        // Then
+        assertEquals(CheckoutStatus.State.PENDING, accepted.state());
+        assertEquals(CheckoutStatus.State.COMPLETED, result.state());
+        assertEquals(result.orderId(), orderRepository.findIdByCheckoutId(accepted.checkoutId()).orElseThrow());
+        assertTrue(cartService.getCartItems(user.getId()).isEmpty());
+    }
+
+    @Test
+    void submit_WithEmptyCart_ShouldFailTheCheckout() throws Exception {
+        // Given
+        User user = userRepository.save(new User("Cliente Sem Carrinho", "semcarrinho@email.com"));
+
+        // When
+        CheckoutStatus accepted = checkoutQueue.submit(user.getId());
+        CheckoutStatus result = checkoutQueue.await(accepted.checkoutId(), 10_000).orElseThrow()
+                .get(15, TimeUnit.SECONDS);
+
+        // Then
+        assertEquals(CheckoutStatus.State.FAILED, result.state());
+        assertEquals("Carrinho está vazio", result.message());
+        assertEquals(result, checkoutQueue.status(accepted.checkoutId()).orElseThrow());
+    }
+}
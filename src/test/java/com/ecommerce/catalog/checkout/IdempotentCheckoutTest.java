@@ -0,0 +1,167 @@
+package com.ecommerce.catalog.checkout;
+
+import com.ecommerce.catalog.CatalogFixtures;
+import com.ecommerce.catalog.dto.CartItemDTO;
+import com.ecommerce.catalog.dto.OrderDTO;
+import com.ecommerce.catalog.entity.IdempotencyKey;
+import com.ecommerce.catalog.entity.User;
+import com.ecommerce.catalog.repository.IdempotencyKeyRepository;
+import com.ecommerce.catalog.repository.UserRepository;
+import com.ecommerce.catalog.service.CartService;
+import com.ecommerce.catalog.service.OrderService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class IdempotentCheckoutTest {
+
+    @TempDir
+    static Path dir;
+
+    @DynamicPropertySource
+    static void journal(DynamicPropertyRegistry registry) {
+        registry.add("checkout.journal.path", () -> dir.resolve("checkout.journal").toString());
+    }
+
+    @Autowired
+    private IdempotentCheckout idempotentCheckout;
+
+    @Autowired
+    private IdempotencyKeyRepository keyRepository;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CatalogFixtures fixtures;
+
+    @Test
+    void checkout_RepeatedKey_ShouldReturnTheOriginalOrder() {
+        // Given
+        User user = userWithCart("repetido@email.com");
+        String key = UUID.randomUUID().toString();
+
+        // When
+        IdempotentCheckout.Result first = idempotentCheckout.checkout(user.getId(), key);
+        IdempotentCheckout.Result retry = idempotentCheckout.checkout(user.getId(), key);
+
+        // Then
+        assertFalse(first.replayed());
+        assertTrue(retry.replayed());
+        assertEquals(first.order().getId(), retry.order().getId());
+        assertEquals(1, orderService.getOrdersByUserId(user.getId()).size());
+        assertEquals(first.order().getId(), keyRepository.findById(key).orElseThrow().getOrderId());
+    }
+
+    @Test
+    void checkout_ConcurrentRequestsWithTheSameKey_ShouldCreateOneOrder() throws Exception {
+        // Given
+        User user = userWithCart("simultaneo@email.com");
+        String key = UUID.randomUUID().toString();
+        int requests = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(requests);
+        CountDownLatch start = new CountDownLatch(1);
+
+        // When
+        List<Future<IdempotentCheckout.Result>> results = new ArrayList<>();
+        for (int i = 0; i < requests; i++) {
+            results.add(pool.submit(() -> {
+                start.await();
+                return idempotentCheckout.checkout(user.getId(), key);
+            }));
+        }
+        start.countDown();
+        List<Long> orderIds = new ArrayList<>();
+        int executed = 0;
+        for (Future<IdempotentCheckout.Result> result : results) {
+            IdempotentCheckout.Result done = result.get(30, TimeUnit.SECONDS);
+            orderIds.add(done.order().getId());
+            executed += done.replayed() ? 0 : 1;
+        }
+        pool.shutdown();
+
+        // Then
+        assertEquals(1, executed);
+        assertEquals(1, orderIds.stream().distinct().count());
+        assertEquals(1, orderService.getOrdersByUserId(user.getId()).size());
+    }
+
+    @Test
+    void checkout_KeyStoredBeforeRestart_ShouldReturnTheStoredOrder() {
+        // Given: chave gravada por outra instância (ou antes de um restart), fora do cache
+        User user = userWithCart("restart@email.com");
+        OrderDTO order = orderService.createOrderFromCart(user.getId());
+        String key = UUID.randomUUID().toString();
+        IdempotencyKey stored = new IdempotencyKey(key, user.getId());
+        stored.setOrderId(order.getId());
+        keyRepository.save(stored);
+
+        // When
+        IdempotentCheckout.Result result = idempotentCheckout.checkout(user.getId(), key);
+
+        // Then
+        assertTrue(result.replayed());
+        assertEquals(order.getId(), result.order().getId());
+    }
+
+    @Test
+    void checkout_KeyOfAnotherUser_ShouldBeRejected() {
+        // Given
+        User owner = userWithCart("dono@email.com");
+        User other = userWithCart("outro@email.com");
+        String key = UUID.randomUUID().toString();
+        idempotentCheckout.checkout(owner.getId(), key);
+
+        // When
+        RuntimeException error = assertThrows(RuntimeException.class,
+                () -> idempotentCheckout.checkout(other.getId(), key));
+
+        // Then
+        assertEquals("Idempotency-Key já usada por outro usuário", error.getMessage());
+        assertFalse(cartService.getCartItems(other.getId()).isEmpty());
+    }
+
+    @Test
+    void checkout_FailedAttempt_ShouldNotKeepTheKey() {
+        // Given
+        User user = userRepository.save(new User("Cliente Vazio", "vazio-idem@email.com"));
+        String key = UUID.randomUUID().toString();
+
+        // When
+        assertThrows(RuntimeException.class, () -> idempotentCheckout.checkout(user.getId(), key));
+        cartService.addToCart(new CartItemDTO(user.getId(), fixtures.newProduct("Teclado Mecânico", "349.90").getId(), 1));
+        IdempotentCheckout.Result retry = idempotentCheckout.checkout(user.getId(), key);
+
+        // Then
+        assertFalse(retry.replayed());
+        assertEquals(1, orderService.getOrdersByUserId(user.getId()).size());
+    }
+
+    private User userWithCart(String email) {
+        User user = userRepository.save(new User("Cliente " + email, email));
+        cartService.addToCart(new CartItemDTO(user.getId(), fixtures.newProduct("Teclado Mecânico", "349.90").getId(), 2));
+        return user;
+    }
+}
@@ -0,0 +1,58 @@
+package com.ecommerce.catalog.collection;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongHashSetTest {
+
+    @Test
+    void addRemoveContains_ShouldHandleZeroAndNegatives() {
+        // Given
+        LongHashSet set = new LongHashSet();
+
+        // When
+        assertTrue(set.add(0L));
+        assertTrue(set.add(-1L));
+        assertTrue(set.add(Long.MAX_VALUE));
+        assertFalse(set.add(0L));
+
+        // Then
+        assertEquals(3, set.size());
+        assertTrue(set.contains(0L));
+        assertTrue(set.remove(-1L));
+        assertFalse(set.contains(-1L));
+        long[] values = set.toArray();
+        Arrays.sort(values);
+        assertArrayEquals(new long[] { 0L, Long.MAX_VALUE }, values);
+    }
+
+    @Test
+    void randomOperations_ShouldMatchHashSet() {
+        // Given
+        LongHashSet set = new LongHashSet();
+        Set<Long> expected = new HashSet<>();
+        Random random = new Random(3);
+
+        // When
+        for (int i = 0; i < 200_000; i++) {
+            long value = random.nextInt(4_000);
+            if (random.nextBoolean()) {
+                assertEquals(expected.add(value), set.add(value));
+            } else {
+                assertEquals(expected.remove(value), set.remove(value));
+            }
+        }
+
+        // Then
+        assertEquals(expected.size(), set.size());
+        for (long value = 0; value < 4_000; value++) {
+            assertEquals(expected.contains(value), set.contains(value));
+        }
+    }
+}
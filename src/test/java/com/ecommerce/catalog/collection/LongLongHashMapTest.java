@@ -0,0 +1,78 @@
+package com.ecommerce.catalog.collection;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongLongHashMapTest {
+
+    @Test
+    void getAndRemove_ShouldReturnDefaultForMissingKeys() {
+        // Given
+        LongLongHashMap map = new LongLongHashMap();
+        map.put(10L, 0L);
+        map.put(0L, 5L);
+
+        // When & Then
+        assertEquals(0L, map.get(10L, -1L));
+        assertEquals(5L, map.get(0L, -1L));
+        assertEquals(-1L, map.get(11L, -1L));
+        assertTrue(map.containsKey(10L));
+        assertEquals(5L, map.remove(0L, -1L));
+        assertEquals(-1L, map.remove(0L, -1L));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    void addTo_ShouldAccumulateFromZero() {
+        // Given
+        LongLongHashMap longs = new LongLongHashMap();
+        LongIntHashMap ints = new LongIntHashMap();
+
+        // When
+        longs.addTo(3L, 10L);
+        longs.addTo(3L, -4L);
+        ints.addTo(0L, 2);
+        int total = ints.addTo(0L, 3);
+
+        // Then
+        assertEquals(6L, longs.get(3L, 0L));
+        assertEquals(5, total);
+        assertEquals(5, ints.get(0L, 0));
+    }
+
+    @Test
+    void randomOperations_ShouldMatchHashMap() {
+        // Given
+        LongLongHashMap longs = new LongLongHashMap(16);
+        LongIntHashMap ints = new LongIntHashMap(16);
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(7);
+
+        // When
+        for (int i = 0; i < 200_000; i++) {
+            long key = random.nextInt(5_000) * 1_000_003L;
+            if (random.nextInt(3) == 0) {
+                Long removed = expected.remove(key);
+                assertEquals(removed != null ? removed : -1L, longs.remove(key, -1L));
+                assertEquals(removed != null ? removed.intValue() : -1, ints.remove(key, -1));
+            } else {
+                expected.merge(key, 1L, Long::sum);
+                longs.addTo(key, 1L);
+                ints.addTo(key, 1);
+            }
+        }
+
+        // Then
+        assertEquals(expected.size(), longs.size());
+        assertEquals(expected.size(), ints.size());
+        expected.forEach((key, value) -> {
+            assertEquals(value, longs.get(key, -1L));
+            assertEquals(value.intValue(), ints.get(key, -1));
+        });
+    }
+}
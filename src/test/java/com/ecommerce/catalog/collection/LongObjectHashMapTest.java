@@ -0,0 +1,78 @@
+package com.ecommerce.catalog.collection;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongObjectHashMapTest {
+
+    @Test
+    void putGetRemove_ShouldBehaveLikeAMap() {
+        // Given
+        LongObjectHashMap<String> map = new LongObjectHashMap<>();
+
+        // When
+        assertNull(map.put(1L, "um"));
+        assertNull(map.put(0L, "zero"));
+        assertNull(map.put(-7L, "menos sete"));
+        String previous = map.put(1L, "UM");
+
+        // Then
+        assertEquals("um", previous);
+        assertEquals("UM", map.get(1L));
+        assertEquals("zero", map.get(0L));
+        assertEquals("menos sete", map.get(-7L));
+        assertNull(map.get(2L));
+        assertEquals(3, map.size());
+
+        assertEquals("zero", map.remove(0L));
+        assertNull(map.remove(0L));
+        assertFalse(map.containsKey(0L));
+        assertEquals(2, map.size());
+    }
+
+    @Test
+    void removeIf_ShouldRemoveMatchingEntries() {
+        // Given
+        LongObjectHashMap<Integer> map = new LongObjectHashMap<>();
+        for (long key = 0; key < 100; key++) {
+            map.put(key, (int) key);
+        }
+
+        // When
+        int removed = map.removeIf((key, value) -> value % 2 == 0);
+
+        // Then
+        assertEquals(50, removed);
+        assertEquals(50, map.size());
+        map.forEach((key, value) -> assertEquals(1, value % 2));
+        assertEquals(50, map.keys().length);
+    }
+
+    @Test
+    void randomOperations_ShouldMatchHashMap() {
+        // Given: chaves num intervalo pequeno, para forçar colisões, remoções e reinserções
+        LongObjectHashMap<Long> map = new LongObjectHashMap<>();
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        // When
+        for (int i = 0; i < 200_000; i++) {
+            long key = random.nextInt(5_000) - 100;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                assertEquals(expected.put(key, (long) i), map.put(key, (long) i));
+            }
+        }
+
+        // Then
+        assertEquals(expected.size(), map.size());
+        expected.forEach((key, value) -> assertEquals(value, map.get(key)));
+        map.forEach((key, value) -> assertEquals(expected.get(key), value));
+    }
+}
@@ -1,6 +1,10 @@
 package com.ecommerce.catalog.controller;
 
+import com.ecommerce.catalog.cache.VersionStamps;
+import com.ecommerce.catalog.dto.CursorPage;
 import com.ecommerce.catalog.dto.ProductDTO;
+import com.ecommerce.catalog.export.ExportService;
+import com.ecommerce.catalog.importer.ProductImportService;
 import com.ecommerce.catalog.service.ProductService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -8,6 +12,8 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
@@ -16,6 +22,7 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
+import static org.hamcrest.Matchers.not;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
@@ -23,6 +30,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(ProductController.class)
+@Import(VersionStamps.class)
 class ProductControllerTest {
 
     @Autowired
@@ -31,9 +39,18 @@ class ProductControllerTest {
     @MockBean
     private ProductService productService;
 
+    @MockBean
+    private ExportService exportService;
+
+    @MockBean
+    private ProductImportService productImportService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private VersionStamps versionStamps;
+
     private ProductDTO productDTO;
 
     @BeforeEach
@@ -59,6 +76,54 @@ class ProductControllerTest {
         verify(productService, times(1)).getAllProducts();
     }
 
+    @Test
+    void getAllProducts_WithCursorParams_ShouldReturnPage() throws Exception {
+        // Given
+        String cursor = new CursorPage.Cursor(1L, "250000").encode();
+        CursorPage<ProductDTO> page = new CursorPage<>(Arrays.asList(productDTO), cursor, 1, "price");
+        when(productService.getProductsPage(null, 1, "price")).thenReturn(page);
+
+        // When & Then
+        mockMvc.perform(get("/api/products").param("limit", "1").param("sort", "price"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(1))
+                .andExpect(jsonPath("$.nextCursor").value(cursor))
+                .andExpect(jsonPath("$.hasMore").value(true));
+
+        verify(productService, never()).getAllProducts();
+    }
+
+    @Test
+    void getProductsByPriceRange_WithoutPageParams_ShouldReturnTheWholeRange() throws Exception {
+        // Given
+        when(productService.getProductsByPriceRange(new BigDecimal("100"), new BigDecimal("3000")))
+                .thenReturn(Arrays.asList(productDTO));
+
+        // When & Then
+        mockMvc.perform(get("/api/products/price-range").param("minPrice", "100").param("maxPrice", "3000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(1));
+    }
+
+    @Test
+    void getProductsByPriceRange_WithLimit_ShouldReturnPage() throws Exception {
+        // Given
+        String cursor = new CursorPage.Cursor(1L, "250000").encode();
+        CursorPage<ProductDTO> page = new CursorPage<>(Arrays.asList(productDTO), cursor, 1, "price");
+        when(productService.getProductsByPriceRangePage(new BigDecimal("100"), new BigDecimal("3000"), null, 1))
+                .thenReturn(page);
+
+        // When & Then
+        mockMvc.perform(get("/api/products/price-range").param("minPrice", "100").param("maxPrice", "3000")
+                        .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(1))
+                .andExpect(jsonPath("$.nextCursor").value(cursor))
+                .andExpect(jsonPath("$.hasMore").value(true));
+
+        verify(productService, never()).getProductsByPriceRange(any(), any());
+    }
+
     @Test
     void getProductById_WhenProductExists_ShouldReturnProduct() throws Exception {
         // Given
@@ -75,6 +140,34 @@ class ProductControllerTest {
         verify(productService, times(1)).getProductById(1L);
     }
 
+    @Test
+    void getProductById_WithCurrentETag_ShouldReturnNotModifiedWithoutLoading() throws Exception {
+        // Given
+        String etag = versionStamps.of(VersionStamps.Kind.PRODUCT, 1L).etag();
+
+        // When & Then
+        mockMvc.perform(get("/api/products/1").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag));
+
+        verify(productService, never()).getProductById(anyLong());
+    }
+
+    @Test
+    void getAllProducts_AfterProductChange_ShouldReturnNewETag() throws Exception {
+        // Given
+        when(productService.getAllProducts()).thenReturn(List.of(productDTO));
+        String etag = mockMvc.perform(get("/api/products"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        versionStamps.touch(VersionStamps.Kind.PRODUCT, 1L);
+
+        // When & Then
+        mockMvc.perform(get("/api/products").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(etag)));
+    }
+
     @Test
     void getProductById_WhenProductDoesNotExist_ShouldReturnNotFound() throws Exception {
         // Given
@@ -166,4 +259,13 @@ class ProductControllerTest {
 
         verify(productService, times(1)).deleteProduct(999L);
     }
-}
\ No newline at end of file
+
+    @Test
+    void exportProducts_WithUnknownFormat_ShouldReturnBadRequest() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/api/products/export").param("format", "xml"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(exportService);
+    }
+}
@@ -0,0 +1,134 @@
+package com.ecommerce.catalog.datasource;
+
+import com.ecommerce.catalog.entity.User;
+import com.ecommerce.catalog.repository.UserRepository;
+import com.ecommerce.catalog.service.UserService;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Primário e réplica em dois bancos H2 em arquivo. Não há replicação entre eles: o teste
+// "replica" copiando o primário inteiro (SCRIPT / RUNSCRIPT), heartbeat incluído.
+@SpringBootTest
+class ReadReplicaRoutingTest {
+
+    @TempDir
+    static Path dir;
+
+    @DynamicPropertySource
+    static void databases(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> "jdbc:h2:file:" + dir.resolve("primary"));
+        registry.add("datasource.replicas.enabled", () -> "true");
+        registry.add("datasource.replicas.urls", ReadReplicaRoutingTest::replicaUrl);
+        registry.add("datasource.replicas.max-lag", () -> "5s");
+        // Verificações só quando o teste chama check()
+        registry.add("datasource.replicas.heartbeat-interval-ms", () -> "3600000");
+        registry.add("checkout.journal.path", () -> dir.resolve("checkout.journal").toString());
+    }
+
+    @Autowired
+    private HikariDataSource primaryDataSource;
+
+    @Autowired
+    private ReplicaLagMonitor monitor;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void readOnlyTransactions_ShouldGoToReplica_AndWritesToPrimary() {
+        // Given
+        Long id = userRepository.save(new User("Nome Antigo", "replica1@email.com")).getId();
+        replicate();
+        monitor.check();
+        primary().update("UPDATE users SET name = 'Nome Novo' WHERE id = ?", id);
+
+        // When
+        String fromReadOnly = userService.getUserById(id).orElseThrow().getName();
+        String fromWrite = transactionTemplate.execute(status -> userRepository.findById(id).orElseThrow().getName());
+
+        // Then
+        assertEquals("Nome Antigo", fromReadOnly);
+        assertEquals("Nome Novo", fromWrite);
+    }
+
+    @Test
+    void readOnlyTransactions_WhenReplicaLagsBeyondMaxLag_ShouldFallBackToPrimary() {
+        // Given
+        Long id = userRepository.save(new User("Nome Antigo", "replica2@email.com")).getId();
+        replicate();
+        replica().update("UPDATE replica_heartbeat SET beat_at = ?", System.currentTimeMillis() - 60_000);
+        monitor.check();
+        primary().update("UPDATE users SET name = 'Nome Novo' WHERE id = ?", id);
+
+        // When
+        String fromReadOnly = userService.getUserById(id).orElseThrow().getName();
+
+        // Then
+        assertEquals("Nome Novo", fromReadOnly);
+    }
+
+    @Test
+    void readOnlyTransactions_WhenVersionIsNewerThanReplica_ShouldFallBackToPrimary() {
+        // Given
+        Long id = userRepository.save(new User("Nome Antigo", "replica3@email.com")).getId();
+        replicate();
+        monitor.check();
+        primary().update("UPDATE users SET name = 'Nome Novo' WHERE id = ?", id);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+
+        // When
+        String beforeVersion = userService.getUserById(id).orElseThrow().getName();
+        ReplicaFreshness.require(System.currentTimeMillis());
+        String afterVersion = userService.getUserById(id).orElseThrow().getName();
+
+        // Then
+        assertEquals("Nome Antigo", beforeVersion);
+        assertEquals("Nome Novo", afterVersion);
+    }
+
+    private void replicate() {
+        String script = dir.resolve("snapshot.sql").toString();
+        primary().execute("SCRIPT TO '" + script + "'");
+        replica().execute("DROP ALL OBJECTS");
+        replica().execute("RUNSCRIPT FROM '" + script + "'");
+    }
+
+    private JdbcTemplate primary() {
+        return new JdbcTemplate(primaryDataSource);
+    }
+
+    private JdbcTemplate replica() {
+        return new JdbcTemplate(new DriverManagerDataSource(replicaUrl(), "sa", ""));
+    }
+
+    private static String replicaUrl() {
+        return "jdbc:h2:file:" + dir.resolve("replica");
+    }
+}
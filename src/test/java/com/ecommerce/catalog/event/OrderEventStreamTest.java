@@ -0,0 +1,172 @@
+package com.ecommerce.catalog.event;
+
+import com.ecommerce.catalog.entity.Order;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderEventStreamTest {
+
+    private OrderEventStream stream;
+
+    @BeforeEach
+    void setUp() {
+        stream = new OrderEventStream(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(stream, "bufferSize", 4);
+        ReflectionTestUtils.setField(stream, "maxSubscribers", 2);
+        ReflectionTestUtils.setField(stream, "senderThreads", 2);
+        stream.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        stream.shutdown();
+    }
+
+    @Test
+    void publish_ShouldDeliverToUserAndGlobalSubscribersOnly() throws Exception {
+        // Given
+        RecordingEmitter user1 = new RecordingEmitter(null);
+        RecordingEmitter global = new RecordingEmitter(null);
+        stream.register(1L, null, user1);
+        stream.register(null, null, global);
+
+        // When
+        stream.publish(event(1L, 10L));
+        stream.publish(event(2L, 20L));
+
+        // Then
+        assertEquals(List.of("order:10"), user1.awaitEvents(1));
+        assertEquals(List.of("order:10", "order:20"), global.awaitEvents(2));
+    }
+
+    @Test
+    void publish_WhenSubscriberFallsBehind_ShouldDropBufferedEventsAndSendResync() throws Exception {
+        // Given
+        CountDownLatch gate = new CountDownLatch(1);
+        RecordingEmitter slow = new RecordingEmitter(gate);
+        stream.register(null, null, slow);
+        assertTrue(slow.blocked.await(5, TimeUnit.SECONDS));
+
+        // When: o primeiro envio (abertura) está preso; os eventos seguintes estouram o buffer
+        for (long orderId = 1; orderId <= 10; orderId++) {
+            stream.publish(event(1L, orderId));
+        }
+        gate.countDown();
+
+        // Then
+        assertEquals(List.of("resync", "order:9", "order:10"), slow.awaitEvents(3));
+    }
+
+    @Test
+    void register_ShouldResyncStaleReconnectsAndLimitSubscribers() throws Exception {
+        // Given
+        RecordingEmitter reconnected = new RecordingEmitter(null);
+
+        // When
+        stream.register(1L, "42", reconnected);
+        stream.register(2L, null, new RecordingEmitter(null));
+
+        // Then
+        assertEquals(List.of("resync"), reconnected.awaitEvents(1));
+        assertThrows(RuntimeException.class, () -> stream.register(3L, null, new RecordingEmitter(null)));
+    }
+
+    @Test
+    void register_ShouldCompareLastEventIdWithinTheSubscribedScope() throws Exception {
+        // Given: o assinante do usuário 1 recebeu um evento; depois, só outro usuário teve eventos
+        ReflectionTestUtils.setField(stream, "maxSubscribers", 3);
+        RecordingEmitter first = new RecordingEmitter(null);
+        stream.register(1L, null, first);
+        stream.publish(event(1L, 10L));
+        first.awaitEvents(1);
+        String lastSeen = first.lastId;
+        stream.publish(event(2L, 20L));
+
+        // When: reconecta com o id do último evento visto
+        RecordingEmitter upToDate = new RecordingEmitter(null);
+        stream.register(1L, lastSeen, upToDate);
+        stream.publish(event(1L, 30L));
+
+        // Then: nada perdido no escopo do usuário, sem resync
+        assertEquals(List.of("order:30"), upToDate.awaitEvents(1));
+
+        // Com o mesmo id, agora desatualizado (o evento 30 veio depois), a reconexão recebe resync
+        RecordingEmitter stale = new RecordingEmitter(null);
+        stream.register(1L, lastSeen, stale);
+        assertEquals(List.of("resync"), stale.awaitEvents(1));
+    }
+
+    private OrderEvent event(Long userId, Long orderId) {
+        return new OrderEvent(OrderEvent.Type.STATUS_CHANGED, orderId, userId, Order.OrderStatus.CONFIRMED,
+                Order.OrderStatus.PENDING, new BigDecimal("10.00"), LocalDateTime.now());
+    }
+
+    // Registra os eventos enviados como "nome:orderId"; comentários (abertura, ping) são ignorados.
+    // Com gate, o primeiro envio espera a liberação, como um cliente lento.
+    private static class RecordingEmitter extends SseEmitter {
+
+        private static final Pattern ID = Pattern.compile("id:(\\S+)");
+
+        private final CountDownLatch gate;
+        private final List<String> events = new CopyOnWriteArrayList<>();
+        private final CountDownLatch blocked = new CountDownLatch(1);
+        private volatile String lastId;
+
+        RecordingEmitter(CountDownLatch gate) {
+            this.gate = gate;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            Set<ResponseBodyEmitter.DataWithMediaType> parts = builder.build();
+            String text = parts.stream().map(part -> part.getData().toString()).collect(Collectors.joining());
+            if (gate != null) {
+                blocked.countDown();
+                try {
+                    gate.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            Matcher id = ID.matcher(text);
+            if (id.find()) {
+                lastId = id.group(1);
+            }
+            if (text.contains("event:resync")) {
+                events.add("resync");
+            } else if (text.contains("event:order")) {
+                parts.stream()
+                        .map(ResponseBodyEmitter.DataWithMediaType::getData)
+                        .filter(OrderEvent.class::isInstance)
+                        .forEach(data -> events.add("order:" + ((OrderEvent) data).orderId()));
+            }
+        }
+
+        List<String> awaitEvents(int count) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 5000;
+            while (events.size() < count && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            Thread.sleep(50);
+            return List.copyOf(events);
+        }
+    }
+}
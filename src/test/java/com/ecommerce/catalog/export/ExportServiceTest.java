@@ -0,0 +1,154 @@
+package com.ecommerce.catalog.export;
+
+import com.ecommerce.catalog.entity.Order;
+import com.ecommerce.catalog.entity.OrderItem;
+import com.ecommerce.catalog.entity.Product;
+import com.ecommerce.catalog.entity.User;
+import com.ecommerce.catalog.repository.ProductRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+@Transactional
+class ExportServiceTest {
+
+    private static final int ORDERS = ExportService.CLEAR_INTERVAL / 2 + 1;
+    private static final int ITEMS_PER_ORDER = 3;
+
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = new User("Cliente Exportação", "exportacao@email.com");
+        entityManager.persist(user);
+
+        // Mais itens que o intervalo de limpeza da sessão, para cobrir pedidos que cruzam o clear()
+        Product product = new Product("Cabo \"USB-C\", 2m", new BigDecimal("10.00"), "Linha 1\nLinha 2");
+        entityManager.persist(product);
+        for (int o = 0; o < ORDERS; o++) {
+            Order order = new Order(user);
+            entityManager.persist(order);
+            for (int i = 0; i < ITEMS_PER_ORDER; i++) {
+                entityManager.persist(new OrderItem(order, product, 1, product.getPrice()));
+            }
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void exportOrders_AsNdjson_ShouldWriteOneCompleteOrderPerLine() throws Exception {
+        // When
+        String output = export(out -> exportService.exportOrders(ExportFormat.NDJSON, out));
+
+        // Then
+        assertTrue(output.endsWith("\n"));
+        List<JsonNode> ours = new ArrayList<>();
+        for (String line : output.split("\n")) {
+            JsonNode order = objectMapper.readTree(line);
+            if (order.get("userId").asLong() == user.getId()) {
+                ours.add(order);
+            }
+        }
+        assertEquals(ORDERS, ours.size());
+        assertTrue(ours.stream().allMatch(order -> order.get("items").size() == ITEMS_PER_ORDER));
+    }
+
+    @Test
+    void exportOrders_WithOrderWithoutItems_ShouldStillWriteIt() throws Exception {
+        // Given
+        Order empty = new Order(user);
+        entityManager.persist(empty);
+        entityManager.flush();
+        entityManager.clear();
+
+        // When
+        String ndjson = export(out -> exportService.exportOrders(ExportFormat.NDJSON, out));
+        String csv = export(out -> exportService.exportOrders(ExportFormat.CSV, out));
+
+        // Then
+        JsonNode order = null;
+        for (String line : ndjson.split("\n")) {
+            JsonNode node = objectMapper.readTree(line);
+            if (node.get("id").asLong() == empty.getId()) {
+                order = node;
+            }
+        }
+        assertNotNull(order);
+        assertEquals(0, order.get("items").size());
+        assertTrue(csv.contains("\n" + empty.getId() + "," + user.getId() + ","));
+        assertTrue(csv.contains(",,,,,\n"));
+    }
+
+    @Test
+    void exportProducts_WithEmptyTable_ShouldWriteNothing() throws Exception {
+        // Given
+        ProductRepository emptyRepository = mock(ProductRepository.class);
+        when(emptyRepository.streamAllOrderById()).thenReturn(Stream.empty());
+        ExportService emptyExport = new ExportService();
+        ReflectionTestUtils.setField(emptyExport, "productRepository", emptyRepository);
+        ReflectionTestUtils.setField(emptyExport, "objectMapper", objectMapper);
+
+        // When
+        String output = export(out -> emptyExport.exportProducts(ExportFormat.NDJSON, out));
+
+        // Then
+        assertEquals("", output);
+    }
+
+    @Test
+    void exportProducts_AsCsv_ShouldQuoteSpecialCharacters() throws Exception {
+        // When
+        String output = export(out -> exportService.exportProducts(ExportFormat.CSV, out));
+
+        // Then
+        assertTrue(output.startsWith("id,sku,name,price,description,stock\n"));
+        assertTrue(output.contains(",\"Cabo \"\"USB-C\"\", 2m\",10.00,\"Linha 1\nLinha 2\",0\n"));
+    }
+
+    @Test
+    void csvField_ShouldOnlyQuoteWhenNeeded() {
+        // When & Then
+        assertEquals("Mouse", ExportService.csvField("Mouse"));
+        assertEquals("\"a,b\"", ExportService.csvField("a,b"));
+        assertEquals("", ExportService.csvField(null));
+    }
+
+    private String export(Export export) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        export.writeTo(out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private interface Export {
+        void writeTo(ByteArrayOutputStream out) throws Exception;
+    }
+}
@@ -0,0 +1,108 @@
+package com.ecommerce.catalog.importer;
+
+import com.ecommerce.catalog.export.ExportFormat;
+import com.ecommerce.catalog.inventory.StockLedger;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = { "import.batch-size=2", "import.validation-threads=2" })
+class ProductImportServiceTest {
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private StockLedger stockLedger;
+
+    @Test
+    void importProducts_FromCsv_ShouldInsertValidRowsAndReportErrors() throws Exception {
+        // Given
+        String csv = "sku,name,price,description,stock\n" +
+                "IMP-CSV-1,Cabo HDMI,39.90,\"Cabo 2m, \"\"4K\"\"\",10\n" +
+                "IMP-CSV-2,Adaptador,-5.00,,3\n" +
+                ",Sem SKU,10.00,,1\n" +
+                "IMP-CSV-3,Hub USB,120.00,\"Linha 1\nLinha 2\",\n" +
+                "IMP-CSV-4,Carregador,abc,,2\n";
+
+        // When
+        ImportReport report = importCsv(csv);
+
+        // Then
+        assertEquals(5, report.rows());
+        assertEquals(2, report.inserted());
+        assertEquals(3, report.failed());
+        assertEquals(List.of(3L, 4L, 7L), report.errors().stream().map(ImportReport.RowError::line).toList());
+        assertEquals("Preço deve ser maior que zero", report.errors().get(0).message());
+
+        assertEquals("Cabo 2m, \"4K\"", jdbcTemplate.queryForObject(
+                "SELECT description FROM products WHERE sku = 'IMP-CSV-1'", String.class));
+        Long id = jdbcTemplate.queryForObject("SELECT id FROM products WHERE sku = 'IMP-CSV-1'", Long.class);
+        assertEquals(10, stockLedger.level(id).onHand());
+    }
+
+    @Test
+    void importProducts_WithExistingSku_ShouldUpdateInPlace() throws Exception {
+        // Given
+        importCsv("sku,name,price,stock\nIMP-UPD-1,Webcam,199.00,5\n");
+        String ndjson = "{\"sku\":\"IMP-UPD-1\",\"name\":\"Webcam Full HD\",\"price\":179.00,\"stock\":8}\n" +
+                "\n" +
+                "{\"sku\":\"IMP-UPD-2\",\"name\":\"Headset\",\"price\":250.00}\n" +
+                "{\"sku\":\"IMP-UPD-2\",\"name\":\"Headset USB\",\"price\":260.00}\n";
+
+        // When
+        ImportReport report = productImportService.importProducts(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), ExportFormat.NDJSON);
+
+        // Then
+        assertEquals(0, report.failed());
+        assertEquals(1, report.inserted());
+        assertEquals(2, report.updated());
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM products WHERE sku = 'IMP-UPD-1'", Integer.class));
+        assertEquals(0, new BigDecimal("179.00").compareTo(jdbcTemplate.queryForObject(
+                "SELECT price FROM products WHERE sku = 'IMP-UPD-1'", BigDecimal.class)));
+        assertEquals("Headset USB", jdbcTemplate.queryForObject(
+                "SELECT name FROM products WHERE sku = 'IMP-UPD-2'", String.class));
+
+        Long id = jdbcTemplate.queryForObject("SELECT id FROM products WHERE sku = 'IMP-UPD-1'", Long.class);
+        assertEquals(8, stockLedger.level(id).onHand());
+    }
+
+    @Test
+    void importProducts_WithoutRequiredColumns_ShouldFail() {
+        // When & Then
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> importCsv("name,price\nMouse,10.00\n"));
+
+        assertEquals("Cabeçalho CSV sem as colunas obrigatórias: sku", exception.getMessage());
+    }
+
+    @Test
+    void csvReader_ShouldHandleQuotedFieldsAcrossLines() throws Exception {
+        // Given
+        CsvReader reader = new CsvReader(new StringReader("a,\"b,\"\"c\"\"\"\r\n\n\"x\ny\",z"));
+
+        // When & Then
+        assertEquals(List.of("a", "b,\"c\""), reader.next());
+        assertEquals(List.of("x\ny", "z"), reader.next());
+        assertEquals(3, reader.getRecordLine());
+        assertNull(reader.next());
+    }
+
+    private ImportReport importCsv(String csv) throws Exception {
+        return productImportService.importProducts(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), ExportFormat.CSV);
+    }
+}
@@ -0,0 +1,168 @@
+package com.ecommerce.catalog.inventory;
+
+import com.ecommerce.catalog.cache.VersionStamps;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class StockLedgerTest {
+
+    private StockLedger stockLedger;
+
+    @BeforeEach
+    void setUp() {
+        stockLedger = new StockLedger();
+        stockLedger.register(1L, 10);
+        stockLedger.register(2L, 5);
+    }
+
+    @Test
+    void reserve_ShouldMoveUnitsFromAvailableToReserved() {
+        // When
+        stockLedger.reserve(100L, 1L, 3);
+
+        // Then
+        assertEquals(new StockLevel(1L, 10, 3, 7), stockLedger.level(1L));
+    }
+
+    @Test
+    void reserve_WhenStockIsInsufficient_ShouldThrowAndKeepLevel() {
+        // When & Then
+        RuntimeException exception = assertThrows(RuntimeException.class,
+            () -> stockLedger.reserve(100L, 2L, 6));
+
+        assertEquals("Estoque insuficiente para o produto 2", exception.getMessage());
+        assertEquals(new StockLevel(2L, 5, 0, 5), stockLedger.level(2L));
+    }
+
+    @Test
+    void release_ShouldReturnUnitsToAvailable() {
+        // Given
+        stockLedger.reserve(100L, 1L, 4);
+
+        // When
+        stockLedger.release(100L, 1L, 1);
+        stockLedger.releaseAll(100L);
+
+        // Then
+        assertEquals(new StockLevel(1L, 10, 0, 10), stockLedger.level(1L));
+    }
+
+    @Test
+    void checkout_ShouldConsumeReservationsAndTopUpMissingUnits() {
+        // Given
+        stockLedger.reserve(100L, 1L, 2);
+
+        // When
+        stockLedger.checkout(100L, Map.of(1L, 3, 2L, 1));
+
+        // Then
+        assertEquals(new StockLevel(1L, 7, 0, 7), stockLedger.level(1L));
+        assertEquals(new StockLevel(2L, 4, 0, 4), stockLedger.level(2L));
+    }
+
+    @Test
+    void checkout_WhenAnyLineIsShort_ShouldChangeNothing() {
+        // Given
+        stockLedger.reserve(100L, 1L, 2);
+
+        // When & Then
+        assertThrows(RuntimeException.class,
+            () -> stockLedger.checkout(100L, Map.of(1L, 4, 2L, 6)));
+
+        assertEquals(new StockLevel(1L, 10, 2, 8), stockLedger.level(1L));
+        assertEquals(new StockLevel(2L, 5, 0, 5), stockLedger.level(2L));
+    }
+
+    @Test
+    void adjust_ShouldNotGoBelowReservedUnits() {
+        // Given
+        stockLedger.reserve(100L, 1L, 4);
+
+        // When
+        stockLedger.adjust(1L, 6);
+
+        // Then
+        assertEquals(new StockLevel(1L, 6, 4, 2), stockLedger.level(1L));
+        assertThrows(RuntimeException.class, () -> stockLedger.adjust(1L, 3));
+    }
+
+    @Test
+    void expireReservations_ShouldReleaseExpiredUnits() {
+        // Given
+        ReflectionTestUtils.setField(stockLedger, "reservationTtl", Duration.ZERO);
+        stockLedger.reserve(100L, 1L, 5);
+
+        // When
+        stockLedger.expireReservations();
+
+        // Then
+        assertEquals(new StockLevel(1L, 10, 0, 10), stockLedger.level(1L));
+    }
+
+    @Test
+    void flush_ShouldWriteIncrementalDeltas() {
+        // Given
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        ReflectionTestUtils.setField(stockLedger, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(stockLedger, "cacheManager", new ConcurrentMapCacheManager());
+        ReflectionTestUtils.setField(stockLedger, "versionStamps", new VersionStamps());
+        stockLedger.checkout(100L, Map.of(1L, 3));
+
+        // When
+        stockLedger.flush();
+        stockLedger.flush();
+
+        // Then
+        verify(jdbcTemplate, times(1)).batchUpdate(eq("UPDATE products SET stock = stock + ? WHERE id = ?"),
+                argThat((List<Object[]> batch) -> batch.size() == 1
+                        && batch.get(0)[0].equals(-3) && batch.get(0)[1].equals(1L)));
+    }
+
+    @Test
+    void reserve_UnderContentionOnSingleProduct_ShouldNeverOversell() throws Exception {
+        // Given
+        int buyers = 500;
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger sold = new AtomicInteger();
+
+        // When
+        for (long buyer = 0; buyer < buyers; buyer++) {
+            long userId = buyer;
+            executor.submit(() -> {
+                start.await();
+                try {
+                    stockLedger.reserve(userId, 1L, 1);
+                    stockLedger.checkout(userId, Map.of(1L, 1));
+                    sold.incrementAndGet();
+                } catch (RuntimeException e) {
+                    // esgotado
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        // Then
+        assertEquals(10, sold.get());
+        assertEquals(new StockLevel(1L, 0, 0, 0), stockLedger.level(1L));
+    }
+}
@@ -0,0 +1,33 @@
+package com.ecommerce.catalog.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryCounterTest {
+
+    private final QueryCounter queryCounter = new QueryCounter();
+
+    @Test
+    void inspect_ShouldCountStatementsBetweenStartAndStop() {
+        // Given
+        QueryCounter.start();
+
+        // When
+        queryCounter.inspect("select 1");
+        queryCounter.inspect("select 2");
+
+        // Then
+        assertEquals(2, QueryCounter.stop());
+    }
+
+    @Test
+    void inspect_WhenNotStarted_ShouldNotCount() {
+        // When
+        String sql = queryCounter.inspect("select 1");
+
+        // Then
+        assertEquals("select 1", sql);
+        assertEquals(0, QueryCounter.stop());
+    }
+}
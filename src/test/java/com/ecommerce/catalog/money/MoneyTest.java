@@ -0,0 +1,68 @@
+package com.ecommerce.catalog.money;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyTest {
+
+    @Test
+    void of_ShouldRoundHalfUpToCents() {
+        // When & Then
+        assertEquals(1001L, Money.of(new BigDecimal("10.005")).cents());
+        assertEquals(1000L, Money.of(new BigDecimal("10.004")).cents());
+        assertEquals(-1001L, Money.of(new BigDecimal("-10.005")).cents());
+        assertEquals(35000L, Money.of(new BigDecimal("350")).cents());
+        assertSame(Money.ZERO, Money.of(new BigDecimal("0.00")));
+    }
+
+    @Test
+    void arithmetic_ShouldMatchBigDecimal() {
+        // Given
+        Random random = new Random(42);
+
+        for (int i = 0; i < 10_000; i++) {
+            BigDecimal price = BigDecimal.valueOf(random.nextInt(10_000_000), 2);
+            BigDecimal other = BigDecimal.valueOf(random.nextInt(10_000_000), 2);
+            int quantity = random.nextInt(1000) - 500;
+
+            // When
+            Money money = Money.of(price);
+
+            // Then
+            assertEquals(price.multiply(BigDecimal.valueOf(quantity)), money.times(quantity).toBigDecimal());
+            assertEquals(price.add(other), money.plus(Money.of(other)).toBigDecimal());
+            assertEquals(price.subtract(other), money.minus(Money.of(other)).toBigDecimal());
+            assertEquals(price.compareTo(other), money.compareTo(Money.of(other)));
+        }
+    }
+
+    @Test
+    void arithmetic_WhenOverflowing_ShouldThrow() {
+        // Given
+        Money max = Money.ofCents(Long.MAX_VALUE);
+
+        // When & Then
+        assertThrows(ArithmeticException.class, () -> max.plus(Money.ofCents(1)));
+        assertThrows(ArithmeticException.class, () -> Money.ofCents(Long.MIN_VALUE).minus(Money.ofCents(1)));
+        assertThrows(ArithmeticException.class, () -> max.times(2));
+        assertThrows(ArithmeticException.class, () -> Money.ofCents(Long.MIN_VALUE).negate());
+        assertThrows(ArithmeticException.class, () -> Money.of(new BigDecimal("1e20")));
+    }
+
+    @Test
+    void valueSemantics_ShouldCompareByCents() {
+        // Given
+        Money price = Money.of(new BigDecimal("19.9"));
+
+        // When & Then
+        assertEquals(Money.ofCents(1990), price);
+        assertEquals(Money.ofCents(1990).hashCode(), price.hashCode());
+        assertEquals("19.90", price.toString());
+        assertEquals(new BigDecimal("19.90"), price.toBigDecimal());
+        assertEquals(-1, price.negate().signum());
+    }
+}
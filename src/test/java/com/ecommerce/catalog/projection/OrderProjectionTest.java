@@ -0,0 +1,135 @@
+package com.ecommerce.catalog.projection;
+
+import com.ecommerce.catalog.CatalogFixtures;
+import com.ecommerce.catalog.dto.CartItemDTO;
+import com.ecommerce.catalog.dto.OrderDTO;
+import com.ecommerce.catalog.dto.ProductDTO;
+import com.ecommerce.catalog.dto.UserDTO;
+import com.ecommerce.catalog.entity.Order;
+import com.ecommerce.catalog.entity.OrderItem;
+import com.ecommerce.catalog.entity.OrderView;
+import com.ecommerce.catalog.entity.User;
+import com.ecommerce.catalog.repository.OrderRepository;
+import com.ecommerce.catalog.repository.OrderViewRepository;
+import com.ecommerce.catalog.repository.ProductRepository;
+import com.ecommerce.catalog.repository.UserRepository;
+import com.ecommerce.catalog.service.CartService;
+import com.ecommerce.catalog.service.OrderService;
+import com.ecommerce.catalog.service.ProductService;
+import com.ecommerce.catalog.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class OrderProjectionTest {
+
+    @Autowired
+    private OrderProjection orderProjection;
+
+    @Autowired
+    private OrderViewRepository orderViewRepository;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private CatalogFixtures fixtures;
+
+    @Test
+    void orderWrites_ShouldKeepTheViewInSync() {
+        // Given
+        User user = userRepository.save(new User("Cliente Projeção", "projecao@email.com"));
+        ProductDTO product = fixtures.newProduct("Monitor 27", "899.90");
+        cartService.addToCart(new CartItemDTO(user.getId(), product.getId(), 2));
+
+        // When / Then: criação
+        OrderDTO created = orderService.createOrderFromCart(user.getId());
+        OrderView view = orderViewRepository.findById(created.getId()).orElseThrow();
+        assertEquals("Cliente Projeção", view.getUserName());
+        assertEquals(new BigDecimal("1799.80"), view.totalAmount().toBigDecimal());
+        assertEquals(1, view.getItems().size());
+        assertEquals("Monitor 27", view.getItems().get(0).getProductName());
+        assertEquals(2, view.getItems().get(0).getQuantity());
+
+        // Mudança de status
+        orderService.updateOrderStatus(created.getId(), Order.OrderStatus.SHIPPED);
+        assertEquals(Order.OrderStatus.SHIPPED, orderService.getOrderById(created.getId()).orElseThrow().getStatus());
+
+        // Nome do usuário
+        userService.updateUser(user.getId(), new UserDTO("Cliente Renomeado", "projecao@email.com"));
+        assertEquals("Cliente Renomeado", orderService.getOrdersByUserId(user.getId()).get(0).getUserName());
+
+        // Exclusão
+        orderService.deleteOrder(created.getId());
+        assertTrue(orderViewRepository.findById(created.getId()).isEmpty());
+    }
+
+    @Test
+    void rebuild_ShouldBackfillMissingOrdersAndRemoveOrphans() {
+        // Given: um pedido gravado sem passar pelo OrderService e outro excluído por fora
+        User user = userRepository.save(new User("Cliente Backfill", "backfill@email.com"));
+        Order missing = new Order(user);
+        missing.addItem(new OrderItem(missing, productRepository.findById(fixtures.newProduct("Cabo HDMI", "899.90").getId()).orElseThrow(),
+                3, new BigDecimal("899.90")));
+        missing.setTotalAmount(new BigDecimal("2699.70"));
+        missing = orderRepository.save(missing);
+
+        cartService.addToCart(new CartItemDTO(user.getId(), fixtures.newProduct("Webcam", "899.90").getId(), 1));
+        Long orphan = orderService.createOrderFromCart(user.getId()).getId();
+        orderRepository.deleteById(orphan);
+
+        // When
+        OrderProjection.RebuildResult result = orderProjection.rebuild();
+
+        // Then
+        assertTrue(result.orders() >= 1);
+        assertTrue(result.removed() >= 1);
+        List<OrderDTO> orders = orderService.getOrdersByUserId(user.getId());
+        assertEquals(1, orders.size());
+        assertEquals(missing.getId(), orders.get(0).getId());
+        assertEquals("Cabo HDMI", orders.get(0).getItems().get(0).getProductName());
+        assertEquals(new BigDecimal("2699.70"), orders.get(0).getTotalAmount());
+    }
+
+    @Test
+    void renamedProduct_ShouldKeepTheNameFromThePurchase() {
+        // Given
+        User user = userRepository.save(new User("Cliente Renomeio", "renomeio@email.com"));
+        ProductDTO product = fixtures.newProduct("Headset Gamer", "899.90");
+        cartService.addToCart(new CartItemDTO(user.getId(), product.getId(), 1));
+        Long orderId = orderService.createOrderFromCart(user.getId()).getId();
+
+        // When: o produto é renomeado e a tabela é reconstruída a partir de orders
+        product.setName("Headset Gamer 2");
+        productService.updateProduct(product.getId(), product);
+        orderProjection.rebuild();
+
+        // Then
+        assertEquals("Headset Gamer",
+                orderService.getOrderById(orderId).orElseThrow().getItems().get(0).getProductName());
+    }
+}
@@ -0,0 +1,174 @@
+package com.ecommerce.catalog.ratelimit;
+
+import com.ecommerce.catalog.dto.CartItemDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitInterceptorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void tokenBuckets_ShouldAllowTheBurstThenRejectPerKey() {
+        // Given
+        TokenBuckets buckets = new TokenBuckets(1, 3, 100);
+
+        // When
+        long first = buckets.tryAcquire("a");
+        long second = buckets.tryAcquire("a");
+        long third = buckets.tryAcquire("a");
+        long fourth = buckets.tryAcquire("a");
+        long otherKey = buckets.tryAcquire("b");
+
+        // Then
+        assertEquals(0, first + second + third);
+        assertTrue(fourth > 0 && fourth <= 1_000_000_000L);
+        assertEquals(0, otherKey);
+    }
+
+    @Test
+    void concurrencyLimit_ShouldRejectAboveTheLimitAndAdaptToLatency() {
+        // Given
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 1, 10, 0.5, Duration.ofMillis(100));
+
+        // When / Then: acima do limite é recusado
+        assertTrue(limit.tryAcquire());
+        assertTrue(limit.tryAcquire());
+        assertFalse(limit.tryAcquire());
+
+        // Respostas rápidas com o limite em uso aumentam o limite
+        limit.release(Duration.ofMillis(5).toNanos(), false);
+        assertEquals(3, limit.limit());
+
+        // Resposta lenta ou com erro reduz pela metade, sem passar do mínimo
+        limit.release(Duration.ofMillis(500).toNanos(), false);
+        assertEquals(1, limit.limit());
+        assertEquals(0, limit.inFlight());
+    }
+
+    @Test
+    void preHandle_ClientOverItsRate_ShouldRespond429WithRetryAfter() throws Exception {
+        // Given
+        RateLimitInterceptor interceptor = interceptor(new TokenBuckets(1, 2, 100), 10);
+
+        // When
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        MockHttpServletResponse second = new MockHttpServletResponse();
+        MockHttpServletResponse third = new MockHttpServletResponse();
+        MockHttpServletResponse otherUser = new MockHttpServletResponse();
+        boolean firstAllowed = admit(interceptor, checkout("1"), first);
+        boolean secondAllowed = admit(interceptor, checkout("1"), second);
+        boolean thirdAllowed = interceptor.preHandle(checkout("1"), third, null);
+        boolean otherAllowed = admit(interceptor, checkout("2"), otherUser);
+
+        // Then
+        assertTrue(firstAllowed && secondAllowed && otherAllowed);
+        assertFalse(thirdAllowed);
+        assertEquals(429, third.getStatus());
+        assertEquals("1", third.getHeader("Retry-After"));
+        assertEquals(1.0, meterRegistry.get("catalog.ratelimit.rejected").tag("reason", "client").counter().count());
+    }
+
+    @Test
+    void preHandle_AboveTheConcurrencyLimit_ShouldRespond429() throws Exception {
+        // Given
+        RateLimitInterceptor interceptor = interceptor(new TokenBuckets(100, 100, 100), 1);
+        MockHttpServletRequest running = checkout("1");
+        interceptor.preHandle(running, new MockHttpServletResponse(), null);
+
+        // When
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        boolean allowed = interceptor.preHandle(checkout("2"), rejected, null);
+        MockHttpServletRequest read = new MockHttpServletRequest("GET", "/api/orders/user/2");
+        boolean readAllowed = interceptor.preHandle(read, new MockHttpServletResponse(), null);
+
+        // Then
+        assertFalse(allowed);
+        assertEquals(429, rejected.getStatus());
+        assertTrue(readAllowed);
+        assertEquals(1.0, meterRegistry.get("catalog.ratelimit.rejected").tag("reason", "concurrency").counter().count());
+        assertEquals(1.0, meterRegistry.get("catalog.ratelimit.concurrency.in_flight").gauge().value());
+    }
+
+    @Test
+    void bodyUserId_ShouldGiveEachUserItsOwnBucketBehindTheSameAddress() throws Exception {
+        // Given: POST /api/cart sem {userId} na rota, todos vindos do mesmo proxy
+        RateLimitInterceptor interceptor = interceptor(new TokenBuckets(1, 2, 100), 10);
+        RateLimitBodyAdvice advice = new RateLimitBodyAdvice();
+        HandlerMethod handler = new HandlerMethod(new CartEndpoint(), CartEndpoint.class.getMethod("add", CartItemDTO.class));
+
+        // When
+        boolean first = addToCart(interceptor, advice, handler, 1L);
+        boolean second = addToCart(interceptor, advice, handler, 1L);
+        boolean third = addToCart(interceptor, advice, handler, 1L);
+        boolean otherUser = addToCart(interceptor, advice, handler, 2L);
+
+        // Then
+        assertTrue(first && second && otherUser);
+        assertFalse(third);
+        assertEquals(1.0, meterRegistry.get("catalog.ratelimit.rejected").tag("reason", "client").counter().count());
+        assertEquals(0.0, meterRegistry.get("catalog.ratelimit.concurrency.in_flight").gauge().value());
+    }
+
+    // Percorre interceptor e leitura do corpo como o DispatcherServlet; false se recusada com 429
+    private static boolean addToCart(RateLimitInterceptor interceptor, RateLimitBodyAdvice advice,
+                                     HandlerMethod handler, Long userId) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/cart");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/cart");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        assertTrue(interceptor.preHandle(request, response, handler));
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        try {
+            advice.afterBodyRead(new CartItemDTO(userId, 1L, 1), null, handler.getMethodParameters()[0],
+                    CartItemDTO.class, null);
+        } catch (RateLimitException e) {
+            advice.rejected(e, response);
+            assertEquals(429, response.getStatus());
+            assertEquals("1", response.getHeader("Retry-After"));
+            return false;
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+        interceptor.afterCompletion(request, response, handler, null);
+        return true;
+    }
+
+    static class CartEndpoint {
+        public void add(@RequestBody CartItemDTO item) {}
+    }
+
+    private RateLimitInterceptor interceptor(TokenBuckets buckets, int concurrencyLimit) {
+        AdaptiveConcurrencyLimit concurrency =
+                new AdaptiveConcurrencyLimit(concurrencyLimit, 1, concurrencyLimit, 0.9, Duration.ofSeconds(10));
+        return new RateLimitInterceptor(buckets, concurrency, meterRegistry);
+    }
+
+    // Admite e conclui a requisição, liberando a vaga de concorrência
+    private static boolean admit(RateLimitInterceptor interceptor, MockHttpServletRequest request,
+                                 MockHttpServletResponse response) throws Exception {
+        boolean allowed = interceptor.preHandle(request, response, null);
+        if (allowed) {
+            interceptor.afterCompletion(request, response, null, null);
+        }
+        return allowed;
+    }
+
+    private static MockHttpServletRequest checkout(String userId) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/cart/user/" + userId + "/checkout");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/cart/user/{userId}/checkout");
+        request.setAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE, Map.of("userId", userId));
+        return request;
+    }
+}
@@ -0,0 +1,99 @@
+package com.ecommerce.catalog.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PriceIndexTest {
+
+    private PriceIndex priceIndex;
+
+    @BeforeEach
+    void setUp() {
+        priceIndex = new PriceIndex();
+        priceIndex.put(1L, new BigDecimal("2500.00"));
+        priceIndex.put(2L, new BigDecimal("350.00"));
+        priceIndex.put(3L, new BigDecimal("450.00"));
+        priceIndex.put(4L, new BigDecimal("800.00"));
+        priceIndex.put(5L, new BigDecimal("350.00"));
+    }
+
+    @Test
+    void range_ShouldReturnIdsInPriceOrderWithInclusiveBounds() {
+        // When
+        List<Long> result = priceIndex.range(35000L, 80000L, 10);
+
+        // Then
+        assertEquals(List.of(2L, 5L, 3L, 4L), result);
+        assertEquals(List.of(2L, 5L), priceIndex.range(35000L, 80000L, 2));
+    }
+
+    @Test
+    void range_AfterCursor_ShouldContinueFromTheLastPriceAndId() {
+        // When & Then: empate de preço desfeito pelo id; a entrada do cursor pode já ter saído
+        assertEquals(List.of(5L, 3L), priceIndex.range(35000L, 80000L, 35000L, 2L, 2));
+        priceIndex.remove(5L);
+        assertEquals(List.of(3L, 4L), priceIndex.range(35000L, 80000L, 35000L, 5L, 10));
+    }
+
+    @Test
+    void range_WhenNothingInRange_ShouldReturnEmpty() {
+        // When & Then
+        assertTrue(priceIndex.range(100L, 200L, 10).isEmpty());
+        assertTrue(priceIndex.range(90000L, 10000L, 10).isEmpty());
+    }
+
+    @Test
+    void cheapest_ShouldReturnLowestPricesFirst() {
+        // When
+        List<Long> result = priceIndex.cheapest(3);
+
+        // Then
+        assertEquals(List.of(2L, 5L, 3L), result);
+        assertEquals(5, priceIndex.cheapest(10).size());
+    }
+
+    @Test
+    void put_WhenPriceChanges_ShouldMoveProduct() {
+        // When
+        priceIndex.put(1L, new BigDecimal("10.00"));
+
+        // Then
+        assertEquals(List.of(1L), priceIndex.cheapest(1));
+        assertEquals(5, priceIndex.size());
+        assertTrue(priceIndex.range(250000L, 250000L, 10).isEmpty());
+    }
+
+    @Test
+    void remove_ShouldDropProduct() {
+        // When
+        priceIndex.remove(2L);
+
+        // Then
+        assertEquals(List.of(5L, 3L), priceIndex.range(0L, 50000L, 10));
+        assertEquals(4, priceIndex.size());
+        assertFalse(priceIndex.isInRange(2L, 0L, Long.MAX_VALUE));
+    }
+
+    @Test
+    void histogram_ShouldCountProductsPerBucket() {
+        // When
+        long[] counts = priceIndex.histogram(0L, 299999L, 3);
+
+        // Then
+        // Faixas de R$ 1000: [0-999.99], [1000-1999.99], [2000-2999.99]
+        assertArrayEquals(new long[] { 4L, 0L, 1L }, counts);
+    }
+
+    @Test
+    void boundCents_ShouldRoundInsideTheRequestedRange() {
+        // When & Then
+        assertEquals(1001L, PriceIndex.lowerBoundCents(new BigDecimal("10.001")));
+        assertEquals(1000L, PriceIndex.upperBoundCents(new BigDecimal("10.009")));
+        assertEquals(35000L, PriceIndex.toCents(new BigDecimal("350")));
+    }
+}
@@ -0,0 +1,97 @@
+package com.ecommerce.catalog.search;
+
+import com.ecommerce.catalog.entity.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductSearchIndexTest {
+
+    private ProductSearchIndex searchIndex;
+
+    @BeforeEach
+    void setUp() {
+        searchIndex = new ProductSearchIndex();
+        searchIndex.index(product(1L, "Teclado Mecânico", "Teclado mecânico RGB com switches Cherry MX Blue"));
+        searchIndex.index(product(2L, "Mouse Logitech MX Master", "Mouse sem fio com sensor de alta precisão"));
+        searchIndex.index(product(3L, "Mousepad Gamer", "Mousepad grande para teclado e mouse"));
+    }
+
+    @Test
+    void search_ShouldIgnoreAccentsAndCase() {
+        // When
+        List<Long> result = searchIndex.search("MECANICO", 10);
+
+        // Then
+        assertEquals(List.of(1L), result);
+        assertEquals(List.of(2L), searchIndex.search("precisao", 10));
+    }
+
+    @Test
+    void search_ShouldMatchIncompleteTermsByPrefix() {
+        // When
+        List<Long> result = searchIndex.search("tecl", 10);
+
+        // Then
+        assertEquals(List.of(1L, 3L), result);
+    }
+
+    @Test
+    void search_ShouldRankNameMatchesAboveDescriptionMatches() {
+        // When
+        List<Long> result = searchIndex.search("mouse", 10);
+
+        // Then
+        // "mouse" está no nome do 2 e só na descrição do 3 (que casa "mousepad" por prefixo no nome)
+        assertEquals(2L, result.get(0));
+        assertTrue(result.contains(3L));
+        assertFalse(result.contains(1L));
+    }
+
+    @Test
+    void search_ShouldRequireAllTerms() {
+        // When & Then
+        assertEquals(List.of(1L), searchIndex.search("teclado rgb", 10));
+        assertTrue(searchIndex.search("teclado logitech", 10).isEmpty());
+    }
+
+    @Test
+    void search_ShouldRespectLimit() {
+        // When
+        List<Long> result = searchIndex.search("mouse", 1);
+
+        // Then
+        assertEquals(List.of(2L), result);
+    }
+
+    @Test
+    void index_WhenProductIsUpdated_ShouldReplaceOldTerms() {
+        // When
+        searchIndex.index(product(1L, "Teclado Membrana", "Teclado silencioso"));
+
+        // Then
+        assertTrue(searchIndex.search("mecanico", 10).isEmpty());
+        assertEquals(List.of(1L), searchIndex.search("membrana", 10));
+        assertEquals(3, searchIndex.size());
+    }
+
+    @Test
+    void remove_ShouldDropProductFromResults() {
+        // When
+        searchIndex.remove(2L);
+
+        // Then
+        assertTrue(searchIndex.search("logitech", 10).isEmpty());
+        assertEquals(2, searchIndex.size());
+    }
+
+    private Product product(Long id, String name, String description) {
+        Product product = new Product(name, new BigDecimal("10.00"), description);
+        product.setId(id);
+        return product;
+    }
+}
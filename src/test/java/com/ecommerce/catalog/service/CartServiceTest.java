@@ -1,9 +1,13 @@
 package com.ecommerce.catalog.service;
 
+import com.ecommerce.catalog.cart.CartStore;
+import com.ecommerce.catalog.cart.CartTotals;
 import com.ecommerce.catalog.dto.CartItemDTO;
+import com.ecommerce.catalog.dto.ProductDTO;
 import com.ecommerce.catalog.entity.CartItem;
 import com.ecommerce.catalog.entity.Product;
 import com.ecommerce.catalog.entity.User;
+import com.ecommerce.catalog.inventory.StockLedger;
 import com.ecommerce.catalog.repository.CartItemRepository;
 import com.ecommerce.catalog.repository.ProductRepository;
 import com.ecommerce.catalog.repository.UserRepository;
@@ -12,15 +16,19 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -35,6 +43,18 @@ class CartServiceTest {
     @Mock
     private ProductRepository productRepository;
 
+    @Mock
+    private StockLedger stockLedger;
+
+    @Spy
+    private CartTotals cartTotals = new CartTotals();
+
+    @Mock
+    private CartStore cartStore;
+
+    @Mock
+    private ProductService productService;
+
     @InjectMocks
     private CartService cartService;
 
@@ -45,6 +65,8 @@ class CartServiceTest {
 
     @BeforeEach
     void setUp() {
+        ReflectionTestUtils.invokeMethod(cartTotals, "init");
+
         user = new User("João Silva", "joao@email.com");
         user.setId(1L);
 
@@ -127,32 +149,83 @@ class CartServiceTest {
         verify(cartItemRepository, never()).save(any(CartItem.class));
     }
 
+    @Test
+    void addToCart_WhenStockIsInsufficient_ShouldNotSaveItem() {
+        // Given
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        doThrow(new RuntimeException("Estoque insuficiente para o produto 1"))
+                .when(stockLedger).reserve(1L, 1L, 2);
+
+        // When & Then
+        RuntimeException exception = assertThrows(RuntimeException.class,
+            () -> cartService.addToCart(cartItemDTO));
+
+        assertEquals("Estoque insuficiente para o produto 1", exception.getMessage());
+        verify(cartItemRepository, never()).save(any(CartItem.class));
+    }
+
+    @Test
+    void updateCartItem_ShouldReserveOnlyTheDifference() {
+        // Given
+        when(cartItemRepository.findById(1L)).thenReturn(Optional.of(cartItem));
+        when(cartItemRepository.save(cartItem)).thenReturn(cartItem);
+
+        // When
+        cartService.updateCartItem(1L, 5);
+
+        // Then
+        assertEquals(5, cartItem.getQuantity());
+        verify(stockLedger, times(1)).reserve(1L, 1L, 3);
+    }
+
     @Test
     void removeFromCart_WhenItemExists_ShouldReturnTrue() {
         // Given
-        when(cartItemRepository.existsById(1L)).thenReturn(true);
+        when(cartItemRepository.findById(1L)).thenReturn(Optional.of(cartItem));
 
         // When
         boolean result = cartService.removeFromCart(1L);
 
         // Then
         assertTrue(result);
-        verify(cartItemRepository, times(1)).existsById(1L);
-        verify(cartItemRepository, times(1)).deleteById(1L);
+        verify(stockLedger, times(1)).releaseAll(1L, 1L);
+        verify(cartItemRepository, times(1)).delete(cartItem);
     }
 
     @Test
     void getCartTotal_ShouldReturnCorrectTotal() {
         // Given
-        List<CartItem> cartItems = Arrays.asList(cartItem);
-        when(cartItemRepository.findByUserId(1L)).thenReturn(cartItems);
+        when(cartItemRepository.sumTotalByUserId(1L)).thenReturn(new BigDecimal("5000.00"));
 
         // When
         BigDecimal result = cartService.getCartTotal(1L);
 
         // Then
         assertEquals(new BigDecimal("5000.00"), result); // 2500 * 2
-        verify(cartItemRepository, times(1)).findByUserId(1L);
+        verify(cartItemRepository, times(1)).sumTotalByUserId(1L);
+        verify(cartItemRepository, never()).findByUserId(anyLong());
+    }
+
+    @Test
+    void getCartTotal_AfterCartChanges_ShouldUpdateRunningTotalWithoutQuerying() {
+        // Given
+        when(cartItemRepository.sumTotalByUserId(1L)).thenReturn(new BigDecimal("5000.00"));
+        cartService.getCartTotal(1L);
+
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(cartItemRepository.findByUserAndProduct(user, product)).thenReturn(Optional.of(cartItem));
+        when(cartItemRepository.save(any(CartItem.class))).thenReturn(cartItem);
+        when(cartItemRepository.findById(1L)).thenReturn(Optional.of(cartItem));
+
+        // When
+        cartService.addToCart(new CartItemDTO(1L, 1L, 1));   // 2 -> 3 unidades
+        cartService.updateCartItem(1L, 1);                   // 3 -> 1 unidade
+
+        // Then
+        assertEquals(new BigDecimal("2500.00"), cartService.getCartTotal(1L));
+        verify(cartItemRepository, times(1)).sumTotalByUserId(1L);
     }
 
     @Test
@@ -161,6 +234,50 @@ class CartServiceTest {
         cartService.clearCart(1L);
 
         // Then
+        verify(stockLedger, times(1)).releaseAll(1L);
         verify(cartItemRepository, times(1)).deleteByUserId(1L);
     }
-}
\ No newline at end of file
+
+    @Test
+    void addToCart_WithWriteBehindStore_ShouldNotTouchRepositories() {
+        // Given
+        ProductDTO productDTO = new ProductDTO("Notebook", new BigDecimal("2500.00"), "Notebook Dell");
+        productDTO.setId(1L);
+        when(cartStore.isEnabled()).thenReturn(true);
+        when(cartStore.hasCart(1L)).thenReturn(true);
+        when(productService.getProductById(1L)).thenReturn(Optional.of(productDTO));
+        when(cartStore.add(1L, 1L, 2)).thenReturn(new CartStore.Line(7L, 1L, 1L, 2, LocalDateTime.now()));
+
+        // When
+        CartItemDTO result = cartService.addToCart(cartItemDTO);
+
+        // Then
+        assertEquals(7L, result.getId());
+        assertEquals(new BigDecimal("5000.00"), result.getTotalPrice());
+        verify(stockLedger).reserve(1L, 1L, 2);
+        verifyNoInteractions(cartItemRepository, userRepository, productRepository);
+    }
+
+    @Test
+    void getCartItems_WithWriteBehindStore_ShouldDropLinesOfDeletedProducts() {
+        // Given: o produto 2 foi excluído depois de entrar no carrinho
+        ProductDTO productDTO = new ProductDTO("Notebook", new BigDecimal("2500.00"), "Notebook Dell");
+        productDTO.setId(1L);
+        CartStore.Line kept = new CartStore.Line(7L, 1L, 1L, 2, LocalDateTime.now());
+        CartStore.Line deleted = new CartStore.Line(8L, 1L, 2L, 1, LocalDateTime.now());
+        when(cartStore.isEnabled()).thenReturn(true);
+        when(cartStore.lines(1L)).thenReturn(List.of(kept, deleted));
+        when(productService.getProductById(1L)).thenReturn(Optional.of(productDTO));
+        when(productService.getProductById(2L)).thenReturn(Optional.empty());
+
+        // When
+        List<CartItemDTO> result = cartService.getCartItems(1L);
+        BigDecimal total = cartService.getCartTotal(1L);
+
+        // Then
+        assertEquals(List.of(7L), result.stream().map(CartItemDTO::getId).toList());
+        assertEquals(new BigDecimal("5000.00"), total);
+        verify(cartStore).remove(8L);
+        verify(stockLedger).releaseAll(1L, 2L);
+    }
+}
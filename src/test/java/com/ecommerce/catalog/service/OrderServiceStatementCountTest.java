@@ -0,0 +1,157 @@
+package com.ecommerce.catalog.service;
+
+import com.ecommerce.catalog.dto.OrderDTO;
+import com.ecommerce.catalog.entity.CartItem;
+import com.ecommerce.catalog.entity.Order;
+import com.ecommerce.catalog.entity.OrderItem;
+import com.ecommerce.catalog.entity.Product;
+import com.ecommerce.catalog.entity.User;
+import com.ecommerce.catalog.projection.OrderProjection;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+class OrderServiceStatementCountTest {
+
+    private static final int ORDERS = 5;
+    private static final int ITEMS_PER_ORDER = 3;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderProjection orderProjection;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private User user;
+    private Long firstOrderId;
+
+    @BeforeEach
+    void setUp() {
+        user = new User("Cliente Estatística", "estatistica@email.com");
+        entityManager.persist(user);
+
+        for (int o = 0; o < ORDERS; o++) {
+            Order order = new Order(user);
+            entityManager.persist(order);
+            if (firstOrderId == null) {
+                firstOrderId = order.getId();
+            }
+
+            for (int i = 0; i < ITEMS_PER_ORDER; i++) {
+                Product product = new Product("Produto " + o + "-" + i, new BigDecimal("10.00"), null);
+                entityManager.persist(product);
+                entityManager.persist(new OrderItem(order, product, 1, product.getPrice()));
+            }
+        }
+
+        // Os pedidos foram gravados direto, sem os eventos: a order_view vem do rebuild
+        entityManager.flush();
+        entityManager.clear();
+        orderProjection.rebuild();
+
+        // Começa cada teste com o contexto de persistência vazio, como em uma requisição nova
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void getAllOrders_ShouldReadTheOrderViewInSingleStatement() {
+        // When
+        List<OrderDTO> result = orderService.getAllOrders();
+
+        // Then
+        List<OrderDTO> ours = result.stream()
+                .filter(order -> order.getUserId().equals(user.getId()))
+                .toList();
+        assertEquals(ORDERS, ours.size());
+        ours.forEach(order -> {
+            assertEquals(user.getName(), order.getUserName());
+            assertEquals(ITEMS_PER_ORDER, order.getItems().size());
+        });
+        // Só a order_view, independente do número de pedidos e itens
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getOrdersByUserId_ShouldReadTheOrderViewInSingleStatement() {
+        // When
+        List<OrderDTO> result = orderService.getOrdersByUserId(user.getId());
+
+        // Then
+        assertEquals(ORDERS, result.size());
+        result.forEach(order -> assertEquals(ITEMS_PER_ORDER, order.getItems().size()));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getOrderById_ShouldReadTheOrderViewInSingleStatement() {
+        // When
+        Optional<OrderDTO> result = orderService.getOrderById(firstOrderId);
+
+        // Then
+        assertTrue(result.isPresent());
+        assertEquals(ITEMS_PER_ORDER, result.get().getItems().size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void createOrderFromCart_ShouldUseSameNumberOfStatementsForAnyCartSize() {
+        // Given
+        User smallCartUser = userWithCart("pequeno@email.com", 1);
+        User largeCartUser = userWithCart("grande@email.com", 40);
+
+        // When
+        long smallCartStatements = checkoutStatements(smallCartUser);
+        long largeCartStatements = checkoutStatements(largeCartUser);
+
+        // Then
+        // Tolera uma ida extra à sequência quando o bloco de ids pré-alocados se esgota
+        assertTrue(largeCartStatements <= smallCartStatements + 1,
+                "1 item: " + smallCartStatements + " comandos, 40 itens: " + largeCartStatements);
+    }
+
+    private long checkoutStatements(User cartOwner) {
+        statistics.clear();
+        OrderDTO order = orderService.createOrderFromCart(cartOwner.getId());
+        entityManager.flush();
+        assertNotNull(order.getId());
+        return statistics.getPrepareStatementCount();
+    }
+
+    private User userWithCart(String email, int lines) {
+        User cartOwner = new User("Cliente Carrinho", email);
+        entityManager.persist(cartOwner);
+        for (int i = 0; i < lines; i++) {
+            Product product = new Product("Produto Carrinho " + email + i, new BigDecimal("5.00"), null, 100);
+            entityManager.persist(product);
+            entityManager.persist(new CartItem(cartOwner, product, 2));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return cartOwner;
+    }
+}
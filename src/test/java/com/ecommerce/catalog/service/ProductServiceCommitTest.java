@@ -0,0 +1,74 @@
+package com.ecommerce.catalog.service;
+
+import com.ecommerce.catalog.CatalogFixtures;
+import com.ecommerce.catalog.dto.CartItemDTO;
+import com.ecommerce.catalog.dto.ProductDTO;
+import com.ecommerce.catalog.entity.User;
+import com.ecommerce.catalog.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Efeitos fora do banco (total dos carrinhos, índices) de uma alteração de produto só
+// valem depois do commit
+@SpringBootTest
+class ProductServiceCommitTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private CatalogFixtures fixtures;
+
+    @Test
+    void updateProduct_WithTotalReadBeforeCommit_ShouldNotKeepTheOldPrice() {
+        // Given
+        User user = userRepository.save(new User("Cliente Reajuste", "reajuste@email.com"));
+        ProductDTO product = fixtures.newProduct("Teclado Mecânico", "10.00");
+        cartService.addToCart(new CartItemDTO(user.getId(), product.getId(), 2));
+        assertEquals(new BigDecimal("20.00"), cartService.getCartTotal(user.getId()));
+
+        // When: outra requisição lê o total com o novo preço gravado, mas ainda não confirmado
+        BigDecimal during = transactionTemplate.execute(status -> {
+            productService.updateProduct(product.getId(), new ProductDTO("Teclado Mecânico", new BigDecimal("15.00"), null));
+            return CompletableFuture.supplyAsync(() -> cartService.getCartTotal(user.getId())).join();
+        });
+
+        // Then
+        assertEquals(new BigDecimal("20.00"), during);
+        assertEquals(new BigDecimal("30.00"), cartService.getCartTotal(user.getId()));
+    }
+
+    @Test
+    void updateProduct_RolledBack_ShouldLeaveTheIndexesUnchanged() {
+        // Given
+        ProductDTO product = fixtures.newProduct("Monitor Curvo", "900.00");
+
+        // When
+        transactionTemplate.executeWithoutResult(status -> {
+            productService.updateProduct(product.getId(), new ProductDTO("Projetor Portátil", new BigDecimal("1.00"), null));
+            status.setRollbackOnly();
+        });
+
+        // Then
+        assertTrue(productService.searchProducts("projetor", 10).isEmpty());
+        assertEquals(1, productService.searchProducts("monitor curvo", 10).size());
+        assertTrue(productService.getProductsByPriceRange(new BigDecimal("1.00"), new BigDecimal("1.00")).stream()
+                .noneMatch(found -> found.getId().equals(product.getId())));
+    }
+}
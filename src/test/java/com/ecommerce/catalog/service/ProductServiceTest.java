@@ -1,14 +1,22 @@
 package com.ecommerce.catalog.service;
 
+import com.ecommerce.catalog.cache.VersionStamps;
+import com.ecommerce.catalog.cart.CartTotals;
+import com.ecommerce.catalog.dto.CursorPage;
 import com.ecommerce.catalog.dto.ProductDTO;
 import com.ecommerce.catalog.entity.Product;
+import com.ecommerce.catalog.inventory.StockLedger;
 import com.ecommerce.catalog.repository.ProductRepository;
+import com.ecommerce.catalog.search.PriceIndex;
+import com.ecommerce.catalog.search.ProductSearchIndex;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Pageable;
 
 import java.math.BigDecimal;
 import java.util.Arrays;
@@ -18,6 +26,7 @@ import java.util.Optional;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -26,6 +35,24 @@ class ProductServiceTest {
     @Mock
     private ProductRepository productRepository;
 
+    @Mock
+    private ProductSearchIndex searchIndex;
+
+    @Mock
+    private PriceIndex priceIndex;
+
+    @Mock
+    private StockLedger stockLedger;
+
+    @Mock
+    private CartTotals cartTotals;
+
+    @Mock
+    private VersionStamps versionStamps;
+
+    @Mock
+    private CacheManager cacheManager;
+
     @InjectMocks
     private ProductService productService;
 
@@ -45,7 +72,7 @@ class ProductServiceTest {
     void getAllProducts_ShouldReturnListOfProductDTOs() {
         // Given
         List<Product> products = Arrays.asList(product);
-        when(productRepository.findAll()).thenReturn(products);
+        when(productRepository.findAllBy(any(Pageable.class))).thenReturn(products);
 
         // When
         List<ProductDTO> result = productService.getAllProducts();
@@ -55,7 +82,64 @@ class ProductServiceTest {
         assertEquals(1, result.size());
         assertEquals(productDTO.getName(), result.get(0).getName());
         assertEquals(productDTO.getPrice(), result.get(0).getPrice());
-        verify(productRepository, times(1)).findAll();
+        verify(productRepository, times(1)).findAllBy(any(Pageable.class));
+    }
+
+    @Test
+    void getProductsPage_WhenMoreRowsThanLimit_ShouldReturnNextCursor() {
+        // Given
+        Product second = new Product("Mouse", new BigDecimal("50.00"), "Mouse sem fio");
+        second.setId(2L);
+        Product third = new Product("Teclado", new BigDecimal("150.00"), "Teclado");
+        third.setId(3L);
+        when(productRepository.findPageOrderById(eq(1L), any(Pageable.class)))
+                .thenReturn(Arrays.asList(second, third));
+
+        // When
+        CursorPage<ProductDTO> result = productService.getProductsPage(CursorPage.Cursor.of(1L).encode(), 1, null);
+
+        // Then
+        assertEquals(1, result.getItems().size());
+        assertEquals(2L, result.getItems().get(0).getId());
+        assertEquals(CursorPage.Cursor.of(2L), CursorPage.Cursor.decode(result.getNextCursor()));
+        assertTrue(result.isHasMore());
+    }
+
+    @Test
+    void getProductsPage_WhenSortingByPrice_ShouldContinueFromCursorPrice() {
+        // Given: o cursor já leva o preço; a linha dele nem precisa existir mais
+        Product mouse = new Product("Mouse", new BigDecimal("50.00"), "Mouse sem fio");
+        mouse.setId(2L);
+        when(productRepository.findPageOrderByPrice(eq(product.price()), eq(1L), any(Pageable.class)))
+                .thenReturn(List.of(mouse, product));
+
+        // When
+        CursorPage<ProductDTO> result = productService.getProductsPage(
+                new CursorPage.Cursor(1L, Long.toString(product.price().cents())).encode(), 1, "price");
+
+        // Then
+        assertEquals(List.of(2L), result.getItems().stream().map(ProductDTO::getId).toList());
+        assertEquals(new CursorPage.Cursor(2L, "5000"), CursorPage.Cursor.decode(result.getNextCursor()));
+        verify(productRepository, never()).findById(any());
+    }
+
+    @Test
+    void getProductsPage_WithCursorOfAnotherSort_ShouldThrowException() {
+        // When & Then
+        RuntimeException exception = assertThrows(RuntimeException.class,
+            () -> productService.getProductsPage(CursorPage.Cursor.of(1L).encode(), 10, "price"));
+
+        assertEquals("Cursor inválido", exception.getMessage());
+        assertThrows(RuntimeException.class, () -> productService.getProductsPage("%%%", 10, null));
+    }
+
+    @Test
+    void getProductsPage_WithUnknownSort_ShouldThrowException() {
+        // When & Then
+        RuntimeException exception = assertThrows(RuntimeException.class,
+            () -> productService.getProductsPage(null, 10, "stock"));
+
+        assertEquals("Ordenação inválida: stock", exception.getMessage());
     }
 
     @Test
@@ -99,6 +183,8 @@ class ProductServiceTest {
         assertEquals(productDTO.getName(), result.getName());
         assertEquals(productDTO.getPrice(), result.getPrice());
         verify(productRepository, times(1)).save(any(Product.class));
+        verify(searchIndex, times(1)).index(product);
+        verify(priceIndex, times(1)).put(1L, product.getPrice());
     }
 
     @Test
@@ -120,6 +206,25 @@ class ProductServiceTest {
         assertEquals(updatedDTO.getPrice(), result.get().getPrice());
         verify(productRepository, times(1)).findById(1L);
         verify(productRepository, times(1)).save(any(Product.class));
+        verify(cartTotals, times(1)).invalidateAll();
+    }
+
+    @Test
+    void updateProduct_WithStock_ShouldAdjustLedgerInsteadOfSavingStock() {
+        // Given
+        ProductDTO updatedDTO = new ProductDTO("Notebook", new BigDecimal("2500.00"), "Notebook Dell");
+        updatedDTO.setStock(8);
+
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(productRepository.save(any(Product.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        Optional<ProductDTO> result = productService.updateProduct(1L, updatedDTO);
+
+        // Then
+        assertTrue(result.isPresent());
+        assertEquals(8, result.get().getStock());
+        verify(stockLedger, times(1)).adjust(1L, 8);
     }
 
     @Test
@@ -134,6 +239,7 @@ class ProductServiceTest {
         assertTrue(result);
         verify(productRepository, times(1)).existsById(1L);
         verify(productRepository, times(1)).deleteById(1L);
+        verify(searchIndex, times(1)).remove(1L);
     }
 
     @Test
@@ -165,4 +271,74 @@ class ProductServiceTest {
         assertEquals(productDTO.getName(), result.get(0).getName());
         verify(productRepository, times(1)).findByNameContainingIgnoreCase("Notebook");
     }
-}
\ No newline at end of file
+
+    @Test
+    void searchProducts_ShouldReturnProductsInIndexRankOrder() {
+        // Given
+        Product mouse = new Product("Mouse", new BigDecimal("50.00"), "Mouse sem fio");
+        mouse.setId(2L);
+        when(searchIndex.search("note", 10)).thenReturn(Arrays.asList(2L, 1L));
+        when(productRepository.findAllById(Arrays.asList(2L, 1L))).thenReturn(Arrays.asList(product, mouse));
+
+        // When
+        List<ProductDTO> result = productService.searchProducts("note", 10);
+
+        // Then
+        assertEquals(2, result.size());
+        assertEquals(2L, result.get(0).getId());
+        assertEquals(1L, result.get(1).getId());
+    }
+
+    @Test
+    void searchProducts_WhenIndexHasNoMatches_ShouldNotQueryRepository() {
+        // Given
+        when(searchIndex.search("inexistente", 10)).thenReturn(List.of());
+
+        // When
+        List<ProductDTO> result = productService.searchProducts("inexistente", 10);
+
+        // Then
+        assertTrue(result.isEmpty());
+        verify(productRepository, never()).findAllById(any());
+    }
+
+    @Test
+    void getProductsByPriceRange_ShouldUsePriceIndexInPriceOrder() {
+        // Given
+        Product mouse = new Product("Mouse", new BigDecimal("50.00"), "Mouse sem fio");
+        mouse.setId(2L);
+        when(priceIndex.range(5000L, 300000L, CursorPage.LEGACY_LIMIT)).thenReturn(Arrays.asList(2L, 1L));
+        when(productRepository.findAllById(Arrays.asList(2L, 1L))).thenReturn(Arrays.asList(product, mouse));
+
+        // When
+        List<ProductDTO> result = productService.getProductsByPriceRange(new BigDecimal("50"), new BigDecimal("3000"));
+
+        // Then
+        assertEquals(2, result.size());
+        assertEquals("Mouse", result.get(0).getName());
+        verify(productRepository, never()).findByPriceBetween(any(), any());
+    }
+
+    @Test
+    void getProductsByPriceRangePage_ShouldContinueFromTheCursorPriceAndId() {
+        // Given
+        Product mouse = new Product("Mouse", new BigDecimal("50.00"), "Mouse sem fio");
+        mouse.setId(2L);
+        when(priceIndex.range(5000L, 300000L, 2)).thenReturn(Arrays.asList(2L, 1L));
+        when(productRepository.findAllById(Arrays.asList(2L, 1L))).thenReturn(Arrays.asList(product, mouse));
+        when(priceIndex.range(5000L, 300000L, 5000L, 2L, 2)).thenReturn(Arrays.asList(1L));
+        when(productRepository.findAllById(Arrays.asList(1L))).thenReturn(Arrays.asList(product));
+
+        // When
+        CursorPage<ProductDTO> first = productService.getProductsByPriceRangePage(
+                new BigDecimal("50"), new BigDecimal("3000"), null, 1);
+        CursorPage<ProductDTO> second = productService.getProductsByPriceRangePage(
+                new BigDecimal("50"), new BigDecimal("3000"), first.getNextCursor(), 1);
+
+        // Then
+        assertEquals("Mouse", first.getItems().get(0).getName());
+        assertTrue(first.isHasMore());
+        assertEquals("Notebook", second.getItems().get(0).getName());
+        assertFalse(second.isHasMore());
+    }
+}
@@ -1,7 +1,9 @@
 package com.ecommerce.catalog.service;
 
+import com.ecommerce.catalog.cache.VersionStamps;
 import com.ecommerce.catalog.dto.UserDTO;
 import com.ecommerce.catalog.entity.User;
+import com.ecommerce.catalog.repository.OrderViewRepository;
 import com.ecommerce.catalog.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -9,6 +11,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
 
 import java.util.Arrays;
 import java.util.List;
@@ -25,6 +28,12 @@ class UserServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private OrderViewRepository orderViewRepository;
+
+    @Mock
+    private VersionStamps versionStamps;
+
     @InjectMocks
     private UserService userService;
 
@@ -44,7 +53,7 @@ class UserServiceTest {
     void getAllUsers_ShouldReturnListOfUserDTOs() {
         // Given
         List<User> users = Arrays.asList(user);
-        when(userRepository.findAll()).thenReturn(users);
+        when(userRepository.findAllBy(any(Pageable.class))).thenReturn(users);
 
         // When
         List<UserDTO> result = userService.getAllUsers();
@@ -54,7 +63,7 @@ class UserServiceTest {
         assertEquals(1, result.size());
         assertEquals(userDTO.getName(), result.get(0).getName());
         assertEquals(userDTO.getEmail(), result.get(0).getEmail());
-        verify(userRepository, times(1)).findAll();
+        verify(userRepository, times(1)).findAllBy(any(Pageable.class));
     }
 
     @Test
@@ -123,6 +132,7 @@ class UserServiceTest {
         assertEquals(updatedDTO.getEmail(), result.get().getEmail());
         verify(userRepository, times(1)).findById(1L);
         verify(userRepository, times(1)).save(any(User.class));
+        verify(orderViewRepository, times(1)).updateUserName(1L, "João Santos");
     }
 
     @Test
@@ -137,6 +147,7 @@ class UserServiceTest {
         assertTrue(result);
         verify(userRepository, times(1)).existsById(1L);
         verify(userRepository, times(1)).deleteById(1L);
+        verify(orderViewRepository, times(1)).deleteByUser(1L);
     }
 
     @Test